@@ -0,0 +1,24 @@
+package com.uber.api.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs JMH with results written as JSON to {@code jmh-result-<version>.json} unless {@code -rf}/{@code -rff}
+ * are given, so runs of different versions can be kept side by side and compared.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf") && !jmhArgs.contains("-rff")) {
+            String version = BenchmarkMain.class.getPackage().getImplementationVersion();
+            jmhArgs.addAll(List.of("-rf", "json", "-rff", "jmh-result-" + (version != null ? version : "dev") + ".json"));
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,58 @@
+package com.uber.api.benchmarks;
+
+import com.uber.api.driver.service.entity.Driver;
+import com.uber.api.driver.service.matching.DriverRanking;
+import com.uber.api.shared.constants.DriverStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Driver to pickup distance, and ordering the available drivers of a city by it with {@link DriverRanking}
+ * as {@code findAndAtomicallyAssignDriver} does before trying them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriverMatchingBenchmark {
+
+    private static final double PICKUP_LAT = 40.7128;
+    private static final double PICKUP_LNG = -74.0060;
+
+    @Param({"10", "100", "1000"})
+    public int candidates;
+
+    private List<Driver> drivers;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        drivers = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            drivers.add(Driver.builder()
+                    .email("driver" + i + "@example.com")
+                    .status(DriverStatus.AVAILABLE)
+                    .currentLatitude(PICKUP_LAT + random.nextDouble(-0.2, 0.2))
+                    .currentLongitude(PICKUP_LNG + random.nextDouble(-0.2, 0.2))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public double distanceToLocation() {
+        Driver driver = drivers.get(next++ % candidates);
+        return driver.distanceToLocation(PICKUP_LAT, PICKUP_LNG);
+    }
+
+    @Benchmark
+    public List<Driver> sortCandidates() {
+        return DriverRanking.nearestFirst(drivers, PICKUP_LAT, PICKUP_LNG);
+    }
+}
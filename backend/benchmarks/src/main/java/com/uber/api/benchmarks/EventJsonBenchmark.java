@@ -0,0 +1,84 @@
+package com.uber.api.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.api.shared.constants.DriverStatus;
+import com.uber.api.shared.constants.PaymentStatus;
+import com.uber.api.shared.entities.Location;
+import com.uber.api.shared.events.*;
+import com.uber.api.shared.money.Money;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing each saga event to its outbox payload and reading it back in the listener, with the
+ * ObjectMapper Spring Boot configures.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventJsonBenchmark {
+
+    @Param({"PaymentRequestEvent", "PaymentResponseEvent", "PaymentRefundEvent", "PaymentHoldEvent",
+            "DriverRequestEvent", "DriverResponseEvent", "DriverCompletionEvent"})
+    public String event;
+
+    private ObjectMapper objectMapper;
+    private Object value;
+    private Class<?> type;
+    private String json;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        value = events().get(event);
+        type = value.getClass();
+        json = objectMapper.writeValueAsString(value);
+    }
+
+    @Benchmark
+    public String serialize() throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return objectMapper.readValue(json, type);
+    }
+
+    private static Map<String, Object> events() {
+        UUID sagaId = UUID.randomUUID();
+        UUID rideId = UUID.randomUUID();
+        String customer = "rider42@example.com";
+        String driver = "driver7@example.com";
+        Money amount = Money.ofMinor(2345);
+        Location pickup = Location.builder().latitude(40.7128).longitude(-74.0060)
+                .address("1 Centre St").city("New York").build();
+        Location destination = Location.builder().latitude(40.7306).longitude(-73.9866)
+                .address("100 E 14th St").city("New York").build();
+
+        return Map.of(
+                "PaymentRequestEvent", PaymentRequestEvent.builder().sagaId(sagaId).rideRequestId(rideId)
+                        .customerEmail(customer).amount(amount).description("Ride payment")
+                        .pickupLocation(pickup).destinationLocation(destination).build(),
+                "PaymentResponseEvent", PaymentResponseEvent.builder().sagaId(sagaId).rideRequestId(rideId)
+                        .customerEmail(customer).amount(amount).status(PaymentStatus.COMPLETED).build(),
+                "PaymentRefundEvent", PaymentRefundEvent.builder().sagaId(sagaId).rideRequestId(rideId)
+                        .customerEmail(customer).amount(amount).reason("CANCELLED").build(),
+                "PaymentHoldEvent", PaymentHoldEvent.builder().rideRequestId(rideId)
+                        .customerEmail(customer).action("CAPTURE").amount(amount).build(),
+                "DriverRequestEvent", DriverRequestEvent.builder().sagaId(sagaId).rideRequestId(rideId)
+                        .customerEmail(customer).pickupLocation(pickup).destinationLocation(destination)
+                        .estimatedPrice(amount).build(),
+                "DriverResponseEvent", DriverResponseEvent.builder().sagaId(sagaId).rideRequestId(rideId)
+                        .driverEmail(driver).status(DriverStatus.BUSY).accepted(true).build(),
+                "DriverCompletionEvent", DriverCompletionEvent.builder().driverEmail(driver).rideRequestId(rideId)
+                        .customerEmail(customer).status("COMPLETED").build());
+    }
+}
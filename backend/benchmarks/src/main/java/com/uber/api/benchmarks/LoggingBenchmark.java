@@ -0,0 +1,128 @@
+package com.uber.api.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.uber.api.shared.logging.SamplingTurboFilter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The logging a payment request listener does per event, from several threads into a file. {@code pattern}
+ * is the default setup (payload formatted into an INFO line, synchronous appender); {@code structured} is
+ * the prod profile (ids as ECS fields, async appender) and {@code sampled} adds the hot-path sampling at its
+ * default 50 events a second per logger. Async throughput is the callers' side only: once the queue fills,
+ * neverBlock discards INFO events rather than slowing them down.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String PAYLOAD = "{\"sagaId\":\"0b6c1e4e-6f0e-4d8a-9a51-1f1b1d0f2c3a\","
+            + "\"rideRequestId\":\"5a2d8c3e-7b1f-4c9e-8d2a-3e4f5a6b7c8d\",\"customerEmail\":\"rider42@example.com\","
+            + "\"amount\":23.45,\"pickupLocation\":{\"latitude\":40.7128,\"longitude\":-74.006},"
+            + "\"destinationLocation\":{\"latitude\":40.7306,\"longitude\":-73.9866},\"paymentType\":\"DEBIT\"}";
+
+    @Param({"pattern", "structured", "sampled"})
+    public String mode;
+
+    private LoggerContext context;
+    private Logger log;
+    private File file;
+    private final UUID rideId = UUID.randomUUID();
+    private final UUID sagaId = UUID.randomUUID();
+
+    @Setup
+    public void setUp() throws IOException {
+        file = File.createTempFile("logging-benchmark", ".log");
+        context = new LoggerContext();
+        context.putObject(Environment.class.getName(), new StandardEnvironment());
+
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setFile(file.getAbsolutePath());
+        fileAppender.setEncoder("pattern".equals(mode) ? patternEncoder() : structuredEncoder());
+        fileAppender.start();
+
+        Appender<ILoggingEvent> appender = fileAppender;
+        if (!"pattern".equals(mode)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(fileAppender);
+            async.start();
+            appender = async;
+        }
+        if ("sampled".equals(mode)) {
+            SamplingTurboFilter sampling = new SamplingTurboFilter();
+            sampling.setContext(context);
+            sampling.setEnabled(true);
+            sampling.setLoggers("com.uber.api.payment.service.messaging");
+            sampling.setPermitsPerSecond(50);
+            sampling.setBurst(100);
+            sampling.start();
+            context.addTurboFilter(sampling);
+        }
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        log = context.getLogger("com.uber.api.payment.service.messaging.PaymentRequestListener");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+        file.delete();
+    }
+
+    @Benchmark
+    public void handleEvent() {
+        if ("pattern".equals(mode)) {
+            log.info("Received payment request: {}", PAYLOAD);
+            log.info("Payment processed with status: {}", "COMPLETED");
+        } else {
+            log.debug("Received payment request: {}", PAYLOAD);
+            log.atInfo().addKeyValue("rideId", rideId)
+                    .addKeyValue("sagaId", sagaId)
+                    .log("Received payment request");
+            log.info("Payment processed with status: {}", "COMPLETED");
+        }
+    }
+
+    private Encoder<ILoggingEvent> patternEncoder() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n");
+        encoder.start();
+        return encoder;
+    }
+
+    private Encoder<ILoggingEvent> structuredEncoder() {
+        StructuredLogEncoder encoder = new StructuredLogEncoder();
+        encoder.setContext(context);
+        encoder.setFormat("ecs");
+        encoder.start();
+        return encoder;
+    }
+}
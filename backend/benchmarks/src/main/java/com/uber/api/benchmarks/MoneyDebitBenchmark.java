@@ -0,0 +1,89 @@
+package com.uber.api.benchmarks;
+
+import com.uber.api.payment.service.entity.Balance;
+import com.uber.api.shared.entities.RideRequest;
+import com.uber.api.shared.money.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price a ride, check the balance and debit it, as the payment path does per request: the former
+ * BigDecimal arithmetic (double-derived price, compare, subtract, scale to ledger cents) against Money
+ * priced by {@link RideRequest#priceForDistance}, and the entity's own check-and-deduct,
+ * {@link Balance#deductAmount}.
+ * Run with {@code -prof gc} for the allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyDebitBenchmark {
+
+    private static final BigDecimal INITIAL_DECIMAL = BigDecimal.valueOf(100.00);
+    private static final Money INITIAL_MONEY = Money.ofMinor(10_000);
+
+    private final double[] distances = new double[1024];
+    private int next;
+
+    private BigDecimal decimalBalance;
+    private Money moneyBalance;
+    private Balance balance;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = random.nextDouble(0.5, 25.0);
+        }
+        decimalBalance = INITIAL_DECIMAL;
+        moneyBalance = INITIAL_MONEY;
+        balance = Balance.builder().customerEmail("rider42@example.com").amount(INITIAL_MONEY).build();
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole bh) {
+        double distance = distances[next++ & (distances.length - 1)];
+        BigDecimal price = BigDecimal.valueOf(5.0 + (distance * 2.0));
+
+        if (decimalBalance.compareTo(price) >= 0) {
+            decimalBalance = decimalBalance.subtract(price);
+        } else {
+            decimalBalance = INITIAL_DECIMAL;
+        }
+        // Ledger and velocity bookkeeping need whole cents
+        bh.consume(price.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact());
+    }
+
+    @Benchmark
+    public void money(Blackhole bh) {
+        double distance = distances[next++ & (distances.length - 1)];
+        Money price = RideRequest.priceForDistance(distance);
+
+        if (moneyBalance.isGreaterThanOrEqual(price)) {
+            moneyBalance = moneyBalance.minus(price);
+        } else {
+            moneyBalance = INITIAL_MONEY;
+        }
+        bh.consume(price.getMinorUnits());
+    }
+
+    @Benchmark
+    public void balanceDeduct(Blackhole bh) {
+        double distance = distances[next++ & (distances.length - 1)];
+        Money price = RideRequest.priceForDistance(distance);
+
+        if (balance.hasSufficientBalance(price)) {
+            balance.deductAmount(price);
+        } else {
+            balance.setAmount(INITIAL_MONEY);
+        }
+        bh.consume(balance.getAmount());
+    }
+}
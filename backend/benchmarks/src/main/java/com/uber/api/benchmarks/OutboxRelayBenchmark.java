@@ -0,0 +1,118 @@
+package com.uber.api.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import com.uber.api.payment.service.entity.PaymentOutbox;
+import com.uber.api.payment.service.repository.PaymentOutboxRepository;
+import com.uber.api.payment.service.scheduler.PaymentOutboxScheduler;
+import com.uber.api.shared.latency.StageLatencyTracker;
+import com.uber.api.shared.metrics.OutboxMetrics;
+import com.uber.api.shared.outbox.OutboxHeaders;
+import com.uber.api.shared.outbox.OutboxStatus;
+import com.uber.api.shared.tracing.MessageTracing;
+import com.uber.api.shared.transport.KafkaEventTransport;
+import com.uber.api.shared.transport.MessageContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pass of the payment outbox relay over a batch of pending rows: headers decoded and stamped, a
+ * record per row through KafkaEventTransport to a KafkaTemplate over Kafka's MockProducer, and the
+ * row marked sent. The repository is a stub that hands back the same rows, so the database is left out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutboxRelayBenchmark {
+
+    private static final String PAYLOAD = "{\"sagaId\":\"0b6c1e4e-6f0e-4d8a-9a51-1f1b1d0f2c3a\","
+            + "\"rideRequestId\":\"5a2d8c3e-7b1f-4c9e-8d2a-3e4f5a6b7c8d\",\"customerEmail\":\"rider42@example.com\","
+            + "\"amount\":23.45,\"status\":\"COMPLETED\"}";
+
+    @Param({"1", "100"})
+    public int batch;
+
+    private PaymentOutboxScheduler relay;
+    private MockProducer<String, String> producer;
+
+    @Setup
+    public void setUp() {
+        // Without a logback config everything logs at DEBUG, and the relay logs each row at INFO; console
+        // output would be most of what is measured
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StageLatencyTracker stageLatencyTracker = new StageLatencyTracker(meterRegistry, true, 50, 6);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        MessageTracing messageTracing = new MessageTracing(beans.getBeanProvider(Tracer.class),
+                beans.getBeanProvider(Propagator.class));
+
+        // The template closes its producer after each send; this one is shared by every send
+        producer = new MockProducer<>(true, new StringSerializer(), new StringSerializer()) {
+            @Override
+            public void close(Duration timeout) {
+            }
+        };
+        KafkaTemplate<String, String> kafkaTemplate = new KafkaTemplate<>(() -> producer);
+
+        String headers = MessageContext.encode(Map.of(
+                StageLatencyTracker.CITY_HEADER, "New York",
+                StageLatencyTracker.STAGES_HEADER, "RIDE_CREATED=" + System.currentTimeMillis() * 1000));
+        List<PaymentOutbox> pending = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) {
+            pending.add(PaymentOutbox.builder()
+                    .id(UUID.randomUUID())
+                    .sagaId(UUID.randomUUID())
+                    .eventType(i % 2 == 0 ? "payment-responses" : "driver-requests")
+                    .payload(PAYLOAD)
+                    .headers(headers)
+                    .status(OutboxStatus.PENDING)
+                    .createdAt(ZonedDateTime.now())
+                    .build());
+        }
+
+        relay = new PaymentOutboxScheduler(repository(pending), new KafkaEventTransport(kafkaTemplate),
+                new OutboxHeaders(stageLatencyTracker, messageTracing), new OutboxMetrics(meterRegistry));
+
+        relay.processOutboxEvents();
+        if (producer.history().size() != batch || pending.stream().anyMatch(row -> row.getStatus() != OutboxStatus.SENT)) {
+            throw new IllegalStateException("Relay did not send the batch");
+        }
+        producer.clear();
+    }
+
+    @Benchmark
+    public void relayBatch() {
+        relay.processOutboxEvents();
+        // MockProducer keeps every record it was sent
+        producer.clear();
+    }
+
+    private static PaymentOutboxRepository repository(List<PaymentOutbox> pending) {
+        return (PaymentOutboxRepository) Proxy.newProxyInstance(PaymentOutboxRepository.class.getClassLoader(),
+                new Class<?>[]{PaymentOutboxRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByStatusOrderByCreatedAt" -> pending;
+                    case "save" -> args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
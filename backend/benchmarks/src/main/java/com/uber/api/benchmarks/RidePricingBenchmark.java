@@ -0,0 +1,54 @@
+package com.uber.api.benchmarks;
+
+import com.uber.api.shared.entities.Location;
+import com.uber.api.shared.entities.RideRequest;
+import com.uber.api.shared.money.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trip distance and the price estimate a ride request is created with, over rides spread across a city.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RidePricingBenchmark {
+
+    private final RideRequest[] rides = new RideRequest[1024];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < rides.length; i++) {
+            rides[i] = RideRequest.builder()
+                    .pickupLocation(location(random))
+                    .destinationLocation(location(random))
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public double distanceTo() {
+        RideRequest ride = rides[next++ & (rides.length - 1)];
+        return ride.getPickupLocation().distanceTo(ride.getDestinationLocation());
+    }
+
+    @Benchmark
+    public Money calculateEstimatedPrice() {
+        return rides[next++ & (rides.length - 1)].calculateEstimatedPrice();
+    }
+
+    private static Location location(SplittableRandom random) {
+        return Location.builder()
+                .latitude(40.7128 + random.nextDouble(-0.15, 0.15))
+                .longitude(-74.0060 + random.nextDouble(-0.15, 0.15))
+                .city("New York")
+                .build();
+    }
+}
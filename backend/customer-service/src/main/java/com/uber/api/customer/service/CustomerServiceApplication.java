@@ -1,8 +1,8 @@
 package com.uber.api.customer.service;
 
-import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
@@ -21,7 +21,13 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableScheduling
 public class CustomerServiceApplication {
 
+	// Settings live in customer-service.yml rather than application.yml, so a JVM hosting several services
+	// (single-node, load-test) still loads each service's own file
+	public static final String CONFIG_NAME = "customer-service";
+
 	public static void main(String[] args) {
-		SpringApplication.run(CustomerServiceApplication.class, args);
+		new SpringApplicationBuilder(CustomerServiceApplication.class)
+				.properties("spring.config.name=" + CONFIG_NAME)
+				.run(args);
 	}
 }
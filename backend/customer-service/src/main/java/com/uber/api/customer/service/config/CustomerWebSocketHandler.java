@@ -30,7 +30,7 @@ public class CustomerWebSocketHandler extends TextWebSocketHandler {
 
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
-        log.info("Received WebSocket message: {}", message.getPayload());
+        log.debug("Received WebSocket message: {}", message.getPayload());
         // Handle incoming messages if needed
     }
 
@@ -39,7 +39,7 @@ public class CustomerWebSocketHandler extends TextWebSocketHandler {
         if (session != null && session.isOpen()) {
             try {
                 session.sendMessage(new TextMessage(message));
-                log.info("Sent WebSocket message to customer {}: {}", customerEmail, message);
+                log.debug("Sent WebSocket message to customer {}: {}", customerEmail, message);
             } catch (Exception e) {
                 log.error("Error sending WebSocket message to customer: {}", customerEmail, e);
             }
@@ -0,0 +1,16 @@
+package com.uber.api.customer.service.config;
+
+import com.uber.api.customer.service.saga.RideSagaState;
+import com.uber.api.shared.saga.SagaInstanceRepository;
+import com.uber.api.shared.saga.SagaOrchestrator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SagaConfig {
+
+    @Bean
+    public SagaOrchestrator<RideSagaState> rideSaga(SagaInstanceRepository sagaInstanceRepository) {
+        return new SagaOrchestrator<>(RideSagaState.DEFINITION, sagaInstanceRepository);
+    }
+}
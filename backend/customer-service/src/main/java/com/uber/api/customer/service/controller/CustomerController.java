@@ -3,13 +3,17 @@ package com.uber.api.customer.service.controller;
 import com.uber.api.customer.service.dto.CallTaxiRequest;
 import com.uber.api.customer.service.dto.RideStatusResponse;
 import com.uber.api.customer.service.service.CustomerDomainService;
+import com.uber.api.customer.service.saga.RideSagaState;
 import com.uber.api.customer.service.service.RideMatchingService;
+import com.uber.api.shared.saga.SagaOrchestrator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.util.UUID;
 
 @Slf4j
 @RestController
@@ -20,6 +24,7 @@ public class CustomerController {
 
     private final CustomerDomainService customerDomainService;
     private final RideMatchingService rideMatchingService;
+    private final SagaOrchestrator<RideSagaState> rideSaga;
 
     @PostMapping("/call")
     public ResponseEntity<RideStatusResponse> callTaxi(@Valid @RequestBody CallTaxiRequest request) {
@@ -66,6 +71,10 @@ public class CustomerController {
             customerDomainService.startRide(customerEmail);
             return ResponseEntity.ok("Ride started successfully");
 
+        } catch (IllegalStateException e) {
+            log.warn("Conflict starting ride for customer: {}: {}", customerEmail, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Failed to start ride: " + e.getMessage());
+
         } catch (Exception e) {
             log.error("Error starting ride for customer: {}", customerEmail, e);
             return ResponseEntity.badRequest().body("Failed to start ride: " + e.getMessage());
@@ -80,6 +89,10 @@ public class CustomerController {
             customerDomainService.completeRide(customerEmail);
             return ResponseEntity.ok("Ride completed successfully");
 
+        } catch (IllegalStateException e) {
+            log.warn("Conflict completing ride for customer: {}: {}", customerEmail, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Failed to complete ride: " + e.getMessage());
+
         } catch (Exception e) {
             log.error("Error completing ride for customer: {}", customerEmail, e);
             return ResponseEntity.badRequest().body("Failed to complete ride: " + e.getMessage());
@@ -94,12 +107,21 @@ public class CustomerController {
             customerDomainService.cancelRide(customerEmail);
             return ResponseEntity.ok("Ride cancelled successfully");
 
+        } catch (IllegalStateException e) {
+            log.warn("Conflict cancelling ride for customer: {}: {}", customerEmail, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Failed to cancel ride: " + e.getMessage());
+
         } catch (Exception e) {
             log.error("Error cancelling ride for customer: {}", customerEmail, e);
             return ResponseEntity.badRequest().body("Failed to cancel ride: " + e.getMessage());
         }
     }
 
+    @GetMapping("/saga/{rideRequestId}")
+    public ResponseEntity<RideSagaState> getSagaState(@PathVariable UUID rideRequestId) {
+        return ResponseEntity.of(rideSaga.currentState(rideRequestId));
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Customer Service is healthy");
@@ -1,12 +1,12 @@
 package com.uber.api.customer.service.dto;
 
 import com.uber.api.shared.constants.RideStatus;
+import com.uber.api.shared.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.UUID;
 
@@ -20,8 +20,8 @@ public class RideStatusResponse {
     private RideStatus status;
     private String customerEmail;
     private String driverEmail;
-    private BigDecimal estimatedPrice;
-    private BigDecimal finalPrice;
+    private Money estimatedPrice;
+    private Money finalPrice;
     private ZonedDateTime createdAt;
     private String statusMessage;
 }
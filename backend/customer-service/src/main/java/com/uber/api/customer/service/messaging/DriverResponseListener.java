@@ -3,17 +3,29 @@ package com.uber.api.customer.service.messaging;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uber.api.customer.service.repository.RideRequestRepository;
 import com.uber.api.customer.service.repository.CustomerRepository;
+import com.uber.api.customer.service.saga.RideCompensations;
+import com.uber.api.customer.service.saga.RideSagaState;
+import com.uber.api.customer.service.timeout.RideTimeoutManager;
 import com.uber.api.shared.constants.CustomerStatus;
 import com.uber.api.shared.constants.RideStatus;
 import com.uber.api.shared.entities.RideRequest;
 import com.uber.api.shared.events.DriverResponseEvent;
+import com.uber.api.shared.idempotency.IdempotentConsumer;
+import com.uber.api.shared.latency.SagaStage;
+import com.uber.api.shared.latency.StageLatencyTracker;
+import com.uber.api.shared.metrics.ListenerMetrics;
+import com.uber.api.shared.saga.SagaOrchestrator;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.ZonedDateTime;
 
 @Slf4j
 @Component
@@ -23,7 +35,15 @@ public class DriverResponseListener {
     private final RideRequestRepository rideRequestRepository;
     private final CustomerRepository customerRepository;
     private final ObjectMapper objectMapper;
+    private final IdempotentConsumer idempotentConsumer;
+    private final MeterRegistry meterRegistry;
+    private final SagaOrchestrator<RideSagaState> rideSaga;
+    private final RideCompensations rideCompensations;
+    private final RideTimeoutManager rideTimeouts;
+    private final StageLatencyTracker stageLatencyTracker;
 
+    @Value("${uber.saga.speculative-reservation.enabled:false}")
+    private boolean speculativeReservationEnabled;
 
     @PostConstruct
     public void init() {
@@ -33,17 +53,35 @@ public class DriverResponseListener {
     @KafkaListener(topics = "driver-responses", groupId = "customer-driver-response-group")
     @Transactional
     public void handleDriverResponse(String message) {
-        log.info("🔄 RECEIVED DRIVER RESPONSE: {}", message);
+        log.debug("Received driver response: {}", message);
 
         try {
             DriverResponseEvent driverResponse = objectMapper.readValue(message, DriverResponseEvent.class);
-            log.info("📋 Parsed driver response: accepted={}, driverEmail={}, rideId={}",
-                    driverResponse.isAccepted(), driverResponse.getDriverEmail(), driverResponse.getRideRequestId());
+
+            if (!idempotentConsumer.tryAcquire("driver-responses", driverResponse.getSagaId())) {
+                log.info("Skipping duplicate driver response for saga: {}", driverResponse.getSagaId());
+                return;
+            }
+            log.atInfo().addKeyValue("rideId", driverResponse.getRideRequestId())
+                    .addKeyValue("sagaId", driverResponse.getSagaId())
+                    .addKeyValue("accepted", driverResponse.isAccepted())
+                    .log("📋 Received driver response");
 
             // Find the ride request
             RideRequest rideRequest = rideRequestRepository.findById(driverResponse.getRideRequestId())
                     .orElseThrow(() -> new RuntimeException("Ride request not found: " + driverResponse.getRideRequestId()));
 
+            RideSagaState next = driverResponse.isAccepted() ? RideSagaState.DRIVER_ASSIGNED : RideSagaState.NO_DRIVER;
+            if (!rideSaga.transition(driverResponse.getRideRequestId(), next)) {
+                log.warn("⏭️ Ignoring driver response for ride {} that is no longer searching", driverResponse.getRideRequestId());
+                // The driver already took the ride on their side; let them go
+                if (driverResponse.isAccepted() && !driverResponse.getDriverEmail().equals(rideRequest.getDriverEmail())) {
+                    rideCompensations.releaseDriver(rideRequest, driverResponse.getDriverEmail(), rideRequest.getStatus().name());
+                }
+                return;
+            }
+            rideTimeouts.untrack(rideRequest.getId());
+
             if (driverResponse.isAccepted()) {
                 // Driver accepted the ride
                 log.info("✅ Driver {} accepted ride request: {}", driverResponse.getDriverEmail(), driverResponse.getRideRequestId());
@@ -53,12 +91,19 @@ public class DriverResponseListener {
                 rideRequestRepository.save(rideRequest);
                 log.info("💾 Updated ride request status to DRIVER_ASSIGNED for: {}", driverResponse.getRideRequestId());
 
+                if (rideRequest.getCreatedAt() != null) {
+                    meterRegistry.timer("ride.time.to.assign",
+                                    "mode", speculativeReservationEnabled ? "speculative" : "sequential")
+                            .record(Duration.between(rideRequest.getCreatedAt(), ZonedDateTime.now()));
+                }
+
                 // Update customer status
                 customerRepository.findByEmail(rideRequest.getCustomerEmail()).ifPresent(customer -> {
                     customer.setStatus(CustomerStatus.ON_RIDE);
                     customerRepository.save(customer);
                     log.info("👤 Updated customer {} status to ON_RIDE", customer.getEmail());
                 });
+                stageLatencyTracker.stamp(SagaStage.CUSTOMER_NOTIFIED);
 
 
             } else {
@@ -81,6 +126,7 @@ public class DriverResponseListener {
 
         } catch (Exception e) {
             log.error("❌ Error processing driver response: {}", message, e);
+            ListenerMetrics.markFailed();
         }
     }
 }
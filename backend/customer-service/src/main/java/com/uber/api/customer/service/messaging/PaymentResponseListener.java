@@ -3,10 +3,13 @@ package com.uber.api.customer.service.messaging;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uber.api.customer.service.saga.CustomerPaymentSaga;
 import com.uber.api.shared.events.PaymentResponseEvent;
+import com.uber.api.shared.idempotency.IdempotentConsumer;
+import com.uber.api.shared.metrics.ListenerMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Component
@@ -15,13 +18,23 @@ public class PaymentResponseListener {
 
     private final CustomerPaymentSaga customerPaymentSaga;
     private final ObjectMapper objectMapper;
+    private final IdempotentConsumer idempotentConsumer;
 
     @KafkaListener(topics = "payment-responses", groupId = "customer-payment-response-group")
+    @Transactional
     public void handlePaymentResponse(String message) {
-        log.info("Received payment response: {}", message);
+        log.debug("Received payment response: {}", message);
 
         try {
             PaymentResponseEvent paymentResponse = objectMapper.readValue(message, PaymentResponseEvent.class);
+            log.atInfo().addKeyValue("rideId", paymentResponse.getRideRequestId())
+                    .addKeyValue("sagaId", paymentResponse.getSagaId())
+                    .log("Received payment response");
+
+            if (!idempotentConsumer.tryAcquire("payment-responses", paymentResponse.getSagaId())) {
+                log.info("Skipping duplicate payment response for saga: {}", paymentResponse.getSagaId());
+                return;
+            }
 
             // Process through SAGA
             customerPaymentSaga.process(paymentResponse);
@@ -30,6 +43,7 @@ public class PaymentResponseListener {
 
         } catch (Exception e) {
             log.error("Error processing payment response: {}", message, e);
+            ListenerMetrics.markFailed();
         }
     }
 }
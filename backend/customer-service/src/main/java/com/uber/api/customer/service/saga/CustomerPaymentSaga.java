@@ -6,13 +6,16 @@ import com.uber.api.customer.service.entity.CustomerOutbox;
 import com.uber.api.customer.service.repository.CustomerOutboxRepository;
 import com.uber.api.customer.service.repository.CustomerRepository;
 import com.uber.api.customer.service.repository.RideRequestRepository;
+import com.uber.api.customer.service.timeout.RideTimeoutManager;
 import com.uber.api.shared.constants.CustomerStatus;
 import com.uber.api.shared.constants.RideStatus;
 import com.uber.api.shared.entities.RideRequest;
 import com.uber.api.shared.events.DriverRequestEvent;
 import com.uber.api.shared.events.PaymentRequestEvent;
 import com.uber.api.shared.events.PaymentResponseEvent;
+import com.uber.api.shared.outbox.OutboxHeaders;
 import com.uber.api.shared.outbox.OutboxStatus;
+import com.uber.api.shared.saga.SagaOrchestrator;
 import com.uber.api.shared.saga.SagaStatus;
 import com.uber.api.shared.saga.SagaStep;
 import lombok.RequiredArgsConstructor;
@@ -32,6 +35,10 @@ public class CustomerPaymentSaga implements SagaStep<PaymentResponseEvent> {
     private final CustomerRepository customerRepository;
     private final CustomerOutboxRepository customerOutboxRepository;
     private final ObjectMapper objectMapper;
+    private final SagaOrchestrator<RideSagaState> rideSaga;
+    private final RideCompensations rideCompensations;
+    private final RideTimeoutManager rideTimeouts;
+    private final OutboxHeaders outboxHeaders;
 
     @Override
     @Transactional
@@ -45,9 +52,20 @@ public class CustomerPaymentSaga implements SagaStep<PaymentResponseEvent> {
             if (paymentResponse.getStatus() == com.uber.api.shared.constants.PaymentStatus.COMPLETED) {
                 log.info("Payment completed successfully for ride request: {}", paymentResponse.getRideRequestId());
 
+                // Cancelled or expired while the payment was in flight: nobody is waiting for a driver any more
+                if (!rideSaga.transition(paymentResponse.getRideRequestId(), RideSagaState.DRIVER_SEARCHING)) {
+                    log.warn("Not requesting a driver for ride request: {}", paymentResponse.getRideRequestId());
+                    if (rideRequest.getStatus() == RideStatus.CANCELLED || rideRequest.getStatus() == RideStatus.EXPIRED) {
+                        rideCompensations.returnPayment(rideRequest, paymentResponse.getSagaId(), true,
+                                "Paid after ride " + rideRequest.getStatus());
+                    }
+                    return;
+                }
+
                 // Update ride status to driver searching
-             
+                rideRequest.setStatus(RideStatus.DRIVER_SEARCHING);
                 rideRequestRepository.save(rideRequest);
+                rideTimeouts.track(rideRequest);
 
                 // Create driver request event
                 DriverRequestEvent driverRequestEvent = DriverRequestEvent.builder()
@@ -82,6 +100,11 @@ public class CustomerPaymentSaga implements SagaStep<PaymentResponseEvent> {
     public void rollback(PaymentResponseEvent paymentResponse) {
         log.info("Rolling back payment for ride request: {}", paymentResponse.getRideRequestId());
 
+        if (!rideSaga.transition(paymentResponse.getRideRequestId(), RideSagaState.PAYMENT_FAILED)) {
+            log.warn("Ride request {} has moved on, leaving it as is", paymentResponse.getRideRequestId());
+            return;
+        }
+
         try {
             // Find the ride request
             RideRequest rideRequest = findRideRequest(paymentResponse.getRideRequestId());
@@ -89,6 +112,7 @@ public class CustomerPaymentSaga implements SagaStep<PaymentResponseEvent> {
             // Update ride status to payment failed
             rideRequest.setStatus(RideStatus.PAYMENT_FAILED);
             rideRequestRepository.save(rideRequest);
+            rideTimeouts.untrack(rideRequest.getId());
 
             // Reset customer status to available
             resetCustomerStatus(paymentResponse.getCustomerEmail());
@@ -125,6 +149,7 @@ public class CustomerPaymentSaga implements SagaStep<PaymentResponseEvent> {
                     .payload(payload)
                     .status(OutboxStatus.PENDING)
                     .sagaStatus(SagaStatus.PROCESSING)
+                    .headers(outboxHeaders.capture(eventType))
                     .createdAt(ZonedDateTime.now())
                     .build();
 
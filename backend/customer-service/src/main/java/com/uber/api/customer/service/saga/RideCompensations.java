@@ -0,0 +1,107 @@
+package com.uber.api.customer.service.saga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.api.customer.service.entity.CustomerOutbox;
+import com.uber.api.customer.service.repository.CustomerOutboxRepository;
+import com.uber.api.shared.entities.RideRequest;
+import com.uber.api.shared.events.DriverCompletionEvent;
+import com.uber.api.shared.events.PaymentHoldEvent;
+import com.uber.api.shared.events.PaymentRefundEvent;
+import com.uber.api.shared.outbox.OutboxHeaders;
+import com.uber.api.shared.outbox.OutboxStatus;
+import com.uber.api.shared.saga.SagaStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Compensating events for rides that ended before the saga did: a payment or driver that arrives for a
+ * ride that was cancelled or expired in the meantime is given back.
+ */
+@Slf4j
+@Component
+public class RideCompensations {
+
+    private final CustomerOutboxRepository customerOutboxRepository;
+    private final ObjectMapper objectMapper;
+    private final OutboxHeaders outboxHeaders;
+    private final boolean authorizationHoldsEnabled;
+    private final boolean speculativeReservationEnabled;
+
+    public RideCompensations(CustomerOutboxRepository customerOutboxRepository,
+                             ObjectMapper objectMapper,
+                             OutboxHeaders outboxHeaders,
+                             @Value("${uber.saga.authorization-holds.enabled:false}") boolean authorizationHoldsEnabled,
+                             @Value("${uber.saga.speculative-reservation.enabled:false}") boolean speculativeReservationEnabled) {
+        this.customerOutboxRepository = customerOutboxRepository;
+        this.objectMapper = objectMapper;
+        this.outboxHeaders = outboxHeaders;
+        this.authorizationHoldsEnabled = authorizationHoldsEnabled;
+        this.speculativeReservationEnabled = speculativeReservationEnabled;
+    }
+
+    /**
+     * Releases the authorization hold, or refunds the estimate when {@code charged} in debit mode. A payment
+     * whose outcome is still unknown is not refunded here; its late response is compensated when it arrives.
+     */
+    public void returnPayment(RideRequest ride, UUID sagaId, boolean charged, String reason) {
+        if (authorizationHoldsEnabled) {
+            save(PaymentHoldEvent.builder()
+                    .rideRequestId(ride.getId())
+                    .customerEmail(ride.getCustomerEmail())
+                    .action("RELEASE")
+                    .build(), UUID.randomUUID(), "payment-hold-updates");
+            log.info("💸 Releasing payment hold for ride: {} ({})", ride.getId(), reason);
+        } else if (charged) {
+            // The ride's saga id makes the refund idempotent on the payment side
+            save(PaymentRefundEvent.builder()
+                    .sagaId(sagaId)
+                    .rideRequestId(ride.getId())
+                    .customerEmail(ride.getCustomerEmail())
+                    .amount(ride.getEstimatedPrice())
+                    .reason(reason)
+                    .build(), sagaId, "payment-refunds");
+            log.info("💸 Refunding {} for ride: {} ({})", ride.getEstimatedPrice(), ride.getId(), reason);
+        }
+    }
+
+    public void releaseDriverHold(RideRequest ride, String reason) {
+        if (!speculativeReservationEnabled) {
+            return;
+        }
+        save(DriverCompletionEvent.builder()
+                .rideRequestId(ride.getId())
+                .customerEmail(ride.getCustomerEmail())
+                .status(reason)
+                .build(), UUID.randomUUID(), "driver-hold-releases");
+    }
+
+    public void releaseDriver(RideRequest ride, String driverEmail, String reason) {
+        save(DriverCompletionEvent.builder()
+                .driverEmail(driverEmail)
+                .rideRequestId(ride.getId())
+                .customerEmail(ride.getCustomerEmail())
+                .status(reason)
+                .build(), UUID.randomUUID(), "driver-completion");
+        log.info("🔄 Releasing driver {} from ride: {} ({})", driverEmail, ride.getId(), reason);
+    }
+
+    private void save(Object event, UUID sagaId, String eventType) {
+        try {
+            customerOutboxRepository.save(CustomerOutbox.builder()
+                    .sagaId(sagaId)
+                    .eventType(eventType)
+                    .payload(objectMapper.writeValueAsString(event))
+                    .status(OutboxStatus.PENDING)
+                    .sagaStatus(SagaStatus.COMPENSATING)
+                    .headers(outboxHeaders.capture(eventType))
+                    .createdAt(ZonedDateTime.now())
+                    .build());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to save compensation to outbox", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.uber.api.customer.service.saga;
+
+import com.uber.api.shared.saga.SagaDefinition;
+
+public enum RideSagaState {
+    PAYMENT_PENDING,
+    DRIVER_SEARCHING,
+    DRIVER_ASSIGNED,
+    RIDE_STARTED,
+    COMPLETED,
+    PAYMENT_FAILED,
+    NO_DRIVER,
+    CANCELLED,
+    EXPIRED;
+
+    public static final SagaDefinition<RideSagaState> DEFINITION =
+            SagaDefinition.builder("ride", RideSagaState.class, PAYMENT_PENDING)
+                    .allow(PAYMENT_PENDING, DRIVER_SEARCHING, PAYMENT_FAILED, CANCELLED, EXPIRED)
+                    .allow(DRIVER_SEARCHING, DRIVER_ASSIGNED, NO_DRIVER, CANCELLED, EXPIRED)
+                    .allow(DRIVER_ASSIGNED, RIDE_STARTED, COMPLETED, CANCELLED)
+                    .allow(RIDE_STARTED, COMPLETED)
+                    .build();
+}
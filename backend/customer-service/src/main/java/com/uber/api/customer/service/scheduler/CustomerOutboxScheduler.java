@@ -2,10 +2,13 @@ package com.uber.api.customer.service.scheduler;
 
 import com.uber.api.customer.service.entity.CustomerOutbox;
 import com.uber.api.customer.service.repository.CustomerOutboxRepository;
+import com.uber.api.shared.jfr.OutboxBatchEvent;
+import com.uber.api.shared.metrics.OutboxMetrics;
+import com.uber.api.shared.outbox.OutboxHeaders;
 import com.uber.api.shared.outbox.OutboxStatus;
+import com.uber.api.shared.transport.EventTransport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,27 +22,38 @@ import java.util.List;
 public class CustomerOutboxScheduler {
 
     private final CustomerOutboxRepository customerOutboxRepository;
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final EventTransport eventTransport;
+    private final OutboxHeaders outboxHeaders;
+    private final OutboxMetrics outboxMetrics;
 
     @Scheduled(fixedDelay = 5000) // Every 5 seconds
     @Transactional
     public void processOutboxEvents() {
         List<CustomerOutbox> pendingEvents = customerOutboxRepository
                 .findByStatusOrderByCreatedAt(OutboxStatus.PENDING);
+        outboxMetrics.observeBacklog("customer_outbox", pendingEvents.size(),
+                pendingEvents.isEmpty() ? null : pendingEvents.get(0).getCreatedAt());
 
         if (!pendingEvents.isEmpty()) {
             log.info("Processing {} customer outbox events", pendingEvents.size());
         }
 
+        OutboxBatchEvent batchEvent = outboxMetrics.startBatch();
+        int sent = 0;
+        long sendNanos = 0;
         for (CustomerOutbox event : pendingEvents) {
             try {
                 // Send to Kafka
-                kafkaTemplate.send(event.getEventType(), event.getSagaId().toString(), event.getPayload());
+                long sendStart = outboxMetrics.startSend();
+                outboxHeaders.publish(event.getEventType(), event.getHeaders(), headers ->
+                        eventTransport.send(event.getEventType(), event.getSagaId().toString(), event.getPayload(), headers));
+                sendNanos += outboxMetrics.recordSend("customer_outbox", event.getEventType(), sendStart);
 
                 // Update status
                 event.setStatus(OutboxStatus.SENT);
                 event.setProcessedAt(ZonedDateTime.now());
                 customerOutboxRepository.save(event);
+                sent++;
 
                 log.info("Successfully sent event {} to topic {}", event.getId(), event.getEventType());
 
@@ -51,5 +65,6 @@ public class CustomerOutboxScheduler {
                 customerOutboxRepository.save(event);
             }
         }
+        outboxMetrics.endBatch(batchEvent, "customer_outbox", pendingEvents.size(), sent, sendNanos);
     }
 }
@@ -8,11 +8,17 @@ import com.uber.api.customer.service.repository.RideRequestRepository;
 import com.uber.api.shared.constants.CustomerStatus;
 import com.uber.api.shared.constants.RideStatus;
 import com.uber.api.shared.entities.RideRequest;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -21,11 +27,26 @@ public class RideMatchingService {
     private final CustomerDomainService customerDomainService;
     private final CustomerRepository customerRepository;
     private final RideRequestRepository rideRequestRepository;
+    private final MeterRegistry meterRegistry;
+
+    private Meter.MeterProvider<Timer> requestTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        requestTimer = Timer.builder("ride.request")
+                .description("Time to accept or reject a ride request, up to starting its saga")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .withRegistry(meterRegistry);
+    }
 
     @Transactional
     public RideStatusResponse requestRide(CallTaxiRequest request) {
         log.info("=== SIMPLE RIDE REQUEST FOR: {} ===", request.getCustomerEmail());
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             // Find or create customer
             Customer customer = findOrCreateCustomer(request.getCustomerEmail());
@@ -38,6 +59,7 @@ public class RideMatchingService {
             if (availableDrivers == 0) {
                 // **NO DRIVERS AVAILABLE - IMMEDIATE RESPONSE**
                 log.warn("🚫 NO DRIVERS AVAILABLE - IMMEDIATE REJECTION for {}", request.getCustomerEmail());
+                outcome = "no_driver";
 
                 return RideStatusResponse.builder()
                         .customerEmail(request.getCustomerEmail())
@@ -58,6 +80,7 @@ public class RideMatchingService {
             // **START SAGA IMMEDIATELY**
             log.info("✅ STARTING SAGA IMMEDIATELY for {}", request.getCustomerEmail());
             customerDomainService.startSagaForRide(savedRideRequest);
+            outcome = "created";
 
             return RideStatusResponse.builder()
                     .rideRequestId(savedRideRequest.getId())
@@ -71,6 +94,8 @@ public class RideMatchingService {
         } catch (Exception e) {
             log.error("❌ ERROR processing ride request for {}: {}", request.getCustomerEmail(), e.getMessage());
             throw new RuntimeException("Failed to process ride request: " + e.getMessage());
+        } finally {
+            sample.stop(requestTimer.withTags("outcome", outcome));
         }
     }
 
@@ -9,17 +9,27 @@ import com.uber.api.customer.service.entity.CustomerOutbox;
 import com.uber.api.customer.service.repository.CustomerOutboxRepository;
 import com.uber.api.customer.service.repository.CustomerRepository;
 import com.uber.api.customer.service.repository.RideRequestRepository;
+import com.uber.api.customer.service.saga.RideSagaState;
 import com.uber.api.customer.service.service.CustomerDomainService;
+import com.uber.api.customer.service.timeout.RideTimeoutManager;
 import com.uber.api.shared.constants.CustomerStatus;
 import com.uber.api.shared.constants.RideStatus;
 import com.uber.api.shared.entities.Location;
 import com.uber.api.shared.entities.RideRequest;
 import com.uber.api.shared.events.DriverCompletionEvent;
+import com.uber.api.shared.events.DriverRequestEvent;
+import com.uber.api.shared.events.PaymentHoldEvent;
 import com.uber.api.shared.events.PaymentRequestEvent;
+import com.uber.api.shared.latency.StageLatencyTracker;
+import com.uber.api.shared.money.Money;
+import com.uber.api.shared.outbox.OutboxHeaders;
 import com.uber.api.shared.outbox.OutboxStatus;
+import com.uber.api.shared.saga.SagaOrchestrator;
 import com.uber.api.shared.saga.SagaStatus;
+import com.uber.api.shared.transport.MessageContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
@@ -37,6 +47,16 @@ public class CustomerDomainServiceImpl implements CustomerDomainService {
     private final CustomerOutboxRepository customerOutboxRepository;
     private final ObjectMapper objectMapper;
     private final RestTemplate restTemplate;
+    private final SagaOrchestrator<RideSagaState> rideSaga;
+    private final RideTimeoutManager rideTimeouts;
+    private final StageLatencyTracker stageLatencyTracker;
+    private final OutboxHeaders outboxHeaders;
+
+    @Value("${uber.saga.speculative-reservation.enabled:false}")
+    private boolean speculativeReservationEnabled;
+
+    @Value("${uber.saga.authorization-holds.enabled:false}")
+    private boolean authorizationHoldsEnabled;
 
     @Override
     @Transactional
@@ -83,11 +103,19 @@ public class CustomerDomainServiceImpl implements CustomerDomainService {
                 .or(() -> rideRequestRepository.findByCustomerEmailAndStatus(customerEmail, RideStatus.DRIVER_ASSIGNED))
                 .orElseThrow(() -> new RuntimeException("No cancellable ride found for customer: " + customerEmail));
 
+        transitionOrConflict(activeRide.getId(), RideSagaState.CANCELLED);
+        rideTimeouts.untrack(activeRide.getId());
+
         // Update ride status to cancelled
         activeRide.setStatus(RideStatus.CANCELLED);
         activeRide.setCompletedAt(ZonedDateTime.now());
         rideRequestRepository.save(activeRide);
 
+        // Nothing was charged yet, so cancelling only gives the authorized amount back
+        if (authorizationHoldsEnabled) {
+            sendHoldUpdate(activeRide, "RELEASE", null);
+        }
+
         // Reset customer status
         resetCustomerToAvailable(customerEmail);
 
@@ -110,9 +138,18 @@ public class CustomerDomainServiceImpl implements CustomerDomainService {
                 .or(() -> rideRequestRepository.findByCustomerEmailAndStatus(customerEmail, RideStatus.DRIVER_ASSIGNED))
                 .orElseThrow(() -> new RuntimeException("No active ride found for customer: " + customerEmail));
 
+        transitionOrConflict(activeRide.getId(), RideSagaState.COMPLETED);
+
         // Update ride status
         activeRide.setStatus(RideStatus.RIDE_COMPLETED);
         activeRide.setCompletedAt(ZonedDateTime.now());
+        if (authorizationHoldsEnabled) {
+            // No trip metering yet, so the estimate is what gets charged
+            if (activeRide.getFinalPrice() == null) {
+                activeRide.setFinalPrice(activeRide.getEstimatedPrice());
+            }
+            sendHoldUpdate(activeRide, "CAPTURE", activeRide.getFinalPrice());
+        }
         rideRequestRepository.save(activeRide);
 
         // Reset customer status
@@ -136,6 +173,7 @@ public class CustomerDomainServiceImpl implements CustomerDomainService {
                 .findByCustomerEmailAndStatus(customerEmail, RideStatus.DRIVER_ASSIGNED)
                 .orElseThrow(() -> new RuntimeException("No assigned ride found for customer: " + customerEmail));
 
+        transitionOrConflict(assignedRide.getId(), RideSagaState.RIDE_STARTED);
         assignedRide.setStatus(RideStatus.RIDE_STARTED);
         rideRequestRepository.save(assignedRide);
 
@@ -149,6 +187,8 @@ public class CustomerDomainServiceImpl implements CustomerDomainService {
 
     @Override
     public void startSagaForRide(RideRequest rideRequest) {
+        Location pickup = rideRequest.getPickupLocation();
+        stageLatencyTracker.beginRide(pickup != null ? pickup.getCity() : null, rideRequest.getCreatedAt());
         try {
             // **SIMPLE SAGA START**
             PaymentRequestEvent paymentRequestEvent = PaymentRequestEvent.builder()
@@ -161,12 +201,30 @@ public class CustomerDomainServiceImpl implements CustomerDomainService {
                     .destinationLocation(rideRequest.getDestinationLocation())
                     .build();
 
+            rideSaga.start(paymentRequestEvent.getSagaId(), rideRequest.getId());
+            rideTimeouts.track(rideRequest);
             saveToOutbox(paymentRequestEvent, paymentRequestEvent.getSagaId(), "payment-requests");
+
+            // Reserve the nearest driver in parallel with payment; the driver request sent after payment confirms it
+            if (speculativeReservationEnabled) {
+                DriverRequestEvent holdRequest = DriverRequestEvent.builder()
+                        .sagaId(paymentRequestEvent.getSagaId())
+                        .rideRequestId(rideRequest.getId())
+                        .customerEmail(rideRequest.getCustomerEmail())
+                        .pickupLocation(rideRequest.getPickupLocation())
+                        .destinationLocation(rideRequest.getDestinationLocation())
+                        .estimatedPrice(rideRequest.getEstimatedPrice())
+                        .build();
+
+                saveToOutbox(holdRequest, paymentRequestEvent.getSagaId(), "driver-holds");
+            }
             log.info("✅ Started SAGA for ride: {}", rideRequest.getId());
 
         } catch (Exception e) {
             log.error("Failed to start SAGA for ride: {}", rideRequest.getId(), e);
             throw new RuntimeException("Failed to start SAGA", e);
+        } finally {
+            MessageContext.close();
         }
     }
 
@@ -186,6 +244,14 @@ public class CustomerDomainServiceImpl implements CustomerDomainService {
 
     // **HELPER METHODS**
 
+    private void transitionOrConflict(UUID rideRequestId, RideSagaState target) {
+        // The ride row can lag the saga (e.g. a timeout expired it); leave both untouched in that case
+        if (!rideSaga.transition(rideRequestId, target)) {
+            throw new IllegalStateException("Ride " + rideRequestId + " cannot move to " + target + " from saga state "
+                    + rideSaga.currentState(rideRequestId).map(Enum::name).orElse("none"));
+        }
+    }
+
     private void releaseDriver(String driverEmail, UUID rideRequestId, String customerEmail, String status) {
         DriverCompletionEvent driverEvent = DriverCompletionEvent.builder()
                 .driverEmail(driverEmail)
@@ -198,6 +264,17 @@ public class CustomerDomainServiceImpl implements CustomerDomainService {
         log.info("🔄 SENT DRIVER RELEASE EVENT for driver: {} status: {}", driverEmail, status);
     }
 
+    private void sendHoldUpdate(RideRequest ride, String action, Money amount) {
+        PaymentHoldEvent holdEvent = PaymentHoldEvent.builder()
+                .rideRequestId(ride.getId())
+                .customerEmail(ride.getCustomerEmail())
+                .action(action)
+                .amount(amount)
+                .build();
+
+        saveToOutbox(holdEvent, UUID.randomUUID(), "payment-hold-updates");
+    }
+
     private void resetCustomerToAvailable(String customerEmail) {
         customerRepository.findByEmail(customerEmail).ifPresent(customer -> {
             customer.setStatus(CustomerStatus.AVAILABLE);
@@ -273,6 +350,7 @@ public class CustomerDomainServiceImpl implements CustomerDomainService {
                     .payload(payload)
                     .status(OutboxStatus.PENDING)
                     .sagaStatus(SagaStatus.STARTED)
+                    .headers(outboxHeaders.capture(eventType))
                     .createdAt(ZonedDateTime.now())
                     .build();
 
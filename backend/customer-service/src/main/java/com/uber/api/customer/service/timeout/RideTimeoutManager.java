@@ -0,0 +1,221 @@
+package com.uber.api.customer.service.timeout;
+
+import com.uber.api.customer.service.repository.CustomerRepository;
+import com.uber.api.customer.service.repository.RideRequestRepository;
+import com.uber.api.customer.service.saga.RideCompensations;
+import com.uber.api.customer.service.saga.RideSagaState;
+import com.uber.api.shared.constants.CustomerStatus;
+import com.uber.api.shared.constants.RideStatus;
+import com.uber.api.shared.entities.RideRequest;
+import com.uber.api.shared.saga.SagaOrchestrator;
+import com.uber.api.shared.timer.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Expires rides that never got past payment or driver search, so a lost event cannot leave the customer
+ * blocked. Each pending ride has one deadline in a timing wheel, measured from its creation: the payment
+ * timeout while it waits for payment, the driver search timeout once paid. The wheel is rebuilt from the
+ * (status, created_at) index at startup; expiring checks the stored status first, so firing for a ride
+ * that has moved on is harmless. The wheel thread only hands due rides to a bounded pool that runs the
+ * expiry transactions; when the pool is full a ride is put back on the wheel for the next tick.
+ */
+@Slf4j
+@Component
+public class RideTimeoutManager {
+
+    private static final Set<RideStatus> PENDING =
+            EnumSet.of(RideStatus.CREATED, RideStatus.PAYMENT_PROCESSING, RideStatus.DRIVER_SEARCHING);
+
+    private static final long TICK_MS = 1000;
+
+    private static final String PENDING_RIDES =
+            "SELECT id, status, created_at FROM ride_requests " +
+            "WHERE status IN ('CREATED', 'PAYMENT_PROCESSING', 'DRIVER_SEARCHING')";
+
+    private final RideRequestRepository rideRequestRepository;
+    private final CustomerRepository customerRepository;
+    private final SagaOrchestrator<RideSagaState> rideSaga;
+    private final RideCompensations rideCompensations;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Duration paymentTimeout;
+    private final Duration driverSearchTimeout;
+    private final TimingWheel<UUID> deadlines;
+    private final ThreadPoolExecutor expiries;
+
+    public RideTimeoutManager(RideRequestRepository rideRequestRepository,
+                              CustomerRepository customerRepository,
+                              SagaOrchestrator<RideSagaState> rideSaga,
+                              RideCompensations rideCompensations,
+                              DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${uber.saga.timeouts.enabled:true}") boolean enabled,
+                              @Value("${uber.saga.timeouts.payment-seconds:120}") long paymentSeconds,
+                              @Value("${uber.saga.timeouts.driver-search-seconds:300}") long driverSearchSeconds,
+                              @Value("${uber.saga.timeouts.fetch-size:1000}") int fetchSize,
+                              @Value("${uber.saga.timeouts.expiry-threads:4}") int expiryThreads,
+                              @Value("${uber.saga.timeouts.expiry-queue-capacity:10000}") int expiryQueueCapacity) {
+        this.rideRequestRepository = rideRequestRepository;
+        this.customerRepository = customerRepository;
+        this.rideSaga = rideSaga;
+        this.rideCompensations = rideCompensations;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.paymentTimeout = Duration.ofSeconds(paymentSeconds);
+        this.driverSearchTimeout = Duration.ofSeconds(driverSearchSeconds);
+        this.deadlines = new TimingWheel<>("ride-timeouts", TICK_MS, 512, this::submitExpiry);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.expiries = new ThreadPoolExecutor(expiryThreads, expiryThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(expiryQueueCapacity), r -> {
+                    Thread thread = new Thread(r, "ride-expiry-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // Fetch-size cursors need a transaction on Postgres
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(PENDING_RIDES, rs -> {
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            deadlines.schedule(rs.getObject("id", UUID.class), deadline(
+                    RideStatus.valueOf(rs.getString("status")),
+                    createdAt != null ? createdAt.getTime() : System.currentTimeMillis()));
+        }));
+        deadlines.start();
+        log.info("✅ Ride timeouts started with {} pending rides", deadlines.size());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        deadlines.stop();
+        expiries.shutdown();
+        // Rides still queued stay pending in the database and are rebuilt at the next start
+        if (!expiries.awaitTermination(10, TimeUnit.SECONDS)) {
+            expiries.shutdownNow();
+        }
+    }
+
+    /**
+     * (Re)schedules the deadline for the ride's current status once the surrounding transaction commits.
+     */
+    public void track(RideRequest ride) {
+        if (!enabled) {
+            return;
+        }
+        long createdAt = ride.getCreatedAt() != null
+                ? ride.getCreatedAt().toInstant().toEpochMilli() : System.currentTimeMillis();
+        long deadline = deadline(ride.getStatus(), createdAt);
+        UUID rideRequestId = ride.getId();
+        afterCommit(() -> deadlines.schedule(rideRequestId, deadline));
+    }
+
+    public void untrack(UUID rideRequestId) {
+        if (enabled) {
+            afterCommit(() -> deadlines.cancel(rideRequestId));
+        }
+    }
+
+    public int pendingCount() {
+        return deadlines.size();
+    }
+
+    private long deadline(RideStatus status, long createdAtMillis) {
+        Duration timeout = status == RideStatus.DRIVER_SEARCHING ? driverSearchTimeout : paymentTimeout;
+        return createdAtMillis + timeout.toMillis();
+    }
+
+    private void submitExpiry(UUID rideRequestId) {
+        try {
+            expiries.execute(() -> {
+                try {
+                    expire(rideRequestId);
+                } catch (RuntimeException e) {
+                    log.error("Failed to expire ride {}", rideRequestId, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (!expiries.isShutdown()) {
+                // Backlog after an outage: keep the wheel ticking and try this ride again next tick
+                deadlines.schedule(rideRequestId, System.currentTimeMillis() + TICK_MS);
+            }
+        }
+    }
+
+    private void expire(UUID rideRequestId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            RideRequest ride = rideRequestRepository.findById(rideRequestId).orElse(null);
+            if (ride == null || !PENDING.contains(ride.getStatus())) {
+                return;
+            }
+            // Rides started before the orchestrator have no saga; the status check above is all they get
+            Optional<UUID> sagaId = rideSaga.sagaId(rideRequestId);
+            if (sagaId.isPresent() && !rideSaga.transition(rideRequestId, RideSagaState.EXPIRED)) {
+                return;
+            }
+
+            boolean charged = ride.getStatus() == RideStatus.DRIVER_SEARCHING;
+            log.warn("⏰ Ride {} expired in {} for customer: {}", rideRequestId, ride.getStatus(), ride.getCustomerEmail());
+            ride.setStatus(RideStatus.EXPIRED);
+            ride.setCompletedAt(ZonedDateTime.now());
+            rideRequestRepository.save(ride);
+
+            customerRepository.findByEmail(ride.getCustomerEmail())
+                    .filter(customer -> rideRequestId.equals(customer.getCurrentRideRequestId()))
+                    .ifPresent(customer -> {
+                        customer.setStatus(CustomerStatus.AVAILABLE);
+                        customer.setCurrentRideRequestId(null);
+                        customerRepository.save(customer);
+                    });
+
+            rideCompensations.returnPayment(ride, sagaId.orElseGet(UUID::randomUUID), charged, "Ride expired");
+            rideCompensations.releaseDriverHold(ride, RideStatus.EXPIRED.name());
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
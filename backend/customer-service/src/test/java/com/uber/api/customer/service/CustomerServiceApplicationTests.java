@@ -3,7 +3,7 @@ package com.uber.api.customer.service;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.config.name=" + CustomerServiceApplication.CONFIG_NAME)
 class CustomerServiceApplicationTests {
 
 	@Test
@@ -0,0 +1,95 @@
+package com.uber.api.customer.service.timeout;
+
+import com.uber.api.customer.service.repository.CustomerRepository;
+import com.uber.api.customer.service.repository.RideRequestRepository;
+import com.uber.api.customer.service.saga.RideCompensations;
+import com.uber.api.shared.constants.RideStatus;
+import com.uber.api.shared.entities.RideRequest;
+import com.uber.api.shared.saga.SagaOrchestrator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RideTimeoutManagerTest {
+
+    private final RideRequestRepository rideRequestRepository = mock(RideRequestRepository.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private RideTimeoutManager manager;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        release.countDown();
+        if (manager != null) {
+            manager.stop();
+        }
+    }
+
+    @Test
+    void slowExpiryDoesNotHoldUpTheCaller() throws Exception {
+        manager = manager(2, 10);
+        RideRequest slow = overdueRide();
+        RideRequest next = overdueRide();
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        when(rideRequestRepository.findById(slow.getId())).thenAnswer(invocation -> {
+            slowStarted.countDown();
+            release.await();
+            return Optional.empty();
+        });
+
+        // Overdue when tracked, so the expiry is handed off right away
+        manager.track(slow);
+        assertThat(slowStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        manager.track(next);
+
+        verify(rideRequestRepository, timeout(5_000)).findById(next.getId());
+    }
+
+    @Test
+    void rideBeyondTheQueueWaitsOnTheWheel() throws Exception {
+        manager = manager(1, 1);
+        CountDownLatch busy = new CountDownLatch(1);
+        when(rideRequestRepository.findById(any())).thenAnswer(invocation -> {
+            busy.countDown();
+            release.await();
+            return Optional.empty();
+        });
+
+        manager.track(overdueRide());
+        assertThat(busy.await(5, TimeUnit.SECONDS)).isTrue();
+        manager.track(overdueRide());
+        manager.track(overdueRide());
+
+        // One running, one queued, the third put back for the next tick
+        assertThat(manager.pendingCount()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RideTimeoutManager manager(int expiryThreads, int queueCapacity) {
+        return new RideTimeoutManager(rideRequestRepository, mock(CustomerRepository.class),
+                mock(SagaOrchestrator.class), mock(RideCompensations.class), mock(DataSource.class),
+                mock(PlatformTransactionManager.class), true, 120, 300, 1000, expiryThreads, queueCapacity);
+    }
+
+    private static RideRequest overdueRide() {
+        return RideRequest.builder()
+                .id(UUID.randomUUID())
+                .customerEmail("rider@example.com")
+                .status(RideStatus.CREATED)
+                .createdAt(ZonedDateTime.now().minusHours(1))
+                .build();
+    }
+}
@@ -1,8 +1,8 @@
 package com.uber.api.driver.service;
 
-import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
@@ -21,7 +21,13 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableScheduling
 public class DriverServiceApplication {
 
+	// Settings live in driver-service.yml rather than application.yml, so a JVM hosting several services
+	// (single-node, load-test) still loads each service's own file
+	public static final String CONFIG_NAME = "driver-service";
+
 	public static void main(String[] args) {
-		SpringApplication.run(DriverServiceApplication.class, args);
+		new SpringApplicationBuilder(DriverServiceApplication.class)
+				.properties("spring.config.name=" + CONFIG_NAME)
+				.run(args);
 	}
 }
@@ -7,10 +7,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import jakarta.persistence.*;
+import java.time.ZonedDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "drivers")
+@Table(name = "drivers", indexes = {
+        @Index(name = "idx_drivers_status_hold_expires_at", columnList = "status, hold_expires_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -37,6 +40,9 @@ public class Driver {
 
     private UUID currentRideRequestId;
 
+    // Set while the driver is RESERVED for a ride whose payment has not completed yet
+    private ZonedDateTime holdExpiresAt;
+
     @Version
     private Long version;
 
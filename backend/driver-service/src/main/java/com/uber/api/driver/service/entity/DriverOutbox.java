@@ -36,6 +36,10 @@ public class DriverOutbox {
     @Enumerated(EnumType.STRING)
     private SagaStatus sagaStatus;
 
+    // Propagated message headers (saga stage timestamps), form-encoded
+    @Column(columnDefinition = "TEXT")
+    private String headers;
+
     private ZonedDateTime createdAt;
 
     private ZonedDateTime processedAt;
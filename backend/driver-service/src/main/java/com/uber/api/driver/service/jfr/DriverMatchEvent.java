@@ -0,0 +1,45 @@
+package com.uber.api.driver.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.uber.driver.Match")
+@Label("Driver Match")
+@Category({"Uber", "Matching"})
+@Description("Search for the nearest available driver and the optimistic claim on it")
+@StackTrace(false)
+public class DriverMatchEvent extends Event {
+
+    @Label("Ride Request Id")
+    public String rideRequestId;
+
+    @Label("City")
+    public String city;
+
+    @Label("Reservation")
+    @Description("True when holding a driver during payment, false when assigning")
+    public boolean reservation;
+
+    @Label("Candidates")
+    @Description("Available drivers returned by the search")
+    public int candidates;
+
+    @Label("Scanned")
+    @Description("Candidates tried until one was claimed or the list ran out")
+    public int scanned;
+
+    @Label("Retries")
+    @Description("Candidates lost to a concurrent assignment")
+    public int retries;
+
+    @Label("Assigned")
+    public boolean assigned;
+
+    @Label("Distance (km)")
+    @Description("Distance from the claimed driver to the pickup; -1 if none was claimed")
+    public double distanceKm;
+}
@@ -0,0 +1,35 @@
+package com.uber.api.driver.service.matching;
+
+import com.uber.api.driver.service.entity.Driver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Order in which driver assignment tries the available drivers for a pickup: nearest first, ties kept in
+ * the order the drivers were found. Shared with the dispatch simulator so that both rank alike.
+ */
+public final class DriverRanking {
+
+    private DriverRanking() {
+    }
+
+    public static List<Driver> nearestFirst(List<Driver> candidates, double pickupLatitude, double pickupLongitude) {
+        // Each distance once, rather than twice per comparison
+        List<Ranked> ranked = new ArrayList<>(candidates.size());
+        for (Driver driver : candidates) {
+            ranked.add(new Ranked(driver, driver.distanceToLocation(pickupLatitude, pickupLongitude)));
+        }
+        ranked.sort(Comparator.comparingDouble(Ranked::distanceKm));
+
+        List<Driver> ordered = new ArrayList<>(ranked.size());
+        for (Ranked candidate : ranked) {
+            ordered.add(candidate.driver());
+        }
+        return ordered;
+    }
+
+    private record Ranked(Driver driver, double distanceKm) {
+    }
+}
@@ -4,10 +4,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uber.api.driver.service.repository.DriverRepository;
 import com.uber.api.shared.constants.DriverStatus;
 import com.uber.api.shared.events.DriverCompletionEvent;
+import com.uber.api.shared.idempotency.IdempotentConsumer;
+import com.uber.api.shared.metrics.ListenerMetrics;
+import com.uber.api.shared.transport.EventTransport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,15 +20,25 @@ public class DriverCompletionListener {
 
     private final DriverRepository driverRepository;
     private final ObjectMapper objectMapper;
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final EventTransport eventTransport;
+    private final IdempotentConsumer idempotentConsumer;
 
     @KafkaListener(topics = "driver-completion", groupId = "driver-service-group")
     @Transactional
     public void handleRideCompletion(String message) {
-        log.info("🔄 RECEIVED DRIVER COMPLETION EVENT: {}", message);
+        log.debug("Received driver completion event: {}", message);
 
         try {
             DriverCompletionEvent event = objectMapper.readValue(message, DriverCompletionEvent.class);
+            log.atInfo().addKeyValue("rideId", event.getRideRequestId())
+                    .addKeyValue("status", event.getStatus())
+                    .log("🔄 Received driver completion event");
+
+            // Completion events carry a random saga id, so the ride and outcome identify them
+            if (!idempotentConsumer.tryAcquire("driver-completion", event.getRideRequestId() + ":" + event.getStatus())) {
+                log.info("Skipping duplicate completion event for ride: {}", event.getRideRequestId());
+                return;
+            }
 
             driverRepository.findByEmail(event.getDriverEmail()).ifPresentOrElse(
                     driver -> {
@@ -47,12 +59,13 @@ public class DriverCompletionListener {
 
         } catch (Exception e) {
             log.error("❌ ERROR PROCESSING DRIVER COMPLETION: {}", message, e);
+            ListenerMetrics.markFailed();
         }
     }
 
     private void publishDriverAvailableEvent(String driverEmail) {
         try {
-            kafkaTemplate.send("driver-available", driverEmail);
+            eventTransport.send("driver-available", null, driverEmail);
             log.info("📢 Published driver available event for: {}", driverEmail);
         } catch (Exception e) {
             log.error("Failed to publish driver available event", e);
@@ -0,0 +1,65 @@
+package com.uber.api.driver.service.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.api.driver.service.service.DriverDomainService;
+import com.uber.api.shared.events.DriverCompletionEvent;
+import com.uber.api.shared.events.DriverRequestEvent;
+import com.uber.api.shared.idempotency.IdempotentConsumer;
+import com.uber.api.shared.metrics.ListenerMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DriverHoldListener {
+
+    private final DriverDomainService driverDomainService;
+    private final ObjectMapper objectMapper;
+    private final IdempotentConsumer idempotentConsumer;
+
+    @KafkaListener(topics = "driver-holds", groupId = "driver-service-group")
+    @Transactional
+    public void handleHoldRequest(String message) {
+        log.debug("Received driver hold request: {}", message);
+
+        try {
+            DriverRequestEvent holdRequest = objectMapper.readValue(message, DriverRequestEvent.class);
+
+            if (!idempotentConsumer.tryAcquire("driver-holds", holdRequest.getSagaId())) {
+                log.info("Skipping duplicate hold request for saga: {}", holdRequest.getSagaId());
+                return;
+            }
+
+            driverDomainService.reserveDriver(holdRequest);
+
+        } catch (Exception e) {
+            log.error("Error processing driver hold request: {}", message, e);
+            ListenerMetrics.markFailed();
+        }
+    }
+
+    @KafkaListener(topics = "driver-hold-releases", groupId = "driver-service-group")
+    @Transactional
+    public void handleHoldRelease(String message) {
+        log.debug("Received driver hold release: {}", message);
+
+        try {
+            DriverCompletionEvent release = objectMapper.readValue(message, DriverCompletionEvent.class);
+
+            if (!idempotentConsumer.tryAcquire("driver-hold-releases", release.getRideRequestId())) {
+                log.info("Skipping duplicate hold release for ride: {}", release.getRideRequestId());
+                return;
+            }
+
+            driverDomainService.releaseHold(release.getRideRequestId(), release.getStatus());
+
+        } catch (Exception e) {
+            log.error("Error processing driver hold release: {}", message, e);
+            ListenerMetrics.markFailed();
+        }
+    }
+}
@@ -3,10 +3,13 @@ package com.uber.api.driver.service.messaging;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uber.api.driver.service.service.DriverDomainService;
 import com.uber.api.shared.events.DriverRequestEvent;
+import com.uber.api.shared.idempotency.IdempotentConsumer;
+import com.uber.api.shared.metrics.ListenerMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Component
@@ -15,13 +18,24 @@ public class DriverRequestListener {
 
     private final DriverDomainService driverDomainService;
     private final ObjectMapper objectMapper;
+    private final IdempotentConsumer idempotentConsumer;
 
     @KafkaListener(topics = "driver-requests", groupId = "driver-service-group")
+    @Transactional
     public void handleDriverRequest(String message) {
-        log.info("Received driver request: {}", message);
+        log.debug("Received driver request: {}", message);
 
         try {
             DriverRequestEvent driverRequest = objectMapper.readValue(message, DriverRequestEvent.class);
+            log.atInfo().addKeyValue("rideId", driverRequest.getRideRequestId())
+                    .addKeyValue("sagaId", driverRequest.getSagaId())
+                    .log("Received driver request");
+
+            // Payment-service and the customer saga both emit a driver request per saga; only the first one assigns
+            if (!idempotentConsumer.tryAcquire("driver-requests", driverRequest.getSagaId())) {
+                log.info("Skipping duplicate driver request for saga: {}", driverRequest.getSagaId());
+                return;
+            }
 
             // Process driver assignment through domain service
             driverDomainService.assignDriver(driverRequest);
@@ -30,6 +44,7 @@ public class DriverRequestListener {
 
         } catch (Exception e) {
             log.error("Error processing driver request: {}", message, e);
+            ListenerMetrics.markFailed();
         }
     }
 }
@@ -6,7 +6,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,4 +27,22 @@ public interface DriverRepository extends JpaRepository<Driver, UUID> {
 
     List<Driver> findByStatusAndCurrentCity(DriverStatus status, String currentCity);
 
+    Optional<Driver> findByCurrentRideRequestIdAndStatus(UUID currentRideRequestId, DriverStatus status);
+    boolean existsByCurrentRideRequestId(UUID currentRideRequestId);
+    List<Driver> findByStatusAndHoldExpiresAtBefore(DriverStatus status, ZonedDateTime cutoff);
+
+    /**
+     * Hands the driver held for the ride over to it in one statement. Empty when no hold is in place.
+     */
+    @Transactional
+    @Query(value = "UPDATE drivers SET status = 'BUSY', hold_expires_at = NULL, version = version + 1 " +
+            "WHERE current_ride_request_id = :rideRequestId AND status = 'RESERVED' RETURNING email", nativeQuery = true)
+    Optional<String> confirmHold(@Param("rideRequestId") UUID rideRequestId);
+
+    /**
+     * Serializes hold placement and assignment for one ride until the caller's transaction ends.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext(CAST(:rideRequestId AS text)))", nativeQuery = true)
+    int lockRide(@Param("rideRequestId") UUID rideRequestId);
+
 }
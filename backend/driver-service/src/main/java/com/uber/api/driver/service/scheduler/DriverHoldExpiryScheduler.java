@@ -0,0 +1,23 @@
+package com.uber.api.driver.service.scheduler;
+
+import com.uber.api.driver.service.service.DriverDomainService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DriverHoldExpiryScheduler {
+
+    private final DriverDomainService driverDomainService;
+
+    @Scheduled(fixedDelay = 1000) // Every second, well under the hold TTL
+    public void releaseExpiredHolds() {
+        int released = driverDomainService.releaseExpiredHolds();
+        if (released > 0) {
+            log.info("Released {} expired driver holds", released);
+        }
+    }
+}
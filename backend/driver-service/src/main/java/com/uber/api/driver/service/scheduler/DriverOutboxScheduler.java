@@ -2,10 +2,13 @@ package com.uber.api.driver.service.scheduler;
 
 import com.uber.api.driver.service.entity.DriverOutbox;
 import com.uber.api.driver.service.repository.DriverOutboxRepository;
+import com.uber.api.shared.jfr.OutboxBatchEvent;
+import com.uber.api.shared.metrics.OutboxMetrics;
+import com.uber.api.shared.outbox.OutboxHeaders;
 import com.uber.api.shared.outbox.OutboxStatus;
+import com.uber.api.shared.transport.EventTransport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,27 +22,38 @@ import java.util.List;
 public class DriverOutboxScheduler {
 
     private final DriverOutboxRepository driverOutboxRepository;
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final EventTransport eventTransport;
+    private final OutboxHeaders outboxHeaders;
+    private final OutboxMetrics outboxMetrics;
 
     @Scheduled(fixedDelay = 5000) // Every 5 seconds
     @Transactional
     public void processOutboxEvents() {
         List<DriverOutbox> pendingEvents = driverOutboxRepository
                 .findByStatusOrderByCreatedAt(OutboxStatus.PENDING);
+        outboxMetrics.observeBacklog("driver_outbox", pendingEvents.size(),
+                pendingEvents.isEmpty() ? null : pendingEvents.get(0).getCreatedAt());
 
         if (!pendingEvents.isEmpty()) {
             log.info("Processing {} driver outbox events", pendingEvents.size());
         }
 
+        OutboxBatchEvent batchEvent = outboxMetrics.startBatch();
+        int sent = 0;
+        long sendNanos = 0;
         for (DriverOutbox event : pendingEvents) {
             try {
                 // Send to Kafka
-                kafkaTemplate.send(event.getEventType(), event.getSagaId().toString(), event.getPayload());
+                long sendStart = outboxMetrics.startSend();
+                outboxHeaders.publish(event.getEventType(), event.getHeaders(), headers ->
+                        eventTransport.send(event.getEventType(), event.getSagaId().toString(), event.getPayload(), headers));
+                sendNanos += outboxMetrics.recordSend("driver_outbox", event.getEventType(), sendStart);
 
                 // Update status
                 event.setStatus(OutboxStatus.SENT);
                 event.setProcessedAt(ZonedDateTime.now());
                 driverOutboxRepository.save(event);
+                sent++;
 
                 log.info("Successfully sent driver event {} to topic {}", event.getId(), event.getEventType());
 
@@ -51,5 +65,6 @@ public class DriverOutboxScheduler {
                 driverOutboxRepository.save(event);
             }
         }
+        outboxMetrics.endBatch(batchEvent, "driver_outbox", pendingEvents.size(), sent, sendNanos);
     }
 }
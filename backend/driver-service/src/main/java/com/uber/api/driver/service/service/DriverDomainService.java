@@ -3,6 +3,8 @@ package com.uber.api.driver.service.service;
 import com.uber.api.shared.events.DriverRequestEvent;
 import com.uber.api.shared.events.DriverResponseEvent;
 
+import java.util.UUID;
+
 public interface DriverDomainService {
     DriverResponseEvent assignDriver(DriverRequestEvent driverRequest);
     void updateDriverStatus(String driverEmail, com.uber.api.shared.constants.DriverStatus status);
@@ -14,4 +16,9 @@ public interface DriverDomainService {
     int getBusyDriverCount();
     void processDriverAssignment(DriverRequestEvent driverRequest);
 
+    // Speculative reservation while payment is authorized
+    void reserveDriver(DriverRequestEvent driverRequest);
+    void releaseHold(UUID rideRequestId, String reason);
+    int releaseExpiredHolds();
+
 }
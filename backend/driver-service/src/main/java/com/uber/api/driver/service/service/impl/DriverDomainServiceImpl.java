@@ -3,26 +3,40 @@ package com.uber.api.driver.service.service.impl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uber.api.driver.service.entity.Driver;
 import com.uber.api.driver.service.entity.DriverOutbox;
+import com.uber.api.driver.service.jfr.DriverMatchEvent;
+import com.uber.api.driver.service.matching.DriverRanking;
 import com.uber.api.driver.service.repository.DriverOutboxRepository;
 import com.uber.api.driver.service.repository.DriverRepository;
 import com.uber.api.driver.service.service.DriverDomainService;
 import com.uber.api.shared.constants.DriverStatus;
 import com.uber.api.shared.events.DriverRequestEvent;
 import com.uber.api.shared.events.DriverResponseEvent;
+import com.uber.api.shared.outbox.OutboxHeaders;
 import com.uber.api.shared.outbox.OutboxStatus;
 import com.uber.api.shared.saga.SagaStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.RetryContext;
 import org.springframework.retry.annotation.Retryable;
+import org.springframework.retry.support.RetrySynchronizationManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
-import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Service
@@ -32,6 +46,48 @@ public class DriverDomainServiceImpl implements DriverDomainService {
     private final DriverRepository driverRepository;
     private final DriverOutboxRepository driverOutboxRepository;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final OutboxHeaders outboxHeaders;
+
+    @Value("${uber.driver.hold-ttl-seconds:30}")
+    private long holdTtlSeconds;
+
+    private final AtomicLong holdsPlaced = new AtomicLong();
+    private final AtomicLong holdsConfirmed = new AtomicLong();
+
+    private Meter.MeterProvider<Timer> assignmentTimer;
+    private DistributionSummary candidatesScanned;
+    private Counter candidateConflicts;
+    private Counter assignmentRetries;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("driver.holds.conversion", this,
+                        service -> service.holdsPlaced.get() == 0 ? 0.0
+                                : (double) service.holdsConfirmed.get() / service.holdsPlaced.get())
+                .description("Share of speculative driver holds confirmed by a successful payment")
+                .register(meterRegistry);
+        assignmentTimer = Timer.builder("driver.assignment")
+                .description("Time to assign a driver to a ride")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .withRegistry(meterRegistry);
+        candidatesScanned = DistributionSummary.builder("driver.assignment.candidates")
+                .description("Drivers tried per search before one was assigned or the list ran out")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1000.0)
+                .register(meterRegistry);
+        // A conflict on one candidate moves on to the next; a failed commit retries the whole assignment
+        candidateConflicts = Counter.builder("driver.assignment.retries")
+                .description("Optimistic lock conflicts during driver assignment")
+                .tag("scope", "candidate")
+                .register(meterRegistry);
+        assignmentRetries = Counter.builder("driver.assignment.retries")
+                .description("Optimistic lock conflicts during driver assignment")
+                .tag("scope", "attempt")
+                .register(meterRegistry);
+    }
 
     @Override
     @Transactional
@@ -40,18 +96,50 @@ public class DriverDomainServiceImpl implements DriverDomainService {
         log.info("Processing driver assignment for ride: {} (Saga: {})",
                 driverRequest.getRideRequestId(), driverRequest.getSagaId());
 
+        RetryContext retryContext = RetrySynchronizationManager.getContext();
+        if (retryContext != null && retryContext.getRetryCount() > 0) {
+            assignmentRetries.increment();
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String path = "search";
+        String outcome = "error";
         try {
+            // A driver reserved while payment was authorized skips the search entirely. The hold is placed
+            // under the same ride lock, so it is either committed and handed over here or not placed at all.
+            driverRepository.lockRide(driverRequest.getRideRequestId());
+            String heldDriverEmail = driverRepository.confirmHold(driverRequest.getRideRequestId()).orElse(null);
+            if (heldDriverEmail != null) {
+                path = "hold";
+                holdsConfirmed.incrementAndGet();
+                meterRegistry.counter("driver.holds", "outcome", "confirmed").increment();
+
+                DriverResponseEvent response = DriverResponseEvent.builder()
+                        .sagaId(driverRequest.getSagaId())
+                        .rideRequestId(driverRequest.getRideRequestId())
+                        .driverEmail(heldDriverEmail)
+                        .status(DriverStatus.BUSY)
+                        .accepted(true)
+                        .build();
+
+                saveToOutbox(response, driverRequest.getSagaId(), "driver-responses");
+                outcome = "assigned";
+                log.info("Confirmed held driver {} for ride: {}", heldDriverEmail, driverRequest.getRideRequestId());
+                return response;
+            }
+
             // **FIX 1: Atomic driver count check and assignment**
             long availableCount = driverRepository.countByStatus(DriverStatus.AVAILABLE);
             log.info("Available drivers count: {}", availableCount);
 
             if (availableCount == 0) {
                 log.warn("No available drivers for ride: {}", driverRequest.getRideRequestId());
+                outcome = "no_driver";
                 return createNoDriverResponse(driverRequest);
             }
 
             // **FIX 2: Atomic driver assignment with optimistic locking**
-            Driver assignedDriver = findAndAtomicallyAssignDriver(driverRequest);
+            Driver assignedDriver = findAndAtomicallyAssignDriver(driverRequest, DriverStatus.BUSY, null);
 
             if (assignedDriver != null) {
                 DriverResponseEvent response = DriverResponseEvent.builder()
@@ -63,6 +151,7 @@ public class DriverDomainServiceImpl implements DriverDomainService {
                         .build();
 
                 saveToOutbox(response, driverRequest.getSagaId(), "driver-responses");
+                outcome = "assigned";
                 log.info("Driver {} assigned to ride: {}", assignedDriver.getEmail(), driverRequest.getRideRequestId());
 
                 return response;
@@ -70,19 +159,26 @@ public class DriverDomainServiceImpl implements DriverDomainService {
             } else {
                 log.warn("Failed to assign any driver for ride: {} (race condition)",
                         driverRequest.getRideRequestId());
+                outcome = "no_driver";
                 return createNoDriverResponse(driverRequest);
             }
 
         } catch (Exception e) {
             log.error("Error assigning driver for ride: {}", driverRequest.getRideRequestId(), e);
             return createErrorResponse(driverRequest, e.getMessage());
+        } finally {
+            sample.stop(assignmentTimer.withTags("path", path, "outcome", outcome));
         }
     }
 
     /**
      * **FIX 3: Atomic driver assignment using optimistic locking**
      */
-    private Driver findAndAtomicallyAssignDriver(DriverRequestEvent driverRequest) {
+    private Driver findAndAtomicallyAssignDriver(DriverRequestEvent driverRequest, DriverStatus targetStatus,
+                                                 ZonedDateTime holdExpiresAt) {
+        DriverMatchEvent matchEvent = new DriverMatchEvent();
+        matchEvent.begin();
+
         Double pickupLat = driverRequest.getPickupLocation().getLatitude();
         Double pickupLng = driverRequest.getPickupLocation().getLongitude();
         String city = driverRequest.getPickupLocation().getCity();
@@ -94,11 +190,13 @@ public class DriverDomainServiceImpl implements DriverDomainService {
         }
 
         // Sort by distance to pickup location
-        availableDrivers.sort(Comparator.comparing(driver ->
-                driver.distanceToLocation(pickupLat, pickupLng)));
+        availableDrivers = DriverRanking.nearestFirst(availableDrivers, pickupLat, pickupLng);
 
         // **FIX 4: Try to assign drivers in order with retry logic**
+        int scanned = 0;
+        int conflicts = 0;
         for (Driver driver : availableDrivers) {
+            scanned++;
             try {
                 // Refresh driver from database to get latest version
                 Driver freshDriver = driverRepository.findById(driver.getId())
@@ -110,17 +208,23 @@ public class DriverDomainServiceImpl implements DriverDomainService {
                 }
 
                 // **ATOMIC OPERATION: Update with optimistic locking**
-                freshDriver.setStatus(DriverStatus.BUSY);
+                freshDriver.setStatus(targetStatus);
                 freshDriver.setCurrentRideRequestId(driverRequest.getRideRequestId());
+                freshDriver.setHoldExpiresAt(holdExpiresAt);
 
                 // This will throw OptimisticLockingFailureException if driver was already assigned
                 Driver savedDriver = driverRepository.save(freshDriver);
 
                 log.info("Successfully assigned driver {} to ride {}",
                         driver.getEmail(), driverRequest.getRideRequestId());
+                candidatesScanned.record(scanned);
+                commitMatch(matchEvent, driverRequest, targetStatus, availableDrivers.size(), scanned, conflicts,
+                        driver.distanceToLocation(pickupLat, pickupLng));
                 return savedDriver;
 
             } catch (OptimisticLockingFailureException e) {
+                candidateConflicts.increment();
+                conflicts++;
                 log.warn("Driver {} was already assigned to another ride, trying next driver",
                         driver.getEmail());
                 // Continue to next driver
@@ -130,9 +234,87 @@ public class DriverDomainServiceImpl implements DriverDomainService {
             }
         }
 
+        candidatesScanned.record(scanned);
+        commitMatch(matchEvent, driverRequest, targetStatus, availableDrivers.size(), scanned, conflicts, -1);
         return null; // No driver could be assigned
     }
 
+    private void commitMatch(DriverMatchEvent event, DriverRequestEvent driverRequest, DriverStatus targetStatus,
+                             int candidates, int scanned, int conflicts, double distanceKm) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.rideRequestId = String.valueOf(driverRequest.getRideRequestId());
+            event.city = driverRequest.getPickupLocation().getCity();
+            event.reservation = targetStatus == DriverStatus.RESERVED;
+            event.candidates = candidates;
+            event.scanned = scanned;
+            event.retries = conflicts;
+            event.assigned = distanceKm >= 0;
+            event.distanceKm = distanceKm;
+            event.commit();
+        }
+    }
+
+    @Override
+    @Transactional
+    public void reserveDriver(DriverRequestEvent driverRequest) {
+        // The confirming driver request can overtake the hold; never reserve for a ride that already has a driver.
+        // The ride lock makes an assignment racing this hold either visible to the check or wait for the hold.
+        driverRepository.lockRide(driverRequest.getRideRequestId());
+        if (driverRepository.existsByCurrentRideRequestId(driverRequest.getRideRequestId())) {
+            meterRegistry.counter("driver.holds", "outcome", "skipped").increment();
+            log.info("Ride {} already has a driver, skipping hold", driverRequest.getRideRequestId());
+            return;
+        }
+
+        Driver heldDriver = findAndAtomicallyAssignDriver(driverRequest, DriverStatus.RESERVED,
+                ZonedDateTime.now().plusSeconds(holdTtlSeconds));
+
+        if (heldDriver != null) {
+            holdsPlaced.incrementAndGet();
+            meterRegistry.counter("driver.holds", "outcome", "placed").increment();
+            log.info("Driver {} held for ride: {} for {}s", heldDriver.getEmail(),
+                    driverRequest.getRideRequestId(), holdTtlSeconds);
+        } else {
+            meterRegistry.counter("driver.holds", "outcome", "unavailable").increment();
+            log.info("No driver to hold for ride: {}", driverRequest.getRideRequestId());
+        }
+    }
+
+    @Override
+    @Transactional
+    public void releaseHold(UUID rideRequestId, String reason) {
+        driverRepository.findByCurrentRideRequestIdAndStatus(rideRequestId, DriverStatus.RESERVED).ifPresent(driver -> {
+            makeAvailable(driver);
+            meterRegistry.counter("driver.holds", "outcome", "released").increment();
+            log.info("Released held driver {} for ride: {} ({})", driver.getEmail(), rideRequestId, reason);
+        });
+    }
+
+    @Override
+    @Transactional
+    public int releaseExpiredHolds() {
+        List<Driver> expired = driverRepository
+                .findByStatusAndHoldExpiresAtBefore(DriverStatus.RESERVED, ZonedDateTime.now());
+
+        for (Driver driver : expired) {
+            log.info("Hold on driver {} for ride {} expired", driver.getEmail(), driver.getCurrentRideRequestId());
+            makeAvailable(driver);
+        }
+
+        if (!expired.isEmpty()) {
+            meterRegistry.counter("driver.holds", "outcome", "expired").increment(expired.size());
+        }
+        return expired.size();
+    }
+
+    private void makeAvailable(Driver driver) {
+        driver.setStatus(DriverStatus.AVAILABLE);
+        driver.setCurrentRideRequestId(null);
+        driver.setHoldExpiresAt(null);
+        driverRepository.save(driver);
+    }
+
     @Override
     @Transactional
     public void updateDriverStatus(String driverEmail, DriverStatus status) {
@@ -253,6 +435,7 @@ public class DriverDomainServiceImpl implements DriverDomainService {
                     .payload(payload)
                     .status(OutboxStatus.PENDING)
                     .sagaStatus(SagaStatus.PROCESSING)
+                    .headers(outboxHeaders.capture(eventType))
                     .createdAt(ZonedDateTime.now())
                     .build();
 
@@ -3,7 +3,7 @@ package com.uber.api.driver.service;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.config.name=" + DriverServiceApplication.CONFIG_NAME)
 class DriverServiceApplicationTests {
 
 	@Test
@@ -0,0 +1,95 @@
+package com.uber.api.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An in-process Kafka broker (KRaft, no ZooKeeper) with the saga topics, and a Postgres server run from
+ * the binaries zonky ships as a Maven artifact. Nothing needs to be installed or reachable.
+ */
+@Slf4j
+public class EmbeddedInfrastructure implements AutoCloseable {
+
+    static final List<String> TOPICS = List.of(
+            "payment-requests", "payment-responses", "payment-refunds", "payment-hold-updates",
+            "driver-requests", "driver-responses", "driver-completion", "driver-holds", "driver-hold-releases",
+            "driver-available");
+
+    private final EmbeddedPostgres postgres;
+    private final EmbeddedKafkaKraftBroker kafka;
+
+    private EmbeddedInfrastructure(EmbeddedPostgres postgres, EmbeddedKafkaKraftBroker kafka) {
+        this.postgres = postgres;
+        this.kafka = kafka;
+    }
+
+    public static EmbeddedInfrastructure start(int partitions) throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                // The services open a pool each
+                .setServerConfig("max_connections", "200")
+                .start();
+        try {
+            EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, partitions, TOPICS.toArray(String[]::new));
+            // One broker: the transaction log's default replication of three would fail initTransactions()
+            kafka.brokerProperty("transaction.state.log.replication.factor", "1");
+            kafka.brokerProperty("transaction.state.log.min.isr", "1");
+            kafka.afterPropertiesSet();
+            log.info("Embedded Postgres on port {}, Kafka at {}", postgres.getPort(), kafka.getBrokersAsString());
+            return new EmbeddedInfrastructure(postgres, kafka);
+        } catch (RuntimeException e) {
+            postgres.close();
+            throw e;
+        }
+    }
+
+    public String jdbcUrl() {
+        return postgres.getJdbcUrl("postgres", "postgres");
+    }
+
+    public String bootstrapServers() {
+        return kafka.getBrokersAsString();
+    }
+
+    /**
+     * Records written to each topic so far, from the end offsets of its partitions.
+     */
+    public Map<String, Long> recordsByTopic() {
+        return kafka.doWithAdminFunction(admin -> {
+            Map<TopicPartition, OffsetSpec> partitions = new HashMap<>();
+            for (String topic : TOPICS) {
+                for (int partition = 0; partition < kafka.getPartitionsPerTopic(); partition++) {
+                    partitions.put(new TopicPartition(topic, partition), OffsetSpec.latest());
+                }
+            }
+            try {
+                Map<String, Long> records = new TreeMap<>();
+                for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> entry
+                        : admin.listOffsets(partitions).all().get().entrySet()) {
+                    records.merge(entry.getKey().topic(), entry.getValue().offset(), Long::sum);
+                }
+                return records;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to read topic offsets", e);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            kafka.destroy();
+        } finally {
+            postgres.close();
+        }
+    }
+}
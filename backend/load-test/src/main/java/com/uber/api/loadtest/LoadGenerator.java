@@ -0,0 +1,209 @@
+package com.uber.api.loadtest;
+
+import com.uber.api.customer.service.dto.CallTaxiRequest;
+import com.uber.api.customer.service.dto.LocationDTO;
+import com.uber.api.customer.service.dto.RideStatusResponse;
+import com.uber.api.shared.constants.RideStatus;
+import com.uber.api.shared.latency.StageLatencySummary;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Riders calling through customer-service's HTTP API: each one calls a taxi, polls its ride until a driver
+ * is assigned, holds it for the trip and completes it, {@code ridesPerRider} times. A call that finds no
+ * driver is retried after a pause, and the wait counts towards that ride's time-to-assignment.
+ */
+@Slf4j
+class LoadGenerator {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final LoadTestSettings settings;
+    private final RestClient customerApi;
+
+    private final Histogram timeToAssignment = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+    private final Histogram callLatency = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder noDriver = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    LoadGenerator(LoadTestSettings settings, String customerServiceUrl) {
+        this.settings = settings;
+        this.customerApi = RestClient.builder()
+                .baseUrl(customerServiceUrl + "/api/customer")
+                // The API answers failures with 400 and a status message; the rider looks at the status
+                .defaultStatusHandler(HttpStatusCode::isError, (request, response) -> {
+                })
+                .build();
+    }
+
+    static String riderEmail(int rider) {
+        return "rider" + rider + "@loadtest.uber";
+    }
+
+    /**
+     * Runs every rider to completion and fills in the ride counts and latencies of {@code report}.
+     */
+    void run(LoadTestReport.LoadTestReportBuilder report) throws InterruptedException {
+        ExecutorService riders = Executors.newFixedThreadPool(settings.getRiders());
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int rider = 0; rider < settings.getRiders(); rider++) {
+                int id = rider;
+                running.add(riders.submit(() -> ride(id)));
+            }
+            for (Future<?> future : running) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    log.error("Rider failed", e);
+                }
+            }
+        } finally {
+            riders.shutdownNow();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        report.elapsedSeconds(elapsedSeconds)
+                .ridesCompleted(completed.sum())
+                .ridesPerSecond(completed.sum() / elapsedSeconds)
+                .noDriver(noDriver.sum())
+                .timedOut(timedOut.sum())
+                .failed(failed.sum())
+                .timeToAssignment(summary(timeToAssignment))
+                .callLatency(summary(callLatency));
+    }
+
+    private void ride(int rider) {
+        String email = riderEmail(rider);
+        SplittableRandom random = new SplittableRandom(settings.getSeed() + rider);
+        for (int ride = 0; ride < settings.getRidesPerRider() && !Thread.currentThread().isInterrupted(); ride++) {
+            try {
+                if (waitForDriver(email, random)) {
+                    sleep(settings.getTripMillis());
+                    ResponseEntity<String> completion = customerApi.post().uri("/complete/{email}", email)
+                            .retrieve().toEntity(String.class);
+                    if (completion.getStatusCode().is2xxSuccessful()) {
+                        completed.increment();
+                    } else {
+                        failed.increment();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("Ride of {} failed: {}", email, e.getMessage());
+                failed.increment();
+                cancel(email);
+            }
+        }
+    }
+
+    /**
+     * Calls until a driver is assigned; false once the ride failed or timed out and was cleaned up.
+     */
+    private boolean waitForDriver(String email, SplittableRandom random) throws InterruptedException {
+        CallTaxiRequest request = CallTaxiRequest.builder()
+                .customerEmail(email)
+                .pickupLocation(location(random))
+                .destinationLocation(location(random))
+                .build();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(settings.getAssignmentTimeoutMillis());
+
+        while (true) {
+            long callStart = System.nanoTime();
+            ResponseEntity<RideStatusResponse> call = customerApi.post().uri("/call").body(request)
+                    .retrieve().toEntity(RideStatusResponse.class);
+            callLatency.recordValue(micros(System.nanoTime() - callStart));
+
+            RideStatus status = call.getBody() != null ? call.getBody().getStatus() : null;
+            if (!call.getStatusCode().is2xxSuccessful() || status == null) {
+                failed.increment();
+                cancel(email);
+                return false;
+            }
+            while (status != RideStatus.DRIVER_ASSIGNED && status != RideStatus.RIDE_STARTED
+                    && status != RideStatus.DRIVER_UNAVAILABLE) {
+                if (status == RideStatus.PAYMENT_FAILED || status == RideStatus.CANCELLED
+                        || status == RideStatus.EXPIRED || status == RideStatus.RIDE_COMPLETED) {
+                    failed.increment();
+                    return false;
+                }
+                if (System.nanoTime() > deadline) {
+                    timedOut.increment();
+                    cancel(email);
+                    return false;
+                }
+                sleep(settings.getPollMillis());
+                RideStatusResponse polled = customerApi.get().uri("/status/{email}", email)
+                        .retrieve().body(RideStatusResponse.class);
+                status = polled != null ? polled.getStatus() : null;
+            }
+            if (status != RideStatus.DRIVER_UNAVAILABLE) {
+                timeToAssignment.recordValue(micros(System.nanoTime() - start));
+                return true;
+            }
+
+            noDriver.increment();
+            if (System.nanoTime() > deadline) {
+                timedOut.increment();
+                return false;
+            }
+            sleep(settings.getNoDriverBackoffMillis());
+        }
+    }
+
+    private void cancel(String email) {
+        try {
+            customerApi.post().uri("/cancel/{email}", email).retrieve().toBodilessEntity();
+        } catch (Exception e) {
+            log.debug("Cancel for {} failed: {}", email, e.getMessage());
+        }
+    }
+
+    private LocationDTO location(SplittableRandom random) {
+        double radius = settings.getRadiusDegrees();
+        return LocationDTO.builder()
+                .latitude(settings.getCenterLatitude() + random.nextDouble(-radius, radius))
+                .longitude(settings.getCenterLongitude() + random.nextDouble(-radius, radius))
+                .address("Load test stop")
+                .city(settings.getCity())
+                .build();
+    }
+
+    private static StageLatencySummary summary(Histogram histogram) {
+        return StageLatencySummary.builder()
+                .count(histogram.getTotalCount())
+                .p50Ms(histogram.getValueAtPercentile(50) / 1000.0)
+                .p99Ms(histogram.getValueAtPercentile(99) / 1000.0)
+                .p999Ms(histogram.getValueAtPercentile(99.9) / 1000.0)
+                .maxMs(histogram.getMaxValue() / 1000.0)
+                .build();
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAX_TRACKABLE_MICROS);
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.uber.api.loadtest;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.uber.api.customer.service.CustomerServiceApplication;
+import com.uber.api.driver.service.DriverServiceApplication;
+import com.uber.api.driver.service.entity.Driver;
+import com.uber.api.driver.service.repository.DriverRepository;
+import com.uber.api.payment.service.PaymentServiceApplication;
+import com.uber.api.payment.service.service.PaymentDomainService;
+import com.uber.api.shared.constants.DriverStatus;
+import com.uber.api.shared.money.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Boots the three services against an embedded Kafka broker and Postgres server, seeds drivers and rider
+ * balances, then drives rides through customer-service's HTTP API and writes a JSON report of throughput,
+ * time-to-assignment and the database and messaging work done per service.
+ *
+ * Unlike single-node this uses the real Kafka transport, so the run exercises the outbox relays, the
+ * listeners and the broker round trips that production has.
+ */
+@Slf4j
+public class LoadTestApplication {
+
+    // customer-service checks driver availability on this fixed port
+    private static final int DRIVER_PORT = 4768;
+    private static final int PAYMENT_PORT = 8182;
+    private static final int CUSTOMER_PORT = 8181;
+
+    private static final Money RIDER_TOP_UP = Money.of(10_000);
+
+    public static void main(String[] args) throws Exception {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        ((Logger) LoggerFactory.getLogger("com.uber.api.loadtest")).setLevel(Level.INFO);
+
+        LoadTestSettings settings = LoadTestSettings.from(new SimpleCommandLinePropertySource(args));
+        log.info("Load test settings: {}", settings);
+
+        EmbeddedInfrastructure infrastructure = EmbeddedInfrastructure.start(settings.getPartitions());
+        List<ConfigurableApplicationContext> started = new ArrayList<>();
+        int exitCode = 0;
+        try {
+            Map<String, ConfigurableApplicationContext> services = new LinkedHashMap<>();
+            services.put("driver-service", start(started, DriverServiceApplication.class,
+                    serviceArgs(DriverServiceApplication.CONFIG_NAME, "driver-service", DRIVER_PORT, infrastructure)));
+            services.put("payment-service", start(started, PaymentServiceApplication.class,
+                    serviceArgs(PaymentServiceApplication.CONFIG_NAME, "payment-service", PAYMENT_PORT, infrastructure,
+                            "--uber.payment.kafka-transactions.enabled=" + settings.isPaymentKafkaTransactions())));
+            // Customer last: its relay starts publishing as soon as the context is up
+            services.put("customer-service", start(started, CustomerServiceApplication.class,
+                    serviceArgs(CustomerServiceApplication.CONFIG_NAME, "customer-service", CUSTOMER_PORT, infrastructure)));
+
+            seedDrivers(services.get("driver-service").getBean(DriverRepository.class), settings);
+            seedRiders(services.get("payment-service").getBean(PaymentDomainService.class), settings);
+
+            OperationCounters counters = new OperationCounters(services, infrastructure);
+            counters.reset();
+
+            LoadTestReport.LoadTestReportBuilder report = LoadTestReport.builder().settings(settings);
+            new LoadGenerator(settings, "http://localhost:" + CUSTOMER_PORT).run(report);
+            LoadTestReport result = report
+                    .database(counters.database())
+                    .kafkaRecordsByTopic(counters.recordsByTopic())
+                    .messaging(counters.messaging())
+                    .build();
+
+            log.info("Completed {} rides in {} s ({} rides/s), time to assignment p50 {} ms p99 {} ms; "
+                            + "no driver {}, timed out {}, failed {}",
+                    result.getRidesCompleted(), String.format("%.1f", result.getElapsedSeconds()),
+                    String.format("%.1f", result.getRidesPerSecond()),
+                    result.getTimeToAssignment().getP50Ms(), result.getTimeToAssignment().getP99Ms(),
+                    result.getNoDriver(), result.getTimedOut(), result.getFailed());
+
+            File reportFile = new File(settings.getReportFile());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, result);
+            log.info("Report written to {}", reportFile.getAbsolutePath());
+        } catch (Exception e) {
+            log.error("Load test failed", e);
+            exitCode = 1;
+        } finally {
+            // Services before the infrastructure, or their shutdown waits on a database that is gone
+            for (int i = started.size() - 1; i >= 0; i--) {
+                started.get(i).close();
+            }
+            infrastructure.close();
+        }
+        System.exit(exitCode);
+    }
+
+    private static ConfigurableApplicationContext start(List<ConfigurableApplicationContext> started,
+                                                        Class<?> application, String[] args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(application).run(args);
+        started.add(context);
+        return context;
+    }
+
+    /**
+     * Passed as command line arguments rather than default properties: each service's own settings file
+     * would otherwise win over the embedded infrastructure.
+     */
+    private static String[] serviceArgs(String configName, String name, int port,
+                                         EmbeddedInfrastructure infrastructure, String... extra) {
+        String[] common = {
+                "--spring.config.name=" + configName,
+                "--spring.application.name=" + name,
+                "--server.port=" + port,
+                "--spring.jmx.default-domain=" + name,
+                "--spring.datasource.url=" + infrastructure.jdbcUrl(),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.kafka.bootstrap-servers=" + infrastructure.bootstrapServers(),
+                "--uber.transport.mode=kafka",
+                "--uber.driver.sample-data.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--logging.level.root=WARN",
+                "--logging.level.com.uber.api=WARN",
+                "--logging.level.com.uber.api.loadtest=INFO",
+                "--management.tracing.sampling.probability=0"
+        };
+        String[] args = Arrays.copyOf(common, common.length + extra.length);
+        System.arraycopy(extra, 0, args, common.length, extra.length);
+        return args;
+    }
+
+    private static void seedDrivers(DriverRepository driverRepository, LoadTestSettings settings) {
+        SplittableRandom random = new SplittableRandom(settings.getSeed());
+        double radius = settings.getRadiusDegrees();
+        List<Driver> drivers = new ArrayList<>(settings.getDrivers());
+        for (int i = 0; i < settings.getDrivers(); i++) {
+            drivers.add(Driver.builder()
+                    .email("driver" + i + "@loadtest.uber")
+                    .name("Load Test Driver " + i)
+                    .phone("+1-555-" + String.format("%04d", i % 10_000))
+                    .licenseNumber("LT" + i)
+                    .status(DriverStatus.AVAILABLE)
+                    .currentLatitude(settings.getCenterLatitude() + random.nextDouble(-radius, radius))
+                    .currentLongitude(settings.getCenterLongitude() + random.nextDouble(-radius, radius))
+                    .currentCity(settings.getCity())
+                    .build());
+        }
+        driverRepository.saveAll(drivers);
+        log.info("Seeded {} drivers around {}", drivers.size(), settings.getCity());
+    }
+
+    private static void seedRiders(PaymentDomainService paymentDomainService, LoadTestSettings settings) {
+        for (int rider = 0; rider < settings.getRiders(); rider++) {
+            paymentDomainService.addBalance(LoadGenerator.riderEmail(rider), RIDER_TOP_UP);
+        }
+        log.info("Topped up {} riders with {}", settings.getRiders(), RIDER_TOP_UP);
+    }
+}
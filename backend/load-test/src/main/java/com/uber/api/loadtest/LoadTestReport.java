@@ -0,0 +1,64 @@
+package com.uber.api.loadtest;
+
+import com.uber.api.shared.latency.StageLatencySummary;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadTestReport {
+    private LoadTestSettings settings;
+    private double elapsedSeconds;
+    private long ridesCompleted;
+    private double ridesPerSecond;
+    // Calls answered with no driver available; the rider backs off and calls again
+    private long noDriver;
+    // Rides cancelled after assignment-timeout-millis without a driver
+    private long timedOut;
+    // Rides that ended any other way (payment failed, expired, errors)
+    private long failed;
+    // From the call until the ride reads DRIVER_ASSIGNED
+    private StageLatencySummary timeToAssignment;
+    // Response time of POST /call
+    private StageLatencySummary callLatency;
+    private Map<String, DatabaseOperations> database;
+    // Records written per topic, from the broker's end offsets
+    private Map<String, Long> kafkaRecordsByTopic;
+    private Map<String, MessagingOperations> messaging;
+
+    /**
+     * Hibernate statistics of one service over the run.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DatabaseOperations {
+        private long statements;
+        private long queries;
+        private long transactions;
+        private long entityLoads;
+        private long entityInserts;
+        private long entityUpdates;
+        private long optimisticFailures;
+    }
+
+    /**
+     * Events one service consumed and relayed over the run, from its listener and outbox metrics.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MessagingOperations {
+        private long consumed;
+        private long consumeErrors;
+        private long relayed;
+    }
+}
@@ -0,0 +1,74 @@
+package com.uber.api.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.core.env.PropertySource;
+
+/**
+ * Load test options, given on the command line as {@code --name=value}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadTestSettings {
+
+    // Synthetic drivers seeded across the city
+    private int drivers;
+    // Riders calling concurrently, each on its own thread
+    private int riders;
+    private int ridesPerRider;
+    // How long a rider keeps its driver before completing the ride
+    private long tripMillis;
+    // Ride status polling interval; bounds the resolution of time-to-assignment
+    private long pollMillis;
+    // A ride still unassigned after this long is cancelled and counted as timed out
+    private long assignmentTimeoutMillis;
+    // Pause before a rider retries a call that found no driver
+    private long noDriverBackoffMillis;
+    private int partitions;
+    // Payment-service produces its responses in the consumer's Kafka transaction instead of via the outbox
+    private boolean paymentKafkaTransactions;
+    private long seed;
+    private String city;
+    private double centerLatitude;
+    private double centerLongitude;
+    // Half the side of the square, in degrees, that drivers and riders are spread over
+    private double radiusDegrees;
+    private String reportFile;
+
+    public static LoadTestSettings from(PropertySource<?> args) {
+        return LoadTestSettings.builder()
+                .drivers(intOption(args, "drivers", 500))
+                .riders(intOption(args, "riders", 100))
+                .ridesPerRider(intOption(args, "rides-per-rider", 5))
+                .tripMillis(longOption(args, "trip-millis", 0))
+                .pollMillis(longOption(args, "poll-millis", 10))
+                .assignmentTimeoutMillis(longOption(args, "assignment-timeout-millis", 60_000))
+                .noDriverBackoffMillis(longOption(args, "no-driver-backoff-millis", 200))
+                .partitions(intOption(args, "partitions", 4))
+                .paymentKafkaTransactions(Boolean.parseBoolean(option(args, "payment-kafka-transactions", "false")))
+                .seed(longOption(args, "seed", 42))
+                .city(option(args, "city", "New York"))
+                .centerLatitude(Double.parseDouble(option(args, "center-latitude", "40.7128")))
+                .centerLongitude(Double.parseDouble(option(args, "center-longitude", "-74.0060")))
+                .radiusDegrees(Double.parseDouble(option(args, "radius-degrees", "0.1")))
+                .reportFile(option(args, "report", "load-test-report.json"))
+                .build();
+    }
+
+    private static String option(PropertySource<?> args, String name, String defaultValue) {
+        Object value = args.getProperty(name);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    private static int intOption(PropertySource<?> args, String name, int defaultValue) {
+        return Integer.parseInt(option(args, name, Integer.toString(defaultValue)));
+    }
+
+    private static long longOption(PropertySource<?> args, String name, long defaultValue) {
+        return Long.parseLong(option(args, name, Long.toString(defaultValue)));
+    }
+}
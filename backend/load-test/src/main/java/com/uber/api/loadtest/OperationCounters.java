@@ -0,0 +1,97 @@
+package com.uber.api.loadtest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.Search;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Database and messaging operations of each service since {@link #reset()}, so the report leaves out startup
+ * and seeding.
+ */
+class OperationCounters {
+
+    private final Map<String, ConfigurableApplicationContext> services;
+    private final EmbeddedInfrastructure infrastructure;
+    private final Map<String, LoadTestReport.MessagingOperations> messagingBaseline = new HashMap<>();
+    private Map<String, Long> recordsBaseline = Map.of();
+
+    OperationCounters(Map<String, ConfigurableApplicationContext> services, EmbeddedInfrastructure infrastructure) {
+        this.services = services;
+        this.infrastructure = infrastructure;
+    }
+
+    void reset() {
+        services.forEach((name, context) -> {
+            statistics(context).clear();
+            messagingBaseline.put(name, messaging(context));
+        });
+        recordsBaseline = infrastructure.recordsByTopic();
+    }
+
+    Map<String, LoadTestReport.DatabaseOperations> database() {
+        Map<String, LoadTestReport.DatabaseOperations> database = new LinkedHashMap<>();
+        services.forEach((name, context) -> {
+            Statistics statistics = statistics(context);
+            database.put(name, LoadTestReport.DatabaseOperations.builder()
+                    .statements(statistics.getPrepareStatementCount())
+                    .queries(statistics.getQueryExecutionCount())
+                    .transactions(statistics.getTransactionCount())
+                    .entityLoads(statistics.getEntityLoadCount())
+                    .entityInserts(statistics.getEntityInsertCount())
+                    .entityUpdates(statistics.getEntityUpdateCount())
+                    .optimisticFailures(statistics.getOptimisticFailureCount())
+                    .build());
+        });
+        return database;
+    }
+
+    Map<String, LoadTestReport.MessagingOperations> messaging() {
+        Map<String, LoadTestReport.MessagingOperations> messaging = new LinkedHashMap<>();
+        services.forEach((name, context) -> {
+            LoadTestReport.MessagingOperations now = messaging(context);
+            LoadTestReport.MessagingOperations baseline = messagingBaseline.get(name);
+            messaging.put(name, LoadTestReport.MessagingOperations.builder()
+                    .consumed(now.getConsumed() - baseline.getConsumed())
+                    .consumeErrors(now.getConsumeErrors() - baseline.getConsumeErrors())
+                    .relayed(now.getRelayed() - baseline.getRelayed())
+                    .build());
+        });
+        return messaging;
+    }
+
+    Map<String, Long> recordsByTopic() {
+        Map<String, Long> records = new LinkedHashMap<>();
+        infrastructure.recordsByTopic().forEach((topic, count) ->
+                records.put(topic, count - recordsBaseline.getOrDefault(topic, 0L)));
+        return records;
+    }
+
+    private static Statistics statistics(ConfigurableApplicationContext context) {
+        return context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static LoadTestReport.MessagingOperations messaging(ConfigurableApplicationContext context) {
+        MeterRegistry registry = context.getBean(MeterRegistry.class);
+        return LoadTestReport.MessagingOperations.builder()
+                .consumed(count(registry, "listener.processing", null))
+                .consumeErrors(count(registry, "listener.processing", "error"))
+                .relayed(count(registry, "outbox.send", null))
+                .build();
+    }
+
+    private static long count(MeterRegistry registry, String name, String outcome) {
+        Search search = registry.find(name);
+        if (outcome != null) {
+            search = search.tag("outcome", outcome);
+        }
+        return search.timers().stream().mapToLong(Timer::count).sum();
+    }
+}
@@ -1,18 +1,24 @@
 package com.uber.api.payment.service;
 
-import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication(scanBasePackages = "com.uber.api")
+@SpringBootApplication(scanBasePackages = {"com.uber.api.payment.service", "com.uber.api.shared"})
 @EntityScan(basePackages = {"com.uber.api.payment.service", "com.uber.api.shared"})
 @EnableJpaRepositories(basePackages = {"com.uber.api.payment.service", "com.uber.api.shared"})
 @EnableScheduling
 public class PaymentServiceApplication {
 
+	// Settings live in payment-service.yml rather than application.yml, so a JVM hosting several services
+	// (single-node, load-test) still loads each service's own file
+	public static final String CONFIG_NAME = "payment-service";
+
 	public static void main(String[] args) {
-		SpringApplication.run(PaymentServiceApplication.class, args);
+		new SpringApplicationBuilder(PaymentServiceApplication.class)
+				.properties("spring.config.name=" + CONFIG_NAME)
+				.run(args);
 	}
 }
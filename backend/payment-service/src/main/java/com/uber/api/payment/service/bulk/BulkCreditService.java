@@ -0,0 +1,340 @@
+package com.uber.api.payment.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.api.payment.service.cache.BalanceCache;
+import com.uber.api.payment.service.dto.BulkCreditLine;
+import com.uber.api.payment.service.entity.Balance;
+import com.uber.api.payment.service.entity.BulkCreditJob;
+import com.uber.api.payment.service.entity.Transaction;
+import com.uber.api.payment.service.ledger.LedgerEngine;
+import com.uber.api.payment.service.repository.BulkCreditJobRepository;
+import com.uber.api.shared.money.Money;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Applies bulk credits (corporate onboarding, promo credits) uploaded as NDJSON or CSV. The upload is spooled
+ * to disk and a job id returned; a single worker then reads the file line by line and applies it in chunks.
+ * Each chunk is one multi-row upsert into balances plus one multi-row insert of its CREDIT transactions,
+ * committed together with the job's progress, so memory is bounded by the chunk size and a restarted job
+ * continues after its last committed line.
+ */
+@Slf4j
+@Service
+public class BulkCreditService {
+
+    // Duplicate customers within a chunk are merged first: ON CONFLICT cannot update a row twice per statement
+    private static final String UPSERT_BALANCES =
+            "INSERT INTO balances (customer_email, amount, last_updated, version) " +
+            "SELECT c.email, ? + c.amount, now(), 0 FROM unnest(?::varchar[], ?::numeric[]) AS c(email, amount) " +
+            "ON CONFLICT (customer_email) DO UPDATE SET amount = balances.amount + (EXCLUDED.amount - ?), " +
+            "last_updated = now(), version = balances.version + 1 " +
+            "RETURNING customer_email, amount, version";
+
+    private static final String INSERT_TRANSACTIONS =
+            "INSERT INTO transactions (id, customer_email, amount, status, type, description, created_at, processed_at, version) " +
+            "SELECT gen_random_uuid(), c.email, c.amount, 'COMPLETED', 'CREDIT', c.description, now(), now(), 0 " +
+            "FROM unnest(?::varchar[], ?::numeric[], ?::varchar[]) AS c(email, amount, description)";
+
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+
+    private final BulkCreditJobRepository jobRepository;
+    private final BalanceCache balanceCache;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path spoolDir;
+    private final int chunkSize;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "payment-bulk-credit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BulkCreditService(BulkCreditJobRepository jobRepository,
+                             BalanceCache balanceCache,
+                             ObjectProvider<LedgerEngine> ledgerEngine,
+                             ObjectMapper objectMapper,
+                             DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${uber.payment.bulk-credit.spool-dir:./bulk-credit-spool}") String spoolDir,
+                             @Value("${uber.payment.bulk-credit.chunk-size:1000}") int chunkSize) {
+        this.jobRepository = jobRepository;
+        this.balanceCache = balanceCache;
+        this.ledgerEngine = ledgerEngine;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.spoolDir = Path.of(spoolDir);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Copies the upload to the spool directory and queues it; returns once the body is on disk.
+     */
+    public BulkCreditJob submit(InputStream body, String format, String description) throws IOException {
+        UUID jobId = UUID.randomUUID();
+        Files.createDirectories(spoolDir);
+        Path spool = spoolDir.resolve(jobId + "." + format);
+        long bytes = Files.copy(body, spool);
+
+        BulkCreditJob job = jobRepository.save(BulkCreditJob.builder()
+                .id(jobId)
+                .status(BulkCreditJob.JobStatus.PENDING)
+                .format(format)
+                .description(description)
+                .spoolPath(spool.toString())
+                .linesRead(0L)
+                .creditsApplied(0L)
+                .rejectedLines(0L)
+                .totalCredited(Money.ZERO)
+                .createdAt(ZonedDateTime.now())
+                .build());
+        log.info("Accepted bulk credit job {} ({} bytes of {})", jobId, bytes, format);
+
+        worker.execute(() -> run(jobId));
+        return job;
+    }
+
+    public Optional<BulkCreditJob> getJob(UUID jobId) {
+        return jobRepository.findById(jobId);
+    }
+
+    /**
+     * Requeues a failed job; it continues after its last committed line.
+     */
+    public Optional<BulkCreditJob> resume(UUID jobId) {
+        if (jobRepository.claimFailed(jobId) == 0) {
+            return Optional.empty();
+        }
+        worker.execute(() -> run(jobId));
+        return jobRepository.findById(jobId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        for (BulkCreditJob job : jobRepository.findByStatusInOrderByCreatedAt(
+                List.of(BulkCreditJob.JobStatus.PENDING, BulkCreditJob.JobStatus.RUNNING))) {
+            log.info("Resuming bulk credit job {} after line {}", job.getId(), job.getLinesRead());
+            worker.execute(() -> run(job.getId()));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    private void run(UUID jobId) {
+        BulkCreditJob job = jobRepository.findById(jobId).orElseThrow();
+        if (job.getStatus() != BulkCreditJob.JobStatus.PENDING && job.getStatus() != BulkCreditJob.JobStatus.RUNNING) {
+            // Queued twice, e.g. by a startup resume and a manual one; the first run already finished it
+            log.info("Skipping bulk credit job {} in status {}", jobId, job.getStatus());
+            return;
+        }
+        Path spool = Path.of(job.getSpoolPath());
+        if (!Files.exists(spool)) {
+            fail(job, "Spool file missing: " + spool);
+            return;
+        }
+        job.setStatus(BulkCreditJob.JobStatus.RUNNING);
+        if (job.getStartedAt() == null) {
+            job.setStartedAt(ZonedDateTime.now());
+        }
+        job = jobRepository.save(job);
+
+        long start = System.currentTimeMillis();
+        try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            long alreadyApplied = job.getLinesRead();
+            List<BulkCreditLine> chunk = new ArrayList<>(chunkSize);
+            long rejected = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= alreadyApplied || line.isBlank()) {
+                    continue;
+                }
+                try {
+                    BulkCreditLine credit = parse(line, job.getFormat());
+                    if (credit != null) {
+                        chunk.add(credit);
+                    }
+                } catch (Exception e) {
+                    rejected++;
+                    job.setLastError(truncate("Line " + lineNumber + ": " + e.getMessage()));
+                }
+                if (chunk.size() == chunkSize) {
+                    job = applyChunk(job, chunk, lineNumber, rejected);
+                    chunk.clear();
+                    rejected = 0;
+                }
+            }
+            job = applyChunk(job, chunk, lineNumber, rejected);
+
+            job.setStatus(BulkCreditJob.JobStatus.COMPLETED);
+            job.setCompletedAt(ZonedDateTime.now());
+            jobRepository.save(job);
+            Files.deleteIfExists(spool);
+            log.info("✅ Bulk credit job {} applied {} credits totalling {} ({} rejected lines) in {} ms",
+                    jobId, job.getCreditsApplied(), job.getTotalCredited(), job.getRejectedLines(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Bulk credit job {} failed", jobId, e);
+            // Reload so the recorded progress is the last committed chunk, not the one that failed
+            jobRepository.findById(jobId)
+                    .filter(current -> current.getStatus() == BulkCreditJob.JobStatus.RUNNING)
+                    .ifPresent(current -> fail(current, e.getMessage()));
+        }
+    }
+
+    private BulkCreditJob applyChunk(BulkCreditJob job, List<BulkCreditLine> chunk, long linesRead, long rejected) {
+        Money chunkTotal = Money.ZERO;
+        for (BulkCreditLine credit : chunk) {
+            chunkTotal = chunkTotal.plus(credit.getAmount());
+        }
+        job.setLinesRead(linesRead);
+        job.setCreditsApplied(job.getCreditsApplied() + chunk.size());
+        job.setRejectedLines(job.getRejectedLines() + rejected);
+        job.setTotalCredited(job.getTotalCredited().plus(chunkTotal));
+
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        if (ledger != null) {
+            // Balances live in the ledger; its checkpoint writes the transaction rows. Saga ids derived from the
+            // job and line let the ledger's dedupe window drop a chunk replayed after a restart.
+            List<CompletableFuture<Money>> postings = new ArrayList<>(chunk.size());
+            long lineIndex = linesRead - chunk.size();
+            for (BulkCreditLine credit : chunk) {
+                UUID postingId = UUID.nameUUIDFromBytes((job.getId() + ":" + lineIndex++).getBytes(StandardCharsets.UTF_8));
+                postings.add(ledger.credit(Transaction.TransactionType.CREDIT, credit.getCustomerEmail(),
+                        credit.getAmount(), postingId, null, description(job, credit)));
+            }
+            CompletableFuture.allOf(postings.toArray(CompletableFuture[]::new)).join();
+            return jobRepository.save(job);
+        }
+
+        return transactionTemplate.execute(status -> {
+            if (!chunk.isEmpty()) {
+                upsertBalances(chunk);
+                insertTransactions(job, chunk);
+            }
+            return jobRepository.save(job);
+        });
+    }
+
+    private void upsertBalances(List<BulkCreditLine> chunk) {
+        Map<String, BigDecimal> perCustomer = new LinkedHashMap<>();
+        for (BulkCreditLine credit : chunk) {
+            perCustomer.merge(credit.getCustomerEmail(), credit.getAmount().toBigDecimal(), BigDecimal::add);
+        }
+        String[] emails = perCustomer.keySet().toArray(String[]::new);
+        BigDecimal[] amounts = perCustomer.values().toArray(BigDecimal[]::new);
+        BigDecimal initialAmount = Balance.INITIAL_AMOUNT.toBigDecimal();
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERT_BALANCES);
+            ps.setBigDecimal(1, initialAmount);
+            ps.setArray(2, con.createArrayOf("varchar", emails));
+            ps.setArray(3, con.createArrayOf("numeric", amounts));
+            ps.setBigDecimal(4, initialAmount);
+            return ps;
+        }, rs -> {
+            balanceCache.update(rs.getString("customer_email"), rs.getBigDecimal("amount"), rs.getLong("version"));
+        });
+    }
+
+    private void insertTransactions(BulkCreditJob job, List<BulkCreditLine> chunk) {
+        String[] emails = new String[chunk.size()];
+        BigDecimal[] amounts = new BigDecimal[chunk.size()];
+        String[] descriptions = new String[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkCreditLine credit = chunk.get(i);
+            emails[i] = credit.getCustomerEmail();
+            amounts[i] = credit.getAmount().toBigDecimal();
+            descriptions[i] = description(job, credit);
+        }
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_TRANSACTIONS);
+            ps.setArray(1, con.createArrayOf("varchar", emails));
+            ps.setArray(2, con.createArrayOf("numeric", amounts));
+            ps.setArray(3, con.createArrayOf("varchar", descriptions));
+            return ps;
+        });
+    }
+
+    private BulkCreditLine parse(String line, String format) throws IOException {
+        BulkCreditLine credit;
+        if (FORMAT_CSV.equals(format)) {
+            String[] fields = line.split(",", 3);
+            String email = fields[0].trim();
+            if (email.equalsIgnoreCase("customerEmail") || email.equalsIgnoreCase("customer_email")) {
+                return null; // header
+            }
+            if (fields.length < 2) {
+                throw new IllegalArgumentException("expected customerEmail,amount[,reference]");
+            }
+            credit = BulkCreditLine.builder()
+                    .customerEmail(email)
+                    .amount(Money.of(new BigDecimal(fields[1].trim())))
+                    .reference(fields.length > 2 ? fields[2].trim() : null)
+                    .build();
+        } else {
+            credit = objectMapper.readValue(line, BulkCreditLine.class);
+        }
+
+        if (credit.getCustomerEmail() == null || credit.getCustomerEmail().isBlank()) {
+            throw new IllegalArgumentException("customerEmail is required");
+        }
+        if (credit.getAmount() == null || credit.getAmount().getMinorUnits() <= 0) {
+            throw new IllegalArgumentException("amount must be positive");
+        }
+        return credit;
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private static String description(BulkCreditJob job, BulkCreditLine credit) {
+        String base = job.getDescription() != null ? job.getDescription() : "Bulk credit " + job.getId();
+        return credit.getReference() != null ? base + ": " + credit.getReference() : base;
+    }
+
+    private void fail(BulkCreditJob job, String reason) {
+        job.setStatus(BulkCreditJob.JobStatus.FAILED);
+        job.setLastError(truncate(reason));
+        job.setCompletedAt(ZonedDateTime.now());
+        jobRepository.save(job);
+    }
+}
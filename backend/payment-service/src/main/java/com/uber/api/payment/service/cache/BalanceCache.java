@@ -0,0 +1,94 @@
+package com.uber.api.payment.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uber.api.payment.service.entity.Balance;
+import com.uber.api.payment.service.repository.BalanceRepository;
+import com.uber.api.shared.money.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Read-through cache of balances for the balance endpoint. Misses read the row without creating it;
+ * unknown customers see the initial balance their account will open with. The payment, refund and
+ * top-up paths write through after commit, and the row version keeps a late update from replacing
+ * a newer one.
+ */
+@Component
+public class BalanceCache {
+
+    private final BalanceRepository balanceRepository;
+    private final Cache<String, CachedBalance> cache;
+
+    public BalanceCache(BalanceRepository balanceRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${uber.payment.balance-cache.max-size:100000}") long maxSize,
+                        @Value("${uber.payment.balance-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.balanceRepository = balanceRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size tagged cache=balances
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "balances");
+    }
+
+    public Money get(String customerEmail) {
+        return cache.get(customerEmail, this::load).amount;
+    }
+
+    public void update(String customerEmail, BalanceRepository.BalanceSnapshot snapshot) {
+        update(customerEmail, snapshot.getAmount(), snapshot.getVersion());
+    }
+
+    public void update(String customerEmail, BigDecimal amount, Long version) {
+        CachedBalance updated = new CachedBalance(Money.of(amount), versionOf(version));
+        afterCommit(() -> cache.asMap().merge(customerEmail, updated,
+                (current, candidate) -> candidate.version >= current.version ? candidate : current));
+    }
+
+    public void evict(String customerEmail) {
+        afterCommit(() -> cache.invalidate(customerEmail));
+    }
+
+    private CachedBalance load(String customerEmail) {
+        return balanceRepository.findSnapshotByCustomerEmail(customerEmail)
+                .map(snapshot -> new CachedBalance(Money.of(snapshot.getAmount()), versionOf(snapshot.getVersion())))
+                .orElseGet(() -> new CachedBalance(Balance.INITIAL_AMOUNT, -1));
+    }
+
+    private static long versionOf(Long version) {
+        return version != null ? version : 0;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class CachedBalance {
+        final Money amount;
+        final long version;
+
+        CachedBalance(Money amount, long version) {
+            this.amount = amount;
+            this.version = version;
+        }
+    }
+}
@@ -1,13 +1,25 @@
 package com.uber.api.payment.service.config;
 
+import com.uber.api.shared.codec.CompressingStringSerializer;
+import com.uber.api.shared.codec.DecompressingStringDeserializer;
+import com.uber.api.shared.codec.ZstdDictionaryCodec;
+import com.uber.api.shared.transport.MessageContextInterceptor;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -15,37 +27,95 @@ import java.util.Map;
 @Configuration
 public class KafkaConfig {
 
+    // Exactly-once mode: listener offsets and response events commit in one Kafka transaction
+    @Value("${uber.payment.kafka-transactions.enabled:false}")
+    private boolean kafkaTransactionsEnabled;
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${uber.transport.mode:kafka}")
+    private String transportMode;
+
+    // More consumer threads give the group-commit writer concurrent units to batch
+    @Value("${uber.payment.listener-concurrency:1}")
+    private int listenerConcurrency;
+
+    // Per-record zstd with a trained dictionary; consumers always understand it once a dictionary dir is set
+    @Value("${uber.codec.compress:false}")
+    private boolean compressPayloads;
+
+    @Autowired
+    private ObjectProvider<ZstdDictionaryCodec> codecProvider;
+
+    @Autowired
+    private ObjectProvider<CommonErrorHandler> undecodableRecordHandler;
+
+    @Autowired
+    private MessageContextInterceptor messageContextInterceptor;
+
     @Bean
     public ProducerFactory<String, String> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        DefaultKafkaProducerFactory<String, String> factory = new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer());
+        if (kafkaTransactionsEnabled) {
+            factory.setTransactionIdPrefix("payment-tx-");
+        }
+        return factory;
     }
 
     @Bean
     public KafkaTemplate<String, String> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        KafkaTemplate<String, String> template = new KafkaTemplate<>(producerFactory());
+        // The outbox relay still sends outside any listener transaction
+        template.setAllowNonTransactional(true);
+        return template;
     }
 
     @Bean
     public ConsumerFactory<String, String> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "payment-service-group");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        return new DefaultKafkaConsumerFactory<>(props);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), valueDeserializer());
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setRecordInterceptor(messageContextInterceptor);
+        undecodableRecordHandler.ifAvailable(factory::setCommonErrorHandler);
+        factory.setConcurrency(listenerConcurrency);
+        // Listeners are driven by the in-memory bus instead when the services are co-hosted
+        factory.setAutoStartup(!"in-memory".equals(transportMode));
+        if (kafkaTransactionsEnabled) {
+            // Not registered as a bean so Boot keeps the JPA transactionManager used by @Transactional.
+            // The container begins the Kafka transaction and calls sendOffsetsToTransaction; the listener's
+            // JPA transaction nests inside it and commits first. If the Kafka commit then fails, the
+            // redelivered request is a duplicate and resends the events its outbox rows recorded as sent.
+            factory.getContainerProperties().setKafkaAwareTransactionManager(
+                    new KafkaTransactionManager<>(producerFactory()));
+        }
         return factory;
     }
+
+    private Serializer<String> valueSerializer() {
+        ZstdDictionaryCodec codec = codecProvider.getIfAvailable();
+        return compressPayloads && codec != null ? new CompressingStringSerializer(codec) : new StringSerializer();
+    }
+
+    private Deserializer<String> valueDeserializer() {
+        ZstdDictionaryCodec codec = codecProvider.getIfAvailable();
+        // An undecodable record reaches the undecodableRecordHandler instead of failing every poll of its partition
+        return codec != null ? new ErrorHandlingDeserializer<>(new DecompressingStringDeserializer(codec))
+                : new StringDeserializer();
+    }
 }
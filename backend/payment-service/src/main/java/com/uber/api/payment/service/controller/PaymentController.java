@@ -1,12 +1,24 @@
 package com.uber.api.payment.service.controller;
 
+import com.uber.api.payment.service.bulk.BulkCreditService;
+import com.uber.api.payment.service.dto.TransactionHistoryPage;
+import com.uber.api.payment.service.entity.BulkCreditJob;
+import com.uber.api.payment.service.history.StatementFormat;
+import com.uber.api.payment.service.history.TransactionHistoryService;
 import com.uber.api.payment.service.service.PaymentDomainService;
+import com.uber.api.shared.money.Money;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.UUID;
 
 @Slf4j
 @RestController
@@ -16,13 +28,15 @@ import java.math.BigDecimal;
 public class PaymentController {
 
     private final PaymentDomainService paymentDomainService;
+    private final TransactionHistoryService transactionHistoryService;
+    private final BulkCreditService bulkCreditService;
 
     @GetMapping("/balance/{customerEmail}")
-    public ResponseEntity<BigDecimal> getBalance(@PathVariable String customerEmail) {
+    public ResponseEntity<Money> getBalance(@PathVariable String customerEmail) {
         log.info("Getting balance for customer: {}", customerEmail);
 
         try {
-            BigDecimal balance = paymentDomainService.getBalance(customerEmail);
+            Money balance = paymentDomainService.getBalance(customerEmail);
             return ResponseEntity.ok(balance);
         } catch (Exception e) {
             log.error("Error getting balance for customer: {}", customerEmail, e);
@@ -36,7 +50,7 @@ public class PaymentController {
         log.info("Adding balance {} for customer: {}", amount, customerEmail);
 
         try {
-            paymentDomainService.addBalance(customerEmail, amount);
+            paymentDomainService.addBalance(customerEmail, Money.of(amount));
             return ResponseEntity.ok("Balance added successfully");
         } catch (Exception e) {
             log.error("Error adding balance for customer: {}", customerEmail, e);
@@ -44,6 +58,59 @@ public class PaymentController {
         }
     }
 
+    // NDJSON or CSV body, spooled to disk and applied in the background; poll the returned job for progress
+    @PostMapping(value = "/balance/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<BulkCreditJob> bulkCredit(HttpServletRequest request,
+                                                    @RequestParam(required = false) String description) {
+        String format = request.getContentType().startsWith("text/csv")
+                ? BulkCreditService.FORMAT_CSV : BulkCreditService.FORMAT_NDJSON;
+        try {
+            return ResponseEntity.accepted().body(bulkCreditService.submit(request.getInputStream(), format, description));
+        } catch (IOException e) {
+            log.error("Failed to accept bulk credit upload", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/balance/bulk/{jobId}")
+    public ResponseEntity<BulkCreditJob> getBulkCreditJob(@PathVariable UUID jobId) {
+        return bulkCreditService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/balance/bulk/{jobId}/resume")
+    public ResponseEntity<BulkCreditJob> resumeBulkCreditJob(@PathVariable UUID jobId) {
+        return bulkCreditService.resume(jobId)
+                .map(job -> ResponseEntity.accepted().body(job))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/transactions/{customerEmail}")
+    public ResponseEntity<TransactionHistoryPage> getTransactions(@PathVariable String customerEmail,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(transactionHistoryService.page(customerEmail, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected history request for customer: {}: {}", customerEmail, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/transactions/{customerEmail}/statement")
+    public ResponseEntity<StreamingResponseBody> exportStatement(@PathVariable String customerEmail,
+                                                                 @RequestParam(defaultValue = "CSV") StatementFormat format) {
+        log.info("Exporting {} statement for customer: {}", format, customerEmail);
+
+        StreamingResponseBody body = out -> transactionHistoryService.export(customerEmail, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"statement." + format.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Payment Service is healthy");
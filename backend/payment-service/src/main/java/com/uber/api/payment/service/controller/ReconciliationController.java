@@ -0,0 +1,34 @@
+package com.uber.api.payment.service.controller;
+
+import com.uber.api.payment.service.entity.ReconciliationRun;
+import com.uber.api.payment.service.reconciliation.ReconciliationJob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/payment/reconciliation")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ReconciliationController {
+
+    private final ReconciliationJob reconciliationJob;
+
+    @PostMapping
+    public ResponseEntity<UUID> startReconciliation() {
+        UUID runId = reconciliationJob.start();
+        log.info("Reconciliation run {} started", runId);
+        return ResponseEntity.accepted().body(runId);
+    }
+
+    @GetMapping("/{runId}")
+    public ResponseEntity<ReconciliationRun> getRun(@PathVariable UUID runId) {
+        return reconciliationJob.getRun(runId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
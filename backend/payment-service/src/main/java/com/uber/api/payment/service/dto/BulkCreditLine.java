@@ -0,0 +1,21 @@
+package com.uber.api.payment.service.dto;
+
+import com.uber.api.shared.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a bulk credit upload: {"customerEmail": ..., "amount": 25.00, "reference": ...} as NDJSON,
+ * or customerEmail,amount[,reference] as CSV.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCreditLine {
+    private String customerEmail;
+    private Money amount;
+    private String reference;
+}
@@ -0,0 +1,38 @@
+package com.uber.api.payment.service.dto;
+
+import com.uber.api.payment.service.entity.Transaction;
+import com.uber.api.shared.constants.PaymentStatus;
+import com.uber.api.shared.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionHistoryItem {
+    private UUID id;
+    private UUID rideRequestId;
+    private Money amount;
+    private Transaction.TransactionType type;
+    private PaymentStatus status;
+    private String description;
+    private ZonedDateTime createdAt;
+
+    public static TransactionHistoryItem from(Transaction transaction) {
+        return TransactionHistoryItem.builder()
+                .id(transaction.getId())
+                .rideRequestId(transaction.getRideRequestId())
+                .amount(transaction.getAmount())
+                .type(transaction.getType())
+                .status(transaction.getStatus())
+                .description(transaction.getDescription())
+                .createdAt(transaction.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.uber.api.payment.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionHistoryPage {
+    private List<TransactionHistoryItem> items;
+    // Opaque; pass back as ?cursor= for the next page, null on the last page
+    private String nextCursor;
+}
@@ -1,12 +1,14 @@
 package com.uber.api.payment.service.entity;
 
+import com.uber.api.shared.money.Money;
+import com.uber.api.shared.money.MoneyConverter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 
 @Entity
@@ -17,11 +19,22 @@ import java.time.ZonedDateTime;
 @AllArgsConstructor
 public class Balance {
 
+    // Every new customer starts with $100
+    public static final Money INITIAL_AMOUNT = Money.ofMinor(10_000);
+
     @Id
     private String customerEmail;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(precision = 19, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
+
+    // Authorized for rides but not captured yet; spendable balance is amount - held
+    @Builder.Default
+    @ColumnDefault("0")
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 19, scale = 2, nullable = false)
+    private Money held = Money.ZERO;
 
     private ZonedDateTime lastUpdated;
 
@@ -29,20 +42,20 @@ public class Balance {
     private Long version;
 
     // Business logic
-    public boolean hasSufficientBalance(BigDecimal requiredAmount) {
-        return amount.compareTo(requiredAmount) >= 0;
+    public boolean hasSufficientBalance(Money requiredAmount) {
+        return amount.isGreaterThanOrEqual(requiredAmount);
     }
 
-    public void deductAmount(BigDecimal amountToDeduct) {
+    public void deductAmount(Money amountToDeduct) {
         if (!hasSufficientBalance(amountToDeduct)) {
             throw new RuntimeException("Insufficient balance");
         }
-        this.amount = this.amount.subtract(amountToDeduct);
+        this.amount = this.amount.minus(amountToDeduct);
         this.lastUpdated = ZonedDateTime.now();
     }
 
-    public void addAmount(BigDecimal amountToAdd) {
-        this.amount = this.amount.add(amountToAdd);
+    public void addAmount(Money amountToAdd) {
+        this.amount = this.amount.plus(amountToAdd);
         this.lastUpdated = ZonedDateTime.now();
     }
 }
@@ -0,0 +1,54 @@
+package com.uber.api.payment.service.entity;
+
+import com.uber.api.shared.money.Money;
+import com.uber.api.shared.money.MoneyConverter;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of a bulk credit upload. Counters are committed with each chunk's balance and transaction rows,
+ * so an interrupted job resumes after the last line it applied.
+ */
+@Entity
+@Table(name = "bulk_credit_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCreditJob {
+
+    @Id
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    private JobStatus status;
+
+    private String format;
+    private String description;
+    private String spoolPath;
+
+    private Long linesRead;
+    private Long creditsApplied;
+    private Long rejectedLines;
+
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 19, scale = 2)
+    private Money totalCredited;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private ZonedDateTime createdAt;
+    private ZonedDateTime startedAt;
+    private ZonedDateTime completedAt;
+
+    public enum JobStatus {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,28 @@
+package com.uber.api.payment.service.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+
+/**
+ * Last journal sequence of a ledger partition whose effects are in balances/transactions.
+ */
+@Entity
+@Table(name = "ledger_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerCheckpoint {
+
+    @Id
+    private Integer partitionId;
+
+    private Long lastSequence;
+
+    private ZonedDateTime checkpointedAt;
+}
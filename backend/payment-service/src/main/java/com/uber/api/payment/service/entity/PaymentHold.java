@@ -0,0 +1,55 @@
+package com.uber.api.payment.service.entity;
+
+import com.uber.api.shared.money.Money;
+import com.uber.api.shared.money.MoneyConverter;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Amount authorized against a customer's balance for one ride, captured on completion or released on
+ * cancellation and expiry.
+ */
+@Entity
+@Table(name = "payment_holds", indexes = {
+        @Index(name = "idx_payment_holds_ride_request_id", columnList = "ride_request_id", unique = true),
+        @Index(name = "idx_payment_holds_status_expires_at", columnList = "status, expires_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    private UUID sagaId;
+    private UUID rideRequestId;
+    private String customerEmail;
+
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 19, scale = 2)
+    private Money amount;
+
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 19, scale = 2)
+    private Money capturedAmount;
+
+    @Enumerated(EnumType.STRING)
+    private HoldStatus status;
+
+    private ZonedDateTime createdAt;
+    private ZonedDateTime expiresAt;
+    private ZonedDateTime completedAt;
+
+    public enum HoldStatus {
+        AUTHORIZED, CAPTURED, RELEASED, EXPIRED
+    }
+}
@@ -36,6 +36,14 @@ public class PaymentOutbox {
     @Enumerated(EnumType.STRING)
     private SagaStatus sagaStatus;
 
+    // Propagated message headers (saga stage timestamps), form-encoded
+    @Column(columnDefinition = "TEXT")
+    private String headers;
+
+    // Sent in the listener's Kafka transaction rather than by the relay; kept so that a redelivery of the
+    // request, after that transaction aborted, can produce the event again
+    private boolean sentInTransaction;
+
     private ZonedDateTime createdAt;
 
     private ZonedDateTime processedAt;
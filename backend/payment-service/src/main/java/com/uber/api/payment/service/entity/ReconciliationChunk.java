@@ -0,0 +1,47 @@
+package com.uber.api.payment.service.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Customer key range (lowerBound, upperBound] of a reconciliation run; a null upper bound is open-ended.
+ * A chunk is marked DONE in the same transaction that stores its discrepancies, so a resumed run
+ * only repeats the ranges that had not committed.
+ */
+@Entity
+@Table(name = "reconciliation_chunks", indexes = {
+        @Index(name = "idx_reconciliation_chunks_run_chunk", columnList = "run_id, chunk_index", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    private UUID runId;
+    private Integer chunkIndex;
+
+    private String lowerBound;
+    private String upperBound;
+
+    @Enumerated(EnumType.STRING)
+    private ChunkStatus status;
+
+    private Long customersChecked;
+    private Long discrepancies;
+    private ZonedDateTime completedAt;
+
+    public enum ChunkStatus {
+        PENDING, DONE
+    }
+}
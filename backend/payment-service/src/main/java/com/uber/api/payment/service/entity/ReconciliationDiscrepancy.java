@@ -0,0 +1,54 @@
+package com.uber.api.payment.service.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "reconciliation_discrepancies", indexes = {
+        @Index(name = "idx_reconciliation_discrepancies_run", columnList = "run_id, customer_email")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationDiscrepancy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    private UUID runId;
+    private Integer chunkIndex;
+    private String customerEmail;
+
+    @Enumerated(EnumType.STRING)
+    private Kind kind;
+
+    // Null when the customer has transactions but no balance row
+    @Column(precision = 19, scale = 2)
+    private BigDecimal recordedAmount;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal expectedAmount;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal difference;
+
+    private Integer overRefundedRides;
+    private ZonedDateTime detectedAt;
+
+    public enum Kind {
+        // balances.amount differs from the initial amount plus credits and refunds minus debits
+        BALANCE_MISMATCH,
+        MISSING_BALANCE,
+        // Refunded more than was charged for at least one ride, e.g. a refund applied on both refund paths
+        OVER_REFUND
+    }
+}
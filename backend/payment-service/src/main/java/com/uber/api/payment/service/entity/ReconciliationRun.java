@@ -0,0 +1,37 @@
+package com.uber.api.payment.service.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "reconciliation_runs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRun {
+
+    @Id
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    private RunStatus status;
+
+    private Integer chunks;
+    private Long customersChecked;
+    private Long discrepancies;
+    private String reportPath;
+
+    private ZonedDateTime startedAt;
+    private ZonedDateTime completedAt;
+
+    public enum RunStatus {
+        RUNNING, COMPLETED, FAILED
+    }
+}
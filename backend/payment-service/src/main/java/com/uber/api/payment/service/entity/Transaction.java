@@ -1,18 +1,22 @@
 package com.uber.api.payment.service.entity;
 
 import com.uber.api.shared.constants.PaymentStatus;
+import com.uber.api.shared.money.Money;
+import com.uber.api.shared.money.MoneyConverter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        // Seek index for history pages and statement exports: equality on the customer, then (created_at, id)
+        @Index(name = "idx_transactions_customer_created_id", columnList = "customer_email, created_at, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -27,8 +31,9 @@ public class Transaction {
     private UUID rideRequestId;
     private UUID sagaId;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(precision = 19, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     private PaymentStatus status;
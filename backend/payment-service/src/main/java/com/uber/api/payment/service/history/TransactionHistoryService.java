@@ -0,0 +1,221 @@
+package com.uber.api.payment.service.history;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.api.payment.service.dto.TransactionHistoryItem;
+import com.uber.api.payment.service.dto.TransactionHistoryPage;
+import com.uber.api.payment.service.entity.Transaction;
+import com.uber.api.payment.service.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Customer transaction history. Pages seek on (created_at, id) through the customer index, so a page
+ * deep in a heavy user's history costs the same as the first one. Statement exports stream rows from
+ * a server-side cursor straight into the response, holding one fetch batch in memory at a time.
+ */
+@Slf4j
+@Service
+public class TransactionHistoryService {
+
+    private static final String EXPORT_QUERY =
+            "SELECT id, created_at, type, status, amount, ride_request_id, description FROM transactions " +
+            "WHERE customer_email = ? ORDER BY created_at, id";
+    private static final String CSV_HEADER = "id,created_at,type,status,amount,ride_request_id,description\n";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final TransactionRepository transactionRepository;
+    private final JdbcTemplate exportJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public TransactionHistoryService(TransactionRepository transactionRepository,
+                                     DataSource dataSource,
+                                     PlatformTransactionManager transactionManager,
+                                     ObjectMapper objectMapper,
+                                     @Value("${uber.payment.history.default-page-size:50}") int defaultPageSize,
+                                     @Value("${uber.payment.history.max-page-size:200}") int maxPageSize,
+                                     @Value("${uber.payment.history.export-fetch-size:500}") int exportFetchSize) {
+        this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+
+        // The Postgres driver only uses a cursor with a fetch size inside a transaction (autocommit off);
+        // otherwise it buffers the whole result set
+        this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate.setFetchSize(exportFetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public TransactionHistoryPage page(String customerEmail, String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findLatest(customerEmail, pageSize);
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            rows = transactionRepository.findBefore(customerEmail, position.createdAt(), position.id(), pageSize);
+        }
+
+        String nextCursor = null;
+        if (rows.size() == pageSize) {
+            Transaction last = rows.get(rows.size() - 1);
+            nextCursor = new Cursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return TransactionHistoryPage.builder()
+                .items(rows.stream().map(TransactionHistoryItem::from).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    public void export(String customerEmail, StatementFormat format, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        long start = System.currentTimeMillis();
+        long[] rows = new long[1];
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try {
+                RowWriter rowWriter = format == StatementFormat.CSV ? csvWriter(writer) : ndjsonWriter(writer);
+                exportJdbcTemplate.query(EXPORT_QUERY, rs -> {
+                    try {
+                        rowWriter.write(rs);
+                        rows[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, customerEmail);
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        log.info("Exported {} transactions for customer: {} as {} in {} ms",
+                rows[0], customerEmail, format, System.currentTimeMillis() - start);
+    }
+
+    private RowWriter csvWriter(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        return rs -> {
+            writer.write(rs.getString("id"));
+            writer.write(',');
+            writer.write(createdAt(rs));
+            writer.write(',');
+            writer.write(nullToEmpty(rs.getString("type")));
+            writer.write(',');
+            writer.write(nullToEmpty(rs.getString("status")));
+            writer.write(',');
+            BigDecimal amount = rs.getBigDecimal("amount");
+            writer.write(amount == null ? "" : amount.toPlainString());
+            writer.write(',');
+            writer.write(nullToEmpty(rs.getString("ride_request_id")));
+            writer.write(',');
+            writer.write(csvField(rs.getString("description")));
+            writer.write('\n');
+        };
+    }
+
+    private RowWriter ndjsonWriter(Writer writer) throws IOException {
+        // Each row is handed to the buffered writer as it completes; only the writer flushes the response
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return rs -> {
+            json.writeStartObject();
+            json.writeStringField("id", rs.getString("id"));
+            json.writeStringField("createdAt", createdAt(rs));
+            json.writeStringField("type", rs.getString("type"));
+            json.writeStringField("status", rs.getString("status"));
+            json.writeFieldName("amount");
+            BigDecimal amount = rs.getBigDecimal("amount");
+            if (amount == null) {
+                json.writeNull();
+            } else {
+                json.writeNumber(amount);
+            }
+            json.writeStringField("rideRequestId", rs.getString("ride_request_id"));
+            json.writeStringField("description", rs.getString("description"));
+            json.writeEndObject();
+            json.writeRaw('\n');
+            json.flush();
+        };
+    }
+
+    private static String createdAt(ResultSet rs) throws SQLException {
+        OffsetDateTime createdAt = rs.getObject("created_at", OffsetDateTime.class);
+        return createdAt == null ? "" : createdAt.toString();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    /**
+     * Position of the last row on a page: created_at in epoch microseconds (the column's precision) and id.
+     */
+    private record Cursor(ZonedDateTime createdAt, UUID id) {
+
+        String encode() {
+            Instant instant = createdAt.toInstant();
+            long micros = ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+            String raw = micros + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(':');
+                long micros = Long.parseLong(raw.substring(0, separator));
+                Instant instant = Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+                return new Cursor(instant.atZone(ZoneOffset.UTC), UUID.fromString(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid history cursor: " + cursor, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.uber.api.payment.service.hold;
+
+import com.uber.api.payment.service.cache.BalanceCache;
+import com.uber.api.payment.service.entity.Balance;
+import com.uber.api.payment.service.entity.PaymentHold;
+import com.uber.api.payment.service.entity.Transaction;
+import com.uber.api.payment.service.repository.BalanceRepository;
+import com.uber.api.payment.service.repository.PaymentHoldRepository;
+import com.uber.api.payment.service.writer.TransactionWriter;
+import com.uber.api.shared.constants.PaymentStatus;
+import com.uber.api.shared.events.PaymentRequestEvent;
+import com.uber.api.shared.money.Money;
+import com.uber.api.shared.timer.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Authorization holds: a payment reserves part of the balance instead of debiting it, the ride's final
+ * price is captured on completion, and cancellation or expiry releases the reservation.
+ *
+ * Expiry is driven by an in-memory timing wheel keyed by ride, rebuilt from the AUTHORIZED rows at
+ * startup. A slow sweep over the (status, expires_at) index catches holds created by other instances.
+ *
+ * Holds change {@code balances} directly, so they cannot be combined with the in-memory ledger, which must
+ * see every balance change.
+ */
+@Slf4j
+@Component
+public class PaymentHoldManager {
+
+    private final BalanceRepository balanceRepository;
+    private final PaymentHoldRepository paymentHoldRepository;
+    private final TransactionWriter transactionWriter;
+    private final BalanceCache balanceCache;
+    private final boolean enabled;
+    private final long ttlMinutes;
+    private final TimingWheel<UUID> expiries;
+
+    public PaymentHoldManager(BalanceRepository balanceRepository,
+                              PaymentHoldRepository paymentHoldRepository,
+                              TransactionWriter transactionWriter,
+                              BalanceCache balanceCache,
+                              @Value("${uber.saga.authorization-holds.enabled:false}") boolean enabled,
+                              @Value("${uber.payment.ledger.enabled:false}") boolean ledgerEnabled,
+                              @Value("${uber.payment.holds.ttl-minutes:180}") long ttlMinutes) {
+        if (enabled && ledgerEnabled) {
+            // The ledger would debit the full estimate without a hold row, so a release would refund nothing
+            throw new IllegalStateException(
+                    "uber.saga.authorization-holds.enabled cannot be combined with uber.payment.ledger.enabled");
+        }
+        this.balanceRepository = balanceRepository;
+        this.paymentHoldRepository = paymentHoldRepository;
+        this.transactionWriter = transactionWriter;
+        this.balanceCache = balanceCache;
+        this.enabled = enabled;
+        this.ttlMinutes = ttlMinutes;
+        this.expiries = new TimingWheel<>("payment-holds", 1000, 512, this::expire);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        paymentHoldRepository.findByStatus(PaymentHold.HoldStatus.AUTHORIZED).forEach(hold ->
+                expiries.schedule(hold.getRideRequestId(), hold.getExpiresAt().toInstant().toEpochMilli()));
+        expiries.start();
+        log.info("✅ Payment hold expiry started with {} open holds", expiries.size());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        expiries.stop();
+    }
+
+    /**
+     * Reserves the estimated price; empty when the spendable balance is insufficient.
+     */
+    @Transactional
+    public Optional<Money> authorize(PaymentRequestEvent paymentRequest) {
+        String customerEmail = paymentRequest.getCustomerEmail();
+        if (paymentHoldRepository.existsByRideRequestIdAndStatus(paymentRequest.getRideRequestId(),
+                PaymentHold.HoldStatus.RELEASED)) {
+            log.warn("Ride: {} was released before its payment arrived, not authorizing",
+                    paymentRequest.getRideRequestId());
+            return Optional.empty();
+        }
+        BigDecimal amount = paymentRequest.getAmount().toBigDecimal();
+        Optional<BigDecimal> available = balanceRepository.holdIfAvailable(customerEmail, amount);
+        if (available.isEmpty() && balanceRepository.openIfAbsent(customerEmail, Balance.INITIAL_AMOUNT.toBigDecimal()) > 0) {
+            available = balanceRepository.holdIfAvailable(customerEmail, amount);
+        }
+        if (available.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ZonedDateTime expiresAt = ZonedDateTime.now().plusMinutes(ttlMinutes);
+        paymentHoldRepository.save(PaymentHold.builder()
+                .sagaId(paymentRequest.getSagaId())
+                .rideRequestId(paymentRequest.getRideRequestId())
+                .customerEmail(customerEmail)
+                .amount(paymentRequest.getAmount())
+                .status(PaymentHold.HoldStatus.AUTHORIZED)
+                .createdAt(ZonedDateTime.now())
+                .expiresAt(expiresAt)
+                .build());
+
+        afterCommit(() -> expiries.schedule(paymentRequest.getRideRequestId(), expiresAt.toInstant().toEpochMilli()));
+        log.info("Authorized {} for customer: {} ride: {}", paymentRequest.getAmount(), customerEmail,
+                paymentRequest.getRideRequestId());
+        return available.map(Money::of);
+    }
+
+    /**
+     * Captures the final price, or only the authorized amount when the balance cannot cover an overrun.
+     */
+    @Transactional
+    public boolean capture(UUID rideRequestId, Money finalAmount) {
+        Optional<PaymentHold> hold = paymentHoldRepository.findByRideRequestId(rideRequestId);
+        if (hold.isEmpty() || hold.get().getStatus() != PaymentHold.HoldStatus.AUTHORIZED) {
+            log.warn("No open hold to capture for ride: {}", rideRequestId);
+            return false;
+        }
+        Money authorized = hold.get().getAmount();
+        Money captured = finalAmount;
+        int closed = paymentHoldRepository.capture(rideRequestId, finalAmount.toBigDecimal());
+        if (closed == 0 && finalAmount.compareTo(authorized) > 0) {
+            captured = authorized;
+            closed = paymentHoldRepository.capture(rideRequestId, authorized.toBigDecimal());
+            if (closed > 0) {
+                log.warn("Insufficient balance to capture {} for ride: {}, captured the authorized {}",
+                        finalAmount, rideRequestId, authorized);
+            }
+        }
+        if (closed == 0) {
+            log.warn("No open hold to capture for ride: {}", rideRequestId);
+            return false;
+        }
+        afterCommit(() -> expiries.cancel(rideRequestId));
+        balanceCache.evict(hold.get().getCustomerEmail());
+
+        transactionWriter.save(Transaction.builder()
+                .customerEmail(hold.get().getCustomerEmail())
+                .rideRequestId(rideRequestId)
+                .sagaId(hold.get().getSagaId())
+                .amount(captured)
+                .status(PaymentStatus.COMPLETED)
+                .type(Transaction.TransactionType.DEBIT)
+                .description("Captured ride payment")
+                .createdAt(ZonedDateTime.now())
+                .processedAt(ZonedDateTime.now())
+                .build());
+
+        log.info("Captured {} for ride: {} (authorized {})", captured, rideRequestId, authorized);
+        return true;
+    }
+
+    /**
+     * Releases the ride's hold. A release that overtakes the authorization leaves a RELEASED row behind,
+     * which makes the later {@link #authorize} refuse.
+     */
+    public boolean release(UUID rideRequestId, String customerEmail) {
+        expiries.cancel(rideRequestId);
+        // Written first: an authorization racing it either fails on the unique ride index or is
+        // committed before the insert returns, in which case the update below releases it
+        if (paymentHoldRepository.recordEarlyRelease(rideRequestId, customerEmail) > 0) {
+            log.info("Released ride: {} before its hold was authorized", rideRequestId);
+            return true;
+        }
+        boolean released = paymentHoldRepository.release(rideRequestId, PaymentHold.HoldStatus.RELEASED.name()) > 0;
+        log.info("Released hold for ride: {} ({})", rideRequestId, released ? "released" : "not open");
+        return released;
+    }
+
+    @Scheduled(fixedDelayString = "${uber.payment.holds.sweep-interval-ms:60000}")
+    public void sweepOverdue() {
+        if (!enabled) {
+            return;
+        }
+        int accounts = paymentHoldRepository.expireOverdue();
+        if (accounts > 0) {
+            log.info("Expired overdue holds on {} accounts", accounts);
+        }
+    }
+
+    private void expire(UUID rideRequestId) {
+        if (paymentHoldRepository.release(rideRequestId, PaymentHold.HoldStatus.EXPIRED.name()) > 0) {
+            log.info("Hold expired for ride: {}", rideRequestId);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.uber.api.payment.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.uber.payment.BalanceDebit")
+@Label("Balance Debit")
+@Category({"Uber", "Payment"})
+@Description("Debit or authorization hold of a ride's price against the customer's balance")
+@StackTrace(false)
+public class BalanceDebitEvent extends Event {
+
+    @Label("Ride Request Id")
+    public String rideRequestId;
+
+    @Label("Mode")
+    @Description("ledger, hold or database")
+    public String mode;
+
+    @Label("Amount (cents)")
+    public long amountCents;
+
+    @Label("Retries")
+    @Description("Debits tried again after opening the account of a new customer")
+    public int retries;
+
+    @Label("Outcome")
+    @Description("debited or insufficient")
+    public String outcome;
+}
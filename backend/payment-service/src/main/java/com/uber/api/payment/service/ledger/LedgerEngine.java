@@ -0,0 +1,123 @@
+package com.uber.api.payment.service.ledger;
+
+import com.uber.api.payment.service.entity.Balance;
+import com.uber.api.payment.service.entity.LedgerCheckpoint;
+import com.uber.api.payment.service.entity.Transaction;
+import com.uber.api.payment.service.repository.BalanceRepository;
+import com.uber.api.payment.service.repository.LedgerCheckpointRepository;
+import com.uber.api.shared.money.Money;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * In-memory ledger mode for accounts with heavy concurrent traffic. Accounts are hashed to single-writer
+ * partitions that hold the authoritative balance; the database is brought up to date by
+ * {@code LedgerCheckpointScheduler}. While enabled, every balance change must go through the ledger.
+ * The partition count must not change while journals still hold entries past the last checkpoint.
+ * Only one instance may run the ledger against a database; see {@link LedgerLease}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "uber.payment.ledger.enabled", havingValue = "true")
+public class LedgerEngine {
+
+    private final BalanceRepository balanceRepository;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final DataSource dataSource;
+    private final Path journalDir;
+    private final int partitionCount;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int dedupeWindow;
+    private final List<LedgerPartition> partitions = new ArrayList<>();
+    private LedgerLease lease;
+
+    public LedgerEngine(BalanceRepository balanceRepository,
+                        LedgerCheckpointRepository checkpointRepository,
+                        DataSource dataSource,
+                        @Value("${uber.payment.ledger.journal-dir:./ledger-journal}") String journalDir,
+                        @Value("${uber.payment.ledger.partitions:4}") int partitionCount,
+                        @Value("${uber.payment.ledger.batch-size:1024}") int batchSize,
+                        @Value("${uber.payment.ledger.queue-capacity:65536}") int queueCapacity,
+                        @Value("${uber.payment.ledger.dedupe-window:100000}") int dedupeWindow) {
+        this.balanceRepository = balanceRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.dataSource = dataSource;
+        this.journalDir = Path.of(journalDir);
+        this.partitionCount = partitionCount;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.dedupeWindow = dedupeWindow;
+    }
+
+    @PostConstruct
+    public void start() throws IOException, SQLException {
+        lease = LedgerLease.acquire(dataSource, partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            long checkpoint = checkpointRepository.findById(i).map(LedgerCheckpoint::getLastSequence).orElse(0L);
+            LedgerPartition partition = new LedgerPartition(i, new LedgerJournal(journalDir, i), this::loadBalance,
+                    Balance.INITIAL_AMOUNT.getMinorUnits(), batchSize, queueCapacity, dedupeWindow);
+            partition.start(checkpoint);
+            partitions.add(partition);
+        }
+        log.info("✅ Ledger started with {} partitions, journal at {}", partitionCount, journalDir.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException, SQLException {
+        for (LedgerPartition partition : partitions) {
+            partition.stop();
+        }
+        if (lease != null) {
+            lease.close();
+        }
+    }
+
+    public List<LedgerPartition> getPartitions() {
+        return partitions;
+    }
+
+    public void verifyLease() throws SQLException {
+        lease.verify();
+    }
+
+    public CompletableFuture<Optional<Money>> debit(String customerEmail, Money amount, UUID sagaId,
+                                                    UUID rideRequestId, String description) {
+        return partitionFor(customerEmail)
+                .post(Transaction.TransactionType.DEBIT, customerEmail, amount.getMinorUnits(), sagaId, rideRequestId, description)
+                .thenApply(balance -> balance.map(Money::ofMinor));
+    }
+
+    public CompletableFuture<Money> credit(Transaction.TransactionType type, String customerEmail, Money amount,
+                                           UUID sagaId, UUID rideRequestId, String description) {
+        return partitionFor(customerEmail)
+                .post(type, customerEmail, amount.getMinorUnits(), sagaId, rideRequestId, description)
+                .thenApply(balance -> Money.ofMinor(balance.orElseThrow()));
+    }
+
+    public CompletableFuture<Money> balance(String customerEmail) {
+        return partitionFor(customerEmail).balance(customerEmail).thenApply(Money::ofMinor);
+    }
+
+    private LedgerPartition partitionFor(String customerEmail) {
+        return partitions.get(Math.floorMod(customerEmail.hashCode(), partitionCount));
+    }
+
+    private Optional<Long> loadBalance(String customerEmail) {
+        return balanceRepository.findByCustomerEmail(customerEmail).map(balance -> balance.getAmount().getMinorUnits());
+    }
+}
@@ -0,0 +1,28 @@
+package com.uber.api.payment.service.ledger;
+
+import com.uber.api.payment.service.entity.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * One applied posting as written to the journal. Amounts are in cents.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+    private long sequence;
+    private Transaction.TransactionType type;
+    private String customerEmail;
+    private long amount;
+    private long balanceAfter;
+    private long timestamp;
+    private UUID sagaId;
+    private UUID rideRequestId;
+    private String description;
+}
@@ -0,0 +1,205 @@
+package com.uber.api.payment.service.ledger;
+
+import com.uber.api.payment.service.entity.Transaction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of one ledger partition, split into segments named after their first sequence.
+ *
+ * Each batch is written with a single {@code force}, so one fsync covers every posting in it. A new
+ * segment is started at each checkpoint and older segments are deleted once the checkpoint commits.
+ * Records are {@code [length][crc32c][payload]}; a torn record at the tail ends replay.
+ */
+@Slf4j
+public class LedgerJournal implements Closeable {
+
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+
+    private final Path directory;
+    private final int partitionId;
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+    private FileChannel current;
+
+    public LedgerJournal(Path directory, int partitionId) throws IOException {
+        this.directory = directory;
+        this.partitionId = partitionId;
+        Files.createDirectories(directory);
+        String prefix = segmentPrefix();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().startsWith(prefix))
+                    .forEach(file -> segments.put(firstSequenceOf(file), file));
+        }
+    }
+
+    /**
+     * Replays every intact entry with a sequence above {@code afterSequence}, oldest first.
+     */
+    public void replay(long afterSequence, Consumer<LedgerEntry> consumer) throws IOException {
+        for (Path segment : segments.values()) {
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(segment));
+            while (data.remaining() >= 8) {
+                int length = data.getInt();
+                int checksum = data.getInt();
+                if (length <= 0 || length > data.remaining()) {
+                    log.warn("Truncated record in {} at offset {}, ignoring the tail", segment, data.position() - 8);
+                    break;
+                }
+                crc.reset();
+                crc.update(data.array(), data.position(), length);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Corrupt record in {} at offset {}, ignoring the tail", segment, data.position() - 8);
+                    break;
+                }
+                LedgerEntry entry = read(data);
+                if (entry.getSequence() > afterSequence) {
+                    consumer.accept(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts writing a fresh segment whose first entry will carry {@code nextSequence}.
+     */
+    public void rotate(long nextSequence) throws IOException {
+        if (current != null) {
+            current.close();
+        }
+        Path segment = directory.resolve(String.format("%s%020d.journal", segmentPrefix(), nextSequence));
+        current = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segments.put(nextSequence, segment);
+    }
+
+    public void append(List<LedgerEntry> entries) throws IOException {
+        buffer.clear();
+        for (LedgerEntry entry : entries) {
+            write(entry);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            current.write(buffer);
+        }
+        current.force(false);
+    }
+
+    /**
+     * Deletes segments that only hold entries up to {@code sequence}.
+     */
+    public void deleteThrough(long sequence) throws IOException {
+        Map.Entry<Long, Path> segment = segments.firstEntry();
+        while (segment != null) {
+            Long next = segments.higherKey(segment.getKey());
+            if (next == null || next > sequence + 1) {
+                return;
+            }
+            Files.deleteIfExists(segment.getValue());
+            segments.remove(segment.getKey());
+            segment = segments.firstEntry();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void write(LedgerEntry entry) {
+        byte[] email = entry.getCustomerEmail().getBytes(StandardCharsets.UTF_8);
+        byte[] description = entry.getDescription() == null ? null : entry.getDescription().getBytes(StandardCharsets.UTF_8);
+        int length = 8 + 1 + 8 + 8 + 8 + 17 + 17 + 4 + email.length + 4 + (description == null ? 0 : description.length);
+        ensureCapacity(length + 8);
+
+        int start = buffer.position();
+        buffer.position(start + 8);
+        buffer.putLong(entry.getSequence());
+        buffer.put((byte) entry.getType().ordinal());
+        buffer.putLong(entry.getAmount());
+        buffer.putLong(entry.getBalanceAfter());
+        buffer.putLong(entry.getTimestamp());
+        putUuid(entry.getSagaId());
+        putUuid(entry.getRideRequestId());
+        buffer.putInt(email.length).put(email);
+        if (description == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(description.length).put(description);
+        }
+
+        crc.reset();
+        crc.update(buffer.duplicate().position(start + 8).limit(start + 8 + length));
+        buffer.putInt(start, length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    private LedgerEntry read(ByteBuffer data) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.setSequence(data.getLong());
+        entry.setType(TYPES[data.get()]);
+        entry.setAmount(data.getLong());
+        entry.setBalanceAfter(data.getLong());
+        entry.setTimestamp(data.getLong());
+        entry.setSagaId(getUuid(data));
+        entry.setRideRequestId(getUuid(data));
+        byte[] email = new byte[data.getInt()];
+        data.get(email);
+        entry.setCustomerEmail(new String(email, StandardCharsets.UTF_8));
+        int descriptionLength = data.getInt();
+        if (descriptionLength >= 0) {
+            byte[] description = new byte[descriptionLength];
+            data.get(description);
+            entry.setDescription(new String(description, StandardCharsets.UTF_8));
+        }
+        return entry;
+    }
+
+    private void putUuid(UUID uuid) {
+        buffer.put((byte) (uuid == null ? 0 : 1));
+        buffer.putLong(uuid == null ? 0 : uuid.getMostSignificantBits());
+        buffer.putLong(uuid == null ? 0 : uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer data) {
+        boolean present = data.get() != 0;
+        long most = data.getLong();
+        long least = data.getLong();
+        return present ? new UUID(most, least) : null;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (buffer.remaining() < needed) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    private String segmentPrefix() {
+        return String.format("p%03d-", partitionId);
+    }
+
+    private static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(name.indexOf('-') + 1, name.indexOf('.')));
+    }
+}
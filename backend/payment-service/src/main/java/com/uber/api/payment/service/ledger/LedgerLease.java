@@ -0,0 +1,77 @@
+package com.uber.api.payment.service.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Single-owner lease on the ledger partitions: one Postgres session advisory lock per partition, held on a
+ * dedicated connection for as long as the engine runs. Every instance would otherwise keep its own copy of
+ * the balances and checkpoint over the others, so a second instance fails to start instead.
+ */
+@Slf4j
+public class LedgerLease implements AutoCloseable {
+
+    // First key of the two-key advisory lock form, so ledger locks cannot collide with other users
+    static final int LOCK_NAMESPACE = 0x4c454447;
+
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_lock(?, ?)";
+    private static final String HELD_LOCKS = "SELECT count(*) FROM pg_locks WHERE locktype = 'advisory' " +
+            "AND pid = pg_backend_pid() AND classid = ? AND objid < ? AND objsubid = 2 AND granted";
+
+    private final Connection connection;
+    private final int partitionCount;
+
+    private LedgerLease(Connection connection, int partitionCount) {
+        this.connection = connection;
+        this.partitionCount = partitionCount;
+    }
+
+    public static LedgerLease acquire(DataSource dataSource, int partitionCount) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(true);
+            try (PreparedStatement statement = connection.prepareStatement(TRY_LOCK)) {
+                for (int partition = 0; partition < partitionCount; partition++) {
+                    statement.setInt(1, LOCK_NAMESPACE);
+                    statement.setInt(2, partition);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        if (!rs.next() || !rs.getBoolean(1)) {
+                            throw new IllegalStateException("Ledger partition " + partition
+                                    + " is owned by another payment-service instance");
+                        }
+                    }
+                }
+            }
+            return new LedgerLease(connection, partitionCount);
+        } catch (SQLException | RuntimeException e) {
+            // Closing the session releases whatever was locked before the failure
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Fails when the session holding the locks is gone, after which another instance may own the partitions.
+     */
+    public void verify() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(HELD_LOCKS)) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setInt(2, partitionCount);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != partitionCount) {
+                    throw new IllegalStateException("Ledger lease lost");
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+}
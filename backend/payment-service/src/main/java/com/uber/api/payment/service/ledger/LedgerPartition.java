@@ -0,0 +1,313 @@
+package com.uber.api.payment.service.ledger;
+
+import com.uber.api.payment.service.entity.Transaction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Owns the authoritative balances of the accounts hashed to it. A single thread applies postings, so no
+ * locks are taken; each drained batch is journaled with one fsync before any caller is completed.
+ */
+@Slf4j
+public class LedgerPartition implements Runnable {
+
+    private final int partitionId;
+    private final LedgerJournal journal;
+    private final Function<String, Optional<Long>> balanceLoader;
+    private final long initialBalance;
+    private final int batchSize;
+    private final BlockingQueue<Command> queue;
+
+    private final Map<String, Long> balances = new HashMap<>();
+    private final ArrayDeque<LedgerEntry> uncheckpointed = new ArrayDeque<>();
+    // Redelivered saga postings return the original result instead of being applied twice
+    private final Map<String, Long> applied;
+
+    private long nextSequence = 1;
+    private boolean rotatePending;
+    private volatile boolean running;
+    private volatile IOException failure;
+    private Thread thread;
+
+    public LedgerPartition(int partitionId, LedgerJournal journal, Function<String, Optional<Long>> balanceLoader,
+                           long initialBalance, int batchSize, int queueCapacity, int dedupeWindow) {
+        this.partitionId = partitionId;
+        this.journal = journal;
+        this.balanceLoader = balanceLoader;
+        this.initialBalance = initialBalance;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.applied = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > dedupeWindow;
+            }
+        };
+    }
+
+    /**
+     * Rebuilds state from the journal entries after the last checkpoint, then starts the writer thread.
+     */
+    public void start(long checkpointedSequence) throws IOException {
+        nextSequence = checkpointedSequence + 1;
+        journal.replay(checkpointedSequence, entry -> {
+            balances.put(entry.getCustomerEmail(), entry.getBalanceAfter());
+            uncheckpointed.add(entry);
+            if (entry.getSagaId() != null) {
+                applied.put(dedupeKey(entry.getSagaId(), entry.getType()), entry.getBalanceAfter());
+            }
+            nextSequence = Math.max(nextSequence, entry.getSequence() + 1);
+        });
+        if (!uncheckpointed.isEmpty()) {
+            log.info("Ledger partition {} replayed {} journal entries after checkpoint {}",
+                    partitionId, uncheckpointed.size(), checkpointedSequence);
+        }
+        journal.rotate(nextSequence);
+
+        running = true;
+        thread = new Thread(this, "ledger-partition-" + partitionId);
+        thread.start();
+    }
+
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        if (thread != null) {
+            thread.join();
+        }
+        journal.close();
+    }
+
+    public int getPartitionId() {
+        return partitionId;
+    }
+
+    /**
+     * Completes with the balance after the posting, or empty when a debit finds insufficient funds.
+     */
+    public CompletableFuture<Optional<Long>> post(Transaction.TransactionType type, String customerEmail, long amount,
+                                                  UUID sagaId, UUID rideRequestId, String description) {
+        Posting posting = new Posting(type, customerEmail, amount, sagaId, rideRequestId, description);
+        submit(posting);
+        return posting.future;
+    }
+
+    public CompletableFuture<Long> balance(String customerEmail) {
+        BalanceQuery query = new BalanceQuery(customerEmail);
+        submit(query);
+        return query.future;
+    }
+
+    public CompletableFuture<LedgerSnapshot> snapshot() {
+        SnapshotRequest request = new SnapshotRequest();
+        submit(request);
+        return request.future;
+    }
+
+    /**
+     * Called once a snapshot is committed to the database; drops what the checkpoint now covers.
+     */
+    public void checkpointed(long sequence) {
+        submit(new Checkpointed(sequence));
+    }
+
+    @Override
+    public void run() {
+        List<Command> batch = new ArrayList<>(batchSize);
+        List<LedgerEntry> written = new ArrayList<>(batchSize);
+        List<Runnable> completions = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Command first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                for (Command command : batch) {
+                    apply(command, written, completions);
+                }
+                if (!written.isEmpty()) {
+                    journal.append(written);
+                }
+                if (rotatePending) {
+                    journal.rotate(nextSequence);
+                    rotatePending = false;
+                }
+                completions.forEach(Runnable::run);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                // Memory is now ahead of the journal; refuse further work until a restart replays it
+                log.error("Ledger partition {} failed to write its journal, halting", partitionId, e);
+                failure = e;
+                running = false;
+                batch.forEach(command -> command.fail(e));
+                queue.forEach(command -> command.fail(e));
+                return;
+            } finally {
+                batch.clear();
+                written.clear();
+                completions.clear();
+            }
+        }
+    }
+
+    private void submit(Command command) {
+        if (failure != null || !running) {
+            command.fail(new IllegalStateException("Ledger partition " + partitionId + " is not running", failure));
+            return;
+        }
+        try {
+            queue.put(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            command.fail(e);
+        }
+    }
+
+    private void apply(Command command, List<LedgerEntry> written, List<Runnable> completions) throws IOException {
+        if (command instanceof Posting posting) {
+            applyPosting(posting, written, completions);
+        } else if (command instanceof BalanceQuery query) {
+            long balance = balanceOf(query.customerEmail);
+            completions.add(() -> query.future.complete(balance));
+        } else if (command instanceof SnapshotRequest request) {
+            // Net change per account rather than its balance, so the database keeps any change made elsewhere
+            Map<String, Long> deltas = new HashMap<>();
+            for (LedgerEntry entry : uncheckpointed) {
+                long signed = entry.getType() == Transaction.TransactionType.DEBIT ? -entry.getAmount() : entry.getAmount();
+                deltas.merge(entry.getCustomerEmail(), signed, Long::sum);
+            }
+            LedgerSnapshot snapshot = new LedgerSnapshot(partitionId, nextSequence - 1,
+                    new ArrayList<>(uncheckpointed), deltas);
+            rotatePending = !snapshot.isEmpty();
+            completions.add(() -> request.future.complete(snapshot));
+        } else if (command instanceof Checkpointed checkpointed) {
+            while (!uncheckpointed.isEmpty() && uncheckpointed.peekFirst().getSequence() <= checkpointed.sequence) {
+                uncheckpointed.pollFirst();
+            }
+            journal.deleteThrough(checkpointed.sequence);
+        }
+    }
+
+    private void applyPosting(Posting posting, List<LedgerEntry> written, List<Runnable> completions) {
+        String key = posting.sagaId == null ? null : dedupeKey(posting.sagaId, posting.type);
+        Long previous = key == null ? null : applied.get(key);
+        if (previous != null) {
+            completions.add(() -> posting.future.complete(Optional.of(previous)));
+            return;
+        }
+
+        long balance = balanceOf(posting.customerEmail);
+        if (posting.type == Transaction.TransactionType.DEBIT && balance < posting.amount) {
+            completions.add(() -> posting.future.complete(Optional.empty()));
+            return;
+        }
+        long balanceAfter = posting.type == Transaction.TransactionType.DEBIT
+                ? balance - posting.amount
+                : balance + posting.amount;
+
+        LedgerEntry entry = new LedgerEntry(nextSequence++, posting.type, posting.customerEmail, posting.amount,
+                balanceAfter, System.currentTimeMillis(), posting.sagaId, posting.rideRequestId, posting.description);
+        balances.put(posting.customerEmail, balanceAfter);
+        uncheckpointed.add(entry);
+        written.add(entry);
+        if (key != null) {
+            applied.put(key, balanceAfter);
+        }
+        completions.add(() -> posting.future.complete(Optional.of(balanceAfter)));
+    }
+
+    private long balanceOf(String customerEmail) {
+        Long balance = balances.get(customerEmail);
+        if (balance == null) {
+            // Cold account: the database is current for it because the journal had nothing newer
+            balance = balanceLoader.apply(customerEmail).orElse(initialBalance);
+            balances.put(customerEmail, balance);
+        }
+        return balance;
+    }
+
+    private static String dedupeKey(UUID sagaId, Transaction.TransactionType type) {
+        return sagaId + ":" + type;
+    }
+
+    private abstract static class Command {
+        abstract void fail(Throwable cause);
+    }
+
+    private static final class Posting extends Command {
+        final Transaction.TransactionType type;
+        final String customerEmail;
+        final long amount;
+        final UUID sagaId;
+        final UUID rideRequestId;
+        final String description;
+        final CompletableFuture<Optional<Long>> future = new CompletableFuture<>();
+
+        Posting(Transaction.TransactionType type, String customerEmail, long amount, UUID sagaId,
+                UUID rideRequestId, String description) {
+            this.type = type;
+            this.customerEmail = customerEmail;
+            this.amount = amount;
+            this.sagaId = sagaId;
+            this.rideRequestId = rideRequestId;
+            this.description = description;
+        }
+
+        @Override
+        void fail(Throwable cause) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    private static final class BalanceQuery extends Command {
+        final String customerEmail;
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        BalanceQuery(String customerEmail) {
+            this.customerEmail = customerEmail;
+        }
+
+        @Override
+        void fail(Throwable cause) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    private static final class SnapshotRequest extends Command {
+        final CompletableFuture<LedgerSnapshot> future = new CompletableFuture<>();
+
+        @Override
+        void fail(Throwable cause) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    private static final class Checkpointed extends Command {
+        final long sequence;
+
+        Checkpointed(long sequence) {
+            this.sequence = sequence;
+        }
+
+        @Override
+        void fail(Throwable cause) {
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.uber.api.payment.service.ledger;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything a partition applied since its last checkpoint, up to and including {@code lastSequence}.
+ */
+@Data
+@AllArgsConstructor
+public class LedgerSnapshot {
+    private int partitionId;
+    private long lastSequence;
+    private List<LedgerEntry> entries;
+    // Account -> net change in cents over the entries
+    private Map<String, Long> deltas;
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+}
@@ -0,0 +1,42 @@
+package com.uber.api.payment.service.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.api.payment.service.hold.PaymentHoldManager;
+import com.uber.api.shared.events.PaymentHoldEvent;
+import com.uber.api.shared.metrics.ListenerMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentHoldListener {
+
+    private final PaymentHoldManager paymentHoldManager;
+    private final ObjectMapper objectMapper;
+
+    // Captures and releases only act on AUTHORIZED holds, so redelivery is harmless without a claim
+    @KafkaListener(topics = "payment-hold-updates", groupId = "payment-service-group")
+    public void handleHoldUpdate(String message) {
+        log.debug("Received payment hold update: {}", message);
+
+        try {
+            PaymentHoldEvent holdEvent = objectMapper.readValue(message, PaymentHoldEvent.class);
+            log.atInfo().addKeyValue("rideId", holdEvent.getRideRequestId())
+                    .addKeyValue("action", holdEvent.getAction())
+                    .log("Received payment hold update");
+
+            if ("CAPTURE".equals(holdEvent.getAction())) {
+                paymentHoldManager.capture(holdEvent.getRideRequestId(), holdEvent.getAmount());
+            } else {
+                paymentHoldManager.release(holdEvent.getRideRequestId(), holdEvent.getCustomerEmail());
+            }
+
+        } catch (Exception e) {
+            log.error("Error processing payment hold update: {}", message, e);
+            ListenerMetrics.markFailed();
+        }
+    }
+}
@@ -2,7 +2,10 @@ package com.uber.api.payment.service.messaging;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uber.api.payment.service.service.impl.PaymentDomainServiceImpl;
+import com.uber.api.payment.service.writer.TransactionWriter;
 import com.uber.api.shared.events.PaymentRefundEvent;
+import com.uber.api.shared.idempotency.IdempotentConsumer;
+import com.uber.api.shared.metrics.ListenerMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -15,21 +18,38 @@ public class PaymentRefundListener {
 
     private final PaymentDomainServiceImpl paymentDomainService;
     private final ObjectMapper objectMapper;
+    private final IdempotentConsumer idempotentConsumer;
+    private final TransactionWriter transactionWriter;
 
     @KafkaListener(topics = "payment-refunds", groupId = "payment-service-group")
     public void handleRefundRequest(String message) {
-        log.info("Received refund request: {}", message);
+        log.debug("Received refund request: {}", message);
 
         try {
             PaymentRefundEvent refundEvent = objectMapper.readValue(message, PaymentRefundEvent.class);
-
-            // Process refund through domain service
-            paymentDomainService.processRefundRequest(refundEvent);
+            log.atInfo().addKeyValue("rideId", refundEvent.getRideRequestId())
+                    .addKeyValue("sagaId", refundEvent.getSagaId())
+                    .log("Received refund request");
+
+            boolean processed = transactionWriter.execute(() -> {
+                if (!idempotentConsumer.tryAcquire("payment-refunds", refundEvent.getSagaId())) {
+                    return false;
+                }
+                // Process refund through domain service
+                paymentDomainService.processRefundRequest(refundEvent);
+                return true;
+            });
+
+            if (!processed) {
+                log.info("Skipping duplicate refund request for saga: {}", refundEvent.getSagaId());
+                return;
+            }
 
             log.info("Refund request processed successfully for customer: {}", refundEvent.getCustomerEmail());
 
         } catch (Exception e) {
             log.error("Error processing refund request: {}", message, e);
+            ListenerMetrics.markFailed();
         }
     }
 }
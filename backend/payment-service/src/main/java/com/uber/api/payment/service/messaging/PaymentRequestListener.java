@@ -2,14 +2,19 @@ package com.uber.api.payment.service.messaging;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uber.api.payment.service.service.PaymentDomainService;
+import com.uber.api.payment.service.writer.TransactionWriter;
+import com.uber.api.shared.events.DriverCompletionEvent;
 import com.uber.api.shared.events.DriverRequestEvent;
 import com.uber.api.shared.events.PaymentRequestEvent;
 import com.uber.api.shared.events.PaymentResponseEvent;
+import com.uber.api.shared.idempotency.IdempotentConsumer;
+import com.uber.api.shared.metrics.ListenerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Component
@@ -18,42 +23,86 @@ public class PaymentRequestListener {
 
     private final PaymentDomainService paymentDomainService;
     private final ObjectMapper objectMapper;
+    private final IdempotentConsumer idempotentConsumer;
+    private final TransactionWriter transactionWriter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${uber.saga.speculative-reservation.enabled:false}")
+    private boolean speculativeReservationEnabled;
+
+    @Value("${uber.payment.kafka-transactions.enabled:false}")
+    private boolean kafkaTransactionsEnabled;
 
     @KafkaListener(topics = "payment-requests", groupId = "payment-service-group")
-    @Transactional
     public void handlePaymentRequest(String message) {
-        log.info("Received payment request: {}", message);
+        log.debug("Received payment request: {}", message);
 
         try {
             PaymentRequestEvent paymentRequest = objectMapper.readValue(message, PaymentRequestEvent.class);
+            log.atInfo().addKeyValue("rideId", paymentRequest.getRideRequestId())
+                    .addKeyValue("sagaId", paymentRequest.getSagaId())
+                    .log("Received payment request");
+            // Commits together with concurrent payment requests when group commit is enabled
+            transactionWriter.execute(() -> {
+                processPaymentRequest(paymentRequest);
+                return null;
+            });
 
-            // **PROCESS PAYMENT using your existing method**
-            PaymentResponseEvent paymentResponse = paymentDomainService.processPayment(paymentRequest);
-            log.info("Payment processed with status: {}", paymentResponse.getStatus());
+        } catch (Exception e) {
+            log.error("Error processing payment request: {}", message, e);
+            ListenerMetrics.markFailed();
+            if (kafkaTransactionsEnabled) {
+                // Abort the Kafka transaction so the offset is not committed without a response
+                throw e instanceof RuntimeException runtime ? runtime
+                        : new IllegalStateException("Failed to process payment request", e);
+            }
+        }
+    }
+
+    private void processPaymentRequest(PaymentRequestEvent paymentRequest) {
+        if (!idempotentConsumer.tryAcquire("payment-requests", paymentRequest.getSagaId())) {
+            // In Kafka-transaction mode the first delivery's events may have been lost with its transaction
+            int resent = paymentDomainService.resendTransactionalEvents(paymentRequest.getSagaId());
+            log.info("Skipping duplicate payment request for saga: {}, resent {} events",
+                    paymentRequest.getSagaId(), resent);
+            meterRegistry.counter("payment.retries", "reason", "redelivery").increment();
+            return;
+        }
 
-            // **CRITICAL FIX: Send driver request after successful payment using YOUR status field**
-            if ("COMPLETED".equals(paymentResponse.getStatus().toString())) {
-                DriverRequestEvent driverRequest = DriverRequestEvent.builder()
-                        .sagaId(paymentRequest.getSagaId())
+        // **PROCESS PAYMENT using your existing method**
+        PaymentResponseEvent paymentResponse = paymentDomainService.processPayment(paymentRequest);
+        log.info("Payment processed with status: {}", paymentResponse.getStatus());
+
+        // **CRITICAL FIX: Send driver request after successful payment using YOUR status field**
+        if ("COMPLETED".equals(paymentResponse.getStatus().toString())) {
+            DriverRequestEvent driverRequest = DriverRequestEvent.builder()
+                    .sagaId(paymentRequest.getSagaId())
+                    .rideRequestId(paymentRequest.getRideRequestId())
+                    .customerEmail(paymentRequest.getCustomerEmail())
+                    .pickupLocation(paymentRequest.getPickupLocation())
+                    .destinationLocation(paymentRequest.getDestinationLocation())
+                    .estimatedPrice(paymentRequest.getAmount())
+                    .build();
+
+            // Send to driver service via outbox
+            paymentDomainService.saveToOutbox(driverRequest, paymentRequest.getSagaId(), "driver-requests");
+            log.info("✅ Sent driver request for ride: {}", paymentRequest.getRideRequestId());
+        } else {
+            log.warn("❌ Payment failed with status: {}, not sending driver request for ride: {}",
+                    paymentResponse.getStatus(), paymentRequest.getRideRequestId());
+
+            // Free the driver reserved alongside this payment instead of waiting for the hold to expire
+            if (speculativeReservationEnabled) {
+                DriverCompletionEvent holdRelease = DriverCompletionEvent.builder()
                         .rideRequestId(paymentRequest.getRideRequestId())
                         .customerEmail(paymentRequest.getCustomerEmail())
-                        .pickupLocation(paymentRequest.getPickupLocation())
-                        .destinationLocation(paymentRequest.getDestinationLocation())
-                        .estimatedPrice(paymentRequest.getAmount())
+                        .status("PAYMENT_FAILED")
                         .build();
 
-                // Send to driver service via outbox
-                paymentDomainService.saveToOutbox(driverRequest, paymentRequest.getSagaId(), "driver-requests");
-                log.info("✅ Sent driver request for ride: {}", paymentRequest.getRideRequestId());
-            } else {
-                log.warn("❌ Payment failed with status: {}, not sending driver request for ride: {}",
-                        paymentResponse.getStatus(), paymentRequest.getRideRequestId());
+                paymentDomainService.saveToOutbox(holdRelease, paymentRequest.getSagaId(), "driver-hold-releases");
             }
-
-            log.info("Payment request processed successfully for ride: {}", paymentRequest.getRideRequestId());
-
-        } catch (Exception e) {
-            log.error("Error processing payment request: {}", message, e);
         }
+
+        log.info("Payment request processed successfully for ride: {}", paymentRequest.getRideRequestId());
     }
 }
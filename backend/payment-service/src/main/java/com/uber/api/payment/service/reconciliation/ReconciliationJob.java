@@ -0,0 +1,402 @@
+package com.uber.api.payment.service.reconciliation;
+
+import com.uber.api.payment.service.entity.Balance;
+import com.uber.api.payment.service.entity.ReconciliationChunk;
+import com.uber.api.payment.service.entity.ReconciliationDiscrepancy;
+import com.uber.api.payment.service.entity.ReconciliationRun;
+import com.uber.api.payment.service.repository.ReconciliationChunkRepository;
+import com.uber.api.payment.service.repository.ReconciliationDiscrepancyRepository;
+import com.uber.api.payment.service.repository.ReconciliationRunRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Checks that every balance equals the initial amount plus its completed credits and refunds minus its
+ * completed debits, and that no ride was refunded more than it was charged.
+ * <p>
+ * Customers are split into key ranges over the balances primary key. Ranges are reconciled in parallel on a
+ * fork-join pool, each with one aggregate statement over its slice of balances and transactions that is
+ * streamed through a cursor, so balances and transactions come from the same snapshot and no per-customer
+ * queries are issued. A range's discrepancies and its DONE mark commit together, which lets an interrupted
+ * run resume with only the ranges that had not finished.
+ */
+@Slf4j
+@Component
+public class ReconciliationJob {
+
+    // Every chunkSize-th customer by key becomes a range boundary; one index-only pass over balances
+    private static final String BOUNDARY_QUERY =
+            "SELECT customer_email FROM (SELECT customer_email, row_number() OVER (ORDER BY customer_email) AS rn " +
+            "FROM balances) ranked WHERE rn % ? = 0 ORDER BY customer_email";
+
+    private static final String RANGE_QUERY =
+            "WITH rides AS (" +
+            " SELECT customer_email, ride_request_id," +
+            " SUM(CASE WHEN type = 'DEBIT' THEN amount ELSE 0 END) AS debits," +
+            " SUM(CASE WHEN type = 'REFUND' THEN amount ELSE 0 END) AS refunds," +
+            " SUM(CASE WHEN type = 'CREDIT' THEN amount ELSE 0 END) AS credits" +
+            " FROM transactions WHERE status = 'COMPLETED' AND %1$s" +
+            " GROUP BY customer_email, ride_request_id), " +
+            "totals AS (" +
+            " SELECT customer_email, SUM(credits + refunds) AS credits, SUM(debits) AS debits," +
+            " COUNT(*) FILTER (WHERE ride_request_id IS NOT NULL AND refunds > debits) AS over_refunded_rides" +
+            " FROM rides GROUP BY customer_email) " +
+            "SELECT COALESCE(b.customer_email, t.customer_email) AS customer_email, b.amount, t.credits, t.debits," +
+            " COALESCE(t.over_refunded_rides, 0) AS over_refunded_rides " +
+            "FROM (SELECT customer_email, amount FROM balances WHERE %1$s) b " +
+            "FULL OUTER JOIN totals t ON t.customer_email = b.customer_email";
+    private static final String BOUNDED = "customer_email > ? AND customer_email <= ?";
+    private static final String OPEN_ENDED = "customer_email > ?";
+
+    private static final String REPORT_QUERY =
+            "SELECT customer_email, kind, recorded_amount, expected_amount, difference, over_refunded_rides " +
+            "FROM reconciliation_discrepancies WHERE run_id = ? ORDER BY customer_email, kind";
+
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationChunkRepository chunkRepository;
+    private final ReconciliationDiscrepancyRepository discrepancyRepository;
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int parallelism;
+    private final int maxStoredPerChunk;
+    private final Path reportDir;
+
+    private UUID activeRun;
+
+    public ReconciliationJob(ReconciliationRunRepository runRepository,
+                             ReconciliationChunkRepository chunkRepository,
+                             ReconciliationDiscrepancyRepository discrepancyRepository,
+                             DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${uber.payment.reconciliation.chunk-size:50000}") int chunkSize,
+                             @Value("${uber.payment.reconciliation.parallelism:4}") int parallelism,
+                             @Value("${uber.payment.reconciliation.fetch-size:1000}") int fetchSize,
+                             @Value("${uber.payment.reconciliation.max-stored-per-chunk:1000}") int maxStoredPerChunk,
+                             @Value("${uber.payment.reconciliation.report-dir:./reconciliation-reports}") String reportDir) {
+        this.runRepository = runRepository;
+        this.chunkRepository = chunkRepository;
+        this.discrepancyRepository = discrepancyRepository;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.maxStoredPerChunk = maxStoredPerChunk;
+        this.reportDir = Path.of(reportDir);
+
+        // Cursor-based fetching needs autocommit off, hence the read-only transaction around each range
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Resumes the last unfinished run, or plans a new one, and reconciles it in the background.
+     */
+    public synchronized UUID start() {
+        if (activeRun != null) {
+            return activeRun;
+        }
+        ReconciliationRun run = resumeOrPlan();
+        activeRun = run.getId();
+
+        Thread worker = new Thread(() -> {
+            try {
+                execute(run);
+            } catch (Exception e) {
+                log.error("Reconciliation run {} failed", run.getId(), e);
+                markFailed(run);
+            } finally {
+                finished();
+            }
+        }, "payment-reconciliation");
+        worker.setDaemon(true);
+        worker.start();
+        return run.getId();
+    }
+
+    @Scheduled(cron = "${uber.payment.reconciliation.cron:-}")
+    public void scheduledRun() {
+        start();
+    }
+
+    public Optional<ReconciliationRun> getRun(UUID runId) {
+        return runRepository.findById(runId);
+    }
+
+    private synchronized void finished() {
+        activeRun = null;
+    }
+
+    private ReconciliationRun resumeOrPlan() {
+        Optional<ReconciliationRun> unfinished =
+                runRepository.findFirstByStatusNotOrderByStartedAtDesc(ReconciliationRun.RunStatus.COMPLETED);
+        if (unfinished.isPresent()) {
+            ReconciliationRun run = unfinished.get();
+            run.setStatus(ReconciliationRun.RunStatus.RUNNING);
+            log.info("Resuming reconciliation run {}", run.getId());
+            return runRepository.save(run);
+        }
+
+        List<String> boundaries = cursorJdbcTemplate.queryForList(BOUNDARY_QUERY, String.class, chunkSize);
+        UUID runId = UUID.randomUUID();
+        List<ReconciliationChunk> chunks = new ArrayList<>(boundaries.size() + 1);
+        String lower = "";
+        for (String upper : boundaries) {
+            chunks.add(chunk(runId, chunks.size(), lower, upper));
+            lower = upper;
+        }
+        // Open-ended tail: customers after the last boundary, including those with transactions but no balance
+        chunks.add(chunk(runId, chunks.size(), lower, null));
+
+        ReconciliationRun run = ReconciliationRun.builder()
+                .id(runId)
+                .status(ReconciliationRun.RunStatus.RUNNING)
+                .chunks(chunks.size())
+                .customersChecked(0L)
+                .discrepancies(0L)
+                .startedAt(ZonedDateTime.now())
+                .build();
+        transactionTemplate.executeWithoutResult(status -> {
+            runRepository.save(run);
+            chunkRepository.saveAll(chunks);
+        });
+        log.info("Planned reconciliation run {} with {} ranges of about {} customers", runId, chunks.size(), chunkSize);
+        return run;
+    }
+
+    private void execute(ReconciliationRun run) {
+        List<ReconciliationChunk> pending = chunkRepository.findByRunIdOrderByChunkIndex(run.getId()).stream()
+                .filter(chunk -> chunk.getStatus() == ReconciliationChunk.ChunkStatus.PENDING)
+                .toList();
+        long start = System.currentTimeMillis();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RangeTask(pending, 0, pending.size()));
+        } finally {
+            pool.shutdown();
+        }
+
+        List<ReconciliationChunk> chunks = chunkRepository.findByRunIdOrderByChunkIndex(run.getId());
+        long checked = 0;
+        long discrepancies = 0;
+        long unfinished = 0;
+        for (ReconciliationChunk chunk : chunks) {
+            if (chunk.getStatus() == ReconciliationChunk.ChunkStatus.DONE) {
+                checked += chunk.getCustomersChecked();
+                discrepancies += chunk.getDiscrepancies();
+            } else {
+                unfinished++;
+            }
+        }
+        run.setCustomersChecked(checked);
+        run.setDiscrepancies(discrepancies);
+
+        if (unfinished > 0) {
+            log.warn("Reconciliation run {} left {} of {} ranges unfinished; start it again to resume",
+                    run.getId(), unfinished, chunks.size());
+            run.setStatus(ReconciliationRun.RunStatus.FAILED);
+        } else {
+            run.setReportPath(writeReport(run.getId()).toString());
+            run.setStatus(ReconciliationRun.RunStatus.COMPLETED);
+            run.setCompletedAt(ZonedDateTime.now());
+            log.info("Reconciliation run {} checked {} customers in {} ms: {} discrepancies, report {}",
+                    run.getId(), checked, System.currentTimeMillis() - start, discrepancies, run.getReportPath());
+        }
+        runRepository.save(run);
+    }
+
+    private void reconcile(ReconciliationChunk chunk) {
+        List<ReconciliationDiscrepancy> found = new ArrayList<>();
+        long[] counts = new long[2];
+
+        String sql;
+        Object[] args;
+        if (chunk.getUpperBound() == null) {
+            sql = String.format(RANGE_QUERY, OPEN_ENDED);
+            args = new Object[]{chunk.getLowerBound(), chunk.getLowerBound()};
+        } else {
+            sql = String.format(RANGE_QUERY, BOUNDED);
+            args = new Object[]{chunk.getLowerBound(), chunk.getUpperBound(), chunk.getLowerBound(), chunk.getUpperBound()};
+        }
+
+        readOnlyTransaction.executeWithoutResult(status -> cursorJdbcTemplate.query(sql, rs -> {
+            String customerEmail = rs.getString("customer_email");
+            BigDecimal recorded = rs.getBigDecimal("amount");
+            BigDecimal credits = orZero(rs.getBigDecimal("credits"));
+            BigDecimal debits = orZero(rs.getBigDecimal("debits"));
+            int overRefundedRides = rs.getInt("over_refunded_rides");
+            BigDecimal expected = Balance.INITIAL_AMOUNT.toBigDecimal().add(credits).subtract(debits);
+            counts[0]++;
+
+            if (recorded == null) {
+                record(found, counts, chunk, customerEmail, ReconciliationDiscrepancy.Kind.MISSING_BALANCE,
+                        null, expected, overRefundedRides);
+            } else if (recorded.compareTo(expected) != 0) {
+                record(found, counts, chunk, customerEmail, ReconciliationDiscrepancy.Kind.BALANCE_MISMATCH,
+                        recorded, expected, overRefundedRides);
+            }
+            if (overRefundedRides > 0) {
+                record(found, counts, chunk, customerEmail, ReconciliationDiscrepancy.Kind.OVER_REFUND,
+                        recorded, expected, overRefundedRides);
+            }
+        }, args));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            discrepancyRepository.saveAll(found);
+            chunk.setStatus(ReconciliationChunk.ChunkStatus.DONE);
+            chunk.setCustomersChecked(counts[0]);
+            chunk.setDiscrepancies(counts[1]);
+            chunk.setCompletedAt(ZonedDateTime.now());
+            chunkRepository.save(chunk);
+        });
+        if (counts[1] > 0) {
+            log.warn("Reconciliation range {} ({}, {}]: {} discrepancies in {} customers", chunk.getChunkIndex(),
+                    chunk.getLowerBound(), chunk.getUpperBound(), counts[1], counts[0]);
+        }
+    }
+
+    private void record(List<ReconciliationDiscrepancy> found, long[] counts, ReconciliationChunk chunk,
+                        String customerEmail, ReconciliationDiscrepancy.Kind kind, BigDecimal recorded,
+                        BigDecimal expected, int overRefundedRides) {
+        counts[1]++;
+        // A systematic bug would flag every customer; the count stays exact while stored rows are capped
+        if (found.size() >= maxStoredPerChunk) {
+            return;
+        }
+        found.add(ReconciliationDiscrepancy.builder()
+                .runId(chunk.getRunId())
+                .chunkIndex(chunk.getChunkIndex())
+                .customerEmail(customerEmail)
+                .kind(kind)
+                .recordedAmount(recorded)
+                .expectedAmount(expected)
+                .difference(recorded == null ? null : recorded.subtract(expected))
+                .overRefundedRides(overRefundedRides)
+                .detectedAt(ZonedDateTime.now())
+                .build());
+    }
+
+    private Path writeReport(UUID runId) {
+        Path report = reportDir.resolve("reconciliation-" + runId + ".csv");
+        try {
+            Files.createDirectories(reportDir);
+            try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+                writer.write("customer_email,kind,recorded_amount,expected_amount,difference,over_refunded_rides\n");
+                readOnlyTransaction.executeWithoutResult(status -> cursorJdbcTemplate.query(REPORT_QUERY, rs -> {
+                    try {
+                        writer.write(csvField(rs.getString("customer_email")));
+                        writer.write(',');
+                        writer.write(rs.getString("kind"));
+                        writer.write(',');
+                        writer.write(plain(rs.getBigDecimal("recorded_amount")));
+                        writer.write(',');
+                        writer.write(plain(rs.getBigDecimal("expected_amount")));
+                        writer.write(',');
+                        writer.write(plain(rs.getBigDecimal("difference")));
+                        writer.write(',');
+                        writer.write(String.valueOf(rs.getInt("over_refunded_rides")));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, runId));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write reconciliation report " + report, e);
+        }
+        return report;
+    }
+
+    private void markFailed(ReconciliationRun run) {
+        try {
+            run.setStatus(ReconciliationRun.RunStatus.FAILED);
+            runRepository.save(run);
+        } catch (Exception e) {
+            log.error("Failed to mark reconciliation run {} as failed", run.getId(), e);
+        }
+    }
+
+    private static ReconciliationChunk chunk(UUID runId, int index, String lower, String upper) {
+        return ReconciliationChunk.builder()
+                .runId(runId)
+                .chunkIndex(index)
+                .lowerBound(lower)
+                .upperBound(upper)
+                .status(ReconciliationChunk.ChunkStatus.PENDING)
+                .build();
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.toPlainString();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Halves the pending ranges until each task owns one; a failed range stays PENDING for the next run.
+     */
+    private final class RangeTask extends RecursiveAction {
+
+        private final List<ReconciliationChunk> chunks;
+        private final int from;
+        private final int to;
+
+        RangeTask(List<ReconciliationChunk> chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 0) {
+                return;
+            }
+            if (to - from == 1) {
+                ReconciliationChunk chunk = chunks.get(from);
+                try {
+                    reconcile(chunk);
+                } catch (Exception e) {
+                    log.error("Failed to reconcile range {} ({}, {}]", chunk.getChunkIndex(),
+                            chunk.getLowerBound(), chunk.getUpperBound(), e);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(chunks, from, mid), new RangeTask(chunks, mid, to));
+        }
+    }
+}
@@ -2,11 +2,78 @@ package com.uber.api.payment.service.repository;
 
 import com.uber.api.payment.service.entity.Balance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.Optional;
 
 @Repository
 public interface BalanceRepository extends JpaRepository<Balance, String> {
     Optional<Balance> findByCustomerEmail(String customerEmail);
+
+    Optional<BalanceSnapshot> findSnapshotByCustomerEmail(String customerEmail);
+
+    /**
+     * Checks sufficiency and debits in one statement. Empty when the account is missing or short.
+     */
+    @Transactional
+    @Query(value = "UPDATE balances SET amount = amount - :amount, last_updated = now(), version = version + 1 " +
+            "WHERE customer_email = :customerEmail AND amount - held >= :amount RETURNING amount, version", nativeQuery = true)
+    Optional<BalanceSnapshot> debitIfSufficient(@Param("customerEmail") String customerEmail,
+                                           @Param("amount") BigDecimal amount);
+
+    /**
+     * Credits the account, opening it with the initial balance first if it does not exist yet.
+     */
+    @Transactional
+    @Query(value = "INSERT INTO balances (customer_email, amount, last_updated, version) " +
+            "VALUES (:customerEmail, :initialAmount + :amount, now(), 0) " +
+            "ON CONFLICT (customer_email) DO UPDATE SET amount = balances.amount + :amount, " +
+            "last_updated = now(), version = balances.version + 1 RETURNING amount, version", nativeQuery = true)
+    BalanceSnapshot credit(@Param("customerEmail") String customerEmail,
+                      @Param("amount") BigDecimal amount,
+                      @Param("initialAmount") BigDecimal initialAmount);
+
+    /**
+     * Reserves {@code amount} of the spendable balance without moving money. Empty when the account is
+     * missing or short.
+     */
+    @Transactional
+    @Query(value = "UPDATE balances SET held = held + :amount, last_updated = now(), version = version + 1 " +
+            "WHERE customer_email = :customerEmail AND amount - held >= :amount RETURNING amount - held", nativeQuery = true)
+    Optional<BigDecimal> holdIfAvailable(@Param("customerEmail") String customerEmail,
+                                         @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO balances (customer_email, amount, last_updated, version) " +
+            "VALUES (:customerEmail, :initialAmount, now(), 0) ON CONFLICT (customer_email) DO NOTHING", nativeQuery = true)
+    int openIfAbsent(@Param("customerEmail") String customerEmail,
+                     @Param("initialAmount") BigDecimal initialAmount);
+
+    /**
+     * Writes back the in-memory ledger's net change to an account, opening it with the initial balance the
+     * ledger assumed when it had no row.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO balances (customer_email, amount, last_updated, version) " +
+            "VALUES (:customerEmail, :initialAmount + :delta, now(), 0) ON CONFLICT (customer_email) DO UPDATE SET " +
+            "amount = balances.amount + :delta, last_updated = now(), version = balances.version + 1", nativeQuery = true)
+    int addDelta(@Param("customerEmail") String customerEmail,
+                 @Param("delta") BigDecimal delta,
+                 @Param("initialAmount") BigDecimal initialAmount);
+
+    /**
+     * Amount and row version as returned by the set-based statements; the version orders cache updates.
+     */
+    interface BalanceSnapshot {
+        BigDecimal getAmount();
+
+        Long getVersion();
+    }
 }
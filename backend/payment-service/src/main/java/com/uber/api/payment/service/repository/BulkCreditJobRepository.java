@@ -0,0 +1,27 @@
+package com.uber.api.payment.service.repository;
+
+import com.uber.api.payment.service.entity.BulkCreditJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BulkCreditJobRepository extends JpaRepository<BulkCreditJob, UUID> {
+    List<BulkCreditJob> findByStatusInOrderByCreatedAt(Collection<BulkCreditJob.JobStatus> statuses);
+
+    /**
+     * Moves a failed job back to PENDING; 0 if it is not FAILED, so concurrent resumes queue it once.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE bulk_credit_jobs SET status = 'PENDING', completed_at = NULL " +
+            "WHERE id = :jobId AND status = 'FAILED'", nativeQuery = true)
+    int claimFailed(@Param("jobId") UUID jobId);
+}
@@ -0,0 +1,9 @@
+package com.uber.api.payment.service.repository;
+
+import com.uber.api.payment.service.entity.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, Integer> {
+}
@@ -0,0 +1,75 @@
+package com.uber.api.payment.service.repository;
+
+import com.uber.api.payment.service.entity.PaymentHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PaymentHoldRepository extends JpaRepository<PaymentHold, UUID> {
+    Optional<PaymentHold> findByRideRequestId(UUID rideRequestId);
+
+    boolean existsByRideRequestIdAndStatus(UUID rideRequestId, PaymentHold.HoldStatus status);
+
+    List<PaymentHold> findByStatus(PaymentHold.HoldStatus status);
+
+    /**
+     * Closes an authorized hold and gives its amount back to the spendable balance in one statement.
+     * Returns 0 if the hold was already captured, released or expired.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH closed AS (UPDATE payment_holds SET status = :status, completed_at = now() " +
+            "WHERE ride_request_id = :rideRequestId AND status = 'AUTHORIZED' RETURNING customer_email, amount) " +
+            "UPDATE balances b SET held = b.held - c.amount, last_updated = now(), version = b.version + 1 " +
+            "FROM closed c WHERE b.customer_email = c.customer_email", nativeQuery = true)
+    int release(@Param("rideRequestId") UUID rideRequestId, @Param("status") String status);
+
+    /**
+     * Closes an authorized hold and debits the final price, which may differ from the authorized amount.
+     * Returns 0 without closing the hold when the balance, with this hold given back, cannot cover the price.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH account AS (SELECT b.customer_email FROM balances b JOIN payment_holds h " +
+            "ON h.customer_email = b.customer_email WHERE h.ride_request_id = :rideRequestId AND h.status = 'AUTHORIZED' " +
+            "AND b.amount - b.held + h.amount >= :finalAmount FOR UPDATE OF b), " +
+            "closed AS (UPDATE payment_holds h SET status = 'CAPTURED', captured_amount = :finalAmount, " +
+            "completed_at = now() FROM account a WHERE h.ride_request_id = :rideRequestId AND h.status = 'AUTHORIZED' " +
+            "AND h.customer_email = a.customer_email RETURNING h.customer_email, h.amount) " +
+            "UPDATE balances b SET amount = b.amount - :finalAmount, held = b.held - c.amount, last_updated = now(), " +
+            "version = b.version + 1 FROM closed c WHERE b.customer_email = c.customer_email", nativeQuery = true)
+    int capture(@Param("rideRequestId") UUID rideRequestId, @Param("finalAmount") BigDecimal finalAmount);
+
+    /**
+     * Marks a ride released before its hold was authorized, so a late authorization is refused.
+     * Does nothing if the ride already has a hold.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO payment_holds (id, ride_request_id, customer_email, status, created_at, completed_at) " +
+            "VALUES (gen_random_uuid(), :rideRequestId, :customerEmail, 'RELEASED', now(), now()) " +
+            "ON CONFLICT (ride_request_id) DO NOTHING", nativeQuery = true)
+    int recordEarlyRelease(@Param("rideRequestId") UUID rideRequestId, @Param("customerEmail") String customerEmail);
+
+    /**
+     * Expires every overdue hold in one pass over the (status, expires_at) index. Returns the number of
+     * accounts whose held amount changed.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH expired AS (UPDATE payment_holds SET status = 'EXPIRED', completed_at = now() " +
+            "WHERE status = 'AUTHORIZED' AND expires_at < now() RETURNING customer_email, amount) " +
+            "UPDATE balances b SET held = b.held - e.total, last_updated = now(), version = b.version + 1 " +
+            "FROM (SELECT customer_email, sum(amount) AS total FROM expired GROUP BY customer_email) e " +
+            "WHERE b.customer_email = e.customer_email", nativeQuery = true)
+    int expireOverdue();
+}
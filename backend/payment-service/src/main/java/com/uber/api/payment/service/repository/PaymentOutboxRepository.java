@@ -12,4 +12,5 @@ import java.util.UUID;
 public interface PaymentOutboxRepository extends JpaRepository<PaymentOutbox, UUID> {
     List<PaymentOutbox> findByStatusOrderByCreatedAt(OutboxStatus status);
     List<PaymentOutbox> findBySagaId(UUID sagaId);
+    List<PaymentOutbox> findBySagaIdAndSentInTransactionTrueOrderByCreatedAt(UUID sagaId);
 }
@@ -0,0 +1,13 @@
+package com.uber.api.payment.service.repository;
+
+import com.uber.api.payment.service.entity.ReconciliationChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReconciliationChunkRepository extends JpaRepository<ReconciliationChunk, UUID> {
+    List<ReconciliationChunk> findByRunIdOrderByChunkIndex(UUID runId);
+}
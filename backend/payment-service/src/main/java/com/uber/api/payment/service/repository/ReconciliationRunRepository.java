@@ -0,0 +1,13 @@
+package com.uber.api.payment.service.repository;
+
+import com.uber.api.payment.service.entity.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, UUID> {
+    Optional<ReconciliationRun> findFirstByStatusNotOrderByStartedAtDesc(ReconciliationRun.RunStatus status);
+}
@@ -2,15 +2,33 @@ package com.uber.api.payment.service.repository;
 
 import com.uber.api.payment.service.entity.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
-    List<Transaction> findByCustomerEmailOrderByCreatedAtDesc(String customerEmail);
+    @Query(value = "SELECT * FROM transactions WHERE customer_email = :customerEmail " +
+            "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Transaction> findLatest(@Param("customerEmail") String customerEmail, @Param("limit") int limit);
+
+    /**
+     * Next history page after (createdAt, id); the row comparison lets Postgres seek the index instead of
+     * skipping an offset.
+     */
+    @Query(value = "SELECT * FROM transactions WHERE customer_email = :customerEmail " +
+            "AND (created_at, id) < (:createdAt, :id) " +
+            "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Transaction> findBefore(@Param("customerEmail") String customerEmail,
+                                 @Param("createdAt") ZonedDateTime createdAt,
+                                 @Param("id") UUID id,
+                                 @Param("limit") int limit);
+
     Optional<Transaction> findBySagaId(UUID sagaId);
     List<Transaction> findByRideRequestId(UUID rideRequestId);
 }
@@ -0,0 +1,97 @@
+package com.uber.api.payment.service.scheduler;
+
+import com.uber.api.payment.service.entity.Balance;
+import com.uber.api.payment.service.entity.LedgerCheckpoint;
+import com.uber.api.payment.service.entity.Transaction;
+import com.uber.api.payment.service.ledger.LedgerEngine;
+import com.uber.api.payment.service.ledger.LedgerEntry;
+import com.uber.api.payment.service.ledger.LedgerPartition;
+import com.uber.api.payment.service.ledger.LedgerSnapshot;
+import com.uber.api.payment.service.repository.BalanceRepository;
+import com.uber.api.payment.service.repository.LedgerCheckpointRepository;
+import com.uber.api.payment.service.repository.TransactionRepository;
+import com.uber.api.shared.constants.PaymentStatus;
+import com.uber.api.shared.money.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Writes each ledger partition's postings into balances/transactions together with the checkpoint
+ * sequence, so recovery replays exactly the journal entries the database does not have. Balances get the
+ * net change of the checkpointed entries added, not the ledger's absolute amount.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "uber.payment.ledger.enabled", havingValue = "true")
+public class LedgerCheckpointScheduler {
+
+    private final LedgerEngine ledgerEngine;
+    private final BalanceRepository balanceRepository;
+    private final TransactionRepository transactionRepository;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(fixedDelayString = "${uber.payment.ledger.checkpoint-interval-ms:1000}")
+    public void checkpoint() {
+        try {
+            ledgerEngine.verifyLease();
+        } catch (Exception e) {
+            log.error("Not checkpointing the ledger without its lease", e);
+            return;
+        }
+        for (LedgerPartition partition : ledgerEngine.getPartitions()) {
+            try {
+                LedgerSnapshot snapshot = partition.snapshot().join();
+                if (snapshot.isEmpty()) {
+                    continue;
+                }
+                transactionTemplate.executeWithoutResult(status -> write(snapshot));
+                partition.checkpointed(snapshot.getLastSequence());
+                log.debug("Checkpointed ledger partition {} through sequence {} ({} entries)",
+                        snapshot.getPartitionId(), snapshot.getLastSequence(), snapshot.getEntries().size());
+            } catch (Exception e) {
+                // Nothing is discarded until a checkpoint commits, so the next run retries the same entries
+                log.error("Failed to checkpoint ledger partition {}", partition.getPartitionId(), e);
+            }
+        }
+    }
+
+    private void write(LedgerSnapshot snapshot) {
+        snapshot.getDeltas().forEach((customerEmail, cents) -> balanceRepository.addDelta(customerEmail,
+                Money.ofMinor(cents).toBigDecimal(), Balance.INITIAL_AMOUNT.toBigDecimal()));
+
+        List<Transaction> transactions = snapshot.getEntries().stream().map(this::toTransaction).toList();
+        transactionRepository.saveAll(transactions);
+
+        checkpointRepository.save(LedgerCheckpoint.builder()
+                .partitionId(snapshot.getPartitionId())
+                .lastSequence(snapshot.getLastSequence())
+                .checkpointedAt(ZonedDateTime.now())
+                .build());
+    }
+
+    private Transaction toTransaction(LedgerEntry entry) {
+        ZonedDateTime postedAt = ZonedDateTime.ofInstant(Instant.ofEpochMilli(entry.getTimestamp()), ZoneId.systemDefault());
+        return Transaction.builder()
+                .customerEmail(entry.getCustomerEmail())
+                .rideRequestId(entry.getRideRequestId())
+                .sagaId(entry.getSagaId())
+                .amount(Money.ofMinor(entry.getAmount()))
+                .status(PaymentStatus.COMPLETED)
+                .type(entry.getType())
+                .description(entry.getDescription())
+                .createdAt(postedAt)
+                .processedAt(postedAt)
+                .build();
+    }
+}
@@ -2,10 +2,13 @@ package com.uber.api.payment.service.scheduler;
 
 import com.uber.api.payment.service.entity.PaymentOutbox;
 import com.uber.api.payment.service.repository.PaymentOutboxRepository;
+import com.uber.api.shared.jfr.OutboxBatchEvent;
+import com.uber.api.shared.metrics.OutboxMetrics;
+import com.uber.api.shared.outbox.OutboxHeaders;
 import com.uber.api.shared.outbox.OutboxStatus;
+import com.uber.api.shared.transport.EventTransport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,12 +22,16 @@ import java.util.List;
 public class PaymentOutboxScheduler {
 
     private final PaymentOutboxRepository paymentOutboxRepository;
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final EventTransport eventTransport;
+    private final OutboxHeaders outboxHeaders;
+    private final OutboxMetrics outboxMetrics;
 
     @Scheduled(fixedDelay = 5000) // Every 5 seconds
     @Transactional
     public void processOutboxEvents() {
         List<PaymentOutbox> pendingEvents = paymentOutboxRepository.findByStatusOrderByCreatedAt(OutboxStatus.PENDING);
+        outboxMetrics.observeBacklog("payment_outbox", pendingEvents.size(),
+                pendingEvents.isEmpty() ? null : pendingEvents.get(0).getCreatedAt());
 
         if (pendingEvents.isEmpty()) {
             return;
@@ -32,14 +39,21 @@ public class PaymentOutboxScheduler {
 
         log.info("Processing {} payment outbox events", pendingEvents.size());
 
+        OutboxBatchEvent batchEvent = outboxMetrics.startBatch();
+        int sent = 0;
+        long sendNanos = 0;
         for (PaymentOutbox event : pendingEvents) {
             try {
                 String topic = getTopicForEventType(event.getEventType());
-                kafkaTemplate.send(topic, event.getPayload());
+                long sendStart = outboxMetrics.startSend();
+                outboxHeaders.publish(topic, event.getHeaders(), headers ->
+                        eventTransport.send(topic, null, event.getPayload(), headers));
+                sendNanos += outboxMetrics.recordSend("payment_outbox", topic, sendStart);
 
                 event.setStatus(OutboxStatus.SENT);
                 event.setProcessedAt(ZonedDateTime.now());
                 paymentOutboxRepository.save(event);
+                sent++;
 
                 log.info("Successfully sent payment event {} to topic {}", event.getId(), topic);
 
@@ -49,12 +63,14 @@ public class PaymentOutboxScheduler {
                 paymentOutboxRepository.save(event);
             }
         }
+        outboxMetrics.endBatch(batchEvent, "payment_outbox", pendingEvents.size(), sent, sendNanos);
     }
 
     private String getTopicForEventType(String eventType) {
         return switch (eventType) {
             case "payment-responses" -> "payment-responses";
             case "driver-requests" -> "driver-requests";
+            case "driver-hold-releases" -> "driver-hold-releases";
             default -> throw new IllegalArgumentException("Unknown event type: " + eventType);
         };
     }
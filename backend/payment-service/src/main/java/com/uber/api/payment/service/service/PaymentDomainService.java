@@ -2,14 +2,15 @@ package com.uber.api.payment.service.service;
 
 import com.uber.api.shared.events.PaymentRequestEvent;
 import com.uber.api.shared.events.PaymentResponseEvent;
+import com.uber.api.shared.money.Money;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 public interface PaymentDomainService {
     PaymentResponseEvent processPayment(PaymentRequestEvent paymentRequest);
     PaymentResponseEvent refundPayment(PaymentRequestEvent refundRequest);
-    BigDecimal getBalance(String customerEmail);
-    void addBalance(String customerEmail, BigDecimal amount);
+    Money getBalance(String customerEmail);
+    void addBalance(String customerEmail, Money amount);
     void saveToOutbox(Object event, UUID sagaId, String eventType);
+    int resendTransactionalEvents(UUID sagaId);
 }
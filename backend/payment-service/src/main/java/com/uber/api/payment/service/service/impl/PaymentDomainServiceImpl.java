@@ -1,29 +1,46 @@
 package com.uber.api.payment.service.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.api.payment.service.cache.BalanceCache;
 import com.uber.api.payment.service.entity.Balance;
 import com.uber.api.payment.service.entity.PaymentOutbox;
 import com.uber.api.payment.service.entity.Transaction;
+import com.uber.api.payment.service.hold.PaymentHoldManager;
+import com.uber.api.payment.service.jfr.BalanceDebitEvent;
+import com.uber.api.payment.service.ledger.LedgerEngine;
 import com.uber.api.payment.service.repository.BalanceRepository;
 import com.uber.api.payment.service.repository.PaymentOutboxRepository;
-import com.uber.api.payment.service.repository.TransactionRepository;
 import com.uber.api.payment.service.service.PaymentDomainService;
+import com.uber.api.payment.service.velocity.VelocityLimiter;
+import com.uber.api.payment.service.writer.TransactionWriter;
 import com.uber.api.shared.constants.PaymentStatus;
 import com.uber.api.shared.events.PaymentRequestEvent;
 import com.uber.api.shared.events.PaymentResponseEvent;
 import com.uber.api.shared.events.PaymentRefundEvent;
+import com.uber.api.shared.money.Money;
+import com.uber.api.shared.outbox.OutboxHeaders;
 import com.uber.api.shared.outbox.OutboxStatus;
 import com.uber.api.shared.saga.SagaStatus;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.OptimisticLockingFailureException;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -32,32 +49,63 @@ import java.util.UUID;
 public class PaymentDomainServiceImpl implements PaymentDomainService {
 
     private final BalanceRepository balanceRepository;
-    private final TransactionRepository transactionRepository;
     private final PaymentOutboxRepository paymentOutboxRepository;
     private final ObjectMapper objectMapper;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final TransactionWriter transactionWriter;
+    private final PaymentHoldManager paymentHoldManager;
+    private final BalanceCache balanceCache;
+    private final VelocityLimiter velocityLimiter;
+    private final OutboxHeaders outboxHeaders;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${uber.payment.kafka-transactions.enabled:false}")
+    private boolean kafkaTransactionsEnabled;
+
+    private Meter.MeterProvider<Timer> paymentTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        // The insufficient balance rate is the share of outcome=insufficient_balance
+        paymentTimer = Timer.builder("payment.processing")
+                .description("Time to process one payment request")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .withRegistry(meterRegistry);
+    }
 
     @Override
     @Transactional
-    @Retryable(value = {OptimisticLockingFailureException.class}, maxAttempts = 3, backoff = @Backoff(delay = 100))
     public PaymentResponseEvent processPayment(PaymentRequestEvent paymentRequest) {
         log.info("Processing payment for customer: {} amount: {}",
                 paymentRequest.getCustomerEmail(), paymentRequest.getAmount());
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        long checkedAt = System.currentTimeMillis();
+        if (!velocityLimiter.tryAcquire(paymentRequest.getCustomerEmail(), paymentRequest.getAmount(), checkedAt)) {
+            log.warn("Velocity limit exceeded for customer: {} amount: {}",
+                    paymentRequest.getCustomerEmail(), paymentRequest.getAmount());
+            sample.stop(paymentTimer.withTags("outcome", "velocity_limited"));
+            return createFailedPaymentResponse(paymentRequest, "Velocity limit exceeded");
+        }
+
         try {
-            // **FIX 1: Atomic balance check and deduction**
-            Balance balance = findOrCreateBalance(paymentRequest.getCustomerEmail());
+            // Sufficiency check and deduction happen in one conditional UPDATE, so concurrent rides on a
+            // shared balance serialize on the row lock instead of failing optimistic version checks
+            Optional<Money> remaining = debit(paymentRequest);
 
-            if (!balance.hasSufficientBalance(paymentRequest.getAmount())) {
-                log.warn("Insufficient balance for customer: {} required: {} available: {}",
-                        paymentRequest.getCustomerEmail(), paymentRequest.getAmount(), balance.getAmount());
+            if (remaining.isEmpty()) {
+                log.warn("Insufficient balance for customer: {} required: {}",
+                        paymentRequest.getCustomerEmail(), paymentRequest.getAmount());
 
+                velocityLimiter.release(paymentRequest.getCustomerEmail(), paymentRequest.getAmount(), checkedAt);
+                outcome = "insufficient_balance";
                 return createFailedPaymentResponse(paymentRequest, "Insufficient balance");
             }
 
-            // **FIX 2: Atomic balance deduction with optimistic locking**
-            balance.deductAmount(paymentRequest.getAmount());
-            balanceRepository.save(balance);
-
             // Create successful transaction record
             Transaction transaction = Transaction.builder()
                     .customerEmail(paymentRequest.getCustomerEmail())
@@ -71,7 +119,7 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
                     .processedAt(ZonedDateTime.now())
                     .build();
 
-            transactionRepository.save(transaction);
+            recordPosting(transaction);
 
             // Create successful payment response
             PaymentResponseEvent response = PaymentResponseEvent.builder()
@@ -83,36 +131,29 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
                     .build();
 
             saveToOutbox(response, paymentRequest.getSagaId(), "payment-responses");
+            outcome = "completed";
 
             log.info("Payment processed successfully for customer: {} amount: {}",
                     paymentRequest.getCustomerEmail(), paymentRequest.getAmount());
 
             return response;
 
-        } catch (OptimisticLockingFailureException e) {
-            log.warn("Optimistic locking failure during payment processing, retrying...");
-            throw e; // Will be retried by @Retryable
         } catch (Exception e) {
             log.error("Error processing payment for customer: {}", paymentRequest.getCustomerEmail(), e);
+            velocityLimiter.release(paymentRequest.getCustomerEmail(), paymentRequest.getAmount(), checkedAt);
             return createFailedPaymentResponse(paymentRequest, "Payment processing failed: " + e.getMessage());
+        } finally {
+            sample.stop(paymentTimer.withTags("outcome", outcome));
         }
     }
 
     @Override
     @Transactional
-    @Retryable(value = {OptimisticLockingFailureException.class}, maxAttempts = 3, backoff = @Backoff(delay = 100))
     public PaymentResponseEvent refundPayment(PaymentRequestEvent refundRequest) {
         log.info("Processing refund for customer: {} amount: {}",
                 refundRequest.getCustomerEmail(), refundRequest.getAmount());
 
         try {
-            // **FIX 3: Atomic refund processing**
-            Balance balance = findOrCreateBalance(refundRequest.getCustomerEmail());
-
-            // Add refund amount to balance
-            balance.addAmount(refundRequest.getAmount());
-            balanceRepository.save(balance);
-
             // Create refund transaction record
             Transaction transaction = Transaction.builder()
                     .customerEmail(refundRequest.getCustomerEmail())
@@ -126,7 +167,7 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
                     .processedAt(ZonedDateTime.now())
                     .build();
 
-            transactionRepository.save(transaction);
+            credit(transaction);
 
             // Create refund response
             PaymentResponseEvent response = PaymentResponseEvent.builder()
@@ -145,9 +186,6 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
 
             return response;
 
-        } catch (OptimisticLockingFailureException e) {
-            log.warn("Optimistic locking failure during refund processing, retrying...");
-            throw e; // Will be retried by @Retryable
         } catch (Exception e) {
             log.error("Error processing refund for customer: {}", refundRequest.getCustomerEmail(), e);
             return createFailedPaymentResponse(refundRequest, "Refund processing failed: " + e.getMessage());
@@ -163,12 +201,6 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
                 refundEvent.getCustomerEmail(), refundEvent.getAmount());
 
         try {
-            Balance balance = findOrCreateBalance(refundEvent.getCustomerEmail());
-
-            // Add refund amount to balance
-            balance.addAmount(refundEvent.getAmount());
-            balanceRepository.save(balance);
-
             // Create refund transaction
             Transaction transaction = Transaction.builder()
                     .customerEmail(refundEvent.getCustomerEmail())
@@ -182,7 +214,7 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
                     .processedAt(ZonedDateTime.now())
                     .build();
 
-            transactionRepository.save(transaction);
+            credit(transaction);
 
             log.info("Refund processed successfully for customer: {} amount: {}",
                     refundEvent.getCustomerEmail(), refundEvent.getAmount());
@@ -193,30 +225,98 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
     }
 
     @Override
-    public BigDecimal getBalance(String customerEmail) {
-        return findOrCreateBalance(customerEmail).getAmount();
+    public Money getBalance(String customerEmail) {
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        if (ledger != null) {
+            return ledger.balance(customerEmail).join();
+        }
+        return balanceCache.get(customerEmail);
     }
 
     @Override
     @Transactional
-    public void addBalance(String customerEmail, BigDecimal amount) {
-        Balance balance = findOrCreateBalance(customerEmail);
-        balance.addAmount(amount);
-        balanceRepository.save(balance);
+    public void addBalance(String customerEmail, Money amount) {
+        Money newAmount = credit(Transaction.builder()
+                .customerEmail(customerEmail)
+                .amount(amount)
+                .status(PaymentStatus.COMPLETED)
+                .type(Transaction.TransactionType.CREDIT)
+                .description("Top-up")
+                .createdAt(ZonedDateTime.now())
+                .processedAt(ZonedDateTime.now())
+                .build());
+
+        log.info("Added {} to balance for customer: {} new balance: {}", amount, customerEmail, newAmount);
+    }
+
+    private Optional<Money> debit(PaymentRequestEvent paymentRequest) {
+        BalanceDebitEvent debitEvent = new BalanceDebitEvent();
+        debitEvent.begin();
+
+        String customerEmail = paymentRequest.getCustomerEmail();
+        Money amount = paymentRequest.getAmount();
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        if (ledger != null) {
+            // Journaled before this returns and deduplicated by saga, so a rolled back listener can retry safely
+            return recordDebit(debitEvent, paymentRequest, "ledger", 0, ledger.debit(customerEmail, amount,
+                    paymentRequest.getSagaId(), paymentRequest.getRideRequestId(), paymentRequest.getDescription()).join());
+        }
+        if (paymentHoldManager.isEnabled()) {
+            // Only reserve the estimate; the final price is captured when the ride completes
+            return recordDebit(debitEvent, paymentRequest, "hold", 0, paymentHoldManager.authorize(paymentRequest));
+        }
 
-        log.info("Added {} to balance for customer: {}", amount, customerEmail);
+        BigDecimal debitAmount = amount.toBigDecimal();
+        int retries = 0;
+        Optional<BalanceRepository.BalanceSnapshot> remaining = balanceRepository.debitIfSufficient(customerEmail, debitAmount);
+        // First payment of a new customer: open the account with the default balance and try once more
+        if (remaining.isEmpty() && balanceRepository.openIfAbsent(customerEmail, Balance.INITIAL_AMOUNT.toBigDecimal()) > 0) {
+            retries++;
+            remaining = balanceRepository.debitIfSufficient(customerEmail, debitAmount);
+        }
+        remaining.ifPresent(snapshot -> balanceCache.update(customerEmail, snapshot));
+        return recordDebit(debitEvent, paymentRequest, "database", retries,
+                remaining.map(snapshot -> Money.of(snapshot.getAmount())));
     }
 
-    private Balance findOrCreateBalance(String customerEmail) {
-        return balanceRepository.findByCustomerEmail(customerEmail)
-                .orElseGet(() -> {
-                    Balance newBalance = Balance.builder()
-                            .customerEmail(customerEmail)
-                            .amount(BigDecimal.valueOf(100.00)) // Default balance $100
-                            .lastUpdated(ZonedDateTime.now())
-                            .build();
-                    return balanceRepository.save(newBalance);
-                });
+    private Optional<Money> recordDebit(BalanceDebitEvent event, PaymentRequestEvent paymentRequest, String mode,
+                                        int retries, Optional<Money> remaining) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.rideRequestId = String.valueOf(paymentRequest.getRideRequestId());
+            event.mode = mode;
+            event.amountCents = paymentRequest.getAmount().getMinorUnits();
+            event.retries = retries;
+            event.outcome = remaining.isPresent() ? "debited" : "insufficient";
+            event.commit();
+        }
+        return remaining;
+    }
+
+    private Money creditBalance(String customerEmail, Money amount) {
+        BalanceRepository.BalanceSnapshot snapshot = balanceRepository.credit(customerEmail, amount.toBigDecimal(),
+                Balance.INITIAL_AMOUNT.toBigDecimal());
+        balanceCache.update(customerEmail, snapshot);
+        return Money.of(snapshot.getAmount());
+    }
+
+    private Money credit(Transaction transaction) {
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        if (ledger != null) {
+            return ledger.credit(transaction.getType(), transaction.getCustomerEmail(), transaction.getAmount(),
+                    transaction.getSagaId(), transaction.getRideRequestId(), transaction.getDescription()).join();
+        }
+        Money newAmount = creditBalance(transaction.getCustomerEmail(), transaction.getAmount());
+        transactionWriter.save(transaction);
+        return newAmount;
+    }
+
+    private void recordPosting(Transaction transaction) {
+        // In ledger mode the checkpoint writes the transaction rows for applied postings, and with
+        // authorization holds the debit is only recorded on capture
+        if (ledgerEngine.getIfAvailable() == null && !paymentHoldManager.isEnabled()) {
+            transactionWriter.save(transaction);
+        }
     }
 
     private PaymentResponseEvent createFailedPaymentResponse(PaymentRequestEvent request, String failureReason) {
@@ -233,7 +333,7 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
                 .processedAt(ZonedDateTime.now())
                 .build();
 
-        transactionRepository.save(transaction);
+        transactionWriter.save(transaction);
 
         PaymentResponseEvent response = PaymentResponseEvent.builder()
                 .sagaId(request.getSagaId())
@@ -255,17 +355,31 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
         try {
             String payload = objectMapper.writeValueAsString(event);
 
+            // Inside a listener-driven Kafka transaction the send commits atomically with the consumed
+            // offset, so the relay and its poll delay are not needed. inTransaction() is also true for
+            // a bare JPA transaction, whose commit a Kafka send is only synchronized with best-effort.
+            String headers = outboxHeaders.capture(eventType);
+            boolean sentInTransaction = kafkaTransactionsEnabled && inKafkaTransaction();
+            if (sentInTransaction) {
+                sendInTransaction(eventType, sagaId, payload, headers);
+            }
+
+            // The database commits before the Kafka transaction does, so a sent event is still recorded
+            // as SENT: if the Kafka commit then fails, the redelivered request produces it again from here
             PaymentOutbox outboxEvent = PaymentOutbox.builder()
                     .sagaId(sagaId)
                     .eventType(eventType)
                     .payload(payload)
-                    .status(OutboxStatus.PENDING)
+                    .status(sentInTransaction ? OutboxStatus.SENT : OutboxStatus.PENDING)
                     .sagaStatus(SagaStatus.STARTED)
+                    .headers(headers)
+                    .sentInTransaction(sentInTransaction)
                     .createdAt(ZonedDateTime.now())
+                    .processedAt(sentInTransaction ? ZonedDateTime.now() : null)
                     .build();
 
-            paymentOutboxRepository.save(outboxEvent);
-            log.info("✅ Saved {} event to outbox for saga: {}", eventType, sagaId);
+            transactionWriter.save(outboxEvent);
+            log.info("✅ {} {} event for saga: {}", sentInTransaction ? "Sent" : "Saved to outbox", eventType, sagaId);
 
         } catch (Exception e) {
             log.error("Failed to save event to outbox", e);
@@ -273,5 +387,33 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
         }
     }
 
+    /**
+     * Sends again, in the current Kafka transaction, the events an earlier delivery of the saga's request
+     * sent in its own. That transaction may have aborted after the database commit that marked the request
+     * processed, which would otherwise leave the ride without its response.
+     */
+    @Override
+    public int resendTransactionalEvents(UUID sagaId) {
+        if (!kafkaTransactionsEnabled || !inKafkaTransaction()) {
+            return 0;
+        }
+        List<PaymentOutbox> sent = paymentOutboxRepository.findBySagaIdAndSentInTransactionTrueOrderByCreatedAt(sagaId);
+        sent.forEach(event -> sendInTransaction(event.getEventType(), sagaId, event.getPayload(), event.getHeaders()));
+        return sent.size();
+    }
+
+    private void sendInTransaction(String eventType, UUID sagaId, String payload, String headers) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(eventType, sagaId.toString(), payload);
+        outboxHeaders.publish(eventType, headers, sent -> {
+            sent.forEach((name, value) -> record.headers().add(name, value.getBytes(StandardCharsets.UTF_8)));
+            kafkaTemplate.send(record);
+        });
+    }
+
+    private boolean inKafkaTransaction() {
+        // The container's KafkaTransactionManager binds the transactional producer to the factory
+        return TransactionSynchronizationManager.getResource(kafkaTemplate.getProducerFactory()) != null;
+    }
+
 
 }
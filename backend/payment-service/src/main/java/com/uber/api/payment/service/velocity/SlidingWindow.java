@@ -0,0 +1,97 @@
+package com.uber.api.payment.service.velocity;
+
+import java.util.Arrays;
+
+/**
+ * Ride counts and amounts per account over a sliding window, as a ring of fixed-width time buckets in flat
+ * primitive arrays indexed by slot. Running totals are kept per slot, so advancing subtracts only the
+ * buckets that fell out and a check reads two longs. Not thread-safe; each shard owns its windows.
+ */
+final class SlidingWindow {
+
+    private final long bucketMs;
+    private final int buckets;
+
+    private int[] counts;
+    private long[] cents;
+    private int[] totalCount;
+    private long[] totalCents;
+    // Absolute bucket number (time / bucketMs) of each slot's newest bucket
+    private long[] head;
+
+    SlidingWindow(long windowMs, int buckets, int capacity) {
+        this.bucketMs = Math.max(1, windowMs / buckets);
+        this.buckets = buckets;
+        this.counts = new int[capacity * buckets];
+        this.cents = new long[capacity * buckets];
+        this.totalCount = new int[capacity];
+        this.totalCents = new long[capacity];
+        this.head = new long[capacity];
+    }
+
+    long windowMs() {
+        return bucketMs * buckets;
+    }
+
+    void grow(int capacity) {
+        counts = Arrays.copyOf(counts, capacity * buckets);
+        cents = Arrays.copyOf(cents, capacity * buckets);
+        totalCount = Arrays.copyOf(totalCount, capacity);
+        totalCents = Arrays.copyOf(totalCents, capacity);
+        head = Arrays.copyOf(head, capacity);
+    }
+
+    void reset(int slot, long nowMs) {
+        int base = slot * buckets;
+        Arrays.fill(counts, base, base + buckets, 0);
+        Arrays.fill(cents, base, base + buckets, 0L);
+        totalCount[slot] = 0;
+        totalCents[slot] = 0;
+        head[slot] = nowMs / bucketMs;
+    }
+
+    void advance(int slot, long nowMs) {
+        long bucket = nowMs / bucketMs;
+        long current = head[slot];
+        if (bucket <= current) {
+            return;
+        }
+        if (bucket - current >= buckets) {
+            reset(slot, nowMs);
+            return;
+        }
+        int base = slot * buckets;
+        for (long b = current + 1; b <= bucket; b++) {
+            int i = base + (int) (b % buckets);
+            totalCount[slot] -= counts[i];
+            totalCents[slot] -= cents[i];
+            counts[i] = 0;
+            cents[i] = 0;
+        }
+        head[slot] = bucket;
+    }
+
+    int count(int slot) {
+        return totalCount[slot];
+    }
+
+    long cents(int slot) {
+        return totalCents[slot];
+    }
+
+    /**
+     * Adds to the bucket of {@code atMs}, which may be in the past (rebuild, release); ignored once it has
+     * left the window. Call {@link #advance} first.
+     */
+    void add(int slot, long atMs, int count, long amountCents) {
+        long bucket = atMs / bucketMs;
+        if (bucket > head[slot] || head[slot] - bucket >= buckets) {
+            return;
+        }
+        int i = slot * buckets + (int) (bucket % buckets);
+        counts[i] += count;
+        cents[i] += amountCents;
+        totalCount[slot] += count;
+        totalCents[slot] += amountCents;
+    }
+}
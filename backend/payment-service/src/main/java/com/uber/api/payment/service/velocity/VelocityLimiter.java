@@ -0,0 +1,322 @@
+package com.uber.api.payment.service.velocity;
+
+import com.uber.api.payment.service.hold.PaymentHoldManager;
+import com.uber.api.shared.money.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-customer velocity limits (rides and amount per minute and per hour) checked before a payment debits.
+ * Accounts are sharded by email hash; each shard keeps its accounts' sliding windows in primitive arrays
+ * and is locked only for the few array updates of one check. The windows are rebuilt from the last hour of
+ * payments when the service starts.
+ *
+ * A payment counted inside a transaction is taken back if that transaction rolls back, so a group commit
+ * retrying its units one by one does not count them twice.
+ */
+@Slf4j
+@Component
+public class VelocityLimiter {
+
+    private static final long MINUTE_MS = Duration.ofMinutes(1).toMillis();
+    private static final long HOUR_MS = Duration.ofHours(1).toMillis();
+
+    private static final String REBUILD_FROM_TRANSACTIONS =
+            "SELECT customer_email, amount, created_at FROM transactions " +
+            "WHERE type = 'DEBIT' AND status = 'COMPLETED' AND created_at >= ? AND created_at < ?";
+    // With authorization holds the debit is only written on capture, so recent rides are in payment_holds;
+    // rows without an amount mark rides released before they were authorized
+    private static final String REBUILD_FROM_HOLDS =
+            "SELECT customer_email, amount, created_at FROM payment_holds " +
+            "WHERE amount IS NOT NULL AND created_at >= ? AND created_at < ?";
+
+    private final boolean enabled;
+    private final int maxRidesPerMinute;
+    private final long maxCentsPerMinute;
+    private final int maxRidesPerHour;
+    private final long maxCentsPerHour;
+    private final Shard[] shards;
+    private final int shardMask;
+
+    private final PaymentHoldManager paymentHoldManager;
+    private final JdbcTemplate rebuildJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Counter minuteRejections;
+    private final Counter hourRejections;
+    // Payments checked live are counted from here on; the rebuild covers the hour before
+    private final long liveSince = System.currentTimeMillis();
+
+    public VelocityLimiter(PaymentHoldManager paymentHoldManager,
+                           DataSource dataSource,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${uber.payment.velocity.enabled:false}") boolean enabled,
+                           @Value("${uber.payment.velocity.per-minute.max-rides:5}") int maxRidesPerMinute,
+                           @Value("${uber.payment.velocity.per-minute.max-amount:500}") BigDecimal maxAmountPerMinute,
+                           @Value("${uber.payment.velocity.per-hour.max-rides:30}") int maxRidesPerHour,
+                           @Value("${uber.payment.velocity.per-hour.max-amount:2000}") BigDecimal maxAmountPerHour,
+                           @Value("${uber.payment.velocity.buckets:12}") int buckets,
+                           @Value("${uber.payment.velocity.shards:16}") int shards,
+                           @Value("${uber.payment.velocity.initial-accounts-per-shard:1024}") int initialCapacity) {
+        this.paymentHoldManager = paymentHoldManager;
+        this.enabled = enabled;
+        this.maxRidesPerMinute = maxRidesPerMinute;
+        this.maxCentsPerMinute = Money.of(maxAmountPerMinute).getMinorUnits();
+        this.maxRidesPerHour = maxRidesPerHour;
+        this.maxCentsPerHour = Money.of(maxAmountPerHour).getMinorUnits();
+
+        int shardCount = Integer.highestOneBit(Math.max(1, shards - 1) << 1);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new Shard(buckets, initialCapacity);
+        }
+        this.shardMask = shardCount - 1;
+
+        this.rebuildJdbcTemplate = new JdbcTemplate(dataSource);
+        this.rebuildJdbcTemplate.setFetchSize(1000);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.minuteRejections = Counter.builder("payment.velocity.rejected").tag("window", "minute").register(meterRegistry);
+        this.hourRejections = Counter.builder("payment.velocity.rejected").tag("window", "hour").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Counts the payment against the customer's windows if it fits both; false when it would exceed a limit.
+     */
+    public boolean tryAcquire(String customerEmail, Money amount, long nowMs) {
+        if (!enabled) {
+            return true;
+        }
+        long amountCents = amount.getMinorUnits();
+        if (!count(customerEmail, amountCents, nowMs)) {
+            return false;
+        }
+        releaseOnRollback(new Acquisition(customerEmail, amountCents, nowMs));
+        return true;
+    }
+
+    /**
+     * Takes back a payment counted by {@link #tryAcquire} whose debit did not go through.
+     */
+    public void release(String customerEmail, Money amount, long acquiredAtMs) {
+        if (!enabled) {
+            return;
+        }
+        Acquisition acquisition = new Acquisition(customerEmail, amount.getMinorUnits(), acquiredAtMs);
+        List<Acquisition> pending = pendingAcquisitions();
+        if (pending != null) {
+            pending.remove(acquisition);
+        }
+        uncount(acquisition);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long[] payments = new long[1];
+        String query = paymentHoldManager.isEnabled() ? REBUILD_FROM_HOLDS : REBUILD_FROM_TRANSACTIONS;
+
+        readOnlyTransaction.executeWithoutResult(status -> rebuildJdbcTemplate.query(query, rs -> {
+            String customerEmail = rs.getString("customer_email");
+            long amountCents = Money.of(rs.getBigDecimal("amount")).getMinorUnits();
+            long at = rs.getTimestamp("created_at").getTime();
+            Shard shard = shardOf(customerEmail);
+            synchronized (shard) {
+                int slot = shard.slotOf(customerEmail, now);
+                shard.minute.advance(slot, now);
+                shard.hour.advance(slot, now);
+                shard.minute.add(slot, at, 1, amountCents);
+                shard.hour.add(slot, at, 1, amountCents);
+            }
+            payments[0]++;
+        }, new Timestamp(liveSince - HOUR_MS), new Timestamp(liveSince)));
+
+        log.info("Rebuilt velocity windows from {} payments of the last hour in {} ms",
+                payments[0], System.currentTimeMillis() - now);
+    }
+
+    /**
+     * Frees the slots of accounts without a payment in the last hour so the arrays stay sized to active customers.
+     */
+    @Scheduled(fixedDelayString = "${uber.payment.velocity.evict-interval-ms:300000}")
+    public void evictIdle() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - HOUR_MS;
+        int evicted = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                evicted += shard.evictIdle(cutoff);
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle velocity accounts", evicted);
+        }
+    }
+
+    private boolean count(String customerEmail, long amountCents, long nowMs) {
+        Shard shard = shardOf(customerEmail);
+        synchronized (shard) {
+            int slot = shard.slotOf(customerEmail, nowMs);
+            shard.minute.advance(slot, nowMs);
+            shard.hour.advance(slot, nowMs);
+
+            if (exceeds(shard.minute, slot, amountCents, maxRidesPerMinute, maxCentsPerMinute)) {
+                minuteRejections.increment();
+                return false;
+            }
+            if (exceeds(shard.hour, slot, amountCents, maxRidesPerHour, maxCentsPerHour)) {
+                hourRejections.increment();
+                return false;
+            }
+            shard.minute.add(slot, nowMs, 1, amountCents);
+            shard.hour.add(slot, nowMs, 1, amountCents);
+            return true;
+        }
+    }
+
+    private void uncount(Acquisition acquisition) {
+        Shard shard = shardOf(acquisition.customerEmail());
+        synchronized (shard) {
+            Integer slot = shard.slots.get(acquisition.customerEmail());
+            if (slot != null) {
+                shard.minute.add(slot, acquisition.atMs(), -1, -acquisition.amountCents());
+                shard.hour.add(slot, acquisition.atMs(), -1, -acquisition.amountCents());
+            }
+        }
+    }
+
+    private void releaseOnRollback(Acquisition acquisition) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        List<Acquisition> pending = pendingAcquisitions();
+        if (pending == null) {
+            // One list per transaction: a group commit runs many payments in the same one
+            List<Acquisition> acquisitions = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, acquisitions);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(VelocityLimiter.this);
+                    if (status != STATUS_COMMITTED) {
+                        acquisitions.forEach(VelocityLimiter.this::uncount);
+                    }
+                }
+            });
+            pending = acquisitions;
+        }
+        pending.add(acquisition);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Acquisition> pendingAcquisitions() {
+        return (List<Acquisition>) TransactionSynchronizationManager.getResource(this);
+    }
+
+    private static boolean exceeds(SlidingWindow window, int slot, long amountCents, int maxRides, long maxCents) {
+        return (maxRides > 0 && window.count(slot) + 1 > maxRides)
+                || (maxCents > 0 && window.cents(slot) + amountCents > maxCents);
+    }
+
+    private Shard shardOf(String customerEmail) {
+        int h = customerEmail.hashCode();
+        return shards[(h ^ (h >>> 16)) & shardMask];
+    }
+
+    private record Acquisition(String customerEmail, long amountCents, long atMs) {
+    }
+
+    private static final class Shard {
+
+        final SlidingWindow minute;
+        final SlidingWindow hour;
+        // Account -> slot in the window arrays; freed slots are reused before the arrays grow
+        final Map<String, Integer> slots = new HashMap<>();
+        long[] lastSeen;
+        int[] freeSlots = new int[16];
+        int freeCount;
+        int capacity;
+        int used;
+
+        Shard(int buckets, int capacity) {
+            this.minute = new SlidingWindow(MINUTE_MS, buckets, capacity);
+            this.hour = new SlidingWindow(HOUR_MS, buckets, capacity);
+            this.lastSeen = new long[capacity];
+            this.capacity = capacity;
+        }
+
+        int slotOf(String customerEmail, long nowMs) {
+            Integer existing = slots.get(customerEmail);
+            if (existing != null) {
+                lastSeen[existing] = Math.max(lastSeen[existing], nowMs);
+                return existing;
+            }
+            int slot;
+            if (freeCount > 0) {
+                slot = freeSlots[--freeCount];
+            } else {
+                if (used == capacity) {
+                    capacity *= 2;
+                    minute.grow(capacity);
+                    hour.grow(capacity);
+                    lastSeen = Arrays.copyOf(lastSeen, capacity);
+                }
+                slot = used++;
+            }
+            minute.reset(slot, nowMs);
+            hour.reset(slot, nowMs);
+            lastSeen[slot] = nowMs;
+            slots.put(customerEmail, slot);
+            return slot;
+        }
+
+        int evictIdle(long cutoffMs) {
+            int evicted = 0;
+            Iterator<Map.Entry<String, Integer>> it = slots.entrySet().iterator();
+            while (it.hasNext()) {
+                int slot = it.next().getValue();
+                if (lastSeen[slot] < cutoffMs) {
+                    it.remove();
+                    if (freeCount == freeSlots.length) {
+                        freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+                    }
+                    freeSlots[freeCount++] = slot;
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.uber.api.payment.service.writer;
+
+import com.uber.api.payment.service.entity.PaymentOutbox;
+import com.uber.api.payment.service.entity.Transaction;
+import com.uber.api.payment.service.repository.PaymentOutboxRepository;
+import com.uber.api.payment.service.repository.TransactionRepository;
+import com.uber.api.shared.transport.MessageContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Group commit for payment work. Units submitted by concurrent listeners are run back to back inside one
+ * database transaction on the writer thread; the Transaction and PaymentOutbox rows they produce are
+ * buffered and inserted together right before the commit, which Hibernate sends as JDBC batches.
+ * Each caller returns once the shared commit has succeeded.
+ *
+ * If the shared transaction fails, its units are retried one transaction each so a single bad
+ * request cannot fail its neighbours. A unit may therefore run more than once: its in-memory effects
+ * must wait for afterCommit, be undone on rollback (velocity windows) or be idempotent per saga
+ * (ledger postings). With group commit disabled, units run in their own transaction on the calling thread.
+ */
+@Slf4j
+@Component
+public class TransactionWriter {
+
+    private static final ThreadLocal<Batch> CURRENT_BATCH = new ThreadLocal<>();
+
+    private final TransactionRepository transactionRepository;
+    private final PaymentOutboxRepository paymentOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Unit<?>> queue = new LinkedBlockingQueue<>();
+
+    private DistributionSummary batchSizes;
+    private Timer flushLatency;
+    private Counter retriedUnits;
+    private volatile boolean running;
+    private Thread thread;
+
+    public TransactionWriter(TransactionRepository transactionRepository,
+                             PaymentOutboxRepository paymentOutboxRepository,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${uber.payment.group-commit.enabled:false}") boolean enabled,
+                             @Value("${uber.payment.group-commit.max-batch-size:256}") int maxBatchSize,
+                             @Value("${uber.payment.group-commit.max-wait-ms:2}") long maxWaitMs) {
+        this.transactionRepository = transactionRepository;
+        this.paymentOutboxRepository = paymentOutboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        batchSizes = DistributionSummary.builder("payment.group_commit.batch_size")
+                .description("Units of work committed per database transaction")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        flushLatency = Timer.builder("payment.group_commit.flush")
+                .description("Time to run and commit one group of units")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        retriedUnits = Counter.builder("payment.retries")
+                .description("Payment work run again: units of a failed group commit, redelivered requests")
+                .tag("reason", "group_commit")
+                .register(meterRegistry);
+        if (enabled) {
+            running = true;
+            thread = new Thread(this::run, "payment-group-commit");
+            thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Runs {@code work} transactionally and returns its result once committed.
+     */
+    public <T> T execute(Supplier<T> work) {
+        if (!running) {
+            return transactionTemplate.execute(status -> work.get());
+        }
+        // Runs on the writer thread, which needs the caller's message context for the events it writes
+        Unit<T> unit = new Unit<>(MessageContext.wrap(work));
+        queue.add(unit);
+        try {
+            return unit.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void save(Transaction transaction) {
+        Batch batch = CURRENT_BATCH.get();
+        if (batch != null) {
+            batch.transactions.add(transaction);
+        } else {
+            transactionRepository.save(transaction);
+        }
+    }
+
+    public void save(PaymentOutbox outbox) {
+        Batch batch = CURRENT_BATCH.get();
+        if (batch != null) {
+            batch.outbox.add(outbox);
+        } else {
+            paymentOutboxRepository.save(outbox);
+        }
+    }
+
+    private void run() {
+        List<Unit<?>> units = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Unit<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                units.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (units.size() < maxBatchSize) {
+                    queue.drainTo(units, maxBatchSize - units.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (units.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    Unit<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    units.add(next);
+                }
+                flush(units);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                units.clear();
+            }
+        }
+    }
+
+    private void flush(List<Unit<?>> units) {
+        long start = System.nanoTime();
+        try {
+            List<Object> results = transactionTemplate.execute(status -> runAll(units));
+            for (int i = 0; i < units.size(); i++) {
+                units.get(i).complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (units.size() == 1) {
+                units.get(0).future.completeExceptionally(e);
+            } else {
+                log.warn("Group commit of {} units failed, retrying them individually", units.size(), e);
+                retriedUnits.increment(units.size());
+                for (Unit<?> unit : units) {
+                    flush(List.of(unit));
+                }
+                return;
+            }
+        }
+        batchSizes.record(units.size());
+        flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private List<Object> runAll(List<Unit<?>> units) {
+        Batch batch = new Batch();
+        CURRENT_BATCH.set(batch);
+        try {
+            List<Object> results = new ArrayList<>(units.size());
+            for (Unit<?> unit : units) {
+                results.add(unit.work.get());
+            }
+            transactionRepository.saveAll(batch.transactions);
+            paymentOutboxRepository.saveAll(batch.outbox);
+            return results;
+        } finally {
+            CURRENT_BATCH.remove();
+        }
+    }
+
+    private static final class Batch {
+        final List<Transaction> transactions = new ArrayList<>();
+        final List<PaymentOutbox> outbox = new ArrayList<>();
+    }
+
+    private static final class Unit<T> {
+        final Supplier<T> work;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Unit(Supplier<T> work) {
+            this.work = work;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object result) {
+            future.complete((T) result);
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.uber.api.payment.service;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.config.name=" + PaymentServiceApplication.CONFIG_NAME)
 class PaymentServiceApplicationTests {
 
 	@Test
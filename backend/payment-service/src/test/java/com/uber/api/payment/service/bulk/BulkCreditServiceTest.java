@@ -0,0 +1,82 @@
+package com.uber.api.payment.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.api.payment.service.cache.BalanceCache;
+import com.uber.api.payment.service.entity.BulkCreditJob;
+import com.uber.api.payment.service.repository.BulkCreditJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkCreditServiceTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private final BulkCreditJobRepository jobRepository = mock(BulkCreditJobRepository.class);
+    private BulkCreditService service;
+
+    @AfterEach
+    void stop() {
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void resumeOfJobNotFailedQueuesNothing() {
+        service = service();
+        UUID jobId = UUID.randomUUID();
+        when(jobRepository.claimFailed(jobId)).thenReturn(0);
+
+        assertThat(service.resume(jobId)).isEmpty();
+
+        verify(jobRepository, never()).findById(any());
+    }
+
+    @Test
+    void completedJobQueuedAgainKeepsItsSpoolAndStatus() throws Exception {
+        service = service();
+        UUID jobId = UUID.randomUUID();
+        Path spool = Files.writeString(spoolDir.resolve(jobId + ".csv"), "rider@example.com,10.00\n");
+        when(jobRepository.claimFailed(jobId)).thenReturn(1);
+        // Finished by a run already queued before this resume claimed it
+        when(jobRepository.findById(jobId)).thenReturn(Optional.of(BulkCreditJob.builder()
+                .id(jobId)
+                .status(BulkCreditJob.JobStatus.COMPLETED)
+                .format(BulkCreditService.FORMAT_CSV)
+                .spoolPath(spool.toString())
+                .linesRead(1L)
+                .build()));
+
+        assertThat(service.resume(jobId)).isPresent();
+
+        verify(jobRepository, timeout(5_000).times(2)).findById(jobId);
+        service.stop();
+        verify(jobRepository, never()).save(any());
+        assertThat(spool).exists();
+    }
+
+    @SuppressWarnings("unchecked")
+    private BulkCreditService service() {
+        return new BulkCreditService(jobRepository, mock(BalanceCache.class), mock(ObjectProvider.class),
+                new ObjectMapper(), mock(DataSource.class), mock(PlatformTransactionManager.class),
+                spoolDir.toString(), 100);
+    }
+}
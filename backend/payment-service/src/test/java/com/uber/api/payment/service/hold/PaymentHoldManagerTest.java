@@ -0,0 +1,98 @@
+package com.uber.api.payment.service.hold;
+
+import com.uber.api.payment.service.cache.BalanceCache;
+import com.uber.api.payment.service.entity.PaymentHold;
+import com.uber.api.payment.service.entity.Transaction;
+import com.uber.api.payment.service.repository.BalanceRepository;
+import com.uber.api.payment.service.repository.PaymentHoldRepository;
+import com.uber.api.payment.service.writer.TransactionWriter;
+import com.uber.api.shared.events.PaymentRequestEvent;
+import com.uber.api.shared.money.Money;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentHoldManagerTest {
+
+    private static final String RIDER = "rider@example.com";
+
+    private final BalanceRepository balanceRepository = mock(BalanceRepository.class);
+    private final PaymentHoldRepository paymentHoldRepository = mock(PaymentHoldRepository.class);
+    private final TransactionWriter transactionWriter = mock(TransactionWriter.class);
+    private final PaymentHoldManager manager = new PaymentHoldManager(balanceRepository, paymentHoldRepository,
+            transactionWriter, mock(BalanceCache.class), true, false, 180);
+
+    @Test
+    void holdsAreRefusedAlongsideTheLedger() {
+        assertThatThrownBy(() -> new PaymentHoldManager(balanceRepository, paymentHoldRepository,
+                transactionWriter, mock(BalanceCache.class), true, true, 180))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("uber.payment.ledger.enabled");
+    }
+
+    @Test
+    void authorizationAfterEarlyReleaseIsRefused() {
+        UUID rideRequestId = UUID.randomUUID();
+        when(paymentHoldRepository.recordEarlyRelease(rideRequestId, RIDER)).thenReturn(1);
+        assertThat(manager.release(rideRequestId, RIDER)).isTrue();
+        when(paymentHoldRepository.existsByRideRequestIdAndStatus(rideRequestId, PaymentHold.HoldStatus.RELEASED))
+                .thenReturn(true);
+
+        Optional<Money> authorized = manager.authorize(PaymentRequestEvent.builder()
+                .sagaId(UUID.randomUUID())
+                .rideRequestId(rideRequestId)
+                .customerEmail(RIDER)
+                .amount(Money.ofMinor(2_000))
+                .build());
+
+        assertThat(authorized).isEmpty();
+        verify(balanceRepository, never()).holdIfAvailable(anyString(), any());
+        verify(paymentHoldRepository, never()).save(any());
+    }
+
+    @Test
+    void overrunTheBalanceCannotCoverCapturesTheAuthorizedAmount() {
+        UUID rideRequestId = UUID.randomUUID();
+        Money authorized = Money.ofMinor(2_000);
+        when(paymentHoldRepository.findByRideRequestId(rideRequestId)).thenReturn(Optional.of(PaymentHold.builder()
+                .rideRequestId(rideRequestId)
+                .customerEmail(RIDER)
+                .amount(authorized)
+                .status(PaymentHold.HoldStatus.AUTHORIZED)
+                .build()));
+        when(paymentHoldRepository.capture(rideRequestId, Money.ofMinor(3_500).toBigDecimal())).thenReturn(0);
+        when(paymentHoldRepository.capture(rideRequestId, authorized.toBigDecimal())).thenReturn(1);
+
+        assertThat(manager.capture(rideRequestId, Money.ofMinor(3_500))).isTrue();
+
+        ArgumentCaptor<Transaction> recorded = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionWriter).save(recorded.capture());
+        assertThat(recorded.getValue().getAmount()).isEqualTo(authorized);
+    }
+
+    @Test
+    void captureWithoutOpenHoldDebitsNothing() {
+        UUID rideRequestId = UUID.randomUUID();
+        when(paymentHoldRepository.findByRideRequestId(rideRequestId)).thenReturn(Optional.of(PaymentHold.builder()
+                .rideRequestId(rideRequestId)
+                .customerEmail(RIDER)
+                .status(PaymentHold.HoldStatus.RELEASED)
+                .build()));
+
+        assertThat(manager.capture(rideRequestId, Money.ofMinor(1_000))).isFalse();
+
+        verify(paymentHoldRepository, never()).capture(any(), any());
+        verify(transactionWriter, never()).save(any(Transaction.class));
+    }
+}
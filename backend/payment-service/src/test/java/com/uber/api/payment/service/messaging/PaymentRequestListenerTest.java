@@ -0,0 +1,78 @@
+package com.uber.api.payment.service.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.api.payment.service.service.PaymentDomainService;
+import com.uber.api.payment.service.writer.TransactionWriter;
+import com.uber.api.shared.events.PaymentRequestEvent;
+import com.uber.api.shared.idempotency.IdempotentConsumer;
+import com.uber.api.shared.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentRequestListenerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final PaymentDomainService paymentDomainService = mock(PaymentDomainService.class);
+    private final IdempotentConsumer idempotentConsumer = mock(IdempotentConsumer.class);
+    private final TransactionWriter transactionWriter = mock(TransactionWriter.class);
+    private final PaymentRequestListener listener = new PaymentRequestListener(paymentDomainService, objectMapper,
+            idempotentConsumer, transactionWriter, new SimpleMeterRegistry());
+
+    private final UUID sagaId = UUID.randomUUID();
+
+    @BeforeEach
+    void runWorkInline() {
+        when(transactionWriter.execute(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+    }
+
+    @Test
+    void redeliveredRequestResendsTheEventsOfItsFirstDelivery() throws Exception {
+        when(idempotentConsumer.tryAcquire("payment-requests", sagaId)).thenReturn(false);
+
+        listener.handlePaymentRequest(request());
+
+        verify(paymentDomainService).resendTransactionalEvents(sagaId);
+        verify(paymentDomainService, never()).processPayment(any());
+    }
+
+    @Test
+    void failureAbortsTheKafkaTransactionInTransactionalMode() throws Exception {
+        ReflectionTestUtils.setField(listener, "kafkaTransactionsEnabled", true);
+        when(idempotentConsumer.tryAcquire("payment-requests", sagaId)).thenReturn(true);
+        when(paymentDomainService.processPayment(any())).thenThrow(new IllegalStateException("database down"));
+
+        assertThatThrownBy(() -> listener.handlePaymentRequest(request()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("database down");
+    }
+
+    @Test
+    void failureIsLoggedAndSkippedWithTheOutbox() throws Exception {
+        when(idempotentConsumer.tryAcquire("payment-requests", sagaId)).thenReturn(true);
+        when(paymentDomainService.processPayment(any())).thenThrow(new IllegalStateException("database down"));
+
+        assertThatCode(() -> listener.handlePaymentRequest(request())).doesNotThrowAnyException();
+    }
+
+    private String request() throws Exception {
+        return objectMapper.writeValueAsString(PaymentRequestEvent.builder()
+                .sagaId(sagaId)
+                .rideRequestId(UUID.randomUUID())
+                .customerEmail("rider@example.com")
+                .amount(Money.ofMinor(1_500))
+                .build());
+    }
+}
@@ -0,0 +1,122 @@
+package com.uber.api.payment.service.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.api.payment.service.cache.BalanceCache;
+import com.uber.api.payment.service.entity.PaymentOutbox;
+import com.uber.api.payment.service.hold.PaymentHoldManager;
+import com.uber.api.payment.service.ledger.LedgerEngine;
+import com.uber.api.payment.service.repository.BalanceRepository;
+import com.uber.api.payment.service.repository.PaymentOutboxRepository;
+import com.uber.api.payment.service.velocity.VelocityLimiter;
+import com.uber.api.payment.service.writer.TransactionWriter;
+import com.uber.api.shared.outbox.OutboxHeaders;
+import com.uber.api.shared.outbox.OutboxStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentDomainServiceImplTest {
+
+    private final PaymentOutboxRepository outboxRepository = mock(PaymentOutboxRepository.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ProducerFactory<String, String> producerFactory = mock(ProducerFactory.class);
+    private final TransactionWriter transactionWriter = mock(TransactionWriter.class);
+    private final OutboxHeaders outboxHeaders = mock(OutboxHeaders.class);
+    private PaymentDomainServiceImpl service;
+
+    private final UUID sagaId = UUID.randomUUID();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new PaymentDomainServiceImpl(mock(BalanceRepository.class), outboxRepository, new ObjectMapper(),
+                kafkaTemplate, mock(ObjectProvider.class), transactionWriter, mock(PaymentHoldManager.class),
+                mock(BalanceCache.class), mock(VelocityLimiter.class), outboxHeaders, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "kafkaTransactionsEnabled", true);
+        when(kafkaTemplate.getProducerFactory()).thenReturn(producerFactory);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Map<String, String>>>getArgument(2).accept(Map.of());
+            return null;
+        }).when(outboxHeaders).publish(anyString(), any(), any());
+    }
+
+    @AfterEach
+    void unbind() {
+        if (TransactionSynchronizationManager.hasResource(producerFactory)) {
+            TransactionSynchronizationManager.unbindResource(producerFactory);
+        }
+    }
+
+    @Test
+    void eventSentInTheKafkaTransactionIsStillRecorded() {
+        TransactionSynchronizationManager.bindResource(producerFactory, new Object());
+
+        service.saveToOutbox(Map.of("status", "COMPLETED"), sagaId, "payment-responses");
+
+        verify(kafkaTemplate).send(any(ProducerRecord.class));
+        ArgumentCaptor<PaymentOutbox> row = ArgumentCaptor.forClass(PaymentOutbox.class);
+        verify(transactionWriter).save(row.capture());
+        assertThat(row.getValue().getStatus()).isEqualTo(OutboxStatus.SENT);
+        assertThat(row.getValue().isSentInTransaction()).isTrue();
+    }
+
+    @Test
+    void redeliveryResendsRecordedEventsInItsOwnTransaction() {
+        TransactionSynchronizationManager.bindResource(producerFactory, new Object());
+        when(outboxRepository.findBySagaIdAndSentInTransactionTrueOrderByCreatedAt(sagaId)).thenReturn(List.of(
+                row("payment-responses", "{\"status\":\"COMPLETED\"}"),
+                row("driver-requests", "{\"sagaId\":\"" + sagaId + "\"}")));
+
+        assertThat(service.resendTransactionalEvents(sagaId)).isEqualTo(2);
+
+        ArgumentCaptor<ProducerRecord<String, String>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(sent.capture());
+        assertThat(sent.getAllValues()).extracting(ProducerRecord::topic)
+                .containsExactly("payment-responses", "driver-requests");
+        assertThat(sent.getAllValues()).extracting(ProducerRecord::key).containsOnly(sagaId.toString());
+    }
+
+    @Test
+    void outsideAKafkaTransactionNothingIsResent() {
+        assertThat(service.resendTransactionalEvents(sagaId)).isZero();
+
+        verify(outboxRepository, never()).findBySagaIdAndSentInTransactionTrueOrderByCreatedAt(eq(sagaId));
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+    }
+
+    private PaymentOutbox row(String eventType, String payload) {
+        return PaymentOutbox.builder()
+                .sagaId(sagaId)
+                .eventType(eventType)
+                .payload(payload)
+                .status(OutboxStatus.SENT)
+                .sentInTransaction(true)
+                .build();
+    }
+}
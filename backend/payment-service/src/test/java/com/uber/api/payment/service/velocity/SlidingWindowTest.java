@@ -0,0 +1,82 @@
+package com.uber.api.payment.service.velocity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowTest {
+
+    // One minute in six buckets of ten seconds
+    private static final long BUCKET = 10_000;
+    private static final long START = 1_700_000_000_000L / BUCKET * BUCKET;
+
+    private final SlidingWindow window = new SlidingWindow(6 * BUCKET, 6, 2);
+
+    @Test
+    void entryLeavesExactlyWhenItsBucketFallsOutOfTheWindow() {
+        window.reset(0, START);
+        window.add(0, START + BUCKET - 1, 1, 500);
+
+        window.advance(0, START + 6 * BUCKET - 1);
+        assertThat(window.count(0)).isEqualTo(1);
+        assertThat(window.cents(0)).isEqualTo(500);
+
+        window.advance(0, START + 6 * BUCKET);
+        assertThat(window.count(0)).isZero();
+        assertThat(window.cents(0)).isZero();
+    }
+
+    @Test
+    void advancingDropsOnlyTheBucketsThatExpired() {
+        window.reset(0, START);
+        for (int i = 0; i < 6; i++) {
+            window.advance(0, START + i * BUCKET);
+            window.add(0, START + i * BUCKET, 1, 100L * (i + 1));
+        }
+        assertThat(window.count(0)).isEqualTo(6);
+
+        // The window now covers buckets 3 to 8
+        window.advance(0, START + 8 * BUCKET);
+
+        assertThat(window.count(0)).isEqualTo(3);
+        assertThat(window.cents(0)).isEqualTo(400 + 500 + 600);
+    }
+
+    @Test
+    void idleLongerThanTheWindowClearsEverything() {
+        window.reset(0, START);
+        window.add(0, START, 3, 900);
+
+        window.advance(0, START + 60 * BUCKET);
+
+        assertThat(window.count(0)).isZero();
+        assertThat(window.cents(0)).isZero();
+    }
+
+    @Test
+    void addOutsideTheWindowIsIgnored() {
+        window.reset(0, START + 10 * BUCKET);
+
+        window.add(0, START + 4 * BUCKET, 1, 100);
+        window.add(0, START + 11 * BUCKET, 1, 100);
+
+        assertThat(window.count(0)).isZero();
+        window.add(0, START + 5 * BUCKET, 1, 100);
+        assertThat(window.count(0)).isEqualTo(1);
+    }
+
+    @Test
+    void slotsAreIndependentAndSurviveGrowth() {
+        window.reset(0, START);
+        window.reset(1, START);
+        window.add(0, START, 1, 100);
+        window.add(1, START, 2, 700);
+
+        window.grow(4);
+        window.reset(3, START);
+
+        assertThat(window.count(0)).isEqualTo(1);
+        assertThat(window.cents(1)).isEqualTo(700);
+        assertThat(window.count(3)).isZero();
+    }
+}
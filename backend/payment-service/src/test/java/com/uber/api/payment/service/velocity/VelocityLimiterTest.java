@@ -0,0 +1,153 @@
+package com.uber.api.payment.service.velocity;
+
+import com.uber.api.payment.service.hold.PaymentHoldManager;
+import com.uber.api.shared.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class VelocityLimiterTest {
+
+    private static final String RIDER = "rider@example.com";
+    // Start of a minute, so the twelve five-second buckets line up with it
+    private static final long NOW = 1_700_000_000_000L / 60_000 * 60_000;
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rolledBackPaymentIsNotCountedTwiceOnRetry() {
+        VelocityLimiter limiter = limiter(2);
+
+        // A failed group commit: both payments rolled back, then retried one transaction each
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW)).isTrue();
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW)).isTrue();
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        for (int i = 0; i < 2; i++) {
+            TransactionSynchronizationManager.initSynchronization();
+            assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW)).isTrue();
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW)).isFalse();
+    }
+
+    @Test
+    void explicitReleaseIsNotRepeatedOnRollback() {
+        VelocityLimiter limiter = limiter(2);
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW)).isTrue();
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW)).isTrue();
+        limiter.release(RIDER, Money.ofMinor(1_000), NOW);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // One payment still counted outside the transaction, so only one more fits
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW)).isTrue();
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW)).isFalse();
+    }
+
+    @Test
+    void rideCountFreesUpWhenItsBucketLeavesTheMinute() {
+        VelocityLimiter limiter = limiter(2);
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW)).isTrue();
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW + 30_000)).isTrue();
+
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW + 59_999)).isFalse();
+        // The first ride's bucket has left the window; the second one's has not
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW + 60_000)).isTrue();
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW + 60_001)).isFalse();
+    }
+
+    @Test
+    void amountLimitCountsCentsAcrossRides() {
+        VelocityLimiter limiter = limiter(0, new BigDecimal("50.00"), 0, BigDecimal.ZERO);
+
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(3_000), NOW)).isTrue();
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(2_001), NOW)).isFalse();
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(2_000), NOW)).isTrue();
+        assertThat(limiter.tryAcquire("other@example.com", Money.ofMinor(5_000), NOW)).isTrue();
+    }
+
+    @Test
+    void hourLimitStillAppliesAfterTheMinuteRolls() {
+        VelocityLimiter limiter = limiter(0, BigDecimal.ZERO, 3, BigDecimal.ZERO);
+        for (int minute = 0; minute < 3; minute++) {
+            assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW + minute * 60_000L)).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW + 10 * 60_000L)).isFalse();
+        assertThat(limiter.tryAcquire(RIDER, Money.ofMinor(1_000), NOW + 60 * 60_000L)).isTrue();
+    }
+
+    @Test
+    void concurrentAcquiresNeverExceedTheLimit() throws Exception {
+        int limit = 50;
+        VelocityLimiter limiter = limiter(limit);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> acquired = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                acquired.add(executor.submit(() -> {
+                    start.await();
+                    int granted = 0;
+                    for (int i = 0; i < 20; i++) {
+                        if (limiter.tryAcquire(RIDER, Money.ofMinor(100), NOW + i)) {
+                            granted++;
+                        }
+                    }
+                    return granted;
+                }));
+            }
+            start.countDown();
+
+            int total = 0;
+            for (Future<Integer> future : acquired) {
+                total += future.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(total).isEqualTo(limit);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static VelocityLimiter limiter(int maxRidesPerMinute) {
+        return limiter(maxRidesPerMinute, BigDecimal.ZERO, 0, BigDecimal.ZERO);
+    }
+
+    private static VelocityLimiter limiter(int maxRidesPerMinute, BigDecimal maxAmountPerMinute,
+                                           int maxRidesPerHour, BigDecimal maxAmountPerHour) {
+        return new VelocityLimiter(mock(PaymentHoldManager.class), mock(DataSource.class),
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), true,
+                maxRidesPerMinute, maxAmountPerMinute, maxRidesPerHour, maxAmountPerHour, 12, 4, 16);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
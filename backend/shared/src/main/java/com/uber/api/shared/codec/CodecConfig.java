@@ -0,0 +1,47 @@
+package com.uber.api.shared.codec;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class CodecConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "uber.codec.dictionary-dir")
+    public ZstdDictionaryCodec zstdDictionaryCodec(@Value("${uber.codec.dictionary-dir}") String dictionaryDir,
+                                                   @Value("${uber.codec.active-dictionary-id:0}") long activeDictionaryId,
+                                                   @Value("${uber.codec.level:3}") int level) {
+        return new ZstdDictionaryCodec(new DictionaryRegistry(Path.of(dictionaryDir), activeDictionaryId, level));
+    }
+
+    /**
+     * Records the codec cannot decode, such as one with an unknown dictionary id, reach this handler from the
+     * ErrorHandlingDeserializer around {@link DecompressingStringDeserializer}. They are not retried: their
+     * original bytes go to {@code <topic>.DLT} and the partition moves on.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "uber.codec.dictionary-dir")
+    public CommonErrorHandler undecodableRecordHandler(
+            @Value("${spring.kafka.bootstrap-servers:localhost:9092}") String bootstrapServers) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        KafkaTemplate<String, byte[]> deadLetters = new KafkaTemplate<>(
+                new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), new ByteArraySerializer()));
+        return new DefaultErrorHandler(new DeadLetterPublishingRecoverer(deadLetters));
+    }
+}
@@ -0,0 +1,38 @@
+package com.uber.api.shared.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * String value serializer that compresses each record with the active dictionary and records the
+ * dictionary id in a header. Falls back to plain UTF-8 when no dictionary is active.
+ */
+public class CompressingStringSerializer implements Serializer<String> {
+
+    private static final byte[] CODEC_VALUE = ZstdDictionaryCodec.CODEC_NAME.getBytes(StandardCharsets.UTF_8);
+
+    private final ZstdDictionaryCodec codec;
+
+    public CompressingStringSerializer(ZstdDictionaryCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] serialize(String topic, String data) {
+        return data == null ? null : data.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, String data) {
+        long dictionaryId = codec.activeDictionaryId();
+        if (data == null || dictionaryId == 0) {
+            return serialize(topic, data);
+        }
+        headers.add(ZstdDictionaryCodec.CODEC_HEADER, CODEC_VALUE);
+        headers.add(ZstdDictionaryCodec.DICTIONARY_HEADER,
+                Long.toString(dictionaryId).getBytes(StandardCharsets.UTF_8));
+        return codec.compress(data, dictionaryId);
+    }
+}
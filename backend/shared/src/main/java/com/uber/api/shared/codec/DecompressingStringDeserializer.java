@@ -0,0 +1,35 @@
+package com.uber.api.shared.codec;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * String value deserializer that undoes {@link CompressingStringSerializer}. Records without the
+ * codec header are plain UTF-8, so producers can be switched over one at a time.
+ */
+public class DecompressingStringDeserializer implements Deserializer<String> {
+
+    private final ZstdDictionaryCodec codec;
+
+    public DecompressingStringDeserializer(ZstdDictionaryCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public String deserialize(String topic, byte[] data) {
+        return data == null ? null : new String(data, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String deserialize(String topic, Headers headers, byte[] data) {
+        Header dictionary = headers.lastHeader(ZstdDictionaryCodec.DICTIONARY_HEADER);
+        if (data == null || dictionary == null) {
+            return deserialize(topic, data);
+        }
+        long dictionaryId = Long.parseLong(new String(dictionary.value(), StandardCharsets.UTF_8));
+        return codec.decompress(data, dictionaryId);
+    }
+}
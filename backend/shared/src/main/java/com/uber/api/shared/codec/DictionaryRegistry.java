@@ -0,0 +1,115 @@
+package com.uber.api.shared.codec;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Zstd dictionaries stored as {@code <dictId>.dict} files in one directory.
+ *
+ * Every dictionary in the directory can decode; only the active one is used to encode. Rotation is
+ * therefore: copy the new dictionary to every node, let consumers pick it up (unknown ids trigger a
+ * rescan), then restart the producers with {@code uber.codec.active-dictionary-id} set to it. An id that
+ * is still unknown after a rescan is not looked for again until {@link #MISS_RESCAN_INTERVAL} has passed.
+ */
+@Slf4j
+public class DictionaryRegistry {
+
+    static final Duration MISS_RESCAN_INTERVAL = Duration.ofMinutes(1);
+
+    private final Path directory;
+    private final int compressionLevel;
+    private final Map<Long, ZstdDictCompress> compressors = new ConcurrentHashMap<>();
+    private final Map<Long, ZstdDictDecompress> decompressors = new ConcurrentHashMap<>();
+    // Unknown id -> when the directory was last rescanned for it
+    private final Map<Long, Long> misses = new ConcurrentHashMap<>();
+    private final long activeDictionaryId;
+
+    public DictionaryRegistry(Path directory, long activeDictionaryId, int compressionLevel) {
+        this.directory = directory;
+        this.compressionLevel = compressionLevel;
+        reload();
+        this.activeDictionaryId = activeDictionaryId != 0 ? activeDictionaryId : newestDictionaryId();
+        if (this.activeDictionaryId != 0 && !compressors.containsKey(this.activeDictionaryId)) {
+            throw new IllegalStateException("Active dictionary " + this.activeDictionaryId + " not found in " + directory);
+        }
+    }
+
+    public synchronized void reload() {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".dict")).forEach(this::load);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read dictionaries from " + directory, e);
+        }
+    }
+
+    public long getActiveDictionaryId() {
+        return activeDictionaryId;
+    }
+
+    ZstdDictCompress compressor(long dictionaryId) {
+        return compressors.get(dictionaryId);
+    }
+
+    ZstdDictDecompress decompressor(long dictionaryId) {
+        ZstdDictDecompress decompressor = decompressors.get(dictionaryId);
+        if (decompressor != null) {
+            return decompressor;
+        }
+        Long lastScan = misses.get(dictionaryId);
+        boolean rescan = lastScan == null || System.nanoTime() - lastScan >= MISS_RESCAN_INTERVAL.toNanos();
+        if (rescan) {
+            reload();
+            decompressor = decompressors.get(dictionaryId);
+        }
+        if (decompressor == null) {
+            if (rescan) {
+                misses.put(dictionaryId, System.nanoTime());
+            }
+            throw new IllegalStateException("No dictionary " + dictionaryId + " in " + directory);
+        }
+        misses.remove(dictionaryId);
+        return decompressor;
+    }
+
+    private void load(Path file) {
+        try {
+            byte[] dictionary = Files.readAllBytes(file);
+            long dictionaryId = Zstd.getDictIdFromDict(dictionary);
+            if (!decompressors.containsKey(dictionaryId)) {
+                compressors.put(dictionaryId, new ZstdDictCompress(dictionary, compressionLevel));
+                decompressors.put(dictionaryId, new ZstdDictDecompress(dictionary));
+                log.info("Loaded compression dictionary {} from {}", dictionaryId, file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read dictionary " + file, e);
+        }
+    }
+
+    private long newestDictionaryId() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".dict"))
+                    .max((a, b) -> Long.compare(a.toFile().lastModified(), b.toFile().lastModified()))
+                    .map(file -> {
+                        try {
+                            return Zstd.getDictIdFromDict(Files.readAllBytes(file));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .orElse(0L);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read dictionaries from " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.uber.api.shared.codec;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictTrainer;
+import org.apache.kafka.common.compress.Compression;
+import org.apache.kafka.common.record.RecordBatch;
+import org.apache.kafka.common.utils.ByteBufferOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offline tooling for the event payload dictionaries.
+ *
+ * <pre>
+ * train  &lt;samples&gt; &lt;dictionary-dir&gt; [dict-size-bytes]
+ * report &lt;samples&gt; &lt;dictionary-file&gt; [lz4-batch-size]
+ * </pre>
+ *
+ * {@code samples} is either a file with one JSON payload per line or a JDBC url, in which case
+ * payloads are sampled from the outbox tables as {@code DB_USER} (default postgres) with the required
+ * {@code DB_PASSWORD}. Training writes {@code <dictId>.dict}; copy it to every node's
+ * {@code uber.codec.dictionary-dir} before pointing producers at the new id.
+ */
+public class DictionaryTool {
+
+    private static final String[] OUTBOX_TABLES = {"customer_outbox", "payment_outbox", "driver_outbox", "outbox_events"};
+    private static final int SAMPLES_PER_TABLE = 5000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: train <samples> <dictionary-dir> [dict-size] | report <samples> <dictionary-file> [lz4-batch]");
+            System.exit(1);
+        }
+        List<byte[]> samples = loadSamples(args[1]);
+        switch (args[0]) {
+            case "train" -> train(samples, Path.of(args[2]), args.length > 3 ? Integer.parseInt(args[3]) : 16 * 1024);
+            case "report" -> report(samples, Files.readAllBytes(Path.of(args[2])), args.length > 3 ? Integer.parseInt(args[3]) : 16);
+            default -> throw new IllegalArgumentException("Unknown command: " + args[0]);
+        }
+    }
+
+    static void train(List<byte[]> samples, Path directory, int dictionarySize) throws IOException {
+        int totalSize = samples.stream().mapToInt(sample -> sample.length).sum();
+        ZstdDictTrainer trainer = new ZstdDictTrainer(totalSize, dictionarySize);
+        samples.forEach(trainer::addSample);
+        byte[] dictionary = trainer.trainSamples();
+        long dictionaryId = Zstd.getDictIdFromDict(dictionary);
+        Files.createDirectories(directory);
+        Path file = directory.resolve(dictionaryId + ".dict");
+        Files.write(file, dictionary);
+        System.out.printf("Trained dictionary %d (%d bytes) from %d samples -> %s%n",
+                dictionaryId, dictionary.length, samples.size(), file);
+    }
+
+    static void report(List<byte[]> samples, byte[] dictionary, int lz4BatchSize) throws IOException {
+        Path directory = Files.createTempDirectory("uber-dict");
+        Files.write(directory.resolve("report.dict"), dictionary);
+        ZstdDictionaryCodec codec = new ZstdDictionaryCodec(new DictionaryRegistry(directory, 0, 3));
+        long dictionaryId = codec.activeDictionaryId();
+        List<String> payloads = samples.stream().map(sample -> new String(sample, StandardCharsets.UTF_8)).toList();
+
+        long rawBytes = samples.stream().mapToLong(sample -> sample.length).sum();
+
+        // Warm up both paths before timing
+        for (int i = 0; i < 3; i++) {
+            payloads.forEach(payload -> codec.decompress(codec.compress(payload, dictionaryId), dictionaryId));
+            lz4Batches(samples, lz4BatchSize);
+        }
+
+        long start = System.nanoTime();
+        long dictBytes = 0;
+        for (String payload : payloads) {
+            dictBytes += codec.compress(payload, dictionaryId).length;
+        }
+        long dictEncodeNanos = System.nanoTime() - start;
+
+        List<byte[]> compressed = payloads.stream().map(payload -> codec.compress(payload, dictionaryId)).toList();
+        start = System.nanoTime();
+        for (byte[] frame : compressed) {
+            codec.decompress(frame, dictionaryId);
+        }
+        long dictDecodeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long lz4Bytes = lz4Batches(samples, lz4BatchSize);
+        long lz4EncodeNanos = System.nanoTime() - start;
+
+        int n = samples.size();
+        System.out.printf("events: %d, dictionary: %d bytes%n", n, dictionary.length);
+        System.out.printf("%-22s %12s %8s %12s %12s%n", "codec", "bytes/event", "ratio", "encode ns", "decode ns");
+        System.out.printf("%-22s %12.1f %8.2f %12s %12s%n", "json", (double) rawBytes / n, 1.0, "-", "-");
+        System.out.printf("%-22s %12.1f %8.2f %12d %12d%n", "zstd-dict (+headers)",
+                (double) (dictBytes + headerBytes(dictionaryId) * n) / n,
+                (double) rawBytes / (dictBytes + headerBytes(dictionaryId) * n),
+                dictEncodeNanos / n, dictDecodeNanos / n);
+        System.out.printf("%-22s %12.1f %8.2f %12d %12s%n", "lz4 batch of " + lz4BatchSize,
+                (double) lz4Bytes / n, (double) rawBytes / lz4Bytes, lz4EncodeNanos / n, "-");
+    }
+
+    private static long headerBytes(long dictionaryId) {
+        return ZstdDictionaryCodec.CODEC_HEADER.length() + ZstdDictionaryCodec.CODEC_NAME.length()
+                + ZstdDictionaryCodec.DICTIONARY_HEADER.length() + Long.toString(dictionaryId).length();
+    }
+
+    private static long lz4Batches(List<byte[]> samples, int batchSize) throws IOException {
+        long total = 0;
+        for (int from = 0; from < samples.size(); from += batchSize) {
+            ByteBufferOutputStream buffer = new ByteBufferOutputStream(ByteBuffer.allocate(batchSize * 512));
+            try (OutputStream out = Compression.lz4().build().wrapForOutput(buffer, RecordBatch.CURRENT_MAGIC_VALUE)) {
+                for (byte[] sample : samples.subList(from, Math.min(from + batchSize, samples.size()))) {
+                    out.write(sample);
+                }
+            }
+            total += buffer.position();
+        }
+        return total;
+    }
+
+    private static List<byte[]> loadSamples(String source) throws IOException, SQLException {
+        List<byte[]> samples = new ArrayList<>();
+        if (!source.startsWith("jdbc:")) {
+            for (String line : Files.readAllLines(Path.of(source))) {
+                if (!line.isBlank()) {
+                    samples.add(line.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return samples;
+        }
+        String password = System.getenv("DB_PASSWORD");
+        if (password == null) {
+            throw new IllegalArgumentException("Set DB_PASSWORD to sample payloads from " + source);
+        }
+        try (Connection connection = DriverManager.getConnection(source,
+                System.getenv().getOrDefault("DB_USER", "postgres"), password);
+             Statement statement = connection.createStatement()) {
+            for (String table : OUTBOX_TABLES) {
+                try (ResultSet rs = statement.executeQuery(
+                        "SELECT payload FROM " + table + " ORDER BY random() LIMIT " + SAMPLES_PER_TABLE)) {
+                    while (rs.next()) {
+                        samples.add(rs.getString(1).getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        }
+        return samples;
+    }
+}
@@ -3,5 +3,6 @@ package com.uber.api.shared.constants;
 public enum DriverStatus {
     AVAILABLE,   // Available for rides
     BUSY,        // Currently on a ride
+    RESERVED,    // Held for a ride while its payment is authorized
     OFFLINE      // Not available
 }
@@ -1,18 +1,22 @@
 package com.uber.api.shared.entities;
 
 import com.uber.api.shared.constants.RideStatus;
+import com.uber.api.shared.money.Money;
+import com.uber.api.shared.money.MoneyConverter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "ride_requests")
+@Table(name = "ride_requests", indexes = {
+        // Pending rides by age, read when customer-service rebuilds its ride timeouts
+        @Index(name = "idx_ride_requests_status_created", columnList = "status, created_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -37,8 +41,11 @@ public class RideRequest {
     @Enumerated(EnumType.STRING)
     private RideStatus status;
 
-    private BigDecimal estimatedPrice;
-    private BigDecimal finalPrice;
+    @Convert(converter = MoneyConverter.class)
+    private Money estimatedPrice;
+
+    @Convert(converter = MoneyConverter.class)
+    private Money finalPrice;
 
     private ZonedDateTime createdAt;
     private ZonedDateTime completedAt;
@@ -51,11 +58,15 @@ public class RideRequest {
         return pickupLocation.distanceTo(destinationLocation);
     }
 
-    public BigDecimal calculateEstimatedPrice() {
-        double distance = calculateDistance();
-        double basePrice = 5.0; // Base fare
-        double pricePerKm = 2.0; // Price per kilometer
+    public Money calculateEstimatedPrice() {
+        return priceForDistance(calculateDistance());
+    }
+
+    public static Money priceForDistance(double distance) {
+        long baseFareCents = 500; // Base fare
+        long centsPerKm = 200; // Price per kilometer
 
-        return BigDecimal.valueOf(basePrice + (distance * pricePerKm));
+        // Rounded to whole cents once, instead of carrying the double's fractional tail into every comparison
+        return Money.ofMinor(baseFareCents + Math.round(distance * centsPerKm));
     }
 }
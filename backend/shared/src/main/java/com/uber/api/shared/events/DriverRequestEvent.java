@@ -1,12 +1,12 @@
 package com.uber.api.shared.events;
 
 import com.uber.api.shared.entities.Location;
+import com.uber.api.shared.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 @Data
@@ -19,5 +19,5 @@ public class DriverRequestEvent {
     private String customerEmail;
     private Location pickupLocation;
     private Location destinationLocation;
-    private BigDecimal estimatedPrice;
+    private Money estimatedPrice;
 }
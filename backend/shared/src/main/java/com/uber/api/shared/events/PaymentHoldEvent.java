@@ -0,0 +1,20 @@
+package com.uber.api.shared.events;
+
+import com.uber.api.shared.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentHoldEvent {
+    private UUID rideRequestId;
+    private String customerEmail;
+    private String action; // CAPTURE or RELEASE
+    private Money amount;
+}
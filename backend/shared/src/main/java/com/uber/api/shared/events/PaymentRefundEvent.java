@@ -1,11 +1,11 @@
 package com.uber.api.shared.events;
 
+import com.uber.api.shared.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 @Data
@@ -16,6 +16,6 @@ public class PaymentRefundEvent {
     private UUID sagaId;
     private UUID rideRequestId;
     private String customerEmail;
-    private BigDecimal amount;
+    private Money amount;
     private String reason;
 }
@@ -1,12 +1,12 @@
 package com.uber.api.shared.events;
 
 import com.uber.api.shared.constants.PaymentStatus;
+import com.uber.api.shared.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 @Data
@@ -17,7 +17,7 @@ public class PaymentResponseEvent {
     private UUID sagaId;
     private UUID rideRequestId;
     private String customerEmail;
-    private BigDecimal amount;
+    private Money amount;
     private PaymentStatus status;
     private String failureReason;
 }
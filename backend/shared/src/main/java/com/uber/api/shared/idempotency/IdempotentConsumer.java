@@ -0,0 +1,164 @@
+package com.uber.api.shared.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Deduplicates Kafka deliveries per (consumer, eventId).
+ *
+ * The durable record is the processed_events table, written in the listener's own
+ * transaction so the claim commits or rolls back together with the side effects.
+ * A Bloom filter answers "definitely new" for most events without a SELECT, and an
+ * LRU of recently committed keys catches redeliveries without touching the database.
+ */
+@Slf4j
+@Component
+public class IdempotentConsumer {
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final long expectedEvents;
+    private final double falsePositiveRate;
+    private final int retentionDays;
+    private final Map<String, Boolean> recentlyProcessed;
+
+    private volatile BloomFilter bloomFilter;
+
+    private final AtomicLong lruHits = new AtomicLong();
+    private final AtomicLong bloomNegatives = new AtomicLong();
+    private final AtomicLong databaseChecks = new AtomicLong();
+
+    public IdempotentConsumer(ProcessedEventRepository processedEventRepository,
+                              @Value("${uber.idempotency.expected-events:1000000}") long expectedEvents,
+                              @Value("${uber.idempotency.false-positive-rate:0.01}") double falsePositiveRate,
+                              @Value("${uber.idempotency.lru-size:10000}") int lruSize,
+                              @Value("${uber.idempotency.retention-days:7}") int retentionDays) {
+        this.processedEventRepository = processedEventRepository;
+        this.expectedEvents = expectedEvents;
+        this.falsePositiveRate = falsePositiveRate;
+        this.retentionDays = retentionDays;
+        this.bloomFilter = new BloomFilter(expectedEvents, falsePositiveRate);
+        this.recentlyProcessed = new LinkedHashMap<>(lruSize * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > lruSize;
+            }
+        };
+    }
+
+    /**
+     * Claims the event for this consumer inside the caller's transaction.
+     *
+     * @return true if the event has not been processed before and the caller should handle it,
+     *         false if it is a duplicate and must be skipped
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryAcquire(String consumer, UUID eventId) {
+        return tryAcquire(consumer, eventId != null ? eventId.toString() : null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryAcquire(String consumer, String eventId) {
+        if (eventId == null) {
+            log.warn("Event for consumer {} has no id, processing without deduplication", consumer);
+            return true;
+        }
+
+        String key = consumer + ':' + eventId;
+
+        if (isRecentlyProcessed(key)) {
+            lruHits.incrementAndGet();
+            return false;
+        }
+
+        if (!bloomFilter.mightContain(key)) {
+            bloomNegatives.incrementAndGet();
+        } else {
+            databaseChecks.incrementAndGet();
+            if (processedEventRepository.existsById(new ProcessedEventId(consumer, eventId))) {
+                remember(key);
+                return false;
+            }
+        }
+
+        processedEventRepository.save(ProcessedEvent.builder()
+                .consumer(consumer)
+                .eventId(eventId)
+                .processedAt(ZonedDateTime.now())
+                .build());
+
+        // A rolled-back claim leaves a harmless false positive in the filter, but must not reach the LRU
+        bloomFilter.put(key);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(key);
+            }
+        });
+
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        BloomFilter rebuilt = new BloomFilter(expectedEvents, falsePositiveRate);
+        AtomicLong loaded = new AtomicLong();
+        try (Stream<ProcessedEvent> events = processedEventRepository
+                .streamByProcessedAtAfter(ZonedDateTime.now().minusDays(retentionDays))) {
+            events.forEach(event -> {
+                rebuilt.put(event.getConsumer() + ':' + event.getEventId());
+                loaded.incrementAndGet();
+            });
+        }
+        bloomFilter = rebuilt;
+        log.info("Idempotency filter loaded with {} processed events", loaded.get());
+    }
+
+    @Scheduled(cron = "${uber.idempotency.cleanup-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = processedEventRepository.deleteProcessedBefore(ZonedDateTime.now().minusDays(retentionDays));
+        log.info("Purged {} processed events older than {} days", deleted, retentionDays);
+        // Bloom filters cannot forget, so rebuild from what is left to keep the false-positive rate bounded
+        warmUp();
+    }
+
+    public long getLruHits() {
+        return lruHits.get();
+    }
+
+    public long getBloomNegatives() {
+        return bloomNegatives.get();
+    }
+
+    public long getDatabaseChecks() {
+        return databaseChecks.get();
+    }
+
+    private boolean isRecentlyProcessed(String key) {
+        synchronized (recentlyProcessed) {
+            return recentlyProcessed.containsKey(key);
+        }
+    }
+
+    private void remember(String key) {
+        synchronized (recentlyProcessed) {
+            recentlyProcessed.put(key, Boolean.TRUE);
+        }
+    }
+}
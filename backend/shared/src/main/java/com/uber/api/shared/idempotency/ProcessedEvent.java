@@ -0,0 +1,41 @@
+package com.uber.api.shared.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+
+@Entity
+@Table(name = "processed_events", indexes = {
+        @Index(name = "idx_processed_events_processed_at", columnList = "processed_at")
+})
+@IdClass(ProcessedEventId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedEvent implements Persistable<ProcessedEventId> {
+
+    @Id
+    private String consumer;
+
+    @Id
+    private String eventId;
+
+    private ZonedDateTime processedAt;
+
+    @Override
+    public ProcessedEventId getId() {
+        return new ProcessedEventId(consumer, eventId);
+    }
+
+    // Rows are only ever inserted, so skip the SELECT that merge() would issue for an assigned id
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
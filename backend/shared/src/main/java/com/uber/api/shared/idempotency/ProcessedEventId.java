@@ -0,0 +1,15 @@
+package com.uber.api.shared.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedEventId implements Serializable {
+    private String consumer;
+    private String eventId;
+}
@@ -0,0 +1,29 @@
+package com.uber.api.shared.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/jfrdump}: downloads the current JFR recording, like {@code heapdump} does for the heap.
+ */
+@Component
+@WebEndpoint(id = "jfrdump")
+@RequiredArgsConstructor
+public class JfrDumpWebEndpoint {
+
+    private final JfrRecorder jfrRecorder;
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump() {
+        try {
+            return new WebEndpointResponse<>(new FileSystemResource(jfrRecorder.dump()), WebEndpointResponse.STATUS_OK);
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+    }
+}
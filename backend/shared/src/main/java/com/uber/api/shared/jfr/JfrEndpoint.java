@@ -0,0 +1,38 @@
+package com.uber.api.shared.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/jfr}: POST starts a bounded recording (optionally with {@code durationSeconds}), GET shows
+ * its state and DELETE stops it. The recording is downloaded from {@code /actuator/jfrdump}.
+ */
+@Component
+@Endpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrEndpoint {
+
+    private final JfrRecorder jfrRecorder;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return jfrRecorder.status();
+    }
+
+    @WriteOperation
+    public Map<String, Object> start(@Nullable Long durationSeconds) {
+        return jfrRecorder.start(durationSeconds);
+    }
+
+    @DeleteOperation
+    public Map<String, Object> stop() {
+        return jfrRecorder.stop();
+    }
+}
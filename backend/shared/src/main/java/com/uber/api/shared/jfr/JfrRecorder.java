@@ -0,0 +1,130 @@
+package com.uber.api.shared.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One on-demand JFR recording per service, bounded in age, size and duration so a forgotten recording cannot
+ * fill the disk. It uses a JDK settings file ("default" is the low-overhead continuous profile); the
+ * {@code com.uber} domain events are enabled by their defaults. Outside a recording they are not committed
+ * and cost a flag check.
+ */
+@Slf4j
+@Component
+public class JfrRecorder {
+
+    private static final String RECORDING_NAME = "uber";
+
+    private final String settings;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Duration maxDuration;
+    private final Path dumpDir;
+    private Recording recording;
+
+    public JfrRecorder(@Value("${uber.jfr.settings:default}") String settings,
+                       @Value("${uber.jfr.max-age-seconds:600}") long maxAgeSeconds,
+                       @Value("${uber.jfr.max-size-mb:64}") long maxSizeMb,
+                       @Value("${uber.jfr.max-duration-seconds:900}") long maxDurationSeconds,
+                       @Value("${uber.jfr.dump-dir:${java.io.tmpdir}}") String dumpDir) {
+        this.settings = settings;
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.dumpDir = Paths.get(dumpDir);
+    }
+
+    /**
+     * Starts a recording, stopping itself after {@code durationSeconds} (capped by the configured maximum);
+     * a running recording is left as it is.
+     */
+    public synchronized Map<String, Object> start(Long durationSeconds) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return status();
+        }
+        close();
+        try {
+            recording = new Recording(Configuration.getConfiguration(settings));
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings, e);
+        }
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        Duration duration = durationSeconds != null ? Duration.ofSeconds(durationSeconds) : maxDuration;
+        recording.setDuration(duration.compareTo(maxDuration) < 0 ? duration : maxDuration);
+        recording.start();
+        log.info("🎥 Started JFR recording with {} settings for {}", settings, recording.getDuration());
+        return status();
+    }
+
+    public synchronized Map<String, Object> stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("🎥 Stopped JFR recording");
+        }
+        return status();
+    }
+
+    /**
+     * Writes what the recording holds so far, running or stopped, to the dump directory.
+     */
+    public synchronized Path dump() {
+        if (recording == null || recording.getState() == RecordingState.NEW
+                || recording.getState() == RecordingState.CLOSED) {
+            throw new IllegalStateException("No JFR recording to dump");
+        }
+        try {
+            Files.createDirectories(dumpDir);
+            Path file = dumpDir.resolve(RECORDING_NAME + "-" + ProcessHandle.current().pid() + ".jfr");
+            recording.dump(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to dump JFR recording", e);
+        }
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("settings", settings);
+        Instant startTime = recording.getStartTime();
+        if (startTime != null) {
+            status.put("startTime", startTime.toString());
+        }
+        status.put("duration", String.valueOf(recording.getDuration()));
+        status.put("maxAge", String.valueOf(recording.getMaxAge()));
+        status.put("maxSizeBytes", recording.getMaxSize());
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.uber.api.shared.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.uber.outbox.Batch")
+@Label("Outbox Batch")
+@Category({"Uber", "Outbox"})
+@Description("One relay run over the pending rows of an outbox table")
+@StackTrace(false)
+public class OutboxBatchEvent extends Event {
+
+    @Label("Outbox")
+    public String outbox;
+
+    @Label("Size")
+    public int size;
+
+    @Label("Sent")
+    public int sent;
+
+    @Label("Failed")
+    public int failed;
+
+    @Label("Send Time")
+    @Description("Time spent in the transport's send, out of the whole run")
+    @Timespan(Timespan.NANOSECONDS)
+    public long sendNanos;
+}
@@ -0,0 +1,35 @@
+package com.uber.api.shared.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.uber.saga.Transition")
+@Label("Saga Transition")
+@Category({"Uber", "Saga"})
+@Description("A saga state change requested from the orchestrator, including the compare-and-set on its row")
+@StackTrace(false)
+public class SagaTransitionEvent extends Event {
+
+    @Label("Saga Type")
+    public String sagaType;
+
+    @Label("Ride Request Id")
+    public String rideRequestId;
+
+    @Label("From State")
+    public String fromState;
+
+    @Label("To State")
+    public String toState;
+
+    @Label("Outcome")
+    @Description("applied, refused or no_saga; conflict when both attempts lost the compare-and-set")
+    public String outcome;
+
+    @Label("Attempts")
+    public int attempts;
+}
@@ -0,0 +1,14 @@
+package com.uber.api.shared.latency;
+
+/**
+ * Points of the ride saga that are timestamped in the {@code x-saga-stages} header. Each stage's latency
+ * is the time since the stage stamped before it.
+ */
+public enum SagaStage {
+    RIDE_CREATED,
+    PAYMENT_REQUESTED,
+    PAYMENT_DONE,
+    DRIVER_REQUESTED,
+    DRIVER_ASSIGNED,
+    CUSTOMER_NOTIFIED
+}
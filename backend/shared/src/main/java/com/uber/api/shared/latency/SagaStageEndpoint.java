@@ -0,0 +1,24 @@
+package com.uber.api.shared.latency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/sagastages}: rolling stage latency percentiles by city.
+ */
+@Component
+@Endpoint(id = "sagastages")
+@RequiredArgsConstructor
+public class SagaStageEndpoint {
+
+    private final StageLatencyTracker stageLatencyTracker;
+
+    @ReadOperation
+    public Map<String, Map<String, StageLatencySummary>> stages() {
+        return stageLatencyTracker.report();
+    }
+}
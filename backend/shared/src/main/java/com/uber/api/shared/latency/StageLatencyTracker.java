@@ -0,0 +1,244 @@
+package com.uber.api.shared.latency;
+
+import com.uber.api.shared.transport.MessageContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage saga latency. Every saga event carries the times its ride reached each {@link SagaStage} in
+ * the {@code x-saga-stages} header, and its city in {@code x-saga-city}. A service stamps a stage when it
+ * writes a response event (payment done, driver assigned) or when its relay publishes a request (payment
+ * requested, driver requested), and records the time since the previous stamp. Receivers also record
+ * {@code delivery:<topic>}, the time from the relay's send to the listener, which separates broker
+ * transit from the work on either side.
+ *
+ * Each (city, stage) series has a wait-free HDR recorder that is rotated into a window of intervals;
+ * percentiles over the window are served by the {@code sagastages} actuator endpoint, published as
+ * gauges and logged every minute. A Micrometer timer per series carries the counts and totals.
+ */
+@Slf4j
+@Component
+public class StageLatencyTracker {
+
+    public static final String STAGES_HEADER = "x-saga-stages";
+    public static final String CITY_HEADER = "x-saga-city";
+    public static final String SENT_HEADER = "x-saga-sent";
+
+    private static final Map<String, SagaStage> STAMPED_ON_WRITE = Map.of(
+            "payment-responses", SagaStage.PAYMENT_DONE,
+            "driver-responses", SagaStage.DRIVER_ASSIGNED);
+    private static final Map<String, SagaStage> STAMPED_ON_PUBLISH = Map.of(
+            "payment-requests", SagaStage.PAYMENT_REQUESTED,
+            "driver-requests", SagaStage.DRIVER_REQUESTED);
+    private static final String UNKNOWN_CITY = "unknown";
+    private static final String OTHER_CITIES = "other";
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private static final StageLatencySummary EMPTY = StageLatencySummary.builder().build();
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxCities;
+    private final int windowIntervals;
+    private final Map<String, Map<String, Series>> cities = new ConcurrentHashMap<>();
+
+    public StageLatencyTracker(MeterRegistry meterRegistry,
+                               @Value("${uber.latency.enabled:true}") boolean enabled,
+                               @Value("${uber.latency.max-cities:50}") int maxCities,
+                               @Value("${uber.latency.window-intervals:6}") int windowIntervals) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxCities = maxCities;
+        this.windowIntervals = windowIntervals;
+    }
+
+    /**
+     * Opens a message context for a new ride stamped with its creation; the caller closes it once the
+     * ride's first events are written.
+     */
+    public void beginRide(String city, ZonedDateTime createdAt) {
+        MessageContext.open(Map.of());
+        if (!enabled) {
+            return;
+        }
+        if (city != null) {
+            MessageContext.put(CITY_HEADER, city);
+        }
+        long createdMicros = createdAt != null ? toMicros(createdAt.toInstant()) : nowMicros();
+        MessageContext.put(STAGES_HEADER, SagaStage.RIDE_CREATED.name() + "=" + createdMicros);
+    }
+
+    public void stamp(SagaStage stage) {
+        if (!enabled) {
+            return;
+        }
+        String stages = stamped(MessageContext.get(STAGES_HEADER), MessageContext.get(CITY_HEADER), stage, nowMicros());
+        if (stages != null) {
+            MessageContext.put(STAGES_HEADER, stages);
+        }
+    }
+
+    /**
+     * Stamps the stage a response written for {@code topic} completes, before the outbox row stores the context.
+     */
+    public void onWrite(String topic) {
+        SagaStage stage = STAMPED_ON_WRITE.get(topic);
+        if (stage != null) {
+            stamp(stage);
+        }
+    }
+
+    /**
+     * Headers to send with a relayed outbox row, stamped with the stage a request on {@code topic} starts.
+     */
+    public Map<String, String> onPublish(String topic, String storedHeaders) {
+        Map<String, String> headers = MessageContext.decode(storedHeaders);
+        if (!enabled || !headers.containsKey(STAGES_HEADER)) {
+            return headers;
+        }
+        long now = nowMicros();
+        SagaStage stage = STAMPED_ON_PUBLISH.get(topic);
+        if (stage != null) {
+            String stages = stamped(headers.get(STAGES_HEADER), headers.get(CITY_HEADER), stage, now);
+            if (stages != null) {
+                headers.put(STAGES_HEADER, stages);
+            }
+        }
+        headers.put(SENT_HEADER, Long.toString(now));
+        return headers;
+    }
+
+    public void onReceive(String topic, Map<String, String> headers) {
+        String sent = headers.get(SENT_HEADER);
+        if (enabled && sent != null) {
+            record(headers.get(CITY_HEADER), "delivery:" + topic, nowMicros() - Long.parseLong(sent));
+        }
+    }
+
+    public Map<String, Map<String, StageLatencySummary>> report() {
+        Map<String, Map<String, StageLatencySummary>> report = new TreeMap<>();
+        cities.forEach((city, series) -> {
+            Map<String, StageLatencySummary> stages = new TreeMap<>();
+            series.forEach((name, s) -> stages.put(name, s.summary));
+            report.put(city, stages);
+        });
+        return report;
+    }
+
+    @Scheduled(fixedRateString = "${uber.latency.interval-ms:10000}")
+    public void rotate() {
+        cities.values().forEach(series -> series.values().forEach(Series::rotate));
+    }
+
+    @Scheduled(fixedRateString = "${uber.latency.report-interval-ms:60000}")
+    public void logReport() {
+        report().forEach((city, stages) -> stages.forEach((stage, summary) -> {
+            if (summary.getCount() > 0) {
+                log.info("⏱️ {} {}: n={} p50={}ms p99={}ms p999={}ms max={}ms", city, stage, summary.getCount(),
+                        summary.getP50Ms(), summary.getP99Ms(), summary.getP999Ms(), summary.getMaxMs());
+            }
+        }));
+    }
+
+    /**
+     * Appends {@code stage} and records its latency; null if the event is not tracked or already has the stage.
+     */
+    private String stamped(String stages, String city, SagaStage stage, long now) {
+        if (stages == null || stages.contains(stage.name() + "=")) {
+            return null;
+        }
+        long previous = Long.parseLong(stages.substring(stages.lastIndexOf('=') + 1));
+        record(city, stage.name(), now - previous);
+        return stages + "," + stage.name() + "=" + now;
+    }
+
+    private void record(String city, String name, long micros) {
+        // Stamps from different hosts can be slightly out of order
+        series(city, name).record(Math.max(0, micros));
+    }
+
+    private Series series(String city, String name) {
+        String key = city == null || city.isBlank() ? UNKNOWN_CITY
+                : cities.containsKey(city) || cities.size() < maxCities ? city : OTHER_CITIES;
+        return cities.computeIfAbsent(key, c -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, n -> new Series(key, n));
+    }
+
+    private static long nowMicros() {
+        return toMicros(Instant.now());
+    }
+
+    private static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    private final class Series {
+        final Recorder recorder = new Recorder(3);
+        final Histogram[] window = new Histogram[windowIntervals];
+        final Timer timer;
+        int next;
+        volatile StageLatencySummary summary = EMPTY;
+
+        Series(String city, String name) {
+            this.timer = Timer.builder("saga.stage.latency")
+                    .tag("stage", name)
+                    .tag("city", city)
+                    .register(meterRegistry);
+            for (double quantile : QUANTILES) {
+                Gauge.builder("saga.stage.latency.rolling", this, series -> series.quantileMs(quantile))
+                        .tag("stage", name)
+                        .tag("city", city)
+                        .tag("quantile", Double.toString(quantile))
+                        .baseUnit("milliseconds")
+                        .register(meterRegistry);
+            }
+        }
+
+        void record(long micros) {
+            recorder.recordValue(micros);
+            timer.record(micros, TimeUnit.MICROSECONDS);
+        }
+
+        synchronized void rotate() {
+            // Hands back the interval leaving the window for the recorder to reuse
+            window[next] = recorder.getIntervalHistogram(window[next]);
+            next = (next + 1) % window.length;
+
+            Histogram merged = new Histogram(3);
+            for (Histogram interval : window) {
+                if (interval != null) {
+                    merged.add(interval);
+                }
+            }
+            summary = StageLatencySummary.builder()
+                    .count(merged.getTotalCount())
+                    .p50Ms(toMs(merged.getValueAtPercentile(50)))
+                    .p99Ms(toMs(merged.getValueAtPercentile(99)))
+                    .p999Ms(toMs(merged.getValueAtPercentile(99.9)))
+                    .maxMs(toMs(merged.getMaxValue()))
+                    .build();
+        }
+
+        double quantileMs(double quantile) {
+            StageLatencySummary current = summary;
+            return quantile == 0.5 ? current.getP50Ms() : quantile == 0.99 ? current.getP99Ms() : current.getP999Ms();
+        }
+
+        private double toMs(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.uber.api.shared.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes {@code logging.sampled.dropped}, the events {@link SamplingTurboFilter} kept out of the logs.
+ */
+@Component
+public class SamplingMetrics {
+
+    public SamplingMetrics(MeterRegistry meterRegistry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        context.getTurboFilterList().stream()
+                .filter(SamplingTurboFilter.class::isInstance)
+                .map(SamplingTurboFilter.class::cast)
+                .findFirst()
+                .ifPresent(filter -> FunctionCounter.builder("logging.sampled.dropped", filter, SamplingTurboFilter::getDropped)
+                        .description("Hot-path log events dropped by sampling")
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,115 @@
+package com.uber.api.shared.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate-limits the hot-path loggers: each logger under one of {@code loggers} may write {@code permitsPerSecond}
+ * events at {@code maxLevel} or below, with bursts of {@code burst}, and the rest are dropped before they are
+ * formatted. Warnings and errors always pass. Configured from {@code uber.logging.sampling} in
+ * {@code logback-spring.xml}.
+ *
+ * The fluent API asks once, without a format, when the event is started ({@code log.atInfo()}), so a
+ * dropped event costs no more than a disabled one; an {@code isInfoEnabled()} guard takes a permit as well.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private boolean enabled;
+    private String[] loggers = {};
+    private long intervalNanos = TimeUnit.SECONDS.toNanos(1) / 50;
+    private int burst = 100;
+    private Level maxLevel = Level.INFO;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // isEnabledFor would ask the turbo filters again
+        if (!enabled || level.levelInt > maxLevel.levelInt || level.levelInt < logger.getEffectiveLevel().levelInt) {
+            return FilterReply.NEUTRAL;
+        }
+        Bucket bucket = buckets.get(logger.getName());
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(logger.getName(), name -> sampled(name) ? new Bucket() : Bucket.UNLIMITED);
+        }
+        if (bucket == Bucket.UNLIMITED || bucket.tryAcquire(System.nanoTime(), intervalNanos, burst)) {
+            return FilterReply.NEUTRAL;
+        }
+        dropped.increment();
+        return FilterReply.DENY;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setLoggers(String loggers) {
+        this.loggers = Arrays.stream(loggers.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    public void setPermitsPerSecond(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+
+    public void setBurst(int burst) {
+        this.burst = Math.max(1, burst);
+    }
+
+    public void setMaxLevel(String maxLevel) {
+        this.maxLevel = Level.toLevel(maxLevel, Level.INFO);
+    }
+
+    private boolean sampled(String name) {
+        for (String prefix : loggers) {
+            if (name.equals(prefix) || name.startsWith(prefix) && name.charAt(prefix.length()) == '.') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Generic cell rate algorithm: {@code tat} is when the bucket would be empty again; an event is allowed
+     * while that is less than a burst's worth of intervals ahead.
+     */
+    private static final class Bucket {
+        static final Bucket UNLIMITED = new Bucket();
+
+        final AtomicLong tat = new AtomicLong(System.nanoTime());
+
+        boolean tryAcquire(long now, long intervalNanos, int burst) {
+            long tolerance = intervalNanos * (burst - 1);
+            while (true) {
+                long current = tat.get();
+                long base = current - now > 0 ? current : now;
+                if (base - now > tolerance) {
+                    return false;
+                }
+                if (tat.compareAndSet(current, base + intervalNanos)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
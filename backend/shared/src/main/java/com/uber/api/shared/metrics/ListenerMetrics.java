@@ -0,0 +1,64 @@
+package com.uber.api.shared.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processing time of each consumed event by topic and outcome, recorded by the transports around the
+ * listener call. Listeners log and swallow their errors, so they report them with {@link #markFailed()};
+ * the error rate is the share of {@code outcome=error} in {@code listener.processing}.
+ */
+@Component
+public class ListenerMetrics {
+
+    private static final ThreadLocal<Handling> CURRENT = new ThreadLocal<>();
+
+    private final Meter.MeterProvider<Timer> processing;
+
+    public ListenerMetrics(MeterRegistry meterRegistry) {
+        this.processing = Timer.builder("listener.processing")
+                .description("Time to handle one consumed event")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .withRegistry(meterRegistry);
+    }
+
+    /**
+     * Marks the event being handled on this thread as failed; a no-op outside a listener call.
+     */
+    public static void markFailed() {
+        Handling handling = CURRENT.get();
+        if (handling != null) {
+            handling.failed = true;
+        }
+    }
+
+    public void begin() {
+        CURRENT.set(new Handling(System.nanoTime()));
+    }
+
+    public void end(String topic, boolean thrown) {
+        Handling handling = CURRENT.get();
+        if (handling == null) {
+            return;
+        }
+        CURRENT.remove();
+        processing.withTags("topic", topic, "outcome", thrown || handling.failed ? "error" : "success")
+                .record(System.nanoTime() - handling.startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static final class Handling {
+        final long startNanos;
+        boolean failed;
+
+        Handling(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+}
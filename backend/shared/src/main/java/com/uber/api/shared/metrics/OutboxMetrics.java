@@ -0,0 +1,95 @@
+package com.uber.api.shared.metrics;
+
+import com.uber.api.shared.jfr.OutboxBatchEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox relay metrics by outbox table: the pending rows and the age of the oldest one as found by the
+ * relay's last run, and the time to hand each row to the transport. Each run is also a JFR
+ * {@link OutboxBatchEvent} while a recording is on.
+ */
+@Component
+public class OutboxMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Meter.MeterProvider<Timer> sends;
+    private final Map<String, Backlog> backlogs = new ConcurrentHashMap<>();
+
+    public OutboxMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.sends = Timer.builder("outbox.send")
+                .description("Time to send one outbox row to the broker")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .withRegistry(meterRegistry);
+    }
+
+    public void observeBacklog(String outbox, int pending, ZonedDateTime oldestCreatedAt) {
+        Backlog backlog = backlogs.computeIfAbsent(outbox, this::register);
+        backlog.pending.set(pending);
+        backlog.oldestAgeMillis.set(oldestCreatedAt != null
+                ? Math.max(0, System.currentTimeMillis() - oldestCreatedAt.toInstant().toEpochMilli()) : 0);
+    }
+
+    public OutboxBatchEvent startBatch() {
+        OutboxBatchEvent event = new OutboxBatchEvent();
+        event.begin();
+        return event;
+    }
+
+    public void endBatch(OutboxBatchEvent event, String outbox, int size, int sent, long sendNanos) {
+        event.end();
+        if (size > 0 && event.shouldCommit()) {
+            event.outbox = outbox;
+            event.size = size;
+            event.sent = sent;
+            event.failed = size - sent;
+            event.sendNanos = sendNanos;
+            event.commit();
+        }
+    }
+
+    public long startSend() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records one send and returns its time in nanoseconds.
+     */
+    public long recordSend(String outbox, String topic, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        sends.withTags("outbox", outbox, "topic", topic).record(elapsed, TimeUnit.NANOSECONDS);
+        return elapsed;
+    }
+
+    private Backlog register(String outbox) {
+        Backlog backlog = new Backlog();
+        Gauge.builder("outbox.pending", backlog.pending, AtomicLong::get)
+                .description("Outbox rows pending at the relay's last run")
+                .tag("outbox", outbox)
+                .register(meterRegistry);
+        Gauge.builder("outbox.oldest.pending.age", backlog.oldestAgeMillis, age -> age.get() / 1000.0)
+                .description("Age of the oldest pending outbox row at the relay's last run")
+                .tag("outbox", outbox)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        return backlog;
+    }
+
+    private static final class Backlog {
+        final AtomicLong pending = new AtomicLong();
+        final AtomicLong oldestAgeMillis = new AtomicLong();
+    }
+}
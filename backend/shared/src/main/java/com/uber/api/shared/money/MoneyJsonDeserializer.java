@@ -0,0 +1,41 @@
+package com.uber.api.shared.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Accepts a number or numeric string in the default currency, or {"amount": ..., "currency": ...}.
+ */
+public class MoneyJsonDeserializer extends StdDeserializer<Money> {
+
+    public MoneyJsonDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return Money.of(p.getDecimalValue());
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return Money.of(new BigDecimal(p.getText().trim()));
+        }
+        if (token == JsonToken.START_OBJECT) {
+            JsonNode node = p.readValueAsTree();
+            JsonNode amount = node.get("amount");
+            JsonNode currency = node.get("currency");
+            if (amount == null) {
+                return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+            }
+            return Money.of(new BigDecimal(amount.asText().trim()), currency == null ? Money.DEFAULT_CURRENCY : currency.asText());
+        }
+        return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+    }
+}
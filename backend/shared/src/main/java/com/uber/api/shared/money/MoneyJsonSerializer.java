@@ -0,0 +1,31 @@
+package com.uber.api.shared.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Default-currency amounts are written as a plain number, so events and API responses keep their
+ * BigDecimal wire format; other currencies as {"amount": ..., "currency": ...}.
+ */
+public class MoneyJsonSerializer extends StdSerializer<Money> {
+
+    public MoneyJsonSerializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (Money.DEFAULT_CURRENCY.equals(value.getCurrency())) {
+            gen.writeNumber(value.toBigDecimal());
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeFieldName("amount");
+        gen.writeNumber(value.toBigDecimal());
+        gen.writeStringField("currency", value.getCurrency());
+        gen.writeEndObject();
+    }
+}
@@ -35,6 +35,10 @@ public class OutboxEvent {
     @Enumerated(EnumType.STRING)
     private SagaStatus sagaStatus;
 
+    // Propagated message headers (saga stage timestamps), form-encoded
+    @Column(columnDefinition = "TEXT")
+    private String headers;
+
     private ZonedDateTime createdAt;
 
     private ZonedDateTime processedAt;
@@ -0,0 +1,48 @@
+package com.uber.api.shared.outbox;
+
+import com.uber.api.shared.latency.StageLatencyTracker;
+import com.uber.api.shared.tracing.MessageTracing;
+import com.uber.api.shared.transport.MessageContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Headers stored with an outbox row and sent with it by the relay: the message context of the work that
+ * wrote the row, with its saga stage stamps, and the trace context of the span that wrote it.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxHeaders {
+
+    private final StageLatencyTracker stageLatencyTracker;
+    private final MessageTracing messageTracing;
+
+    /**
+     * Headers to store with a row for {@code topic}, form-encoded; null when there is nothing to carry.
+     */
+    public String capture(String topic) {
+        stageLatencyTracker.onWrite(topic);
+        Map<String, String> headers = new LinkedHashMap<>(MessageContext.headers());
+        messageTracing.inject(headers);
+        return MessageContext.encode(headers);
+    }
+
+    /**
+     * Sends a row with its stored headers inside a producer span continuing the row's trace.
+     */
+    public void publish(String topic, String storedHeaders, Consumer<Map<String, String>> send) {
+        Map<String, String> headers = stageLatencyTracker.onPublish(topic, storedHeaders);
+        try (MessageTracing.Scope scope = messageTracing.startProducer(topic, headers)) {
+            try {
+                send.accept(headers);
+            } catch (RuntimeException e) {
+                scope.error(e);
+                throw e;
+            }
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.uber.api.shared.outbox;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.api.shared.jfr.OutboxBatchEvent;
+import com.uber.api.shared.metrics.OutboxMetrics;
+import com.uber.api.shared.transport.EventTransport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,7 +19,9 @@ import java.util.List;
 public class OutboxScheduler {
 
     private final OutboxEventRepository outboxEventRepository;
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final EventTransport eventTransport;
+    private final OutboxHeaders outboxHeaders;
+    private final OutboxMetrics outboxMetrics;
     private final ObjectMapper objectMapper;
 
     @Scheduled(fixedDelay = 5000) // Every 5 seconds
@@ -25,18 +29,27 @@ public class OutboxScheduler {
     public void processOutboxEvents() {
         List<OutboxEvent> pendingEvents = outboxEventRepository
                 .findByStatusOrderByCreatedAt(OutboxStatus.PENDING);
+        outboxMetrics.observeBacklog("outbox_events", pendingEvents.size(),
+                pendingEvents.isEmpty() ? null : pendingEvents.get(0).getCreatedAt());
 
         log.info("Processing {} outbox events", pendingEvents.size());
 
+        OutboxBatchEvent batchEvent = outboxMetrics.startBatch();
+        int sent = 0;
+        long sendNanos = 0;
         for (OutboxEvent event : pendingEvents) {
             try {
                 // Send to Kafka
-                kafkaTemplate.send(event.getEventType(), event.getSagaId().toString(), event.getPayload());
+                long sendStart = outboxMetrics.startSend();
+                outboxHeaders.publish(event.getEventType(), event.getHeaders(), headers ->
+                        eventTransport.send(event.getEventType(), event.getSagaId().toString(), event.getPayload(), headers));
+                sendNanos += outboxMetrics.recordSend("outbox_events", event.getEventType(), sendStart);
 
                 // Update status
                 event.setStatus(OutboxStatus.SENT);
                 event.setProcessedAt(ZonedDateTime.now());
                 outboxEventRepository.save(event);
+                sent++;
 
                 log.info("Successfully sent event {} to topic {}", event.getId(), event.getEventType());
 
@@ -48,5 +61,6 @@ public class OutboxScheduler {
                 outboxEventRepository.save(event);
             }
         }
+        outboxMetrics.endBatch(batchEvent, "outbox_events", pendingEvents.size(), sent, sendNanos);
     }
 }
@@ -0,0 +1,94 @@
+package com.uber.api.shared.saga;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * States and allowed transitions of one saga type. States without outgoing transitions are terminal.
+ */
+public final class SagaDefinition<S extends Enum<S>> {
+
+    private final String name;
+    private final Class<S> stateType;
+    private final S initial;
+    private final Map<S, Set<S>> transitions;
+
+    private SagaDefinition(String name, Class<S> stateType, S initial, Map<S, Set<S>> transitions) {
+        this.name = name;
+        this.stateType = stateType;
+        this.initial = initial;
+        this.transitions = transitions;
+    }
+
+    public static <S extends Enum<S>> Builder<S> builder(String name, Class<S> stateType, S initial) {
+        return new Builder<>(name, stateType, initial);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public S getInitial() {
+        return initial;
+    }
+
+    public boolean canTransition(S from, S to) {
+        return transitions.get(from).contains(to);
+    }
+
+    public boolean isTerminal(S state) {
+        return transitions.get(state).isEmpty();
+    }
+
+    public List<String> nonTerminalStates() {
+        return transitions.keySet().stream()
+                .filter(state -> !isTerminal(state))
+                .map(Enum::name)
+                .toList();
+    }
+
+    public S parse(String state) {
+        return Enum.valueOf(stateType, state);
+    }
+
+    public static final class Builder<S extends Enum<S>> {
+        private final String name;
+        private final Class<S> stateType;
+        private final S initial;
+        private final Map<S, Set<S>> transitions;
+
+        private Builder(String name, Class<S> stateType, S initial) {
+            this.name = name;
+            this.stateType = stateType;
+            this.initial = initial;
+            this.transitions = new EnumMap<>(stateType);
+            for (S state : stateType.getEnumConstants()) {
+                transitions.put(state, EnumSet.noneOf(stateType));
+            }
+        }
+
+        @SafeVarargs
+        public final Builder<S> allow(S from, S... to) {
+            Collections.addAll(transitions.get(from), to);
+            return this;
+        }
+
+        public SagaDefinition<S> build() {
+            if (name.length() > SagaInstance.MAX_NAME_LENGTH) {
+                throw new IllegalArgumentException("Saga name too long: " + name);
+            }
+            Map<S, Set<S>> frozen = new EnumMap<>(stateType);
+            transitions.forEach((state, next) -> {
+                if (state.name().length() > SagaInstance.MAX_NAME_LENGTH) {
+                    throw new IllegalArgumentException("Saga state name too long: " + state);
+                }
+                frozen.put(state, Collections.unmodifiableSet(EnumSet.copyOf(next)));
+            });
+            return new SagaDefinition<>(name, stateType, initial, Collections.unmodifiableMap(frozen));
+        }
+    }
+}
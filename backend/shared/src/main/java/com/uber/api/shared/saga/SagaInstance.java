@@ -0,0 +1,44 @@
+package com.uber.api.shared.saga;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Current state of one saga. The row is updated in place on every transition; recovery reads it back
+ * through the (saga_type, state) index.
+ */
+@Entity
+@Table(name = "saga_instances", indexes = {
+        @Index(name = "idx_saga_instances_type_state", columnList = "saga_type, state"),
+        @Index(name = "idx_saga_instances_type_ride", columnList = "saga_type, ride_request_id", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SagaInstance {
+
+    static final int MAX_NAME_LENGTH = 32;
+
+    @Id
+    private UUID sagaId;
+
+    @Column(nullable = false, length = MAX_NAME_LENGTH)
+    private String sagaType;
+
+    @Column(nullable = false)
+    private UUID rideRequestId;
+
+    @Column(nullable = false, length = MAX_NAME_LENGTH)
+    private String state;
+
+    private int version;
+
+    private ZonedDateTime updatedAt;
+}
@@ -0,0 +1,41 @@
+package com.uber.api.shared.saga;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface SagaInstanceRepository extends JpaRepository<SagaInstance, UUID> {
+
+    Optional<SagaInstance> findBySagaTypeAndRideRequestId(String sagaType, UUID rideRequestId);
+
+    List<SagaInstance> findBySagaTypeAndStateIn(String sagaType, Collection<String> states);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO saga_instances (saga_id, saga_type, ride_request_id, state, version, updated_at) " +
+            "VALUES (:sagaId, :sagaType, :rideRequestId, :state, 0, now()) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insert(@Param("sagaId") UUID sagaId,
+               @Param("sagaType") String sagaType,
+               @Param("rideRequestId") UUID rideRequestId,
+               @Param("state") String state);
+
+    /**
+     * Moves the saga to {@code state} if nobody else has moved it since {@code version} was read.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE saga_instances SET state = :state, version = version + 1, updated_at = now() " +
+            "WHERE saga_id = :sagaId AND version = :version", nativeQuery = true)
+    int transition(@Param("sagaId") UUID sagaId,
+                   @Param("version") int version,
+                   @Param("state") String state);
+}
@@ -0,0 +1,186 @@
+package com.uber.api.shared.saga;
+
+import com.uber.api.shared.jfr.SagaTransitionEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the sagas of one {@link SagaDefinition}, one per ride. Open sagas are held in memory keyed by
+ * ride so that checking a transition needs no query; every transition is a compare-and-set on the saga's
+ * {@code saga_instances} row, which also catches state moved by another instance. Terminal sagas leave
+ * the map and are read from their row if asked for again; a short-lived tombstone keeps a late, older
+ * version from putting them back. Open sagas are reloaded when the service starts.
+ */
+@Slf4j
+public class SagaOrchestrator<S extends Enum<S>> {
+
+    private static final long TOMBSTONE_TTL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final SagaDefinition<S> definition;
+    private final SagaInstanceRepository sagaInstanceRepository;
+    private final ConcurrentHashMap<UUID, ActiveSaga<S>> active = new ConcurrentHashMap<>();
+    // Terminal versions of sagas that just left the map, expired in the order they were added
+    private final ConcurrentHashMap<UUID, Tombstone> finished = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<FinishedSaga> finishedOrder = new ConcurrentLinkedQueue<>();
+
+    public SagaOrchestrator(SagaDefinition<S> definition, SagaInstanceRepository sagaInstanceRepository) {
+        this.definition = definition;
+        this.sagaInstanceRepository = sagaInstanceRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        sagaInstanceRepository.findBySagaTypeAndStateIn(definition.getName(), definition.nonTerminalStates())
+                .forEach(instance -> active.put(instance.getRideRequestId(), toActive(instance)));
+        log.info("✅ Recovered {} open {} sagas", active.size(), definition.getName());
+    }
+
+    public void start(UUID sagaId, UUID rideRequestId) {
+        S initial = definition.getInitial();
+        if (sagaInstanceRepository.insert(sagaId, definition.getName(), rideRequestId, initial.name()) == 0) {
+            throw new IllegalStateException("Saga already started for ride: " + rideRequestId);
+        }
+        ActiveSaga<S> started = new ActiveSaga<>(sagaId, initial, 0);
+        afterCommit(() -> active.putIfAbsent(rideRequestId, started));
+    }
+
+    /**
+     * Moves the ride's saga to {@code target}. False when the ride has no saga, the move is not allowed
+     * from its current state, or a concurrent transition got there first and the retry is not allowed either.
+     */
+    public boolean transition(UUID rideRequestId, S target) {
+        SagaTransitionEvent event = new SagaTransitionEvent();
+        event.begin();
+
+        ActiveSaga<S> current = active.get(rideRequestId);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (current == null) {
+                current = load(rideRequestId).orElse(null);
+                if (current == null) {
+                    log.warn("No {} saga for ride: {}", definition.getName(), rideRequestId);
+                    recordTransition(event, rideRequestId, null, target, "no_saga", attempt + 1);
+                    return false;
+                }
+                if (attempt > 0) {
+                    publish(rideRequestId, current);
+                }
+            }
+            if (!definition.canTransition(current.state, target)) {
+                log.warn("Refusing {} saga transition {} -> {} for ride: {}",
+                        definition.getName(), current.state, target, rideRequestId);
+                recordTransition(event, rideRequestId, current.state, target, "refused", attempt + 1);
+                return false;
+            }
+            if (sagaInstanceRepository.transition(current.sagaId, current.version, target.name()) > 0) {
+                ActiveSaga<S> next = new ActiveSaga<>(current.sagaId, target, current.version + 1);
+                afterCommit(() -> publish(rideRequestId, next));
+                log.debug("{} saga for ride {}: {} -> {}", definition.getName(), rideRequestId, current.state, target);
+                recordTransition(event, rideRequestId, current.state, target, "applied", attempt + 1);
+                return true;
+            }
+            // Moved since we read it, here or on another instance; decide again on the stored state
+            current = null;
+        }
+        recordTransition(event, rideRequestId, null, target, "conflict", 2);
+        return false;
+    }
+
+    public Optional<S> currentState(UUID rideRequestId) {
+        ActiveSaga<S> saga = active.get(rideRequestId);
+        return saga != null ? Optional.of(saga.state) : load(rideRequestId).map(loaded -> loaded.state);
+    }
+
+    public Optional<UUID> sagaId(UUID rideRequestId) {
+        ActiveSaga<S> saga = active.get(rideRequestId);
+        return saga != null ? Optional.of(saga.sagaId) : load(rideRequestId).map(loaded -> loaded.sagaId);
+    }
+
+    public int activeCount() {
+        return active.size();
+    }
+
+    private void recordTransition(SagaTransitionEvent event, UUID rideRequestId, S from, S target,
+                                  String outcome, int attempts) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.sagaType = definition.getName();
+            event.rideRequestId = rideRequestId.toString();
+            event.fromState = from != null ? from.name() : null;
+            event.toState = target.name();
+            event.outcome = outcome;
+            event.attempts = attempts;
+            event.commit();
+        }
+    }
+
+    private void publish(UUID rideRequestId, ActiveSaga<S> next) {
+        expireTombstones();
+        // Commits can complete out of order; never let an older version replace a newer one
+        active.compute(rideRequestId, (key, existing) -> {
+            if (existing != null && existing.version >= next.version) {
+                return existing;
+            }
+            Tombstone tombstone = finished.get(key);
+            if (tombstone != null && tombstone.version >= next.version) {
+                return null;
+            }
+            if (definition.isTerminal(next.state)) {
+                Tombstone added = new Tombstone(next.version, System.nanoTime() + TOMBSTONE_TTL_NANOS);
+                finished.put(key, added);
+                finishedOrder.add(new FinishedSaga(key, added));
+                return null;
+            }
+            return next;
+        });
+    }
+
+    private void expireTombstones() {
+        long now = System.nanoTime();
+        FinishedSaga oldest;
+        while ((oldest = finishedOrder.peek()) != null && now - oldest.tombstone.expiresAtNanos >= 0) {
+            if (finishedOrder.remove(oldest)) {
+                finished.remove(oldest.rideRequestId, oldest.tombstone);
+            }
+        }
+    }
+
+    private Optional<ActiveSaga<S>> load(UUID rideRequestId) {
+        return sagaInstanceRepository.findBySagaTypeAndRideRequestId(definition.getName(), rideRequestId)
+                .map(this::toActive);
+    }
+
+    private ActiveSaga<S> toActive(SagaInstance instance) {
+        return new ActiveSaga<>(instance.getSagaId(), definition.parse(instance.getState()), instance.getVersion());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record ActiveSaga<S>(UUID sagaId, S state, int version) {
+    }
+
+    private record Tombstone(int version, long expiresAtNanos) {
+    }
+
+    private record FinishedSaga(UUID rideRequestId, Tombstone tombstone) {
+    }
+}
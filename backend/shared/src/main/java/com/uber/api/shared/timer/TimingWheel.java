@@ -0,0 +1,209 @@
+package com.uber.api.shared.timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for large numbers of keyed deadlines (hold expiries, ride timeouts).
+ *
+ * Scheduling and cancelling are O(1). Level 0 has {@code wheelSize} buckets of {@code tickMs}; each
+ * higher level covers a whole rotation of the level below per bucket and is created on demand, so far
+ * deadlines cost no more than near ones. A bucket of a higher level is cascaded down when the clock
+ * reaches it. Deadlines fire on the ticker thread up to one tick late and never early. Scheduling a key
+ * again replaces its previous deadline.
+ */
+@Slf4j
+public class TimingWheel<K> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final Consumer<K> onExpiry;
+    private final List<ArrayDeque<Entry<K>>[]> levels = new ArrayList<>();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private final String name;
+
+    private long currentTime;
+    private volatile boolean running;
+    private Thread ticker;
+
+    public TimingWheel(String name, long tickMs, int wheelSize, Consumer<K> onExpiry) {
+        this.name = name;
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.onExpiry = onExpiry;
+        this.currentTime = truncate(System.currentTimeMillis());
+        addLevel();
+    }
+
+    public void start() {
+        running = true;
+        ticker = new Thread(this::run, name + "-timer");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        if (ticker != null) {
+            ticker.interrupt();
+            ticker.join();
+        }
+    }
+
+    public void schedule(K key, long deadlineMillis) {
+        boolean due;
+        synchronized (this) {
+            Entry<K> previous = entries.remove(key);
+            if (previous != null) {
+                previous.cancelled = true;
+            }
+            Entry<K> entry = new Entry<>(key, deadlineMillis);
+            due = !place(entry);
+            if (!due) {
+                entries.put(key, entry);
+            }
+        }
+        if (due) {
+            expire(key);
+        }
+    }
+
+    public synchronized boolean cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.cancelled = true;
+        return true;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves the clock to {@code now} and returns the keys that became due. Exposed for the ticker and
+     * for simulations that drive time themselves.
+     */
+    public List<K> advanceTo(long now) {
+        List<K> due = new ArrayList<>();
+        synchronized (this) {
+            long target = truncate(now);
+            while (currentTime < target) {
+                // Drain the tick that just ended before cascading, which may refill the same bucket
+                ArrayDeque<Entry<K>> bucket = levels.get(0)[index(currentTime, tickMs)];
+                Entry<K> entry;
+                while ((entry = bucket.poll()) != null) {
+                    if (!entry.cancelled && entries.remove(entry.key, entry)) {
+                        due.add(entry.key);
+                    }
+                }
+                currentTime += tickMs;
+                cascade();
+            }
+        }
+        return due;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                long now = System.currentTimeMillis();
+                for (K key : advanceTo(now)) {
+                    expire(key);
+                }
+                Thread.sleep(Math.max(1, tickMs - (System.currentTimeMillis() % tickMs)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Timing wheel {} tick failed", name, e);
+            }
+        }
+    }
+
+    private void expire(K key) {
+        try {
+            onExpiry.accept(key);
+        } catch (RuntimeException e) {
+            log.error("Expiry handler of timing wheel {} failed for {}", name, key, e);
+        }
+    }
+
+    /**
+     * Places the entry in the lowest level whose span covers it; false if it is already due.
+     */
+    private boolean place(Entry<K> entry) {
+        if (entry.deadline < currentTime) {
+            return false;
+        }
+        long levelTick = tickMs;
+        for (int level = 0; ; level++) {
+            if (level == levels.size()) {
+                addLevel();
+            }
+            if (entry.deadline < truncate(currentTime, levelTick) + levelTick * wheelSize) {
+                levels.get(level)[index(entry.deadline, levelTick)].add(entry);
+                return true;
+            }
+            levelTick *= wheelSize;
+        }
+    }
+
+    private void cascade() {
+        long levelTick = tickMs * wheelSize;
+        for (int level = 1; level < levels.size(); level++) {
+            if (currentTime % levelTick != 0) {
+                return;
+            }
+            ArrayDeque<Entry<K>> bucket = levels.get(level)[index(currentTime, levelTick)];
+            List<Entry<K>> moved = new ArrayList<>(bucket);
+            bucket.clear();
+            for (Entry<K> entry : moved) {
+                if (!entry.cancelled && !place(entry)) {
+                    // Cannot happen for a bucket that starts at the current time, but never lose an entry
+                    levels.get(0)[index(currentTime, tickMs)].add(entry);
+                }
+            }
+            levelTick *= wheelSize;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addLevel() {
+        ArrayDeque<Entry<K>>[] buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        levels.add(buckets);
+    }
+
+    private int index(long time, long levelTick) {
+        return (int) ((time / levelTick) % wheelSize);
+    }
+
+    private long truncate(long time) {
+        return truncate(time, tickMs);
+    }
+
+    private static long truncate(long time, long tick) {
+        return time - (time % tick);
+    }
+
+    private static final class Entry<K> {
+        final K key;
+        final long deadline;
+        boolean cancelled;
+
+        Entry(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.uber.api.shared.tracing;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapturedSpan {
+    private String traceId;
+    private String spanId;
+    private String parentSpanId;
+    private String name;
+    private String kind;
+    private String service;
+    private long startEpochNanos;
+    private long durationMicros;
+    private Map<String, String> attributes;
+}
@@ -0,0 +1,116 @@
+package com.uber.api.shared.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * W3C trace context on events. Outbox rows store the context of the span that wrote them, the relay sends
+ * each row in a producer span continuing that trace and listeners handle each event in a consumer span,
+ * so a ride is one trace across the services and their outbox hops.
+ *
+ * Whether a trace is recorded is decided once where it starts (the HTTP request) and carried in the
+ * {@code traceparent} flags. Messaging spans are only created for sampled traces; an unsampled context is
+ * passed on as it is, so the hops of unsampled rides cost a header copy.
+ */
+@Component
+public class MessageTracing {
+
+    public static final String TRACEPARENT = "traceparent";
+    public static final String TRACESTATE = "tracestate";
+
+    private static final Scope NOOP = new Scope(null, null);
+
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    public MessageTracing(ObjectProvider<Tracer> tracer, ObjectProvider<Propagator> propagator) {
+        this.tracer = tracer.getIfAvailable();
+        this.propagator = propagator.getIfAvailable();
+    }
+
+    public static boolean isTraceHeader(String name) {
+        return TRACEPARENT.equals(name) || TRACESTATE.equals(name);
+    }
+
+    /**
+     * Writes the current span's context into {@code headers}, replacing any it carries; unchanged without a span.
+     */
+    public void inject(Map<String, String> headers) {
+        if (tracer == null) {
+            return;
+        }
+        Span span = tracer.currentSpan();
+        if (span != null) {
+            propagator.inject(span.context(), headers, Map::put);
+        }
+    }
+
+    /**
+     * Starts the span sending an event on {@code topic} and points its headers at it; close the scope once sent.
+     */
+    public Scope startProducer(String topic, Map<String, String> headers) {
+        return start(topic + " publish", Span.Kind.PRODUCER, topic, headers);
+    }
+
+    /**
+     * Starts the span handling an event from {@code topic} and points its headers at it, so work carried on
+     * with the message context continues from it; close the scope once handled.
+     */
+    public Scope startConsumer(String topic, Map<String, String> headers) {
+        return start(topic + " process", Span.Kind.CONSUMER, topic, headers);
+    }
+
+    private Scope start(String name, Span.Kind kind, String topic, Map<String, String> headers) {
+        if (tracer == null || !isSampled(headers.get(TRACEPARENT))) {
+            return NOOP;
+        }
+        Span span = propagator.extract(headers, Map::get)
+                .name(name)
+                .kind(kind)
+                .tag("messaging.system", "kafka")
+                .tag("messaging.destination.name", topic)
+                .start();
+        propagator.inject(span.context(), headers, Map::put);
+        return new Scope(span, tracer.withSpan(span));
+    }
+
+    /**
+     * Reads the sampled flag of a {@code version-traceid-parentid-flags} header without parsing the rest.
+     */
+    private static boolean isSampled(String traceparent) {
+        if (traceparent == null || traceparent.length() < 55) {
+            return false;
+        }
+        return (Character.digit(traceparent.charAt(traceparent.length() - 1), 16) & 1) == 1;
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Span span;
+        private final Tracer.SpanInScope inScope;
+
+        private Scope(Span span, Tracer.SpanInScope inScope) {
+            this.span = span;
+            this.inScope = inScope;
+        }
+
+        public void error(Throwable error) {
+            if (span != null) {
+                span.error(error);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (span != null) {
+                inScope.close();
+                span.end();
+            }
+        }
+    }
+}
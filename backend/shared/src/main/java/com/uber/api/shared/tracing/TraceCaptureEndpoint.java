@@ -0,0 +1,70 @@
+package com.uber.api.shared.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/traces}: spans held by the {@link CapturingSpanExporter}, grouped by trace, or one trace
+ * at {@code /actuator/traces/{traceId}}. DELETE clears them.
+ */
+@Component
+@Endpoint(id = "traces")
+@ConditionalOnProperty(name = "uber.tracing.capture.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class TraceCaptureEndpoint {
+
+    private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+
+    private final CapturingSpanExporter exporter;
+
+    @ReadOperation
+    public Map<String, List<CapturedSpan>> traces() {
+        Map<String, List<CapturedSpan>> traces = new LinkedHashMap<>();
+        for (SpanData span : exporter.spans()) {
+            traces.computeIfAbsent(span.getTraceId(), id -> new ArrayList<>()).add(toCaptured(span));
+        }
+        return traces;
+    }
+
+    @ReadOperation
+    public List<CapturedSpan> trace(@Selector String traceId) {
+        return exporter.spans().stream()
+                .filter(span -> span.getTraceId().equals(traceId))
+                .map(this::toCaptured)
+                .toList();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        exporter.clear();
+    }
+
+    private CapturedSpan toCaptured(SpanData span) {
+        Map<String, String> attributes = new TreeMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), String.valueOf(value)));
+        return CapturedSpan.builder()
+                .traceId(span.getTraceId())
+                .spanId(span.getSpanId())
+                .parentSpanId(span.getParentSpanContext().isValid() ? span.getParentSpanId() : null)
+                .name(span.getName())
+                .kind(span.getKind().name())
+                .service(span.getResource().getAttribute(SERVICE_NAME))
+                .startEpochNanos(span.getStartEpochNanos())
+                .durationMicros((span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000)
+                .attributes(attributes)
+                .build();
+    }
+}
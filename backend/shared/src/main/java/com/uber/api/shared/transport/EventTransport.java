@@ -0,0 +1,16 @@
+package com.uber.api.shared.transport;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Delivers serialized saga events to a topic. The outbox relays publish through this
+ * interface so the same services can run against Kafka or a single-process event bus.
+ */
+public interface EventTransport {
+    CompletableFuture<Void> send(String topic, String key, String payload, Map<String, String> headers);
+
+    default CompletableFuture<Void> send(String topic, String key, String payload) {
+        return send(topic, key, payload, Map.of());
+    }
+}
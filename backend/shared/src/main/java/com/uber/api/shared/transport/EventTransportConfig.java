@@ -0,0 +1,41 @@
+package com.uber.api.shared.transport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+
+/**
+ * Selects the event transport with {@code uber.transport.mode}: {@code kafka} (default) or
+ * {@code in-memory}. When services are co-hosted, the in-memory bus is defined once in the parent
+ * context and each service context reuses it instead of creating its own.
+ */
+@Configuration
+public class EventTransportConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(EventTransport.class)
+    @ConditionalOnProperty(name = "uber.transport.mode", havingValue = "kafka", matchIfMissing = true)
+    public KafkaEventTransport kafkaEventTransport(KafkaTemplate<String, String> kafkaTemplate) {
+        return new KafkaEventTransport(kafkaTemplate);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(EventTransport.class)
+    @ConditionalOnProperty(name = "uber.transport.mode", havingValue = "in-memory")
+    public InMemoryEventTransport inMemoryEventTransport(
+            @Value("${uber.transport.ring-buffer-size:65536}") int ringBufferSize,
+            @Value("${uber.transport.batch-size:256}") int batchSize) {
+        return new InMemoryEventTransport(ringBufferSize, batchSize);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "uber.transport.mode", havingValue = "in-memory")
+    public InMemoryListenerRegistrar inMemoryListenerRegistrar(ConfigurableApplicationContext applicationContext,
+                                                               InMemoryEventTransport eventTransport) {
+        return new InMemoryListenerRegistrar(applicationContext, eventTransport);
+    }
+}
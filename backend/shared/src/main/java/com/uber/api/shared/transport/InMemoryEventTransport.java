@@ -0,0 +1,265 @@
+package com.uber.api.shared.transport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Single-process event bus for co-hosting all services in one JVM.
+ *
+ * Events are written into a pre-allocated ring of slots by any number of producers. Each
+ * consumer group owns a dispatcher thread with its own sequence that drains published slots
+ * in batches, so every group sees every event in publish order, as with one Kafka partition.
+ * Producers wait for the slowest group before reusing a slot; listeners, which run on the dispatcher
+ * threads and so cannot wait for them, park their events until a slot frees up instead.
+ */
+@Slf4j
+public class InMemoryEventTransport implements EventTransport, SmartLifecycle {
+
+    private static final long INITIAL_SEQUENCE = -1L;
+
+    private final Slot[] slots;
+    private final int mask;
+    private final int batchSize;
+    private final AtomicLong claimSequence = new AtomicLong(INITIAL_SEQUENCE);
+    private final Map<String, GroupDispatcher> groups = new ConcurrentHashMap<>();
+    private final List<GroupDispatcher> gatingGroups = new CopyOnWriteArrayList<>();
+    // Events sent by listeners while the ring was full, oldest first
+    private final Queue<Deferred> deferred = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock deferredLock = new ReentrantLock();
+    private final AtomicLong deferredCount = new AtomicLong();
+
+    private volatile boolean running;
+
+    public InMemoryEventTransport(int capacity, int batchSize) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public CompletableFuture<Void> send(String topic, String key, String payload, Map<String, String> headers) {
+        if (Thread.currentThread() instanceof DispatcherThread) {
+            // A dispatcher waiting for a slot may be waiting on itself; when the ring is full the event is
+            // parked and published by the next dispatcher pass, behind any events parked before it
+            if (!deferred.isEmpty() || !tryPublish(topic, key, payload, headers)) {
+                deferred.add(new Deferred(topic, key, payload, headers));
+                deferredCount.incrementAndGet();
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long sequence = claimSequence.incrementAndGet();
+        int idle = 0;
+        while (sequence - slots.length > minimumGroupSequence()) {
+            idle = backOff(idle);
+        }
+        publish(sequence, topic, key, payload, headers);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public void subscribe(String groupId, String topic, BiConsumer<String, Map<String, String>> handler) {
+        GroupDispatcher group = groups.computeIfAbsent(groupId, id -> {
+            // Late groups start at the head, like auto.offset.reset=latest
+            GroupDispatcher dispatcher = new GroupDispatcher(id, claimSequence.get());
+            gatingGroups.add(dispatcher);
+            if (running) {
+                dispatcher.start();
+            }
+            return dispatcher;
+        });
+        group.handlers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(handler);
+        log.info("Subscribed group {} to in-memory topic {}", groupId, topic);
+    }
+
+    public long getPublishedCount() {
+        return claimSequence.get() + 1;
+    }
+
+    public long getDeferredCount() {
+        return deferredCount.get();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        groups.values().forEach(GroupDispatcher::start);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        groups.values().forEach(GroupDispatcher::interrupt);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private boolean tryPublish(String topic, String key, String payload, Map<String, String> headers) {
+        long current;
+        do {
+            current = claimSequence.get();
+            if (current + 1 - slots.length > minimumGroupSequence()) {
+                return false;
+            }
+        } while (!claimSequence.compareAndSet(current, current + 1));
+        publish(current + 1, topic, key, payload, headers);
+        return true;
+    }
+
+    private void publish(long sequence, String topic, String key, String payload, Map<String, String> headers) {
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.topic = topic;
+        slot.key = key;
+        slot.payload = payload;
+        slot.headers = headers;
+        slot.published = sequence;
+    }
+
+    private void publishDeferred() {
+        if (deferred.isEmpty() || !deferredLock.tryLock()) {
+            return;
+        }
+        try {
+            Deferred next;
+            while ((next = deferred.peek()) != null
+                    && tryPublish(next.topic(), next.key(), next.payload(), next.headers())) {
+                deferred.poll();
+            }
+        } finally {
+            deferredLock.unlock();
+        }
+    }
+
+    private long minimumGroupSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (GroupDispatcher group : gatingGroups) {
+            minimum = Math.min(minimum, group.sequence);
+        }
+        return minimum == Long.MAX_VALUE ? claimSequence.get() : minimum;
+    }
+
+    private static int backOff(int idle) {
+        if (idle < 100) {
+            Thread.onSpinWait();
+        } else if (idle < 200) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(100_000L);
+        }
+        return idle + 1;
+    }
+
+    private record Deferred(String topic, String key, String payload, Map<String, String> headers) {
+    }
+
+    private static final class Slot {
+        String topic;
+        String key;
+        String payload;
+        Map<String, String> headers;
+        volatile long published = INITIAL_SEQUENCE;
+    }
+
+    private static class DispatcherThread extends Thread {
+        DispatcherThread(Runnable task, String name) {
+            super(task, name);
+            setDaemon(true);
+        }
+    }
+
+    private final class GroupDispatcher implements Runnable {
+
+        private final String groupId;
+        private final Map<String, List<BiConsumer<String, Map<String, String>>>> handlers = new ConcurrentHashMap<>();
+        private final String[] batchTopics = new String[batchSize];
+        private final String[] batchPayloads = new String[batchSize];
+        @SuppressWarnings("unchecked")
+        private final Map<String, String>[] batchHeaders = new Map[batchSize];
+        private volatile long sequence;
+        private Thread thread;
+
+        GroupDispatcher(String groupId, long startSequence) {
+            this.groupId = groupId;
+            this.sequence = startSequence;
+        }
+
+        synchronized void start() {
+            if (thread == null) {
+                thread = new DispatcherThread(this, "event-bus-" + groupId);
+                thread.start();
+            }
+        }
+
+        synchronized void interrupt() {
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running && !Thread.currentThread().isInterrupted()) {
+                publishDeferred();
+                long next = sequence + 1;
+                int count = 0;
+                while (count < batchSize && slots[(int) ((next + count) & mask)].published == next + count) {
+                    Slot slot = slots[(int) ((next + count) & mask)];
+                    batchTopics[count] = slot.topic;
+                    batchPayloads[count] = slot.payload;
+                    batchHeaders[count] = slot.headers;
+                    count++;
+                }
+
+                if (count == 0) {
+                    idle = backOff(idle);
+                    continue;
+                }
+                idle = 0;
+
+                // Release the slots before dispatching so handlers that publish cannot deadlock the ring
+                sequence = next + count - 1;
+                for (int i = 0; i < count; i++) {
+                    dispatch(batchTopics[i], batchPayloads[i], batchHeaders[i]);
+                    batchTopics[i] = null;
+                    batchPayloads[i] = null;
+                    batchHeaders[i] = null;
+                }
+            }
+        }
+
+        private void dispatch(String topic, String payload, Map<String, String> headers) {
+            List<BiConsumer<String, Map<String, String>>> topicHandlers = handlers.get(topic);
+            if (topicHandlers == null) {
+                return;
+            }
+            for (BiConsumer<String, Map<String, String>> handler : topicHandlers) {
+                try {
+                    handler.accept(payload, headers);
+                } catch (Exception e) {
+                    log.error("Handler in group {} failed for topic {}", groupId, topic, e);
+                }
+            }
+        }
+    }
+}
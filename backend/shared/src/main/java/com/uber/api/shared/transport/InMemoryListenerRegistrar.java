@@ -0,0 +1,85 @@
+package com.uber.api.shared.transport;
+
+import com.uber.api.shared.latency.StageLatencyTracker;
+import com.uber.api.shared.metrics.ListenerMetrics;
+import com.uber.api.shared.tracing.MessageTracing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Subscribes every {@code @KafkaListener} method of this context to the in-memory bus, keeping its
+ * topics and group id. Methods are invoked on the bean proxy so {@code @Transactional} still applies, inside
+ * a {@link MessageContext} opened from the event's headers and the event's consumer span.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class InMemoryListenerRegistrar implements SmartInitializingSingleton {
+
+    private final ConfigurableApplicationContext applicationContext;
+    private final InMemoryEventTransport eventTransport;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            Class<?> beanType = applicationContext.getType(beanName);
+            if (beanType == null) {
+                continue;
+            }
+
+            Map<Method, KafkaListener> listeners = MethodIntrospector.selectMethods(ClassUtils.getUserClass(beanType),
+                    (MethodIntrospector.MetadataLookup<KafkaListener>) method ->
+                            AnnotatedElementUtils.findMergedAnnotation(method, KafkaListener.class));
+
+            listeners.forEach((method, listener) -> register(beanName, method, listener));
+        }
+    }
+
+    private void register(String beanName, Method method, KafkaListener listener) {
+        if (method.getParameterCount() != 1 || method.getParameterTypes()[0] != String.class) {
+            log.warn("Listener {}.{} does not take a single String payload, not bound to the in-memory bus",
+                    beanName, method.getName());
+            return;
+        }
+
+        Object bean = applicationContext.getBean(beanName);
+        StageLatencyTracker stageLatencyTracker = applicationContext.getBean(StageLatencyTracker.class);
+        ListenerMetrics listenerMetrics = applicationContext.getBean(ListenerMetrics.class);
+        MessageTracing messageTracing = applicationContext.getBean(MessageTracing.class);
+        String groupId = applicationContext.getEnvironment().resolvePlaceholders(listener.groupId());
+        ReflectionUtils.makeAccessible(method);
+
+        for (String topic : listener.topics()) {
+            String resolvedTopic = applicationContext.getEnvironment().resolvePlaceholders(topic);
+            eventTransport.subscribe(groupId.isEmpty() ? beanName : groupId, resolvedTopic, (payload, headers) -> {
+                stageLatencyTracker.onReceive(resolvedTopic, headers);
+                Map<String, String> context = new LinkedHashMap<>(headers);
+                MessageTracing.Scope span = messageTracing.startConsumer(resolvedTopic, context);
+                MessageContext.open(context);
+                listenerMetrics.begin();
+                boolean thrown = true;
+                try {
+                    ReflectionUtils.invokeMethod(method, bean, payload);
+                    thrown = false;
+                } catch (RuntimeException e) {
+                    span.error(e);
+                    throw e;
+                } finally {
+                    listenerMetrics.end(resolvedTopic, thrown);
+                    MessageContext.close();
+                    span.close();
+                }
+            });
+        }
+    }
+}
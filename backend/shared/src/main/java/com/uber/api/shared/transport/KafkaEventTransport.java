@@ -0,0 +1,22 @@
+package com.uber.api.shared.transport;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@RequiredArgsConstructor
+public class KafkaEventTransport implements EventTransport {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    @Override
+    public CompletableFuture<Void> send(String topic, String key, String payload, Map<String, String> headers) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, key, payload);
+        headers.forEach((name, value) -> record.headers().add(name, value.getBytes(StandardCharsets.UTF_8)));
+        return kafkaTemplate.send(record).thenApply(result -> null);
+    }
+}
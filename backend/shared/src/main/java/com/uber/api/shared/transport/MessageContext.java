@@ -0,0 +1,116 @@
+package com.uber.api.shared.transport;
+
+import com.uber.api.shared.tracing.MessageTracing;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Headers of the event being handled on this thread, carried on to the events it causes. The transports
+ * open a context around each listener call; outbox rows store it so the relay can send it with the event.
+ */
+public final class MessageContext {
+
+    private static final ThreadLocal<Map<String, String>> HEADERS = new ThreadLocal<>();
+    // Transport-level headers such as the codec's describe one record and must not be copied to the next
+    private static final String PROPAGATED_PREFIX = "x-saga-";
+
+    private MessageContext() {
+    }
+
+    public static void open(Map<String, String> headers) {
+        HEADERS.set(new LinkedHashMap<>(headers));
+    }
+
+    public static boolean isPropagated(String name) {
+        return name.startsWith(PROPAGATED_PREFIX) || MessageTracing.isTraceHeader(name);
+    }
+
+    public static void close() {
+        HEADERS.remove();
+    }
+
+    public static boolean isOpen() {
+        return HEADERS.get() != null;
+    }
+
+    public static String get(String name) {
+        Map<String, String> headers = HEADERS.get();
+        return headers != null ? headers.get(name) : null;
+    }
+
+    /**
+     * Sets a header on the open context; ignored when none is open, so code outside message handling
+     * cannot leave headers behind on a pooled thread.
+     */
+    public static void put(String name, String value) {
+        Map<String, String> headers = HEADERS.get();
+        if (headers != null) {
+            headers.put(name, value);
+        }
+    }
+
+    public static Map<String, String> headers() {
+        Map<String, String> headers = HEADERS.get();
+        return headers != null ? Collections.unmodifiableMap(headers) : Map.of();
+    }
+
+    /**
+     * Runs {@code work} with this thread's context, for work handed to another thread.
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> work) {
+        Map<String, String> captured = HEADERS.get();
+        if (captured == null) {
+            return work;
+        }
+        Map<String, String> snapshot = new LinkedHashMap<>(captured);
+        return () -> {
+            Map<String, String> previous = HEADERS.get();
+            HEADERS.set(snapshot);
+            try {
+                return work.get();
+            } finally {
+                HEADERS.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Form-encodes headers for an outbox row; null when there is nothing to carry.
+     */
+    public static String encode(Map<String, String> headers) {
+        if (headers.isEmpty()) {
+            return null;
+        }
+        StringBuilder encoded = new StringBuilder();
+        headers.forEach((name, value) -> {
+            if (!encoded.isEmpty()) {
+                encoded.append('&');
+            }
+            encoded.append(URLEncoder.encode(name, StandardCharsets.UTF_8))
+                    .append('=')
+                    .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+        });
+        return encoded.toString();
+    }
+
+    public static Map<String, String> decode(String encoded) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return headers;
+        }
+        for (String pair : encoded.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                headers.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return headers;
+    }
+}
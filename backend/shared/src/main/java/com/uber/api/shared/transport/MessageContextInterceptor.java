@@ -0,0 +1,69 @@
+package com.uber.api.shared.transport;
+
+import com.uber.api.shared.latency.StageLatencyTracker;
+import com.uber.api.shared.metrics.ListenerMetrics;
+import com.uber.api.shared.tracing.MessageTracing;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opens the {@link MessageContext} from a Kafka record's headers for the duration of its listener call,
+ * inside the record's consumer span, and times the call in {@link ListenerMetrics}.
+ */
+@Component
+@RequiredArgsConstructor
+public class MessageContextInterceptor implements RecordInterceptor<String, String> {
+
+    private final StageLatencyTracker stageLatencyTracker;
+    private final ListenerMetrics listenerMetrics;
+    private final MessageTracing messageTracing;
+    private final ThreadLocal<MessageTracing.Scope> spans = new ThreadLocal<>();
+
+    @Override
+    public ConsumerRecord<String, String> intercept(ConsumerRecord<String, String> record,
+                                                    Consumer<String, String> consumer) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Header header : record.headers()) {
+            if (header.value() != null && MessageContext.isPropagated(header.key())) {
+                headers.put(header.key(), new String(header.value(), StandardCharsets.UTF_8));
+            }
+        }
+        stageLatencyTracker.onReceive(record.topic(), headers);
+        spans.set(messageTracing.startConsumer(record.topic(), headers));
+        MessageContext.open(headers);
+        listenerMetrics.begin();
+        return record;
+    }
+
+    @Override
+    public void success(ConsumerRecord<String, String> record, Consumer<String, String> consumer) {
+        listenerMetrics.end(record.topic(), false);
+    }
+
+    @Override
+    public void failure(ConsumerRecord<String, String> record, Exception exception, Consumer<String, String> consumer) {
+        listenerMetrics.end(record.topic(), true);
+        MessageTracing.Scope span = spans.get();
+        if (span != null) {
+            span.error(exception);
+        }
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<String, String> record, Consumer<String, String> consumer) {
+        MessageContext.close();
+        MessageTracing.Scope span = spans.get();
+        if (span != null) {
+            spans.remove();
+            span.close();
+        }
+    }
+}
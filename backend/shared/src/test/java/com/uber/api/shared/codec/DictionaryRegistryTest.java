@@ -0,0 +1,82 @@
+package com.uber.api.shared.codec;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictTrainer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DictionaryRegistryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void unknownDictionaryIsNotRescannedForEveryRecord() throws Exception {
+        byte[] dictionary = trainDictionary();
+        long dictionaryId = Zstd.getDictIdFromDict(dictionary);
+        DictionaryRegistry registry = new DictionaryRegistry(directory, 0, 3);
+
+        assertThatThrownBy(() -> registry.decompressor(dictionaryId)).isInstanceOf(IllegalStateException.class);
+        // Arrives after the miss: found only once the rescan interval has passed
+        Files.write(directory.resolve(dictionaryId + ".dict"), dictionary);
+        assertThatThrownBy(() -> registry.decompressor(dictionaryId)).isInstanceOf(IllegalStateException.class);
+
+        registry.reload();
+        assertThat(registry.decompressor(dictionaryId)).isNotNull();
+    }
+
+    @Test
+    void newDictionaryIsPickedUpOnFirstSight() throws Exception {
+        DictionaryRegistry registry = new DictionaryRegistry(directory, 0, 3);
+        byte[] dictionary = trainDictionary();
+        long dictionaryId = Zstd.getDictIdFromDict(dictionary);
+        Files.write(directory.resolve(dictionaryId + ".dict"), dictionary);
+
+        assertThat(registry.decompressor(dictionaryId)).isNotNull();
+    }
+
+    @Test
+    void undecodableRecordBecomesDeserializationFailure() throws Exception {
+        Files.write(directory.resolve("known.dict"), trainDictionary());
+        ZstdDictionaryCodec codec = new ZstdDictionaryCodec(new DictionaryRegistry(directory, 0, 3));
+        byte[] compressed = codec.compress(payload(1), codec.activeDictionaryId());
+
+        try (ErrorHandlingDeserializer<String> deserializer =
+                     new ErrorHandlingDeserializer<>(new DecompressingStringDeserializer(codec))) {
+            RecordHeaders known = new RecordHeaders();
+            known.add(ZstdDictionaryCodec.DICTIONARY_HEADER,
+                    Long.toString(codec.activeDictionaryId()).getBytes(StandardCharsets.UTF_8));
+            assertThat(deserializer.deserialize("payment-requests", known, compressed)).isEqualTo(payload(1));
+
+            RecordHeaders unknown = new RecordHeaders();
+            unknown.add(ZstdDictionaryCodec.DICTIONARY_HEADER, "42".getBytes(StandardCharsets.UTF_8));
+            assertThat(deserializer.deserialize("payment-requests", unknown, compressed)).isNull();
+            assertThat(unknown.lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER)).isNotNull();
+        }
+    }
+
+    private static byte[] trainDictionary() {
+        ZstdDictTrainer trainer = new ZstdDictTrainer(1 << 20, 4 * 1024);
+        for (int i = 0; i < 2000; i++) {
+            trainer.addSample(payload(i).getBytes(StandardCharsets.UTF_8));
+        }
+        return trainer.trainSamples();
+    }
+
+    private static String payload(int i) {
+        return "{\"sagaId\":\"" + new UUID(i, i * 31L) + "\",\"customerEmail\":\"rider" + i
+                + "@example.com\",\"amount\":" + (i % 50 + 5) + ".25,\"pickupLocation\":{\"latitude\":40."
+                + (7000 + i % 997) + ",\"longitude\":-73." + (9000 + i % 883) + ",\"city\":\"New York\"}}";
+    }
+}
@@ -0,0 +1,91 @@
+package com.uber.api.shared.idempotency;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotentConsumerTest {
+
+    private static final String CONSUMER = "payment-request";
+
+    private final ProcessedEventRepository repository = mock(ProcessedEventRepository.class);
+
+    @BeforeEach
+    void startTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void endTransaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void bloomNegativeClaimsWithoutExistenceCheck() {
+        IdempotentConsumer consumer = new IdempotentConsumer(repository, 1_000_000, 0.01, 100, 7);
+
+        assertThat(consumer.tryAcquire(CONSUMER, UUID.randomUUID())).isTrue();
+
+        verify(repository, never()).existsById(any());
+        verify(repository).save(any(ProcessedEvent.class));
+        assertThat(consumer.getBloomNegatives()).isEqualTo(1);
+    }
+
+    @Test
+    void bloomFalsePositiveStillClaimsUnseenEvent() {
+        // 64 bits for one expected event: a few claims set every bit, so any new key is a false positive
+        IdempotentConsumer consumer = new IdempotentConsumer(repository, 1, 0.5, 100, 7);
+        for (int i = 0; i < 50; i++) {
+            consumer.tryAcquire(CONSUMER, UUID.randomUUID());
+        }
+        long checksBefore = consumer.getDatabaseChecks();
+        when(repository.existsById(any())).thenReturn(false);
+
+        UUID unseen = UUID.randomUUID();
+        assertThat(consumer.tryAcquire(CONSUMER, unseen)).isTrue();
+
+        assertThat(consumer.getDatabaseChecks()).isEqualTo(checksBefore + 1);
+        verify(repository).existsById(new ProcessedEventId(CONSUMER, unseen.toString()));
+        verify(repository, times(51)).save(any(ProcessedEvent.class));
+    }
+
+    @Test
+    void bloomHitOnProcessedEventIsSkipped() {
+        IdempotentConsumer consumer = new IdempotentConsumer(repository, 1_000_000, 0.01, 100, 7);
+        UUID eventId = UUID.randomUUID();
+        assertThat(consumer.tryAcquire(CONSUMER, eventId)).isTrue();
+        // Rolled back: the filter holds the key but the LRU does not
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        when(repository.existsById(new ProcessedEventId(CONSUMER, eventId.toString()))).thenReturn(true);
+
+        assertThat(consumer.tryAcquire(CONSUMER, eventId)).isFalse();
+
+        verify(repository, times(1)).save(any(ProcessedEvent.class));
+    }
+
+    @Test
+    void committedClaimIsAnsweredFromLru() {
+        IdempotentConsumer consumer = new IdempotentConsumer(repository, 1_000_000, 0.01, 100, 7);
+        UUID eventId = UUID.randomUUID();
+        assertThat(consumer.tryAcquire(CONSUMER, eventId)).isTrue();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(consumer.tryAcquire(CONSUMER, eventId)).isFalse();
+
+        assertThat(consumer.getLruHits()).isEqualTo(1);
+        verify(repository, never()).existsById(any());
+    }
+}
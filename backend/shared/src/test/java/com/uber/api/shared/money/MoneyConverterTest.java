@@ -0,0 +1,34 @@
+package com.uber.api.shared.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoneyConverterTest {
+
+    private final MoneyConverter converter = new MoneyConverter();
+
+    @Test
+    void roundTripsThroughNumericColumn() {
+        Money fare = Money.ofMinor(1_250);
+
+        BigDecimal column = converter.convertToDatabaseColumn(fare);
+
+        assertThat(column).isEqualTo(new BigDecimal("12.50"));
+        assertThat(converter.convertToEntityAttribute(column)).isEqualTo(fare);
+    }
+
+    @Test
+    void columnWithExtraScaleIsRoundedOnRead() {
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("12.5050"))).isEqualTo(Money.ofMinor(1_251));
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("-3.333"))).isEqualTo(Money.ofMinor(-333));
+    }
+
+    @Test
+    void nullStaysNull() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+}
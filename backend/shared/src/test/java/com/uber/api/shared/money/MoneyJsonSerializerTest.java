@@ -0,0 +1,49 @@
+package com.uber.api.shared.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyJsonSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void defaultCurrencyIsWrittenAsPlainNumber() throws Exception {
+        assertThat(objectMapper.writeValueAsString(Money.ofMinor(1_250))).isEqualTo("12.50");
+        assertThat(objectMapper.writeValueAsString(Money.ofMinor(-5))).isEqualTo("-0.05");
+        assertThat(objectMapper.writeValueAsString(Money.ofMinor(100_000_000_000L))).isEqualTo("1000000000.00");
+    }
+
+    @Test
+    void otherCurrencyIsWrittenWithItsCode() throws Exception {
+        assertThat(objectMapper.writeValueAsString(Money.ofMinor(1_250, "EUR")))
+                .isEqualTo("{\"amount\":12.50,\"currency\":\"EUR\"}");
+    }
+
+    @Test
+    void readsNumbersStringsAndObjects() throws Exception {
+        assertThat(objectMapper.readValue("12.5", Money.class)).isEqualTo(Money.ofMinor(1_250));
+        assertThat(objectMapper.readValue("12", Money.class)).isEqualTo(Money.ofMinor(1_200));
+        assertThat(objectMapper.readValue("12.345", Money.class)).isEqualTo(Money.ofMinor(1_235));
+        assertThat(objectMapper.readValue("\" 7.10 \"", Money.class)).isEqualTo(Money.ofMinor(710));
+        assertThat(objectMapper.readValue("{\"amount\":3,\"currency\":\"EUR\"}", Money.class))
+                .isEqualTo(Money.ofMinor(300, "EUR"));
+    }
+
+    @Test
+    void roundTripsEitherForm() throws Exception {
+        for (Money money : new Money[]{Money.ofMinor(-1_999), Money.ofMinor(42, "GBP"), Money.ofMinor(900, "JPY")}) {
+            assertThat(objectMapper.readValue(objectMapper.writeValueAsString(money), Money.class)).isEqualTo(money);
+        }
+    }
+
+    @Test
+    void objectWithoutAmountIsRejected() {
+        assertThatThrownBy(() -> objectMapper.readValue("{\"currency\":\"EUR\"}", Money.class))
+                .isInstanceOf(MismatchedInputException.class);
+    }
+}
@@ -0,0 +1,70 @@
+package com.uber.api.shared.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void bigDecimalBeyondTwoDigitsRoundsHalfUp() {
+        assertThat(Money.of(new BigDecimal("12.345")).getMinorUnits()).isEqualTo(1235);
+        assertThat(Money.of(new BigDecimal("12.3449")).getMinorUnits()).isEqualTo(1234);
+        assertThat(Money.of(new BigDecimal("0.005")).getMinorUnits()).isEqualTo(1);
+        assertThat(Money.of(new BigDecimal("7")).getMinorUnits()).isEqualTo(700);
+        assertThat(Money.of(new BigDecimal("1E+2")).getMinorUnits()).isEqualTo(10_000);
+    }
+
+    @Test
+    void negativeAmountsRoundAwayFromZeroAtTheHalf() {
+        assertThat(Money.of(new BigDecimal("-12.345")).getMinorUnits()).isEqualTo(-1235);
+        assertThat(Money.of(new BigDecimal("-0.004")).getMinorUnits()).isZero();
+        assertThat(Money.of(-0.005).getMinorUnits()).isEqualTo(-1);
+        assertThat(Money.ofMinor(-150).isNegative()).isTrue();
+        assertThat(Money.ofMinor(-150)).hasToString("-1.50 USD");
+    }
+
+    @Test
+    void doubleRoundsLikeItsDecimalForm() {
+        // 1.005 * 100 is 100.49999999999999 in binary floating point
+        assertThat(Money.of(1.005).getMinorUnits()).isEqualTo(101);
+        assertThat(Money.of(0.1 + 0.2).getMinorUnits()).isEqualTo(30);
+        assertThat(Money.of(10_000)).isEqualTo(Money.ofMinor(1_000_000));
+    }
+
+    @Test
+    void currencyWithoutMinorUnitsRoundsToWholeUnits() {
+        Money yen = Money.of(new BigDecimal("1234.5"), "JPY");
+
+        assertThat(yen.getMinorUnits()).isEqualTo(1235);
+        assertThat(yen.toBigDecimal()).isEqualByComparingTo("1235");
+        assertThat(Money.ofMinor(500, "USD")).isEqualTo(Money.ofMinor(500));
+    }
+
+    @Test
+    void arithmeticIsExact() {
+        Money fare = Money.of(new BigDecimal("19.99"));
+
+        assertThat(fare.plus(Money.ofMinor(1)).toBigDecimal()).isEqualTo(new BigDecimal("20.00"));
+        assertThat(fare.minus(Money.ofMinor(2_000))).isEqualTo(Money.ofMinor(-1));
+        assertThat(fare.times(1.5)).isEqualTo(Money.ofMinor(2_999));
+        assertThat(fare.isGreaterThanOrEqual(Money.ofMinor(1_999))).isTrue();
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void mixedCurrenciesAreRejected() {
+        Money dollars = Money.ofMinor(1_000);
+        Money euros = Money.ofMinor(1_000, "EUR");
+
+        assertThat(dollars).isNotEqualTo(euros);
+        assertThatThrownBy(() -> dollars.plus(euros)).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Currency mismatch");
+        assertThatThrownBy(() -> dollars.minus(euros)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> dollars.compareTo(euros)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
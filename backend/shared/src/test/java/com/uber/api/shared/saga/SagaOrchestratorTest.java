@@ -0,0 +1,91 @@
+package com.uber.api.shared.saga;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SagaOrchestratorTest {
+
+    enum State { STARTED, RUNNING, DONE }
+
+    private static final SagaDefinition<State> DEFINITION = SagaDefinition.builder("test", State.class, State.STARTED)
+            .allow(State.STARTED, State.RUNNING, State.DONE)
+            .allow(State.RUNNING, State.DONE)
+            .build();
+
+    private final SagaInstanceRepository repository = mock(SagaInstanceRepository.class);
+    private final SagaOrchestrator<State> orchestrator = new SagaOrchestrator<>(DEFINITION, repository);
+    private final UUID sagaId = UUID.randomUUID();
+    private final UUID rideRequestId = UUID.randomUUID();
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lateCommitOfOlderVersionDoesNotReviveFinishedSaga() {
+        when(repository.insert(eq(sagaId), anyString(), eq(rideRequestId), anyString())).thenReturn(1);
+        orchestrator.start(sagaId, rideRequestId);
+
+        // First transaction moves to RUNNING but has not run its afterCommit yet
+        TransactionSynchronizationManager.initSynchronization();
+        when(repository.transition(sagaId, 0, "RUNNING")).thenReturn(1);
+        assertThat(orchestrator.transition(rideRequestId, State.RUNNING)).isTrue();
+        List<TransactionSynchronization> firstCommit = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Second one still sees version 0 in memory, reloads version 1 and finishes the saga
+        when(repository.transition(sagaId, 0, "DONE")).thenReturn(0);
+        when(repository.findBySagaTypeAndRideRequestId("test", rideRequestId))
+                .thenReturn(Optional.of(instance(State.RUNNING, 1)));
+        when(repository.transition(sagaId, 1, "DONE")).thenReturn(1);
+        assertThat(orchestrator.transition(rideRequestId, State.DONE)).isTrue();
+        assertThat(orchestrator.activeCount()).isZero();
+
+        firstCommit.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(orchestrator.activeCount()).isZero();
+        when(repository.findBySagaTypeAndRideRequestId("test", rideRequestId))
+                .thenReturn(Optional.of(instance(State.DONE, 2)));
+        assertThat(orchestrator.currentState(rideRequestId)).contains(State.DONE);
+    }
+
+    @Test
+    void refusedAndConflictingTransitionsReturnFalse() {
+        when(repository.insert(any(), anyString(), any(), anyString())).thenReturn(1);
+        orchestrator.start(sagaId, rideRequestId);
+
+        assertThat(orchestrator.transition(rideRequestId, State.STARTED)).isFalse();
+        when(repository.transition(any(), anyInt(), anyString())).thenReturn(0);
+        when(repository.findBySagaTypeAndRideRequestId("test", rideRequestId))
+                .thenReturn(Optional.of(instance(State.STARTED, 1)));
+        assertThat(orchestrator.transition(rideRequestId, State.RUNNING)).isFalse();
+        assertThat(orchestrator.transition(UUID.randomUUID(), State.RUNNING)).isFalse();
+    }
+
+    private SagaInstance instance(State state, int version) {
+        return SagaInstance.builder()
+                .sagaId(sagaId)
+                .sagaType("test")
+                .rideRequestId(rideRequestId)
+                .state(state.name())
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.uber.api.shared.timer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+
+    private final List<String> expired = new ArrayList<>();
+    // Four buckets per level: level 0 spans 40 ms, level 1 160 ms, level 2 640 ms
+    private final TimingWheel<String> wheel = new TimingWheel<>("test", TICK, 4, expired::add);
+    private long base;
+
+    @BeforeEach
+    void alignClock() {
+        base = System.currentTimeMillis() / TICK * TICK + 100 * TICK;
+        assertThat(wheel.advanceTo(base)).isEmpty();
+    }
+
+    @Test
+    void cancelledKeyNeverFires() {
+        wheel.schedule("ride", base + 5 * TICK);
+
+        assertThat(wheel.cancel("ride")).isTrue();
+        assertThat(wheel.cancel("ride")).isFalse();
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.advanceTo(base + 1000 * TICK)).isEmpty();
+    }
+
+    @Test
+    void cancelledFarKeyIsDroppedWhenCascaded() {
+        wheel.schedule("ride", base + 50 * TICK);
+        wheel.cancel("ride");
+
+        assertThat(sweep(base + 60 * TICK)).isEmpty();
+    }
+
+    @Test
+    void farDeadlineCascadesDownAndFiresWithinOneTick() {
+        // Beyond level 1, so it is cascaded twice before reaching level 0
+        long deadline = base + 45 * TICK + 3;
+        wheel.schedule("ride", deadline);
+
+        List<Long> firedAt = new ArrayList<>();
+        for (long now = base + TICK; now <= deadline + 2 * TICK; now += TICK) {
+            if (wheel.advanceTo(now).contains("ride")) {
+                firedAt.add(now);
+            }
+        }
+
+        assertThat(firedAt).hasSize(1);
+        assertThat(firedAt.get(0)).isGreaterThan(deadline).isLessThanOrEqualTo(deadline + TICK);
+    }
+
+    @Test
+    void sweepReturnsDueKeysInDeadlineOrder() {
+        wheel.schedule("late", base + 30 * TICK);
+        wheel.schedule("early", base + 2 * TICK);
+        wheel.schedule("middle", base + 9 * TICK);
+        wheel.schedule("pending", base + 500 * TICK);
+
+        assertThat(wheel.advanceTo(base + 31 * TICK)).containsExactly("early", "middle", "late");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void reschedulingReplacesTheDeadline() {
+        wheel.schedule("ride", base + 2 * TICK);
+        wheel.schedule("ride", base + 20 * TICK);
+
+        assertThat(wheel.advanceTo(base + 10 * TICK)).isEmpty();
+        assertThat(wheel.advanceTo(base + 21 * TICK)).containsExactly("ride");
+    }
+
+    @Test
+    void pastDeadlineExpiresImmediately() {
+        wheel.schedule("ride", base - TICK);
+
+        assertThat(expired).containsExactly("ride");
+        assertThat(wheel.size()).isZero();
+    }
+
+    private List<String> sweep(long until) {
+        List<String> due = new ArrayList<>();
+        for (long now = base + TICK; now <= until; now += TICK) {
+            due.addAll(wheel.advanceTo(now));
+        }
+        return due;
+    }
+}
@@ -0,0 +1,54 @@
+package com.uber.api.shared.transport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class InMemoryEventTransportTest {
+
+    private final InMemoryEventTransport transport = new InMemoryEventTransport(4, 2);
+
+    @AfterEach
+    void stop() {
+        transport.stop();
+    }
+
+    @Test
+    void everyGroupSeesEveryEventInOrder() {
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+        transport.subscribe("first", "rides", (payload, headers) -> first.add(payload));
+        transport.subscribe("second", "rides", (payload, headers) -> second.add(payload));
+        transport.start();
+
+        List<String> sent = IntStream.range(0, 50).mapToObj(Integer::toString).toList();
+        sent.forEach(payload -> transport.send("rides", null, payload));
+
+        await().untilAsserted(() -> {
+            assertThat(first).containsExactlyElementsOf(sent);
+            assertThat(second).containsExactlyElementsOf(sent);
+        });
+    }
+
+    @Test
+    void listenerSendingIntoFullRingIsDeferredNotDropped() {
+        List<String> received = new CopyOnWriteArrayList<>();
+        // Ten sends from one handler call overrun a ring of four while the handler's own group holds it
+        transport.subscribe("relay", "requests", (payload, headers) ->
+                IntStream.range(0, 10).forEach(i -> transport.send("responses", null, payload + "-" + i)));
+        transport.subscribe("sink", "responses", (payload, headers) -> received.add(payload));
+        transport.start();
+
+        transport.send("requests", null, "ride");
+
+        await().untilAsserted(() -> assertThat(received)
+                .containsExactlyElementsOf(IntStream.range(0, 10).mapToObj(i -> "ride-" + i).toList()));
+        assertThat(transport.getDeferredCount()).isPositive();
+    }
+}
@@ -0,0 +1,57 @@
+package com.uber.api.simulator;
+
+import com.uber.api.shared.entities.Location;
+
+import java.util.SplittableRandom;
+
+/**
+ * Where rides start and end: a square around the city centre with a few demand clusters in its inner half.
+ * The clusters depend on the base seed only, so every replication plays out in the same city.
+ */
+class CityGeography {
+
+    private final SimulationSettings settings;
+    private final double[] hotspotLatitudes;
+    private final double[] hotspotLongitudes;
+
+    CityGeography(SimulationSettings settings) {
+        this.settings = settings;
+        SplittableRandom random = new SplittableRandom(settings.getSeed());
+        double inner = settings.getRadiusDegrees() / 2;
+        hotspotLatitudes = new double[settings.getHotspots()];
+        hotspotLongitudes = new double[settings.getHotspots()];
+        for (int i = 0; i < settings.getHotspots(); i++) {
+            hotspotLatitudes[i] = settings.getCenterLatitude() + random.nextDouble(-inner, inner);
+            hotspotLongitudes[i] = settings.getCenterLongitude() + random.nextDouble(-inner, inner);
+        }
+    }
+
+    Location sample(SplittableRandom random) {
+        double latitude;
+        double longitude;
+        if (hotspotLatitudes.length > 0 && random.nextDouble() < settings.getHotspotShare()) {
+            int hotspot = random.nextInt(hotspotLatitudes.length);
+            latitude = hotspotLatitudes[hotspot] + gaussian(random) * settings.getHotspotSigmaDegrees();
+            longitude = hotspotLongitudes[hotspot] + gaussian(random) * settings.getHotspotSigmaDegrees();
+        } else {
+            latitude = settings.getCenterLatitude()
+                    + random.nextDouble(-settings.getRadiusDegrees(), settings.getRadiusDegrees());
+            longitude = settings.getCenterLongitude()
+                    + random.nextDouble(-settings.getRadiusDegrees(), settings.getRadiusDegrees());
+        }
+        return Location.builder()
+                .latitude(clamp(latitude, settings.getCenterLatitude()))
+                .longitude(clamp(longitude, settings.getCenterLongitude()))
+                .city(settings.getCity())
+                .build();
+    }
+
+    private double clamp(double value, double center) {
+        return Math.max(center - settings.getRadiusDegrees(), Math.min(center + settings.getRadiusDegrees(), value));
+    }
+
+    // SplittableRandom has no nextGaussian on Java 17
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
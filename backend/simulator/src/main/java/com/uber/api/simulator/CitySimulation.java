@@ -0,0 +1,145 @@
+package com.uber.api.simulator;
+
+import com.uber.api.driver.service.entity.Driver;
+import com.uber.api.shared.constants.DriverStatus;
+import com.uber.api.shared.entities.Location;
+import com.uber.api.simulator.dispatch.DispatchPolicy;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One policy over one scenario on a simulated clock. Time jumps from event to event: the next ride request
+ * from the demand stream, the next driver finishing a trip, or the next batch window. Ties resolve in that
+ * order and then by scheduling order, so a run depends only on its scenario and policy.
+ *
+ * A matched driver drives to the pickup and on to the dropoff in straight lines stretched by the detour
+ * factor, at a constant speed, and becomes available again where the trip ended.
+ */
+class CitySimulation {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final SimulationSettings settings;
+    private final Scenario scenario;
+    private final DispatchPolicy policy;
+    private final long patienceMillis;
+
+    private final List<RideRequest> waiting = new ArrayList<>();
+    private final PriorityQueue<Dropoff> dropoffs = new PriorityQueue<>(
+            Comparator.comparingLong(Dropoff::atMillis).thenComparingLong(Dropoff::sequence));
+    private final RunStatistics statistics = new RunStatistics();
+    private boolean[] matched;
+    private long sequence;
+
+    CitySimulation(SimulationSettings settings, Scenario scenario, DispatchPolicy policy) {
+        this.settings = settings;
+        this.scenario = scenario;
+        this.policy = policy;
+        this.patienceMillis = TimeUnit.SECONDS.toMillis(settings.getPatienceSeconds());
+    }
+
+    RunStatistics run() {
+        long wallStart = System.nanoTime();
+        List<RideRequest> demand = scenario.demand();
+        List<Driver> fleet = scenario.newFleet();
+        matched = new boolean[demand.size()];
+        fleet.forEach(policy::driverAvailable);
+
+        long window = policy.batchWindowMillis();
+        long nextTick = window > 0 ? window : Long.MAX_VALUE;
+        int next = 0;
+        while (true) {
+            long nextRequest = next < demand.size() ? demand.get(next).requestedAtMillis() : Long.MAX_VALUE;
+            long nextDropoff = dropoffs.isEmpty() ? Long.MAX_VALUE : dropoffs.peek().atMillis();
+            long tick = next < demand.size() || !waiting.isEmpty() ? nextTick : Long.MAX_VALUE;
+            if (nextRequest == Long.MAX_VALUE && nextDropoff == Long.MAX_VALUE && tick == Long.MAX_VALUE) {
+                break;
+            }
+
+            if (nextDropoff <= nextRequest && nextDropoff <= tick) {
+                Dropoff dropoff = dropoffs.poll();
+                Driver driver = dropoff.driver();
+                driver.setCurrentLatitude(dropoff.location().getLatitude());
+                driver.setCurrentLongitude(dropoff.location().getLongitude());
+                driver.setStatus(DriverStatus.AVAILABLE);
+                policy.driverAvailable(driver);
+                if (window == 0 && !waiting.isEmpty()) {
+                    dispatch(nextDropoff);
+                }
+            } else if (nextRequest <= tick) {
+                waiting.add(demand.get(next++));
+                statistics.requests++;
+                if (window == 0) {
+                    dispatch(nextRequest);
+                }
+            } else {
+                nextTick += window;
+                dispatch(tick);
+            }
+        }
+
+        statistics.abandoned += waiting.size();
+        statistics.driverMillis = fleet.size() * scenario.spanMillis();
+        statistics.wallNanos = System.nanoTime() - wallStart;
+        return statistics;
+    }
+
+    private void dispatch(long now) {
+        // Riders who ran out of patience are gone before anyone looks for a driver
+        waiting.removeIf(ride -> {
+            boolean gaveUp = now - ride.requestedAtMillis() > patienceMillis;
+            if (gaveUp) {
+                statistics.abandoned++;
+            }
+            return gaveUp;
+        });
+        if (waiting.isEmpty()) {
+            return;
+        }
+
+        long cpuStart = THREADS.getCurrentThreadCpuTime();
+        List<DispatchPolicy.Match> matches = policy.dispatch(waiting);
+        long cpuNanos = THREADS.getCurrentThreadCpuTime() - cpuStart;
+        statistics.dispatchCalls++;
+        statistics.cpuNanos += cpuNanos;
+        if (matches.isEmpty()) {
+            return;
+        }
+        statistics.dispatchCpuNanos.recordValue(cpuNanos);
+
+        for (DispatchPolicy.Match match : matches) {
+            start(match.ride(), match.driver(), now);
+        }
+        waiting.removeIf(ride -> matched[ride.index()]);
+    }
+
+    private void start(RideRequest ride, Driver driver, long now) {
+        double pickupKm = driver.distanceToLocation(ride.pickup().getLatitude(), ride.pickup().getLongitude());
+        long pickupMillis = travelMillis(pickupKm);
+        long tripMillis = travelMillis(ride.pickup().distanceTo(ride.dropoff()));
+
+        driver.setStatus(DriverStatus.BUSY);
+        matched[ride.index()] = true;
+        dropoffs.add(new Dropoff(now + pickupMillis + tripMillis, sequence++, driver, ride.dropoff()));
+
+        statistics.assigned++;
+        statistics.pickupMeters.recordValue(Math.round(pickupKm * 1_000));
+        statistics.waitMillis.recordValue(now - ride.requestedAtMillis() + pickupMillis);
+        statistics.busyDriverMillis += pickupMillis + tripMillis;
+        statistics.fingerprint = 31 * statistics.fingerprint + 1_000_003L * ride.index() + driver.getEmail().hashCode();
+    }
+
+    private long travelMillis(double straightLineKm) {
+        return Math.round(straightLineKm * settings.getDetourFactor() / settings.getSpeedKmh()
+                * TimeUnit.HOURS.toMillis(1));
+    }
+
+    private record Dropoff(long atMillis, long sequence, Driver driver, Location location) {
+    }
+}
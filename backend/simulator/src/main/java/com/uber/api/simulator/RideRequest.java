@@ -0,0 +1,9 @@
+package com.uber.api.simulator;
+
+import com.uber.api.shared.entities.Location;
+
+/**
+ * One ride of a demand stream; {@code index} is its position in the stream, in request order.
+ */
+public record RideRequest(int index, long requestedAtMillis, Location pickup, Location dropoff) {
+}
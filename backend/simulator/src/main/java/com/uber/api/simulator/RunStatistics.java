@@ -0,0 +1,65 @@
+package com.uber.api.simulator;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * What one run measured, kept as histograms so that replications pool into exact percentiles.
+ */
+class RunStatistics {
+
+    final Histogram pickupMeters = new Histogram(3);
+    final Histogram waitMillis = new Histogram(3);
+    final Histogram dispatchCpuNanos = new Histogram(3);
+    long requests;
+    long assigned;
+    long abandoned;
+    long dispatchCalls;
+    long cpuNanos;
+    long busyDriverMillis;
+    long driverMillis;
+    long wallNanos;
+    long fingerprint = 17;
+
+    void add(RunStatistics other) {
+        pickupMeters.add(other.pickupMeters);
+        waitMillis.add(other.waitMillis);
+        dispatchCpuNanos.add(other.dispatchCpuNanos);
+        requests += other.requests;
+        assigned += other.assigned;
+        abandoned += other.abandoned;
+        dispatchCalls += other.dispatchCalls;
+        cpuNanos += other.cpuNanos;
+        busyDriverMillis += other.busyDriverMillis;
+        driverMillis += other.driverMillis;
+        wallNanos += other.wallNanos;
+    }
+
+    SimulationResult toResult(String policy, Integer replication) {
+        return SimulationResult.builder()
+                .policy(policy)
+                .replication(replication)
+                .requests(requests)
+                .assigned(assigned)
+                .abandoned(abandoned)
+                .servedShare(requests == 0 ? 0 : (double) assigned / requests)
+                .pickupKm(distribution(pickupMeters, 1_000.0))
+                .waitSeconds(distribution(waitMillis, 1_000.0))
+                .cpuMicrosPerAssignment(assigned == 0 ? 0 : cpuNanos / 1_000.0 / assigned)
+                .dispatchCalls(dispatchCalls)
+                .dispatchCpuMicros(distribution(dispatchCpuNanos, 1_000.0))
+                .driverUtilization(driverMillis == 0 ? 0 : (double) busyDriverMillis / driverMillis)
+                .wallSeconds(wallNanos / 1e9)
+                .fingerprint(replication != null ? Long.toHexString(fingerprint) : null)
+                .build();
+    }
+
+    private static SimulationResult.Distribution distribution(Histogram histogram, double unit) {
+        return SimulationResult.Distribution.builder()
+                .mean(histogram.getMean() / unit)
+                .p50(histogram.getValueAtPercentile(50) / unit)
+                .p90(histogram.getValueAtPercentile(90) / unit)
+                .p99(histogram.getValueAtPercentile(99) / unit)
+                .max(histogram.getMaxValue() / unit)
+                .build();
+    }
+}
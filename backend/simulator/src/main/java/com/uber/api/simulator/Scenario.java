@@ -0,0 +1,163 @@
+package com.uber.api.simulator;
+
+import com.uber.api.driver.service.entity.Driver;
+import com.uber.api.shared.constants.DriverStatus;
+import com.uber.api.shared.entities.Location;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The demand stream and starting fleet of one replication. Every policy runs against the same scenario, so
+ * their results differ by the policy alone; the scenario itself is read-only and each run gets fresh drivers.
+ */
+class Scenario {
+
+    // Share of a weekday's rides requested in each hour, from midnight
+    private static final double[] HOURLY_PROFILE = {
+            1.5, 1.0, 0.7, 0.5, 0.5, 0.9, 2.0, 4.5, 6.5, 5.5, 4.5, 4.5,
+            5.0, 5.0, 4.8, 5.0, 5.8, 7.0, 7.5, 6.5, 5.2, 4.4, 3.8, 2.8
+    };
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final int replication;
+    private final List<RideRequest> demand;
+    private final long spanMillis;
+    private final double[] driverLatitudes;
+    private final double[] driverLongitudes;
+    private final String city;
+
+    private Scenario(int replication, List<RideRequest> demand, long spanMillis, double[] driverLatitudes,
+                     double[] driverLongitudes, String city) {
+        this.replication = replication;
+        this.demand = demand;
+        this.spanMillis = spanMillis;
+        this.driverLatitudes = driverLatitudes;
+        this.driverLongitudes = driverLongitudes;
+        this.city = city;
+    }
+
+    static Scenario synthetic(SimulationSettings settings, CityGeography geography, int replication) {
+        SplittableRandom random = new SplittableRandom(settings.getSeed() + replication);
+        SplittableRandom demandRandom = random.split();
+        SplittableRandom fleetRandom = random.split();
+
+        double profileTotal = 0;
+        for (double share : HOURLY_PROFILE) {
+            profileTotal += share;
+        }
+        List<RideRequest> demand = new ArrayList<>();
+        for (int hour = 0; hour < settings.getHours(); hour++) {
+            double share = HOURLY_PROFILE[(settings.getStartHour() + hour) % HOURLY_PROFILE.length] / profileTotal;
+            int rides = (int) Math.round(settings.getRidesPerDay() * share);
+            // A Poisson stream conditioned on its hourly count: uniform request times within the hour
+            long[] offsets = new long[rides];
+            for (int i = 0; i < rides; i++) {
+                offsets[i] = demandRandom.nextLong(HOUR_MILLIS);
+            }
+            Arrays.sort(offsets);
+            for (long offset : offsets) {
+                demand.add(new RideRequest(demand.size(), hour * HOUR_MILLIS + offset,
+                        geography.sample(demandRandom), geography.sample(demandRandom)));
+            }
+        }
+        return withFleet(settings, geography, replication, demand, settings.getHours() * HOUR_MILLIS, fleetRandom);
+    }
+
+    static Scenario recorded(SimulationSettings settings, CityGeography geography, int replication,
+                             List<RideRequest> trace) {
+        SplittableRandom fleetRandom = new SplittableRandom(settings.getSeed() + replication).split();
+        long last = trace.isEmpty() ? 0 : trace.get(trace.size() - 1).requestedAtMillis();
+        long spanMillis = (last / HOUR_MILLIS + 1) * HOUR_MILLIS;
+        return withFleet(settings, geography, replication, trace, spanMillis, fleetRandom);
+    }
+
+    /**
+     * Reads a recorded ride stream; a header line and blank lines are skipped and rides are replayed in
+     * request order.
+     */
+    static List<RideRequest> readTrace(Path file, String city) throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || !Character.isDigit(line.charAt(0))) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length < 5) {
+                    throw new IllegalArgumentException("Expected 5 columns in trace line: " + line);
+                }
+                double[] row = new double[5];
+                for (int i = 0; i < 5; i++) {
+                    row[i] = Double.parseDouble(fields[i].trim());
+                }
+                rows.add(row);
+            }
+        }
+        rows.sort(Comparator.comparingDouble(row -> row[0]));
+
+        List<RideRequest> trace = new ArrayList<>(rows.size());
+        for (double[] row : rows) {
+            trace.add(new RideRequest(trace.size(), Math.round(row[0] * 1000),
+                    location(row[1], row[2], city), location(row[3], row[4], city)));
+        }
+        return trace;
+    }
+
+    private static Scenario withFleet(SimulationSettings settings, CityGeography geography, int replication,
+                                      List<RideRequest> demand, long spanMillis, SplittableRandom fleetRandom) {
+        double[] latitudes = new double[settings.getDrivers()];
+        double[] longitudes = new double[settings.getDrivers()];
+        for (int i = 0; i < settings.getDrivers(); i++) {
+            Location start = geography.sample(fleetRandom);
+            latitudes[i] = start.getLatitude();
+            longitudes[i] = start.getLongitude();
+        }
+        return new Scenario(replication, List.copyOf(demand), spanMillis, latitudes, longitudes, settings.getCity());
+    }
+
+    private static Location location(double latitude, double longitude, String city) {
+        return Location.builder().latitude(latitude).longitude(longitude).city(city).build();
+    }
+
+    int replication() {
+        return replication;
+    }
+
+    List<RideRequest> demand() {
+        return demand;
+    }
+
+    long spanMillis() {
+        return spanMillis;
+    }
+
+    /**
+     * A fresh fleet at the scenario's starting positions, all available.
+     */
+    List<Driver> newFleet() {
+        List<Driver> fleet = new ArrayList<>(driverLatitudes.length);
+        for (int i = 0; i < driverLatitudes.length; i++) {
+            fleet.add(Driver.builder()
+                    .email("driver" + i + "@simulator.uber")
+                    .name("Simulated Driver " + i)
+                    .status(DriverStatus.AVAILABLE)
+                    .currentLatitude(driverLatitudes[i])
+                    .currentLongitude(driverLongitudes[i])
+                    .currentCity(city)
+                    .build());
+        }
+        return fleet;
+    }
+}
@@ -0,0 +1,22 @@
+package com.uber.api.simulator;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationReport {
+    private SimulationSettings settings;
+    private double simulatedHours;
+    private double wallSeconds;
+    // Per policy, pooled over its replications
+    private Map<String, SimulationResult> summary;
+    private List<SimulationResult> runs;
+}
@@ -0,0 +1,47 @@
+package com.uber.api.simulator;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationResult {
+    private String policy;
+    // Null when pooled over all replications
+    private Integer replication;
+    private long requests;
+    private long assigned;
+    // Riders who gave up after patience-seconds, or were still waiting at the end
+    private long abandoned;
+    private double servedShare;
+    // Straight-line distance from the driver to the pickup when matched
+    private Distribution pickupKm;
+    // From the request until the driver reaches the pickup
+    private Distribution waitSeconds;
+    // Thread CPU time spent in the policy, over the rides it assigned
+    private double cpuMicrosPerAssignment;
+    private long dispatchCalls;
+    // CPU time of each dispatch call that matched at least one ride
+    private Distribution dispatchCpuMicros;
+    // Share of driver time spent driving to pickups or on trips
+    private double driverUtilization;
+    private double wallSeconds;
+    // Hash of every ride-to-driver match in order; equal across runs of the same seed and policy
+    private String fingerprint;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Distribution {
+        private double mean;
+        private double p50;
+        private double p90;
+        private double p99;
+        private double max;
+    }
+}
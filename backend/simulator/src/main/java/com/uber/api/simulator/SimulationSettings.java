@@ -0,0 +1,98 @@
+package com.uber.api.simulator;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.core.env.PropertySource;
+
+/**
+ * Simulator options, given on the command line as {@code --name=value}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationSettings {
+
+    // Drivers online for the whole simulated span
+    private int drivers;
+    // Synthetic demand over a full day, spread over the hours by a weekday profile
+    private int ridesPerDay;
+    private int hours;
+    // Hour of the day the simulated span begins at
+    private int startHour;
+    // Independent runs per policy, each with its own demand stream and fleet placement
+    private int replications;
+    private int threads;
+    // Comma-separated: first-available, nearest, grid-nearest, batched
+    private String policies;
+    private long seed;
+    private String city;
+    private double centerLatitude;
+    private double centerLongitude;
+    // Half the side of the square, in degrees, that the city covers
+    private double radiusDegrees;
+    // Demand clusters; the rest of the rides start and end anywhere in the city
+    private int hotspots;
+    private double hotspotShare;
+    private double hotspotSigmaDegrees;
+    private double speedKmh;
+    // Road distance over straight-line distance
+    private double detourFactor;
+    // A rider still without a driver after this long gives up
+    private long patienceSeconds;
+    private long batchWindowSeconds;
+    // Nearest drivers considered per ride by the batched policy
+    private int batchCandidates;
+    private double gridCellDegrees;
+    // CSV of recorded rides to replay instead of synthetic demand:
+    // requested_at_seconds,pickup_lat,pickup_lng,dropoff_lat,dropoff_lng
+    private String trace;
+    private String reportFile;
+
+    public static SimulationSettings from(PropertySource<?> args) {
+        return SimulationSettings.builder()
+                .drivers(intOption(args, "drivers", 10_000))
+                .ridesPerDay(intOption(args, "rides-per-day", 300_000))
+                .hours(intOption(args, "hours", 24))
+                .startHour(intOption(args, "start-hour", 0))
+                .replications(intOption(args, "replications", 2))
+                .threads(intOption(args, "threads", Runtime.getRuntime().availableProcessors()))
+                .policies(option(args, "policies", "first-available,nearest,grid-nearest,batched"))
+                .seed(longOption(args, "seed", 42))
+                .city(option(args, "city", "New York"))
+                .centerLatitude(doubleOption(args, "center-latitude", 40.7128))
+                .centerLongitude(doubleOption(args, "center-longitude", -74.0060))
+                .radiusDegrees(doubleOption(args, "radius-degrees", 0.1))
+                .hotspots(intOption(args, "hotspots", 12))
+                .hotspotShare(doubleOption(args, "hotspot-share", 0.7))
+                .hotspotSigmaDegrees(doubleOption(args, "hotspot-sigma-degrees", 0.012))
+                .speedKmh(doubleOption(args, "speed-kmh", 25))
+                .detourFactor(doubleOption(args, "detour-factor", 1.3))
+                .patienceSeconds(longOption(args, "patience-seconds", 600))
+                .batchWindowSeconds(longOption(args, "batch-window-seconds", 10))
+                .batchCandidates(intOption(args, "batch-candidates", 8))
+                .gridCellDegrees(doubleOption(args, "grid-cell-degrees", 0.004))
+                .trace(option(args, "trace", null))
+                .reportFile(option(args, "report", "simulation-report.json"))
+                .build();
+    }
+
+    private static String option(PropertySource<?> args, String name, String defaultValue) {
+        Object value = args.getProperty(name);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    private static int intOption(PropertySource<?> args, String name, int defaultValue) {
+        return Integer.parseInt(option(args, name, Integer.toString(defaultValue)));
+    }
+
+    private static long longOption(PropertySource<?> args, String name, long defaultValue) {
+        return Long.parseLong(option(args, name, Long.toString(defaultValue)));
+    }
+
+    private static double doubleOption(PropertySource<?> args, String name, double defaultValue) {
+        return Double.parseDouble(option(args, name, Double.toString(defaultValue)));
+    }
+}
@@ -0,0 +1,115 @@
+package com.uber.api.simulator;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.uber.api.simulator.dispatch.DispatchPolicies;
+import com.uber.api.simulator.dispatch.DispatchPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a day of demand against each dispatch policy and reports pickup distance, rider wait and the CPU
+ * time spent deciding. Every replication and policy is an independent single-threaded run, spread over
+ * {@code threads}; results depend on the seed alone, never on the thread count or scheduling.
+ */
+@Slf4j
+public class SimulatorApplication {
+
+    public static void main(String[] args) throws Exception {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+        SimulationSettings settings = SimulationSettings.from(new SimpleCommandLinePropertySource(args));
+        log.info("Simulation settings: {}", settings);
+        List<String> policies = Arrays.stream(settings.getPolicies().split(",")).map(String::trim).toList();
+        // Fail on a bad name before any work starts
+        policies.forEach(name -> policy(settings, name));
+
+        long start = System.nanoTime();
+        CityGeography geography = new CityGeography(settings);
+        List<RideRequest> trace = settings.getTrace() != null
+                ? Scenario.readTrace(Path.of(settings.getTrace()), settings.getCity())
+                : null;
+
+        ExecutorService executor = Executors.newFixedThreadPool(settings.getThreads());
+        List<Future<RunStatistics>> runs = new ArrayList<>();
+        List<String> runPolicies = new ArrayList<>();
+        List<Integer> runReplications = new ArrayList<>();
+        long spanMillis = 0;
+        try {
+            for (int replication = 0; replication < settings.getReplications(); replication++) {
+                Scenario scenario = trace != null
+                        ? Scenario.recorded(settings, geography, replication, trace)
+                        : Scenario.synthetic(settings, geography, replication);
+                spanMillis = scenario.spanMillis();
+                log.info("Replication {}: {} rides over {} h", replication, scenario.demand().size(),
+                        TimeUnit.MILLISECONDS.toHours(spanMillis));
+                for (String name : policies) {
+                    runs.add(executor.submit(() ->
+                            new CitySimulation(settings, scenario, policy(settings, name)).run()));
+                    runPolicies.add(name);
+                    runReplications.add(replication);
+                }
+            }
+
+            List<SimulationResult> results = new ArrayList<>();
+            Map<String, RunStatistics> pooled = new LinkedHashMap<>();
+            for (int i = 0; i < runs.size(); i++) {
+                RunStatistics statistics = runs.get(i).get();
+                SimulationResult result = statistics.toResult(runPolicies.get(i), runReplications.get(i));
+                results.add(result);
+                pooled.computeIfAbsent(runPolicies.get(i), name -> new RunStatistics()).add(statistics);
+                log.info("Run {} #{} finished in {} s", result.getPolicy(), result.getReplication(),
+                        String.format("%.1f", result.getWallSeconds()));
+            }
+
+            Map<String, SimulationResult> summary = new LinkedHashMap<>();
+            pooled.forEach((name, statistics) -> {
+                SimulationResult result = statistics.toResult(name, null);
+                summary.put(name, result);
+                log.info("{}: served {}%, pickup {} km (p90 {}), wait {} s (p90 {}), {} us CPU per assignment, "
+                                + "utilization {}%",
+                        String.format("%-15s", name), String.format("%.1f", result.getServedShare() * 100),
+                        String.format("%.2f", result.getPickupKm().getMean()),
+                        String.format("%.2f", result.getPickupKm().getP90()),
+                        String.format("%.0f", result.getWaitSeconds().getMean()),
+                        String.format("%.0f", result.getWaitSeconds().getP90()),
+                        String.format("%.1f", result.getCpuMicrosPerAssignment()),
+                        String.format("%.1f", result.getDriverUtilization() * 100));
+            });
+
+            SimulationReport report = SimulationReport.builder()
+                    .settings(settings)
+                    .simulatedHours(spanMillis / (double) TimeUnit.HOURS.toMillis(1))
+                    .wallSeconds((System.nanoTime() - start) / 1e9)
+                    .summary(summary)
+                    .runs(results)
+                    .build();
+            File reportFile = new File(settings.getReportFile());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+            log.info("Simulated {} runs in {} s; report written to {}", results.size(),
+                    String.format("%.1f", report.getWallSeconds()), reportFile.getAbsolutePath());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DispatchPolicy policy(SimulationSettings settings, String name) {
+        return DispatchPolicies.create(name, settings.getGridCellDegrees(), settings.getBatchWindowSeconds(),
+                settings.getBatchCandidates());
+    }
+}
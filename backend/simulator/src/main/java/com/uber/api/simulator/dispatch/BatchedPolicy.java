@@ -0,0 +1,73 @@
+package com.uber.api.simulator.dispatch;
+
+import com.uber.api.driver.service.entity.Driver;
+import com.uber.api.simulator.RideRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Holds rides for a window, then matches the whole batch at once: the shortest pickups across all waiting
+ * rides go first, so a driver is not taken by an early ride when a later one sits next to it. Each ride
+ * only considers its {@code candidates} nearest drivers, which keeps a batch close to linear in its size.
+ */
+public class BatchedPolicy implements DispatchPolicy {
+
+    private final DriverGrid grid;
+    private final long windowMillis;
+    private final int candidates;
+
+    public BatchedPolicy(double cellDegrees, long windowMillis, int candidates) {
+        this.grid = new DriverGrid(cellDegrees);
+        this.windowMillis = windowMillis;
+        this.candidates = candidates;
+    }
+
+    @Override
+    public String name() {
+        return "batched";
+    }
+
+    @Override
+    public long batchWindowMillis() {
+        return windowMillis;
+    }
+
+    @Override
+    public void driverAvailable(Driver driver) {
+        grid.add(driver);
+    }
+
+    @Override
+    public List<Match> dispatch(List<RideRequest> waiting) {
+        List<Pair> pairs = new ArrayList<>();
+        for (RideRequest ride : waiting) {
+            for (DriverGrid.Nearby nearby : grid.nearest(ride.pickup().getLatitude(),
+                    ride.pickup().getLongitude(), candidates)) {
+                pairs.add(new Pair(ride, nearby.driver(), nearby.distanceKm()));
+            }
+        }
+        // Stable, so equal distances keep the older ride first
+        pairs.sort(Comparator.comparingDouble(Pair::distanceKm));
+
+        Set<RideRequest> matchedRides = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Driver> matchedDrivers = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Match> matches = new ArrayList<>();
+        for (Pair pair : pairs) {
+            if (!matchedRides.contains(pair.ride()) && !matchedDrivers.contains(pair.driver())) {
+                matchedRides.add(pair.ride());
+                matchedDrivers.add(pair.driver());
+                grid.remove(pair.driver());
+                matches.add(new Match(pair.ride(), pair.driver()));
+            }
+        }
+        return matches;
+    }
+
+    private record Pair(RideRequest ride, Driver driver, double distanceKm) {
+    }
+}
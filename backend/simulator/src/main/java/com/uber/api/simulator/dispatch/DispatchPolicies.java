@@ -0,0 +1,24 @@
+package com.uber.api.simulator.dispatch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds a fresh policy by name for each run.
+ */
+public final class DispatchPolicies {
+
+    private DispatchPolicies() {
+    }
+
+    public static DispatchPolicy create(String name, double gridCellDegrees, long batchWindowSeconds,
+                                        int batchCandidates) {
+        return switch (name) {
+            case "first-available" -> new FirstAvailablePolicy();
+            case "nearest" -> new NearestPolicy();
+            case "grid-nearest" -> new GridNearestPolicy(gridCellDegrees);
+            case "batched" -> new BatchedPolicy(gridCellDegrees, TimeUnit.SECONDS.toMillis(batchWindowSeconds),
+                    batchCandidates);
+            default -> throw new IllegalArgumentException("Unknown dispatch policy: " + name);
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.uber.api.simulator.dispatch;
+
+import com.uber.api.driver.service.entity.Driver;
+import com.uber.api.simulator.RideRequest;
+
+import java.util.List;
+
+/**
+ * Decides which available driver serves which waiting ride. A policy keeps its own view of the available
+ * drivers, so it can index them as it likes, and drops a driver from it when it hands the driver out.
+ * Policies are single-threaded and built fresh for each run.
+ */
+public interface DispatchPolicy {
+
+    String name();
+
+    /**
+     * How often the simulator dispatches; 0 dispatches whenever a ride arrives or a driver frees up.
+     */
+    default long batchWindowMillis() {
+        return 0;
+    }
+
+    void driverAvailable(Driver driver);
+
+    /**
+     * Matches waiting rides, listed oldest first, to available drivers. Rides left unmatched keep waiting.
+     */
+    List<Match> dispatch(List<RideRequest> waiting);
+
+    record Match(RideRequest ride, Driver driver) {
+    }
+}
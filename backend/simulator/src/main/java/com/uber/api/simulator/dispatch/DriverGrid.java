@@ -0,0 +1,134 @@
+package com.uber.api.simulator.dispatch;
+
+import com.uber.api.driver.service.entity.Driver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Available drivers bucketed into square cells of latitude and longitude, searched ring by ring outwards
+ * from the pickup's cell. The search stops once no cell further out can hold a nearer driver, so it finds
+ * the same nearest drivers as ranking them all, at the cost of a few cells instead of the whole fleet.
+ */
+class DriverGrid {
+
+    private static final double KM_PER_DEGREE = 111.195;
+    // Below this many drivers the rings would be mostly empty cells; checking every driver is cheaper
+    private static final int SCAN_ALL_BELOW = 256;
+
+    private final double cellDegrees;
+    private final Map<Long, List<Driver>> cells = new HashMap<>();
+    // Every driver in the grid, for the full scan; positions by identity, as Driver's equals compares every field
+    private final List<Driver> drivers = new ArrayList<>();
+    private final Map<Driver, Integer> positions = new IdentityHashMap<>();
+    private int minX = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE;
+    private int minY = Integer.MAX_VALUE;
+    private int maxY = Integer.MIN_VALUE;
+
+    DriverGrid(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    void add(Driver driver) {
+        int x = cell(driver.getCurrentLongitude());
+        int y = cell(driver.getCurrentLatitude());
+        cells.computeIfAbsent(key(x, y), k -> new ArrayList<>()).add(driver);
+        minX = Math.min(minX, x);
+        maxX = Math.max(maxX, x);
+        minY = Math.min(minY, y);
+        maxY = Math.max(maxY, y);
+        positions.put(driver, drivers.size());
+        drivers.add(driver);
+    }
+
+    void remove(Driver driver) {
+        Integer position = positions.remove(driver);
+        if (position == null) {
+            throw new IllegalStateException("Driver " + driver.getEmail() + " is not in the grid");
+        }
+        Driver last = drivers.remove(drivers.size() - 1);
+        if (last != driver) {
+            drivers.set(position, last);
+            positions.put(last, position);
+        }
+
+        List<Driver> cell = cells.get(key(cell(driver.getCurrentLongitude()), cell(driver.getCurrentLatitude())));
+        for (int i = 0; i < cell.size(); i++) {
+            if (cell.get(i) == driver) {
+                cell.set(i, cell.get(cell.size() - 1));
+                cell.remove(cell.size() - 1);
+                return;
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return drivers.isEmpty();
+    }
+
+    /**
+     * Up to {@code limit} available drivers nearest to the point, nearest first.
+     */
+    List<Nearby> nearest(double latitude, double longitude, int limit) {
+        List<Nearby> nearest = new ArrayList<>(limit + 1);
+        if (drivers.size() < SCAN_ALL_BELOW) {
+            for (Driver driver : drivers) {
+                offer(nearest, limit, new Nearby(driver, driver.distanceToLocation(latitude, longitude)));
+            }
+            return nearest;
+        }
+        int x = cell(longitude);
+        int y = cell(latitude);
+        int maxRing = Math.max(Math.max(x - minX, maxX - x), Math.max(y - minY, maxY - y));
+        // A cell r rings out is at least r - 1 whole cells away; its narrower side is the longitude one
+        double cellKm = cellDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(Math.min(89, Math.abs(latitude))));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (nearest.size() == limit && nearest.get(limit - 1).distanceKm() <= (ring - 1) * cellKm) {
+                break;
+            }
+            for (int dx = -ring; dx <= ring; dx++) {
+                // The top and bottom rows of the ring in full, only the end cells of the rows between
+                int step = dx == -ring || dx == ring ? 1 : Math.max(1, 2 * ring);
+                for (int dy = -ring; dy <= ring; dy += step) {
+                    List<Driver> cell = cells.get(key(x + dx, y + dy));
+                    if (cell != null) {
+                        for (Driver driver : cell) {
+                            offer(nearest, limit, new Nearby(driver, driver.distanceToLocation(latitude, longitude)));
+                        }
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private static void offer(List<Nearby> nearest, int limit, Nearby candidate) {
+        if (nearest.size() == limit && nearest.get(limit - 1).distanceKm() <= candidate.distanceKm()) {
+            return;
+        }
+        int at = nearest.size();
+        while (at > 0 && nearest.get(at - 1).distanceKm() > candidate.distanceKm()) {
+            at--;
+        }
+        nearest.add(at, candidate);
+        if (nearest.size() > limit) {
+            nearest.remove(limit);
+        }
+    }
+
+    private int cell(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    record Nearby(Driver driver, double distanceKm) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.uber.api.simulator.dispatch;
+
+import com.uber.api.driver.service.entity.Driver;
+import com.uber.api.simulator.RideRequest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The first available driver regardless of distance, as {@code processDriverAssignment} takes the head of
+ * {@code findByStatus(AVAILABLE)}. Drivers queue in the order they became available.
+ */
+public class FirstAvailablePolicy implements DispatchPolicy {
+
+    private final Deque<Driver> available = new ArrayDeque<>();
+
+    @Override
+    public String name() {
+        return "first-available";
+    }
+
+    @Override
+    public void driverAvailable(Driver driver) {
+        available.addLast(driver);
+    }
+
+    @Override
+    public List<Match> dispatch(List<RideRequest> waiting) {
+        List<Match> matches = new ArrayList<>();
+        for (RideRequest ride : waiting) {
+            if (available.isEmpty()) {
+                break;
+            }
+            matches.add(new Match(ride, available.pollFirst()));
+        }
+        return matches;
+    }
+}
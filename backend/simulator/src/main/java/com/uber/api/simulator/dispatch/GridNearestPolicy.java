@@ -0,0 +1,45 @@
+package com.uber.api.simulator.dispatch;
+
+import com.uber.api.driver.service.entity.Driver;
+import com.uber.api.simulator.RideRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The nearest available driver, one ride at a time like {@link NearestPolicy}, found through a
+ * {@link DriverGrid} instead of ranking the whole fleet.
+ */
+public class GridNearestPolicy implements DispatchPolicy {
+
+    private final DriverGrid grid;
+
+    public GridNearestPolicy(double cellDegrees) {
+        this.grid = new DriverGrid(cellDegrees);
+    }
+
+    @Override
+    public String name() {
+        return "grid-nearest";
+    }
+
+    @Override
+    public void driverAvailable(Driver driver) {
+        grid.add(driver);
+    }
+
+    @Override
+    public List<Match> dispatch(List<RideRequest> waiting) {
+        List<Match> matches = new ArrayList<>();
+        for (RideRequest ride : waiting) {
+            if (grid.isEmpty()) {
+                break;
+            }
+            Driver nearest = grid.nearest(ride.pickup().getLatitude(), ride.pickup().getLongitude(), 1)
+                    .get(0).driver();
+            grid.remove(nearest);
+            matches.add(new Match(ride, nearest));
+        }
+        return matches;
+    }
+}
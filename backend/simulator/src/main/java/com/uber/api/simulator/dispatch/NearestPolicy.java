@@ -0,0 +1,52 @@
+package com.uber.api.simulator.dispatch;
+
+import com.uber.api.driver.service.entity.Driver;
+import com.uber.api.driver.service.matching.DriverRanking;
+import com.uber.api.simulator.RideRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What {@code assignDriver} does today: rank every available driver by distance to the pickup with
+ * {@link DriverRanking} and take the first, one ride at a time in request order.
+ */
+public class NearestPolicy implements DispatchPolicy {
+
+    private final List<Driver> available = new ArrayList<>();
+
+    @Override
+    public String name() {
+        return "nearest";
+    }
+
+    @Override
+    public void driverAvailable(Driver driver) {
+        available.add(driver);
+    }
+
+    @Override
+    public List<Match> dispatch(List<RideRequest> waiting) {
+        List<Match> matches = new ArrayList<>();
+        for (RideRequest ride : waiting) {
+            if (available.isEmpty()) {
+                break;
+            }
+            Driver nearest = DriverRanking.nearestFirst(available,
+                    ride.pickup().getLatitude(), ride.pickup().getLongitude()).get(0);
+            remove(nearest);
+            matches.add(new Match(ride, nearest));
+        }
+        return matches;
+    }
+
+    // By identity: Driver's equals compares every field
+    private void remove(Driver driver) {
+        for (int i = 0; i < available.size(); i++) {
+            if (available.get(i) == driver) {
+                available.remove(i);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.uber.api.singlenode;
+
+import com.uber.api.customer.service.CustomerServiceApplication;
+import com.uber.api.driver.service.DriverServiceApplication;
+import com.uber.api.payment.service.PaymentServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Runs the three services as sibling application contexts in one JVM. The parent context owns the
+ * in-memory event bus, and each service context publishes and listens through it instead of Kafka.
+ *
+ * Each service context reads its own settings file (named by the service's CONFIG_NAME); only the bus and
+ * what has to differ between co-hosted contexts is set here.
+ */
+public class SingleNodeApplication {
+
+    public static void main(String[] args) {
+        start(args);
+    }
+
+    public static ConfigurableApplicationContext[] start(String... args) {
+        SpringApplicationBuilder parent = new SpringApplicationBuilder(SingleNodeConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("uber.transport.mode=in-memory");
+
+        SpringApplicationBuilder driver = parent.child(DriverServiceApplication.class)
+                .properties(serviceProperties(DriverServiceApplication.CONFIG_NAME, "driver-service", 4768));
+        ConfigurableApplicationContext driverContext = driver.run(args);
+
+        ConfigurableApplicationContext paymentContext = driver.sibling(PaymentServiceApplication.class)
+                .properties(serviceProperties(PaymentServiceApplication.CONFIG_NAME, "payment-service", 8182))
+                .run(args);
+
+        // Customer last: its relay starts publishing as soon as the context is up
+        ConfigurableApplicationContext customerContext = driver.sibling(CustomerServiceApplication.class)
+                .properties(serviceProperties(CustomerServiceApplication.CONFIG_NAME, "customer-service", 8181))
+                .run(args);
+
+        return new ConfigurableApplicationContext[]{driverContext, paymentContext, customerContext};
+    }
+
+    private static String[] serviceProperties(String configName, String name, int port) {
+        return new String[]{
+                "spring.config.name=" + configName,
+                "spring.application.name=" + name,
+                "server.port=" + port,
+                "uber.transport.mode=in-memory",
+                "spring.jmx.default-domain=" + name
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.uber.api.singlenode;
+
+import com.uber.api.shared.transport.InMemoryEventTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SingleNodeConfig {
+
+    // Shared by every service context; their EventTransportConfig backs off when it sees this bean
+    @Bean
+    public InMemoryEventTransport inMemoryEventTransport(
+            @Value("${uber.transport.ring-buffer-size:65536}") int ringBufferSize,
+            @Value("${uber.transport.batch-size:256}") int batchSize) {
+        return new InMemoryEventTransport(ringBufferSize, batchSize);
+    }
+}